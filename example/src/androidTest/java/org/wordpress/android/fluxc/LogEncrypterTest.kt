@@ -8,7 +8,9 @@ import org.json.JSONObject
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNotNull
 import org.junit.Before
+import org.junit.Rule
 import org.junit.Test
+import org.junit.rules.TemporaryFolder
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptedLoggingKey
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptedSecretStreamKey
 import org.wordpress.android.fluxc.model.encryptedlogging.EncryptionUtils
@@ -18,6 +20,8 @@ import java.util.UUID
 import kotlin.random.Random.Default.nextInt
 
 class LogEncrypterTest {
+    @get:Rule val tempFolder = TemporaryFolder()
+
     private lateinit var keypair: KeyPair
     private val logDecrypter: LogDecrypter = LogDecrypter()
 
@@ -89,8 +93,37 @@ class LogEncrypterTest {
         assertEquals(uuid, testUuid)
     }
 
+    @Test
+    fun testThatLogFilesCanBeDecrypted() {
+        val longLine = (0..10_000).joinToString(separator = "") { (it % 10).toString() }
+        val testLogString = "unix\nwindows\r\nclassic mac\rblank\n\n$longLine\nlast line\n"
+        assertEquals(
+                "unix\nwindows\nclassic mac\nblank\n\n$longLine\nlast line\n",
+                decryptContent(encryptFile(testLogString))
+        )
+    }
+
+    @Test
+    fun testThatLogFilesAreSplitLikeStringLines() {
+        listOf("", "\n", "\r", "\r\n", "\r\r\n\n", "no line break", "trailing\r").forEach { testLogString ->
+            val escapedLog = testLogString.replace("\r", "\\r").replace("\n", "\\n")
+            assertEquals(
+                    "The log `$escapedLog` must be split like `String.lines()`",
+                    testLogString.lines().joinToString(separator = "\n"),
+                    decryptContent(encryptFile(testLogString))
+            )
+        }
+    }
+
     // Helpers
 
+    private fun encryptFile(content: String, uuid: String = UUID.randomUUID().toString()): String {
+        val source = tempFolder.newFile().apply { writeText(content) }
+        val destination = tempFolder.newFile()
+        LogEncrypter(EncryptedLoggingKey(keypair.publicKey)).encrypt(source, destination, uuid)
+        return destination.readText()
+    }
+
     private fun encryptContent(content: String, uuid: String = UUID.randomUUID().toString()): String {
         return LogEncrypter(EncryptedLoggingKey(keypair.publicKey)).encrypt(content, uuid)
     }
@@ -1,6 +1,8 @@
 package org.wordpress.android.fluxc.mocked;
 
 import org.wordpress.android.fluxc.di.WCDatabaseModule;
+import org.wordpress.android.fluxc.di.WCMutationOutboxModule;
+import org.wordpress.android.fluxc.di.WCSubscriberIndexModule;
 import org.wordpress.android.fluxc.example.di.AppConfigModule;
 import org.wordpress.android.fluxc.module.AppContextModule;
 import org.wordpress.android.fluxc.module.MockedNetworkModule;
@@ -14,7 +16,9 @@ import dagger.Component;
         AppContextModule.class,
         AppConfigModule.class,
         MockedNetworkModule.class,
-        WCDatabaseModule.class
+        WCDatabaseModule.class,
+        WCSubscriberIndexModule.class,
+        WCMutationOutboxModule.class
 })
 public interface MockedNetworkAppComponent {
     void inject(MockedStack_AccountTest object);
@@ -8,6 +8,9 @@ import com.android.volley.toolbox.Volley;
 import org.wordpress.android.fluxc.module.MockedNetworkModule.MockedNetworkModuleBindings;
 import org.wordpress.android.fluxc.network.OkHttpStack;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -18,7 +21,7 @@ import kotlin.coroutines.CoroutineContext;
 import kotlinx.coroutines.Dispatchers;
 import okhttp3.OkHttpClient;
 
-@Module(includes = MockedNetworkModuleBindings.class)
+@Module(includes = {MockedNetworkModuleBindings.class, SubscriberIndexModule.class, MutationOutboxModule.class})
 public class MockedNetworkModule {
     @Module
     interface MockedNetworkModuleBindings {
@@ -39,6 +42,13 @@ public class MockedNetworkModule {
                 .build();
     }
 
+    @Singleton
+    @Named("dispatcher")
+    @Provides
+    public ExecutorService provideDispatcherExecutor() {
+        return Executors.newCachedThreadPool();
+    }
+
     @Singleton
     @Provides
     public RequestQueue provideRequestQueue(@Named("regular") OkHttpClient okHttpClient, Context appContext) {
@@ -0,0 +1,115 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.database.sqlite.SQLiteDatabase
+import android.os.SystemClock
+import androidx.test.platform.app.InstrumentationRegistry
+import androidx.test.runner.AndroidJUnit4
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.wordpress.android.fluxc.persistence.WellSqlConfig.Companion.MIN_MIGRATED_DB_VERSION
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.io.File
+
+/**
+ * Compares upgrading databases older than [MIN_MIGRATED_DB_VERSION] by replaying every migration with rebuilding them
+ * from the current schema. The timings are logged.
+ */
+@RunWith(AndroidJUnit4::class)
+class WellSqlConfigMigrationBenchmark {
+    private val context = InstrumentationRegistry.getInstrumentation().targetContext
+    private val config = WellSqlConfig(context)
+
+    @After
+    fun tearDown() {
+        listOf(OLD_DB_NAME, REPLAYED_DB_NAME, REBUILT_DB_NAME).forEach { context.deleteDatabase(it) }
+    }
+
+    @Test
+    fun testSmallDatabaseUpgrade() {
+        benchmarkUpgrade("small", sites = 1, postsPerSite = 100, mediaPerSite = 20)
+    }
+
+    @Test
+    fun testLargeDatabaseUpgrade() {
+        benchmarkUpgrade("large", sites = 20, postsPerSite = 1000, mediaPerSite = 200)
+    }
+
+    private fun benchmarkUpgrade(name: String, sites: Int, postsPerSite: Int, mediaPerSite: Int) {
+        val oldDb = createOldDatabase(sites, postsPerSite, mediaPerSite)
+        val replayedDb = oldDb.copyTo(context.getDatabasePath(REPLAYED_DB_NAME), overwrite = true)
+        val rebuiltDb = oldDb.copyTo(context.getDatabasePath(REBUILT_DB_NAME), overwrite = true)
+
+        val replayMs = measureUpgrade(replayedDb) { config.runMigrations(it, OLD_VERSION, config.dbVersion) }
+        val rebuildMs = measureUpgrade(rebuiltDb) { config.rebuildFromCurrentSchema(it) }
+
+        openDatabase(rebuiltDb).use { db ->
+            assertThat(count(db, "AccountModel")).isEqualTo(1)
+            assertThat(count(db, "SiteModel")).isEqualTo(sites)
+            // Every fifth post is a local draft, every tenth media is still queued
+            assertThat(count(db, "PostModel")).isEqualTo(sites * postsPerSite / 5)
+            assertThat(count(db, "MediaModel")).isEqualTo(sites * mediaPerSite / 10)
+        }
+        AppLog.i(T.TESTS, "Upgrading the $name database from version $OLD_VERSION: " +
+                "replaying migrations ${replayMs}ms, rebuilding ${rebuildMs}ms")
+    }
+
+    /**
+     * Creates a database at [OLD_VERSION] by replaying the migrations from the first version, and fills it.
+     */
+    private fun createOldDatabase(sites: Int, postsPerSite: Int, mediaPerSite: Int): File {
+        val file = context.getDatabasePath(OLD_DB_NAME)
+        context.deleteDatabase(OLD_DB_NAME)
+        SQLiteDatabase.openOrCreateDatabase(file, null).use { db ->
+            // Created by the first version of the schema and never recreated by a migration since
+            db.execSQL("CREATE TABLE CommentModel (_id INTEGER PRIMARY KEY AUTOINCREMENT)")
+            config.runMigrations(db, 1, OLD_VERSION - 1)
+
+            db.beginTransaction()
+            db.execSQL("INSERT INTO AccountModel (_id, USER_NAME) VALUES (1, 'user')")
+            for (site in 1..sites) {
+                db.execSQL("INSERT INTO SiteModel (_id, SITE_ID, URL, NAME) " +
+                        "VALUES ($site, ${site * 100}, 'https://site$site.example.com', 'Site $site')")
+                for (post in 1..postsPerSite) {
+                    val isLocalDraft = if (post % 5 == 0) 1 else 0
+                    db.execSQL("INSERT INTO PostModel (LOCAL_SITE_ID, TITLE, CONTENT, IS_LOCAL_DRAFT) " +
+                            "VALUES ($site, 'Post $post', '<p>Content of post $post</p>', $isLocalDraft)")
+                }
+                for (media in 1..mediaPerSite) {
+                    val uploadState = if (media % 10 == 0) "QUEUED" else "UPLOADED"
+                    db.execSQL("INSERT INTO MediaModel (LOCAL_SITE_ID, TITLE, UPLOAD_STATE) " +
+                            "VALUES ($site, 'Media $media', '$uploadState')")
+                }
+            }
+            db.setTransactionSuccessful()
+            db.endTransaction()
+            db.version = OLD_VERSION
+        }
+        return file
+    }
+
+    private fun measureUpgrade(file: File, upgrade: (SQLiteDatabase) -> Unit): Long {
+        return openDatabase(file).use { db ->
+            val start = SystemClock.elapsedRealtime()
+            upgrade(db)
+            SystemClock.elapsedRealtime() - start
+        }
+    }
+
+    private fun openDatabase(file: File) =
+            SQLiteDatabase.openDatabase(file.path, null, SQLiteDatabase.OPEN_READWRITE).apply {
+                setForeignKeyConstraintsEnabled(true)
+            }
+
+    private fun count(db: SQLiteDatabase, table: String) =
+            db.rawQuery("SELECT COUNT(*) FROM $table", null).use { it.moveToFirst(); it.getInt(0) }
+
+    companion object {
+        private const val OLD_VERSION = MIN_MIGRATED_DB_VERSION - 1
+        private const val OLD_DB_NAME = "migration-benchmark-old"
+        private const val REPLAYED_DB_NAME = "migration-benchmark-replayed"
+        private const val REBUILT_DB_NAME = "migration-benchmark-rebuilt"
+    }
+}
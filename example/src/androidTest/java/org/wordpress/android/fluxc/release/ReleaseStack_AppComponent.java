@@ -1,6 +1,9 @@
 package org.wordpress.android.fluxc.release;
 
 import org.wordpress.android.fluxc.di.WCDatabaseModule;
+import org.wordpress.android.fluxc.di.WCMutationOutboxModule;
+import org.wordpress.android.fluxc.di.WCStoreRegistryModule;
+import org.wordpress.android.fluxc.di.WCSubscriberIndexModule;
 import org.wordpress.android.fluxc.example.di.AppConfigModule;
 import org.wordpress.android.fluxc.module.AppContextModule;
 import org.wordpress.android.fluxc.module.DatabaseModule;
@@ -8,6 +11,7 @@ import org.wordpress.android.fluxc.module.MockedToolsModule;
 import org.wordpress.android.fluxc.module.ReleaseNetworkModule;
 import org.wordpress.android.fluxc.module.OkHttpClientModule;
 import org.wordpress.android.fluxc.module.ReleaseToolsModule;
+import org.wordpress.android.fluxc.module.StoreRegistryModule;
 
 import javax.inject.Singleton;
 
@@ -23,7 +27,11 @@ import dagger.Component;
         ReleaseToolsModule.class,
         MockedToolsModule.class,
         DatabaseModule.class,
-        WCDatabaseModule.class
+        WCDatabaseModule.class,
+        StoreRegistryModule.class,
+        WCStoreRegistryModule.class,
+        WCSubscriberIndexModule.class,
+        WCMutationOutboxModule.class
 })
 public interface ReleaseStack_AppComponent {
     void inject(ReleaseStack_AccountTest test);
@@ -74,4 +82,5 @@ public interface ReleaseStack_AppComponent {
     void inject(ReleaseStack_NoRedirectsTest test);
     void inject(ReleaseStack_WCPayTest test);
     void inject(ReleaseStack_WPApiPluginTest test);
+    void inject(ReleaseStack_StoreStartupBenchmark test);
 }
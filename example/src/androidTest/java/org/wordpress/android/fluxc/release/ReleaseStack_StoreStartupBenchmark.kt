@@ -0,0 +1,93 @@
+package org.wordpress.android.fluxc.release
+
+import android.os.Bundle
+import android.os.SystemClock
+import androidx.test.platform.app.InstrumentationRegistry
+import org.greenrobot.eventbus.Subscribe
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.wordpress.android.fluxc.StoreRegistry
+import org.wordpress.android.fluxc.TestUtils
+import org.wordpress.android.fluxc.action.AccountAction
+import org.wordpress.android.fluxc.action.SiteAction
+import org.wordpress.android.fluxc.action.WCOrderAction
+import org.wordpress.android.fluxc.generated.SiteActionBuilder
+import org.wordpress.android.fluxc.module.AppContextModule
+import org.wordpress.android.fluxc.store.SiteStore.OnAllSitesRemoved
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import javax.inject.Inject
+
+/**
+ * Compares the startup cost of building every store, like host apps injecting all of the stores on startup used to,
+ * with the startup cost of only injecting the [StoreRegistry]. The timings are logged, and reported as instrumentation
+ * results.
+ */
+class ReleaseStack_StoreStartupBenchmark : ReleaseStack_Base() {
+    @Inject lateinit var storeRegistry: StoreRegistry
+
+    @Test
+    fun testLazyStoreStartup() {
+        // Measured first, so that the eager startup pays for loading the store classes and scanning their subscribers
+        val coldLazyMs = measureStartup(buildAllStores = false)
+        assertTrue(storeRegistry.hasPendingStores(SiteAction::class.java))
+        assertTrue(storeRegistry.hasPendingStores(WCOrderAction::class.java))
+
+        val coldEagerMs = measureStartup(buildAllStores = true)
+        assertFalse(storeRegistry.hasPendingStores(SiteAction::class.java))
+        assertFalse(storeRegistry.hasPendingStores(WCOrderAction::class.java))
+
+        val warmLazyMs = (1..ITERATIONS).map { measureStartup(buildAllStores = false) }.sorted()[ITERATIONS / 2]
+        val warmEagerMs = (1..ITERATIONS).map { measureStartup(buildAllStores = true) }.sorted()[ITERATIONS / 2]
+
+        AppLog.i(T.TESTS, "Store startup, cold: lazy ${coldLazyMs}ms, eager ${coldEagerMs}ms")
+        AppLog.i(T.TESTS, "Store startup, warm median: lazy ${warmLazyMs}ms, eager ${warmEagerMs}ms")
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, Bundle().apply {
+            putLong("cold_lazy_startup_ms", coldLazyMs)
+            putLong("cold_eager_startup_ms", coldEagerMs)
+            putLong("warm_lazy_startup_ms", warmLazyMs)
+            putLong("warm_eager_startup_ms", warmEagerMs)
+        })
+        // The eager startup does everything the lazy one does, and builds every store on top of it
+        assertTrue("Lazy startup ${warmLazyMs}ms, eager ${warmEagerMs}ms", warmLazyMs <= warmEagerMs)
+    }
+
+    @Test
+    fun testDispatchBuildsTheStoresOfTheAction() {
+        measureStartup(buildAllStores = false)
+        mDispatcher.register(this)
+        mCountDownLatch = CountDownLatch(1)
+
+        mDispatcher.dispatch(SiteActionBuilder.newRemoveAllSitesAction())
+
+        assertTrue(mCountDownLatch.await(TestUtils.DEFAULT_TIMEOUT_MS.toLong(), TimeUnit.MILLISECONDS))
+        assertFalse(storeRegistry.hasPendingStores(SiteAction::class.java))
+        assertTrue(storeRegistry.hasPendingStores(AccountAction::class.java))
+        mDispatcher.unregister(this)
+    }
+
+    @Suppress("unused")
+    @Subscribe
+    fun onAllSitesRemoved(event: OnAllSitesRemoved) {
+        mCountDownLatch.countDown()
+    }
+
+    private fun measureStartup(buildAllStores: Boolean): Long {
+        val start = SystemClock.elapsedRealtime()
+        mReleaseStackAppComponent = DaggerReleaseStack_AppComponent.builder()
+                .appContextModule(AppContextModule(mAppContext))
+                .build()
+        mReleaseStackAppComponent.inject(this)
+        if (buildAllStores) {
+            storeRegistry.buildAllStores()
+        }
+        return SystemClock.elapsedRealtime() - start
+    }
+
+    companion object {
+        private const val ITERATIONS = 10
+    }
+}
@@ -7,8 +7,12 @@ import dagger.android.AndroidInjectionModule
 import org.wordpress.android.fluxc.module.DatabaseModule
 import org.wordpress.android.fluxc.module.OkHttpClientModule
 import org.wordpress.android.fluxc.module.ReleaseNetworkModule
+import org.wordpress.android.fluxc.module.StoreRegistryModule
 import javax.inject.Singleton
 import org.wordpress.android.fluxc.di.WCDatabaseModule
+import org.wordpress.android.fluxc.di.WCMutationOutboxModule
+import org.wordpress.android.fluxc.di.WCStoreRegistryModule
+import org.wordpress.android.fluxc.di.WCSubscriberIndexModule
 
 @Singleton
 @Component(modules = [
@@ -21,7 +25,11 @@ import org.wordpress.android.fluxc.di.WCDatabaseModule
         MainActivityModule::class,
         DatabaseModule::class,
         WCDatabaseModule::class,
-        WCOrderListActivityModule::class])
+        WCOrderListActivityModule::class,
+        StoreRegistryModule::class,
+        WCStoreRegistryModule::class,
+        WCSubscriberIndexModule::class,
+        WCMutationOutboxModule::class])
 interface AppComponentDebug : AppComponent {
     @Component.Builder
     interface Builder : AppComponent.Builder {
@@ -5,6 +5,7 @@ import com.yarolegovich.wellsql.WellSql
 import dagger.android.AndroidInjector
 import dagger.android.DispatchingAndroidInjector
 import dagger.android.HasAndroidInjector
+import org.wordpress.android.fluxc.StoreRegistry
 import org.wordpress.android.fluxc.example.di.AppComponent
 import org.wordpress.android.fluxc.example.di.DaggerAppComponent
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
@@ -12,6 +13,8 @@ import javax.inject.Inject
 
 open class ExampleApp : Application(), HasAndroidInjector {
     @Inject lateinit var androidInjector: DispatchingAndroidInjector<Any>
+    // Stores are built the first time one of their actions is dispatched, instead of being injected here
+    @Inject lateinit var storeRegistry: StoreRegistry
 
     protected open val component: AppComponent by lazy {
         DaggerAppComponent.builder()
@@ -6,10 +6,14 @@ import dagger.Component
 import dagger.android.AndroidInjectionModule
 import dagger.android.AndroidInjector
 import org.wordpress.android.fluxc.di.WCDatabaseModule
+import org.wordpress.android.fluxc.di.WCMutationOutboxModule
+import org.wordpress.android.fluxc.di.WCStoreRegistryModule
+import org.wordpress.android.fluxc.di.WCSubscriberIndexModule
 import org.wordpress.android.fluxc.example.ExampleApp
 import org.wordpress.android.fluxc.module.DatabaseModule
 import org.wordpress.android.fluxc.module.OkHttpClientModule
 import org.wordpress.android.fluxc.module.ReleaseNetworkModule
+import org.wordpress.android.fluxc.module.StoreRegistryModule
 import javax.inject.Singleton
 
 @Singleton
@@ -22,7 +26,11 @@ import javax.inject.Singleton
         MainActivityModule::class,
         WCOrderListActivityModule::class,
         WCDatabaseModule::class,
-        DatabaseModule::class])
+        DatabaseModule::class,
+        StoreRegistryModule::class,
+        WCStoreRegistryModule::class,
+        WCSubscriberIndexModule::class,
+        WCMutationOutboxModule::class])
 interface AppComponent : AndroidInjector<ExampleApp> {
     override fun inject(app: ExampleApp)
 
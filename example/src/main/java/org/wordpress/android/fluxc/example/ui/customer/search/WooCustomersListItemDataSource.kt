@@ -66,6 +66,17 @@ class WooCustomersListItemDataSource @Inject constructor(
         isListFullyFetched: Boolean
     ): List<Long> = remoteItemIds.map { it.value }
 
+    // Customers map one-to-one to the remote ids of the list, so pages are read straight from the remote ids
+    override fun supportsRemoteItemIdRanges(listDescriptor: WCCustomerListDescriptor) = true
+
+    override fun getItemsInRange(
+        listDescriptor: WCCustomerListDescriptor,
+        remoteItemIds: LongArray,
+        startPosition: Int,
+        endPosition: Int
+    ): List<CustomerListItemType> =
+            getItemsAndFetchIfNecessary(listDescriptor, remoteItemIds.copyOfRange(startPosition, endPosition).asList())
+
     override fun fetchList(listDescriptor: WCCustomerListDescriptor, offset: Long) {
         coroutineScope.launch {
             activity.prependToLog("Fetching customers with offset $offset")
@@ -2,6 +2,7 @@ package org.wordpress.android.fluxc.comments
 
 import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.anyOrNull
+import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.times
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
@@ -26,6 +27,8 @@ import org.wordpress.android.fluxc.network.common.comments.CommentsApiPayload
 import org.wordpress.android.fluxc.network.rest.wpcom.comment.CommentLikeWPComRestResponse
 import org.wordpress.android.fluxc.network.rest.wpcom.comment.CommentsRestClient
 import org.wordpress.android.fluxc.network.xmlrpc.comment.CommentsXMLRPCClient
+import org.wordpress.android.fluxc.outbox.MutationOutbox
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Companion.ENTITY_TYPE_COMMENT
 import org.wordpress.android.fluxc.persistence.comments.CommentEntityList
 import org.wordpress.android.fluxc.persistence.comments.CommentsDao
 import org.wordpress.android.fluxc.persistence.comments.CommentsDao.CommentEntity
@@ -48,6 +51,7 @@ class CommentsStoreTest {
     @Mock lateinit var dispatcher: Dispatcher
     @Mock lateinit var site: SiteModel
     @Mock lateinit var appLogWrapper: AppLogWrapper
+    @Mock lateinit var mutationOutbox: MutationOutbox
 
     private lateinit var commentsStore: CommentsStore
     private val commentError = CommentError(GENERIC_ERROR, "")
@@ -61,7 +65,8 @@ class CommentsStoreTest {
                 commentsMapper = mapper,
                 coroutineEngine = initCoroutineEngine(),
                 dispatcher = dispatcher,
-                appLogWrapper = appLogWrapper
+                appLogWrapper = appLogWrapper,
+                mutationOutbox = mutationOutbox
         )
         whenever(site.id).thenReturn(SITE_LOCAL_ID)
         whenever(site.isUsingWpComRestApi).thenReturn(true)
@@ -410,6 +415,34 @@ class CommentsStoreTest {
         assertThat(result.isError).isTrue
     }
 
+    @Test
+    fun `pushComment is queued while a push of the same comment is in flight`() = test {
+        val comment = getDefaultCommentList().first().copy(id = 220)
+        whenever(mutationOutbox.recordMutation(ENTITY_TYPE_COMMENT, site, 220)).thenReturn(true)
+
+        val result = commentsStore.pushComment(site, comment)
+
+        verify(restClient, never()).pushComment(any(), any())
+        assertThat(result.isError).isFalse
+        assertThat(result.isQueued).isTrue
+    }
+
+    @Test
+    fun `pushComment keeps the local edits made while the push was in flight`() = test {
+        val comment = getDefaultCommentList().first().copy(id = 220)
+        val editedComment = comment.copy(content = "edited while pushing")
+        whenever(restClient.pushComment(any(), any())).thenReturn(CommentsApiPayload(comment.copy(id = 0)))
+        whenever(mutationOutbox.hasNewerMutation(ENTITY_TYPE_COMMENT, site, 220)).thenReturn(true)
+        whenever(commentsDao.getCommentById(220)).thenReturn(listOf(editedComment))
+
+        val result = commentsStore.pushComment(site, comment)
+
+        verify(commentsDao, never()).insertOrUpdateCommentForResult(any())
+        verify(mutationOutbox).onMutationSucceeded(ENTITY_TYPE_COMMENT, site, 220)
+        assertThat(result.isQueued).isTrue
+        assertThat((result.data as CommentsActionData).comments.first()).isEqualTo(editedComment)
+    }
+
     @Test
     fun `deleteComment returns updated comment for WPCom`() = test {
         val comment = getDefaultCommentList().first()
@@ -81,4 +81,31 @@ public class WPComEndpointTest {
         assertEquals("https://public-api.wordpress.com/rest/v1.3/sites/", WPCOMREST.sites.getUrlV1_3());
         assertEquals("https://public-api.wordpress.com/is-available/email/", WPCOMREST.is_available.email.getUrlV0());
     }
+
+    @Test
+    public void testTemplatesBuildTheSameUrls() {
+        assertEquals(WPCOMREST.sites.site(56).stats.visits.getUrlV1_1(),
+                WPCOMREST.Templates.SITES_SITE_STATS_VISITS.urlV1_1(56));
+        assertEquals(WPCOMREST.sites.site(56).posts.slug("fluxc").getUrlV1_2(),
+                WPCOMREST.Templates.SITES_SITE_POSTS_SLUG.urlV1_2(56, "fluxc"));
+        assertEquals(WPCOMREST.sites.site(56).media.item(78).delete.getUrlV1_1(),
+                WPCOMREST.Templates.SITES_SITE_MEDIA_ITEM_DELETE.urlV1_1(56, 78));
+        assertEquals(WPCOMREST.sites.siteUrl("mysite.wordpress.com").getUrlV1_1(),
+                WPCOMREST.Templates.SITES_SITEURL.urlV1_1("mysite.wordpress.com"));
+        assertEquals("/sites/$site/posts/slug:$post_slug/",
+                WPCOMREST.Templates.SITES_SITE_POSTS_SLUG.getTemplate());
+    }
+
+    @Test
+    public void testTemplatesAreTypedByTheirVariables() {
+        // The number and types of the values are checked at compile time, e.g. urlV1_1() doesn't exist here
+        WPCOMREST.Templates.LongTemplate visits = WPCOMREST.Templates.SITES_SITE_STATS_VISITS;
+        WPCOMREST.Templates.LongStringTemplate postSlug = WPCOMREST.Templates.SITES_SITE_POSTS_SLUG;
+        WPCOMREST.Templates.StaticTemplate me = WPCOMREST.Templates.ME;
+
+        assertEquals("https://public-api.wordpress.com/rest/v1.1/sites/56/stats/visits/", visits.urlV1_1(56));
+        assertEquals("https://public-api.wordpress.com/rest/v1.2/sites/56/posts/slug:fluxc/",
+                postSlug.urlV1_2(56, "fluxc"));
+        assertEquals(WPCOMREST.me.getUrlV1_1(), me.urlV1_1());
+    }
 }
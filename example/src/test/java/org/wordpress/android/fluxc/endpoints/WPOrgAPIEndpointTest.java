@@ -20,4 +20,12 @@ public class WPOrgAPIEndpointTest {
         assertEquals("https://api.wordpress.org/plugins/info/1.1/",
                 WPORGAPI.plugins.info.version("1.1").getUrl());
     }
+
+    @Test
+    public void testTemplateUrls() {
+        assertEquals("https://api.wordpress.org/plugins/info/1.0/akismet.json",
+                WPORGAPI.Templates.PLUGINS_INFO_VERSION_SLUG.url("1.0", "akismet"));
+        assertEquals("https://api.wordpress.org/plugins/info/1.1/",
+                WPORGAPI.Templates.PLUGINS_INFO_VERSION.url("1.1"));
+    }
 }
@@ -81,12 +81,12 @@ internal class InternalPagedListDataSourceRangeTest(
 
     private fun createDataSource(): InternalPagedListDataSource<TestListDescriptor, Long, TestPagedListResultType> {
         val itemDataSource = mock<ListItemDataSourceInterface<TestListDescriptor, Long, TestPagedListResultType>>()
-        whenever(itemDataSource.getItemIdentifiers(any(), any(), eq(IS_LIST_FULLY_FETCHED))).thenReturn(
+        whenever(itemDataSource.getItemIdentifiers(any(), any<LongArray>(), eq(IS_LIST_FULLY_FETCHED))).thenReturn(
                 MOCKED_GET_ITEM_IDENTIFIERS_RESULT
         )
         return InternalPagedListDataSource(
                 listDescriptor = mock(),
-                remoteItemIds = mock(),
+                remoteItemIds = LongArray(MOCKED_GET_ITEM_IDENTIFIERS_RESULT.size),
                 isListFullyFetched = IS_LIST_FULLY_FETCHED,
                 itemDataSource = itemDataSource
         )
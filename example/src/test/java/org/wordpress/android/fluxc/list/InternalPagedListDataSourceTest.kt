@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.list
 import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.eq
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import org.junit.Before
@@ -18,13 +19,12 @@ private val testListDescriptor = TestListDescriptor()
 private val testStartAndEndPosition = Pair(5, 10)
 
 internal class InternalPagedListDataSourceTest {
-    private val remoteItemIds = mock<List<RemoteId>>()
+    private val remoteItemIds = LongArray(NUMBER_OF_ITEMS) { it.toLong() }
     private val mockIdentifiers = mock<List<TestListIdentifier>>()
     private val mockItemDataSource = mock<ListItemDataSourceInterface<TestListDescriptor, TestListIdentifier, String>>()
 
     @Before
     fun setup() {
-        whenever(remoteItemIds.size).thenReturn(NUMBER_OF_ITEMS)
         whenever(mockIdentifiers.size).thenReturn(NUMBER_OF_ITEMS)
         val mockSublist = mock<List<TestListIdentifier>>()
         whenever(mockIdentifiers.subList(any(), any())).thenReturn(mockSublist)
@@ -51,7 +51,7 @@ internal class InternalPagedListDataSourceTest {
     fun `init calls getItemIdentifiers`() {
         createInternalPagedListDataSource(mockItemDataSource)
 
-        verify(mockItemDataSource).getItemIdentifiers(eq(testListDescriptor), any(), any())
+        verify(mockItemDataSource).getItemIdentifiers(eq(testListDescriptor), any<LongArray>(), any())
     }
 
     @Test
@@ -83,6 +83,54 @@ internal class InternalPagedListDataSourceTest {
         verify(mockItemDataSource).getItemsAndFetchIfNecessary(eq(testListDescriptor), any())
     }
 
+    @Test
+    fun `total size uses the remote item ids' size if remote item id ranges are supported`() {
+        whenever(mockItemDataSource.supportsRemoteItemIdRanges(testListDescriptor)).thenReturn(true)
+
+        val internalDataSource = createInternalPagedListDataSource(mockItemDataSource)
+
+        assertEquals(NUMBER_OF_ITEMS, internalDataSource.totalSize)
+        verify(mockItemDataSource, never()).getItemIdentifiers(any(), any<LongArray>(), any())
+    }
+
+    @Test
+    fun `getItemsInRange propagates the remote item id range if remote item id ranges are supported`() {
+        whenever(mockItemDataSource.supportsRemoteItemIdRanges(testListDescriptor)).thenReturn(true)
+        val internalDataSource = createInternalPagedListDataSource(mockItemDataSource)
+
+        val (startPosition, endPosition) = testStartAndEndPosition
+        internalDataSource.getItemsInRange(startPosition, endPosition)
+
+        verify(mockItemDataSource).getItemsInRange(testListDescriptor, remoteItemIds, startPosition, endPosition)
+        verify(mockItemDataSource, never()).getItemsAndFetchIfNecessary(any(), any())
+    }
+
+    @Test
+    fun `getItemsInRange falls back to the item identifiers of the range by default`() {
+        val dataSource = object : TestListItemDataSource {
+            override fun getItemsAndFetchIfNecessary(
+                listDescriptor: TestListDescriptor,
+                itemIdentifiers: List<TestListIdentifier>
+            ) = itemIdentifiers.map { "item$it" }
+
+            override fun getItemIdentifiers(
+                listDescriptor: TestListDescriptor,
+                remoteItemIds: List<RemoteId>,
+                isListFullyFetched: Boolean
+            ) = remoteItemIds.map { it.value }
+
+            override fun fetchList(listDescriptor: TestListDescriptor, offset: Long) {}
+
+            override fun supportsRemoteItemIdRanges(listDescriptor: TestListDescriptor) = true
+        }
+        val internalDataSource = createInternalPagedListDataSource(dataSource)
+
+        val (startPosition, endPosition) = testStartAndEndPosition
+        val items = internalDataSource.getItemsInRange(startPosition, endPosition)
+
+        assertEquals((startPosition until endPosition).map { "item$it" }, items)
+    }
+
     private fun createInternalPagedListDataSource(
         dataSource: TestListItemDataSource
     ): TestInternalPagedListDataSource {
@@ -52,6 +52,16 @@ class ListItemSqlUtilsTest {
         assertEquals(count.toLong(), listItemSqlUtils.getListItemsCount(testList.id))
     }
 
+    @Test
+    fun testGetListItemRemoteIds() {
+        val testList = generateInsertAndAssertListItems(PostListDescriptorForRestSite(testSite()))
+        val otherList = generateInsertAndAssertListItems(PostListDescriptorForXmlRpcSite(testSite(112)), count = 5)
+
+        val expectedRemoteItemIds = listItemSqlUtils.getListItems(testList.id).map { it.remoteItemId }
+        assertEquals(expectedRemoteItemIds, listItemSqlUtils.getListItemRemoteIds(testList.id).toList())
+        assertEquals(5, listItemSqlUtils.getListItemRemoteIds(otherList.id).size)
+    }
+
     @Test
     fun testListIdForeignKeyCascadeDelete() {
         val listDescriptor = PostListDescriptorForRestSite(testSite())
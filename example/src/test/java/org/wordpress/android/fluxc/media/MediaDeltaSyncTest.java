@@ -0,0 +1,188 @@
+package org.wordpress.android.fluxc.media;
+
+import android.content.Context;
+
+import com.yarolegovich.wellsql.WellSql;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.generated.MediaActionBuilder;
+import org.wordpress.android.fluxc.model.MediaModel;
+import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.network.rest.wpcom.media.MediaRestClient;
+import org.wordpress.android.fluxc.network.xmlrpc.media.MediaXMLRPCClient;
+import org.wordpress.android.fluxc.persistence.MediaSqlUtils;
+import org.wordpress.android.fluxc.persistence.WellSqlConfig;
+import org.wordpress.android.fluxc.store.MediaStore;
+import org.wordpress.android.fluxc.store.MediaStore.FetchMediaListPayload;
+import org.wordpress.android.fluxc.store.MediaStore.FetchMediaListResponsePayload;
+import org.wordpress.android.fluxc.utils.MimeType.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class MediaDeltaSyncTest {
+    private static final int TEST_LOCAL_SITE_ID = 42;
+
+    private MediaRestClient mMediaRestClient = Mockito.mock(MediaRestClient.class);
+    private MediaStore mMediaStore = new MediaStore(new Dispatcher(), mMediaRestClient,
+            Mockito.mock(MediaXMLRPCClient.class));
+    private SiteModel mSite = new SiteModel();
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application.getApplicationContext();
+        WellSqlConfig config = new WellSqlConfig(context);
+        WellSql.init(config);
+        config.reset();
+
+        mSite.setId(TEST_LOCAL_SITE_ID);
+        mSite.setIsWPCom(true);
+        mSite.setOrigin(SiteModel.ORIGIN_WPCOM_REST);
+    }
+
+    @Test
+    public void testFirstSyncReplacesTheLibraryAndSetsTheWatermark() {
+        insertUploadedMedia(1, "2021-01-01T00:00:00+00:00");
+
+        onMediaListFetched(buildPayload(Arrays.asList(
+                buildMedia(3, "2021-03-01T00:00:00+00:00"),
+                buildMedia(2, "2021-02-01T00:00:00+00:00")), false, false, null));
+
+        assertNull(mMediaStore.getSiteMediaWithId(mSite, 1));
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 2));
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 3));
+        assertEquals("2021-03-01T00:00:00+00:00", MediaSqlUtils.getMediaSyncWatermark(mSite, ""));
+    }
+
+    @Test
+    public void testNextSyncOnlyFetchesTheMediaUploadedSinceTheWatermark() {
+        MediaSqlUtils.setMediaSyncWatermark(mSite, "", "2021-03-01T00:00:00+00:00");
+
+        mMediaStore.onAction(MediaActionBuilder.newFetchMediaListAction(buildFetchPayload(false)));
+
+        Mockito.verify(mMediaRestClient).fetchMediaList(mSite, MediaStore.DEFAULT_NUM_MEDIA_PER_FETCH, 0, null,
+                true, "2021-03-01T00:00:00+00:00");
+    }
+
+    @Test
+    public void testDeltaKeepsTheMediaOlderThanTheWatermark() {
+        insertUploadedMedia(1, "2021-01-01T00:00:00+00:00");
+        MediaModel existingMedia = insertUploadedMedia(2, "2021-02-01T00:00:00+00:00");
+        // Uploaded after the watermark, then deleted remotely
+        insertUploadedMedia(3, "2021-03-01T00:00:00+00:00");
+        MediaSqlUtils.setMediaSyncWatermark(mSite, "", "2021-02-01T00:00:00+00:00");
+
+        MediaModel updatedMedia = buildMedia(2, "2021-02-01T00:00:00+00:00");
+        updatedMedia.setTitle("Updated");
+        FetchMediaListResponsePayload payload = buildPayload(Arrays.asList(
+                buildMedia(4, "2021-04-01T00:00:00+00:00"), updatedMedia), false, false, "2021-02-01T00:00:00+00:00");
+        onMediaListFetched(payload);
+
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 1));
+        assertNull(mMediaStore.getSiteMediaWithId(mSite, 3));
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 4));
+        MediaModel mediaFromDb = mMediaStore.getSiteMediaWithId(mSite, 2);
+        assertEquals(existingMedia.getId(), mediaFromDb.getId());
+        assertEquals("Updated", mediaFromDb.getTitle());
+        assertEquals(3, mMediaStore.getSiteMediaCount(mSite));
+        assertEquals("2021-04-01T00:00:00+00:00", MediaSqlUtils.getMediaSyncWatermark(mSite, ""));
+        assertTrue(payload.canLoadMore);
+    }
+
+    @Test
+    public void testNextPageOnlyReconcilesTheMediaWithinItsDates() {
+        insertUploadedMedia(1, "2021-01-01T00:00:00+00:00");
+        insertUploadedMedia(2, "2021-02-01T00:00:00+00:00");
+        insertUploadedMedia(3, "2021-03-01T00:00:00+00:00");
+        insertUploadedMedia(4, "2021-04-01T00:00:00+00:00");
+        insertUploadedMedia(5, "2021-05-01T00:00:00+00:00");
+
+        // Media 3 was deleted remotely
+        onMediaListFetched(buildPayload(Arrays.asList(
+                buildMedia(4, "2021-04-01T00:00:00+00:00"),
+                buildMedia(2, "2021-02-01T00:00:00+00:00")), true, true, null));
+
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 1));
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 2));
+        assertNull(mMediaStore.getSiteMediaWithId(mSite, 3));
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 4));
+        assertNotNull(mMediaStore.getSiteMediaWithId(mSite, 5));
+    }
+
+    @Test
+    public void testFullFetchOfAMimeTypeOnlyResetsTheWatermarksCoveringIt() {
+        MediaSqlUtils.setMediaSyncWatermark(mSite, "", "2021-02-01T00:00:00+00:00");
+        MediaSqlUtils.setMediaSyncWatermark(mSite, Type.IMAGE.getValue(), "2021-02-01T00:00:00+00:00");
+        MediaSqlUtils.setMediaSyncWatermark(mSite, Type.VIDEO.getValue(), "2021-02-01T00:00:00+00:00");
+
+        FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(mSite,
+                Collections.singletonList(buildMedia(1, "2021-01-01T00:00:00+00:00")), false, false, Type.IMAGE);
+        onMediaListFetched(payload);
+
+        assertNull(MediaSqlUtils.getMediaSyncWatermark(mSite, ""));
+        assertNull(MediaSqlUtils.getMediaSyncWatermark(mSite, Type.IMAGE.getValue()));
+        assertEquals("2021-02-01T00:00:00+00:00", MediaSqlUtils.getMediaSyncWatermark(mSite, Type.VIDEO.getValue()));
+    }
+
+    @Test
+    public void testFullFetchResetsTheWatermarks() {
+        MediaSqlUtils.setMediaSyncWatermark(mSite, "", "2021-02-01T00:00:00+00:00");
+
+        FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(mSite,
+                Collections.singletonList(buildMedia(1, "2021-01-01T00:00:00+00:00")), false, false, null);
+        onMediaListFetched(payload);
+
+        assertNull(MediaSqlUtils.getMediaSyncWatermark(mSite, ""));
+    }
+
+    private FetchMediaListPayload buildFetchPayload(boolean loadMore) {
+        FetchMediaListPayload payload = new FetchMediaListPayload(mSite, MediaStore.DEFAULT_NUM_MEDIA_PER_FETCH,
+                loadMore);
+        payload.deltaSync = true;
+        return payload;
+    }
+
+    private FetchMediaListResponsePayload buildPayload(List<MediaModel> mediaList, boolean loadedMore,
+                                                       boolean canLoadMore, String uploadedAfter) {
+        FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(mSite, new ArrayList<>(mediaList),
+                loadedMore, canLoadMore, null);
+        payload.deltaSync = true;
+        payload.uploadedAfter = uploadedAfter;
+        return payload;
+    }
+
+    private void onMediaListFetched(FetchMediaListResponsePayload payload) {
+        mMediaStore.onAction(MediaActionBuilder.newFetchedMediaListAction(payload));
+    }
+
+    private MediaModel insertUploadedMedia(long mediaId, String uploadDate) {
+        MediaModel media = buildMedia(mediaId, uploadDate);
+        MediaSqlUtils.insertOrUpdateMedia(media);
+        return media;
+    }
+
+    private MediaModel buildMedia(long mediaId, String uploadDate) {
+        MediaModel media = new MediaModel();
+        media.setLocalSiteId(TEST_LOCAL_SITE_ID);
+        media.setMediaId(mediaId);
+        media.setUploadDate(uploadDate);
+        media.setMimeType("image/jpeg");
+        media.setUploadState(MediaUploadState.UPLOADED);
+        return media;
+    }
+}
@@ -0,0 +1,124 @@
+package org.wordpress.android.fluxc.network
+
+import com.android.volley.Network
+import com.android.volley.NetworkResponse
+import com.android.volley.NoConnectionError
+import com.android.volley.Request
+import com.android.volley.ServerError
+import com.android.volley.TimeoutError
+import com.android.volley.VolleyError
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.SiteHealthTracker.CircuitState
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class CircuitBreakerNetworkTest {
+    private val network = mock<Network>()
+    private val request = mock<Request<*>>()
+
+    @Test
+    fun testSiteKeys() {
+        whenever(request.url).thenReturn("https://example.com/xmlrpc.php")
+        assertEquals("example.com", SiteHealthTracker.getSiteKey(request))
+
+        whenever(request.url).thenReturn("https://public-api.wordpress.com/rest/v1.1/jetpack-blogs/123/rest-api/")
+        assertEquals("jetpack-blogs/123", SiteHealthTracker.getSiteKey(request))
+
+        whenever(request.url).thenReturn("https://public-api.wordpress.com/rest/v1.1/me")
+        assertNull(SiteHealthTracker.getSiteKey(request))
+    }
+
+    @Test
+    fun testCircuitOpensAfterConsecutiveFailuresAndFailsFast() {
+        val tracker = SiteHealthTracker(2, 60_000)
+        val circuitBreakerNetwork = CircuitBreakerNetwork(network, tracker)
+        whenever(request.url).thenReturn("https://example.com/xmlrpc.php")
+        whenever(network.performRequest(request)).thenThrow(TimeoutError())
+
+        repeat(2) { assertFailsWith<TimeoutError> { circuitBreakerNetwork.performRequest(request) } }
+        assertFailsWith<CircuitOpenError> { circuitBreakerNetwork.performRequest(request) }
+
+        verify(network, times(2)).performRequest(request)
+        assertEquals(CircuitState.OPEN, tracker.getCircuitState("example.com"))
+        assertEquals(mapOf("example.com" to CircuitState.OPEN), tracker.unhealthySites)
+    }
+
+    @Test
+    fun testHalfOpenCircuitClosesWhenTheProbeSucceeds() {
+        val tracker = SiteHealthTracker(1, 0)
+        val circuitBreakerNetwork = CircuitBreakerNetwork(network, tracker)
+        whenever(request.url).thenReturn("https://example.com/xmlrpc.php")
+        whenever(network.performRequest(request)).thenThrow(TimeoutError())
+        assertFailsWith<TimeoutError> { circuitBreakerNetwork.performRequest(request) }
+        assertEquals(CircuitState.HALF_OPEN, tracker.getCircuitState("example.com"))
+
+        assertTrue(tracker.allowRequest("example.com"))
+        // Only one request goes through a half-open circuit
+        assertEquals(false, tracker.allowRequest("example.com"))
+        tracker.recordSuccess("example.com")
+
+        assertEquals(CircuitState.CLOSED, tracker.getCircuitState("example.com"))
+    }
+
+    @Test
+    fun testClientAndConnectionErrorsDoNotOpenTheCircuit() {
+        val tracker = SiteHealthTracker(1, 60_000)
+        val circuitBreakerNetwork = CircuitBreakerNetwork(network, tracker)
+        whenever(request.url).thenReturn("https://example.com/xmlrpc.php")
+        val notFound = ServerError(NetworkResponse(404, ByteArray(0), emptyMap(), false))
+        whenever(network.performRequest(request)).thenThrow(notFound).thenThrow(NoConnectionError())
+
+        assertFailsWith<VolleyError> { circuitBreakerNetwork.performRequest(request) }
+        assertFailsWith<NoConnectionError> { circuitBreakerNetwork.performRequest(request) }
+
+        assertEquals(CircuitState.CLOSED, tracker.getCircuitState("example.com"))
+    }
+
+    @Test
+    fun testBackoffGrowsExponentiallyUpToTheMaximum() {
+        val policy = BackoffRetryPolicy(1000, 5, 100, 1000)
+
+        assertEquals(100, policy.getMaxBackoffMs(0))
+        assertEquals(400, policy.getMaxBackoffMs(2))
+        assertEquals(1000, policy.getMaxBackoffMs(4))
+    }
+
+    @Test
+    fun testRetriesAreScheduledInsteadOfWaitedFor() {
+        val policy = BackoffRetryPolicy(1000, 1, 100, 1000)
+        val error = TimeoutError()
+
+        val retryScheduledError = assertFailsWith<RetryScheduledError> { policy.retry(error) }
+        assertEquals(error, retryScheduledError.error)
+        assertTrue(retryScheduledError.delayMs in 0..100)
+        assertEquals(1, policy.currentRetryCount)
+
+        assertFailsWith<TimeoutError> { policy.retry(error) }
+    }
+
+    @Test
+    fun testRequestsToSitesWithAnOpenCircuitAreNotRetried() {
+        val tracker = SiteHealthTracker(1, 60_000)
+        val circuitBreakerNetwork = CircuitBreakerNetwork(network, tracker)
+        val policy = BackoffRetryPolicy(1000, 5, 0, 0)
+        whenever(request.url).thenReturn("https://example.com/xmlrpc.php")
+        whenever(request.retryPolicy).thenReturn(policy)
+        whenever(network.performRequest(request)).thenAnswer { policy.retry(TimeoutError()) }
+
+        // The failure is still reported to the tracker when a retry is scheduled
+        assertFailsWith<RetryScheduledError> { circuitBreakerNetwork.performRequest(request) }
+        assertEquals(CircuitState.OPEN, tracker.getCircuitState("example.com"))
+
+        assertFailsWith<TimeoutError> { policy.retry(TimeoutError()) }
+        assertEquals(1, policy.currentRetryCount)
+    }
+}
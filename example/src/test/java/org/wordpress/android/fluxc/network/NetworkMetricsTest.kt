@@ -0,0 +1,126 @@
+package org.wordpress.android.fluxc.network
+
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.NetworkMetrics.Phase
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class NetworkMetricsTest {
+    private val request = mock<BaseRequest<*>>()
+
+    @Before
+    fun setUp() {
+        whenever(request.metricsEndpoint).thenReturn(ENDPOINT)
+        NetworkMetrics.reset()
+        NetworkMetrics.setEnabled(true)
+    }
+
+    @After
+    fun tearDown() {
+        NetworkMetrics.setEnabled(false)
+        NetworkMetrics.reset()
+    }
+
+    @Test
+    fun testEndpointTemplates() {
+        assertEquals(
+                "GET /rest/v1.1/sites/\$site/posts/\$post_ID/",
+                NetworkMetrics.getEndpointTemplate("GET", "$WPCOM_API/rest/v1.1/sites/123/posts/456/")
+        )
+        assertEquals(
+                "GET /rest/v1.1/sites/\$site/posts/\$post_ID/",
+                NetworkMetrics.getEndpointTemplate("GET", "$WPCOM_API/rest/v1.1/sites/example.com/posts/7/?number=20")
+        )
+        // Literal endpoints are preferred over variable ones
+        assertEquals(
+                "POST /rest/v1.1/sites/\$site/posts/new/",
+                NetworkMetrics.getEndpointTemplate("POST", "$WPCOM_API/rest/v1.1/sites/123/posts/new/")
+        )
+        assertEquals("GET /rest/v1.1/me/settings/", NetworkMetrics.getEndpointTemplate("GET",
+                "$WPCOM_API/rest/v1.1/me/settings"))
+        assertEquals(
+                "GET /rest/v1.1/jetpack-blogs/\$site/rest-api/?path=/wp/v2/posts/<id>/",
+                NetworkMetrics.getEndpointTemplate("GET",
+                        "$WPCOM_API/rest/v1.1/jetpack-blogs/123/rest-api/" +
+                                "?path=%2Fwp%2Fv2%2Fposts%2F99%26_method%3Dget&json=true")
+        )
+    }
+
+    @Test
+    fun testUnregisteredEndpointsFallBackToHeuristicTemplates() {
+        assertEquals(
+                "POST /rest/v1.1/jetpack-blogs/\$site/rest-api/?path=/wc/v3/orders/{id}",
+                NetworkMetrics.getEndpointTemplate("POST",
+                        "$WPCOM_API/rest/v1.1/jetpack-blogs/123/rest-api/" +
+                                "?path=%2Fwc%2Fv3%2Forders%2F99%26_method%3Dput&json=true")
+        )
+        assertEquals(
+                "GET /wpcom/v2/encrypted-logs/{id}",
+                NetworkMetrics.getEndpointTemplate("GET", "$WPCOM_API/wpcom/v2/encrypted-logs/" +
+                        "0f8fad5b-d9cb-469f-a165-70867728950e")
+        )
+    }
+
+    @Test
+    fun testHistogramPercentiles() {
+        for (value in 1..100) {
+            NetworkMetrics.record(ENDPOINT, Phase.PARSE, value.toDouble())
+        }
+
+        val snapshot = NetworkMetrics.getSnapshot()[ENDPOINT]!![Phase.PARSE]!!
+        assertEquals(100L, snapshot.count)
+        assertEquals(50.5, snapshot.mean)
+        assertEquals(50.0, snapshot.getPercentile(50.0))
+        assertEquals(100.0, snapshot.getPercentile(95.0))
+        assertEquals(100.0, snapshot.max)
+    }
+
+    @Test
+    fun testStoreHandlingIsAttributedToDeliveredEndpoint() {
+        val executor = NetworkMetrics.newStoreExecutor()
+        val handled = CountDownLatch(2)
+
+        val deliveryStart = NetworkMetrics.beginDelivery(request)
+        repeat(2) {
+            executor.execute { handled.countDown() }
+        }
+        NetworkMetrics.endDelivery(request, deliveryStart)
+        // Work scheduled outside of a delivery isn't timed
+        executor.execute { }
+
+        assertTrue(handled.await(1, TimeUnit.SECONDS))
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS))
+
+        val phases = NetworkMetrics.getSnapshot()[ENDPOINT]!!
+        assertEquals(1L, phases[Phase.DELIVERY]?.count)
+        assertEquals(1L, phases[Phase.STORE]?.count)
+    }
+
+    @Test
+    fun testNothingIsRecordedWhenDisabled() {
+        NetworkMetrics.setEnabled(false)
+
+        val start = NetworkMetrics.startTiming()
+        NetworkMetrics.recordDuration(request, Phase.PARSE, start)
+        NetworkMetrics.endDelivery(request, NetworkMetrics.beginDelivery(request))
+
+        assertEquals(0L, start)
+        assertNull(NetworkMetrics.getSnapshot()[ENDPOINT])
+    }
+
+    companion object {
+        private const val WPCOM_API = "https://public-api.wordpress.com"
+        private const val ENDPOINT = "GET /rest/v1.1/me/"
+    }
+}
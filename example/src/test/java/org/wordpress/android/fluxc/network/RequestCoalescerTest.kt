@@ -0,0 +1,106 @@
+package org.wordpress.android.fluxc.network
+
+import com.android.volley.ExecutorDelivery
+import com.android.volley.Response
+import com.android.volley.Response.Listener
+import com.android.volley.VolleyError
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComErrorListener
+import java.util.concurrent.Executor
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class RequestCoalescerTest {
+    private val coalescer = RequestCoalescer()
+    private val delivery = ExecutorDelivery(Executor { it.run() })
+
+    @Test
+    fun testIdenticalRequestsShareTheResponse() {
+        val listener1 = mock<Listener<String>>()
+        val listener2 = mock<Listener<String>>()
+        val request1 = buildGetRequest(listener = listener1)
+        val request2 = buildGetRequest(listener = listener2)
+
+        assertFalse(coalescer.coalesce(request1))
+        assertTrue(coalescer.coalesce(request2))
+
+        delivery.postResponse(request1, Response.success("response", null))
+
+        verify(listener1).onResponse("response")
+        verify(listener2).onResponse("response")
+        // The request isn't in flight anymore, so an identical one must be sent
+        assertFalse(coalescer.coalesce(buildGetRequest()))
+    }
+
+    @Test
+    fun testIdenticalRequestsShareTheError() {
+        val errorListener1 = mock<WPComErrorListener>()
+        val errorListener2 = mock<WPComErrorListener>()
+        val request1 = buildGetRequest(errorListener = errorListener1)
+        val request2 = buildGetRequest(errorListener = errorListener2)
+
+        coalescer.coalesce(request1)
+        coalescer.coalesce(request2)
+        request1.deliverError(VolleyError("error"))
+
+        verify(errorListener1).onErrorResponse(any())
+        verify(errorListener2).onErrorResponse(any())
+    }
+
+    @Test
+    fun testRequestsWithDifferentCredentialsAreNotCoalesced() {
+        val request1 = buildGetRequest().apply { setAccessToken("token1") }
+        val request2 = buildGetRequest().apply { setAccessToken("token2") }
+
+        assertFalse(coalescer.coalesce(request1))
+        assertFalse(coalescer.coalesce(request2))
+    }
+
+    @Test
+    fun testNetworkCallIsCanceledOnceAllRequestsAreCanceled() {
+        val listener1 = mock<Listener<String>>()
+        val listener2 = mock<Listener<String>>()
+        val request1 = buildGetRequest(listener = listener1)
+        val request2 = buildGetRequest(listener = listener2)
+        coalescer.coalesce(request1)
+        coalescer.coalesce(request2)
+
+        request1.cancel()
+
+        assertFalse(request1.isCanceled)
+        delivery.postResponse(request1, Response.success("response", null))
+        verify(listener1, never()).onResponse(any())
+        verify(listener2).onResponse("response")
+    }
+
+    @Test
+    fun testCancelingTheLastRequestCancelsTheNetworkCall() {
+        val request1 = buildGetRequest()
+        val request2 = buildGetRequest()
+        coalescer.coalesce(request1)
+        coalescer.coalesce(request2)
+
+        request1.cancel()
+        request2.cancel()
+
+        assertTrue(request1.isCanceled)
+        assertFalse(coalescer.coalesce(buildGetRequest()))
+    }
+
+    private fun buildGetRequest(
+        listener: Listener<String> = mock(),
+        errorListener: WPComErrorListener = mock()
+    ): WPComGsonRequest<String> {
+        val url = WPCOMREST.sites.site(123).plugins.urlV1_2
+        return WPComGsonRequest.buildGetRequest(url, mapOf("a" to "1"), String::class.java, listener, errorListener)
+    }
+}
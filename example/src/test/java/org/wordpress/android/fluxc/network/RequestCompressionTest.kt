@@ -0,0 +1,105 @@
+package org.wordpress.android.fluxc.network
+
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.generated.endpoint.XMLRPC
+import org.wordpress.android.fluxc.network.RequestCompression.HostSupport
+import org.wordpress.android.fluxc.network.RequestCompression.MIN_COMPRESSED_BODY_SIZE
+import org.wordpress.android.fluxc.network.xmlrpc.XMLRPCRequest
+import java.util.zip.GZIPInputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class RequestCompressionTest {
+    private val request = mock<BaseRequest<*>>()
+
+    @Before
+    fun setUp() {
+        whenever(request.isBodyCompressionEnabled).thenReturn(true)
+        RequestCompression.reset()
+    }
+
+    @After
+    fun tearDown() {
+        RequestCompression.reset()
+    }
+
+    @Test
+    fun testOnlyLargeBodiesOfOptedInRequestsAreCompressed() {
+        assertTrue(RequestCompression.shouldCompress(request, HOST, MIN_COMPRESSED_BODY_SIZE))
+        assertFalse(RequestCompression.shouldCompress(request, HOST, MIN_COMPRESSED_BODY_SIZE - 1))
+
+        whenever(request.isBodyCompressionEnabled).thenReturn(false)
+        assertFalse(RequestCompression.shouldCompress(request, HOST, MIN_COMPRESSED_BODY_SIZE))
+    }
+
+    @Test
+    fun testUnsupportedMediaTypeDisablesCompressionForTheHost() {
+        assertTrue(RequestCompression.shouldRetryUncompressed(HOST, 415, null))
+        RequestCompression.onUncompressedRetryResponse(HOST, 415, 200)
+
+        assertEquals(HostSupport.REJECTED, RequestCompression.getHostSupport(HOST))
+        assertFalse(RequestCompression.shouldCompress(request, HOST, MIN_COMPRESSED_BODY_SIZE))
+        assertTrue(RequestCompression.shouldCompress(request, OTHER_HOST, MIN_COMPRESSED_BODY_SIZE))
+    }
+
+    @Test
+    fun testBadRequestIsOnlyRetriedWhenTheServerFailedToDecodeTheBody() {
+        assertTrue(RequestCompression.shouldRetryUncompressed(HOST, 400, DECODE_ERROR))
+        // The server might have processed the request, sending it again could apply it twice
+        assertFalse(RequestCompression.shouldRetryUncompressed(HOST, 400, "{\"error\":\"invalid_title\"}"))
+        assertFalse(RequestCompression.shouldRetryUncompressed(HOST, 400, null))
+    }
+
+    @Test
+    fun testBadRequestOnlyDisablesCompressionWhenTheUncompressedRetrySucceeds() {
+        assertTrue(RequestCompression.shouldRetryUncompressed(HOST, 400, DECODE_ERROR))
+        // The request is invalid either way, the compression isn't to blame
+        RequestCompression.onUncompressedRetryResponse(HOST, 400, 400)
+        assertEquals(HostSupport.UNKNOWN, RequestCompression.getHostSupport(HOST))
+
+        RequestCompression.onUncompressedRetryResponse(HOST, 400, 200)
+        assertEquals(HostSupport.REJECTED, RequestCompression.getHostSupport(HOST))
+    }
+
+    @Test
+    fun testBadRequestIsNotRetriedOnceTheHostAcceptedCompressedBodies() {
+        RequestCompression.onCompressedResponse(HOST, 201)
+
+        assertEquals(HostSupport.ACCEPTED, RequestCompression.getHostSupport(HOST))
+        assertFalse(RequestCompression.shouldRetryUncompressed(HOST, 400, DECODE_ERROR))
+        assertTrue(RequestCompression.shouldRetryUncompressed(HOST, 415, null))
+        assertFalse(RequestCompression.shouldRetryUncompressed(HOST, 500, DECODE_ERROR))
+    }
+
+    @Test
+    fun testXmlRpcRequestsAreNeverCompressed() {
+        val xmlRpcRequest = XMLRPCRequest("https://$HOST/xmlrpc.php", XMLRPC.EDIT_POST, emptyList(), mock(), mock())
+        xmlRpcRequest.enableBodyCompression()
+
+        assertFalse(RequestCompression.shouldCompress(xmlRpcRequest, HOST, MIN_COMPRESSED_BODY_SIZE))
+    }
+
+    @Test
+    fun testGzipRoundTrip() {
+        val body = "{\"content\":\"${"Lorem ipsum ".repeat(1000)}\"}".toByteArray()
+
+        val compressed = RequestCompression.gzip(body)
+
+        assertTrue(compressed.size < body.size)
+        assertTrue(body.contentEquals(GZIPInputStream(compressed.inputStream()).readBytes()))
+    }
+
+    companion object {
+        private const val HOST = "example.com"
+        private const val OTHER_HOST = "public-api.wordpress.com"
+        private const val DECODE_ERROR = "<html><body>Unsupported Content-Encoding: gzip</body></html>"
+    }
+}
@@ -0,0 +1,75 @@
+package org.wordpress.android.fluxc.network
+
+import com.android.volley.ExecutorDelivery
+import com.android.volley.Response
+import com.android.volley.toolbox.NoCache
+import com.nhaarman.mockitokotlin2.mock
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.network.RequestPriority.BULK_UPLOAD
+import org.wordpress.android.fluxc.network.RequestPriority.INTERACTIVE
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
+import java.util.concurrent.Executor
+import kotlin.test.assertEquals
+
+@RunWith(RobolectricTestRunner::class)
+class ScheduledRequestQueueTest {
+    private val queue = ScheduledRequestQueue(NoCache(), mock(), 10, 2, setOf(WPCOM_HOST))
+    private val delivery = ExecutorDelivery(Executor { it.run() })
+
+    @Test
+    fun testRequestsAreLimitedPerHost() {
+        val requests = List(3) { buildRequest("https://example.com/wp-json/wp/v2/posts?page=$it") }
+        requests.forEach { queue.add(it) }
+
+        assertEquals(2, queue.getQueueWaitMetrics(INTERACTIVE).requestCount)
+
+        delivery.postResponse(requests[0], Response.success("", null))
+
+        assertEquals(3, queue.getQueueWaitMetrics(INTERACTIVE).requestCount)
+    }
+
+    @Test
+    fun testUncappedHostsAreNotLimited() {
+        List(3) { buildRequest("https://$WPCOM_HOST/rest/v1.1/sites/$it") }.forEach { queue.add(it) }
+
+        assertEquals(3, queue.getQueueWaitMetrics(INTERACTIVE).requestCount)
+    }
+
+    @Test
+    fun testLowerPriorityClassesOnlyUseAShareOfTheThreads() {
+        val bulkRequests = List(3) {
+            buildRequest("https://$WPCOM_HOST/rest/v1.1/sites/$it").apply { setRequestPriority(BULK_UPLOAD) }
+        }
+        bulkRequests.forEach { queue.add(it) }
+        queue.add(buildRequest("https://$WPCOM_HOST/rest/v1.1/me"))
+
+        assertEquals(2, queue.getQueueWaitMetrics(BULK_UPLOAD).requestCount)
+        assertEquals(1, queue.getQueueWaitMetrics(INTERACTIVE).requestCount)
+
+        delivery.postResponse(bulkRequests[0], Response.success("", null))
+
+        assertEquals(3, queue.getQueueWaitMetrics(BULK_UPLOAD).requestCount)
+    }
+
+    @Test
+    fun testPendingRequestsAreSentByPriorityClass() {
+        val requests = List(2) { buildRequest("https://example.com/wp-json/wp/v2/posts?page=$it") }
+        requests.forEach { queue.add(it) }
+        queue.add(buildRequest("https://example.com/wp-json/wp/v2/media").apply { setRequestPriority(BULK_UPLOAD) })
+        queue.add(buildRequest("https://example.com/wp-json/wp/v2/pages"))
+
+        delivery.postResponse(requests[0], Response.success("", null))
+
+        assertEquals(3, queue.getQueueWaitMetrics(INTERACTIVE).requestCount)
+        assertEquals(0, queue.getQueueWaitMetrics(BULK_UPLOAD).requestCount)
+    }
+
+    private fun buildRequest(url: String): WPComGsonRequest<String> =
+            WPComGsonRequest.buildGetRequest(url, null, String::class.java, mock(), mock())
+
+    companion object {
+        private const val WPCOM_HOST = "public-api.wordpress.com"
+    }
+}
@@ -52,6 +52,18 @@ class WPComGsonRequestTest {
         assertEquals("A name from which to derive username suggestions is required.", augmentedError.message)
     }
 
+    @Test
+    fun testCacheKeyIgnoresQueryParameterOrder() {
+        val url = WPCOMREST.sites.site(123).plugins.urlV1_2
+        val request1 = WPComGsonRequest.buildGetRequest(url, linkedMapOf("b" to "2", "a" to "1"), Object::class.java,
+                mock<Listener<String>>(), mock())
+        val request2 = WPComGsonRequest.buildGetRequest(url, linkedMapOf("a" to "1", "b" to "2"), Object::class.java,
+                mock<Listener<String>>(), mock())
+
+        assertEquals(request2.cacheKey, request1.cacheKey)
+        assertEquals(request2.url, request1.cacheKey)
+    }
+
     private fun buildErrorResponseObject(responseJson: String, errorCode: Int): BaseNetworkError {
         val networkResponse = NetworkResponse(errorCode, responseJson.toByteArray(), mapOf(), true)
         return BaseNetworkError(VolleyError(networkResponse))
@@ -0,0 +1,57 @@
+package org.wordpress.android.fluxc.network.discovery
+
+import org.junit.After
+import org.junit.Test
+import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder.DiscoveryError
+import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder.DiscoveryException
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+
+class StaggeredProbesTest {
+    private val executor = Executors.newScheduledThreadPool(3)
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun `results are read in priority order even if a lower priority probe answers first`() {
+        val probes = StaggeredProbes(executor, listOf("slow", "fast"), 0, StaggeredProbes.Probe { url ->
+            if (url == "slow") Thread.sleep(200)
+            url
+        })
+
+        assertEquals("slow", probes.get(0))
+        assertEquals("fast", probes.get(1))
+    }
+
+    @Test
+    fun `discovery errors are rethrown and unexpected errors are ignored`() {
+        val probes = StaggeredProbes<String>(executor, listOf("a", "b"), 0, StaggeredProbes.Probe { url ->
+            if (url == "a") throw IllegalArgumentException()
+            throw DiscoveryException(DiscoveryError.HTTP_AUTH_REQUIRED, url)
+        })
+
+        assertNull(probes.get(0))
+        assertFailsWith<DiscoveryException> { probes.get(1) }
+    }
+
+    @Test
+    fun `canceled probes are not started`() {
+        val startedProbes = CopyOnWriteArrayList<String>()
+        val probes = StaggeredProbes(executor, listOf("a", "b"), 10_000, StaggeredProbes.Probe { url ->
+            startedProbes.add(url)
+            url
+        })
+
+        assertEquals("a", probes.get(0))
+        probes.cancel()
+
+        assertNull(probes.get(1))
+        assertEquals(listOf("a"), startedProbes)
+    }
+}
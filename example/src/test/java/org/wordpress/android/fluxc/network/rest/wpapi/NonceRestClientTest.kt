@@ -2,9 +2,18 @@ package org.wordpress.android.fluxc.network.rest.wpapi
 
 import com.android.volley.NoConnectionError
 import com.android.volley.RequestQueue
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doSuspendableAnswer
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import junit.framework.TestCase
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.yield
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -20,6 +29,7 @@ import org.wordpress.android.fluxc.network.rest.wpapi.Nonce.Unknown
 import org.wordpress.android.fluxc.network.rest.wpapi.WPAPIResponse.Error
 import org.wordpress.android.fluxc.network.rest.wpapi.WPAPIResponse.Success
 import org.wordpress.android.fluxc.test
+import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.fluxc.utils.CurrentTimeProvider
 import java.util.Date
 
@@ -30,13 +40,22 @@ class NonceRestClientTest {
     @Mock lateinit var dispatcher: Dispatcher
     @Mock lateinit var requestQueue: RequestQueue
     @Mock lateinit var userAgent: UserAgent
+    @Mock lateinit var coroutineEngine: CoroutineEngine
 
     private lateinit var subject: NonceRestClient
     private val time = 123456L
 
     @Before
     fun setUp() {
-        subject = NonceRestClient(wpApiEncodedRequestBuilder, currentTimeProvider, dispatcher, requestQueue, userAgent)
+        subject = NonceRestClient(
+                wpApiEncodedRequestBuilder,
+                currentTimeProvider,
+                NonceCache(),
+                coroutineEngine,
+                dispatcher,
+                requestQueue,
+                userAgent
+        )
         whenever(currentTimeProvider.currentDate()).thenReturn(Date(time))
     }
 
@@ -134,4 +153,84 @@ class NonceRestClientTest {
         val actual = subject.requestNonce(site)
         TestCase.assertEquals(Unknown, actual)
     }
+
+    @Test
+    fun `concurrent nonce requests share a single login`() = test {
+        val site = SiteModel().apply {
+            id = 1
+            url = "asiteurl.com"
+            username = "a_username"
+            password = "a_password"
+        }
+
+        val body = mapOf(
+                "log" to site.username,
+                "pwd" to site.password,
+                "redirect_to" to "${site.url}/wp-admin/admin-ajax.php?action=rest-nonce"
+        )
+
+        val loginResponse = CompletableDeferred<WPAPIResponse<String>>()
+        whenever(wpApiEncodedRequestBuilder.syncPostRequest(subject, "${site.url}/wp-login.php", body = body))
+                .doSuspendableAnswer { loginResponse.await() }
+
+        val requests = List(3) { async { subject.requestNonce(site) } }
+        yield()
+        loginResponse.complete(Success("1expectedNONCE"))
+
+        requests.awaitAll().forEach { TestCase.assertEquals(Available("1expectedNONCE"), it) }
+        verify(wpApiEncodedRequestBuilder, times(1))
+                .syncPostRequest(subject, "${site.url}/wp-login.php", body = body)
+    }
+
+    @Test
+    fun `cached nonce is refreshed before it expires`() = test {
+        val site = SiteModel().apply {
+            id = 1
+            url = "asiteurl.com"
+            username = "a_username"
+            password = "a_password"
+        }
+        val body = mapOf(
+                "log" to site.username,
+                "pwd" to site.password,
+                "redirect_to" to "${site.url}/wp-admin/admin-ajax.php?action=rest-nonce"
+        )
+        whenever(wpApiEncodedRequestBuilder.syncPostRequest(subject, "${site.url}/wp-login.php", body = body))
+                .thenReturn(Success("1expectedNONCE"))
+        subject.requestNonce(site)
+
+        whenever(currentTimeProvider.currentDate()).thenReturn(Date(time + 60 * 60 * 1000L))
+        TestCase.assertEquals(Available("1expectedNONCE"), subject.getNonce(site))
+        verify(coroutineEngine, never()).launch<Any>(any(), any(), any(), any())
+
+        whenever(currentTimeProvider.currentDate()).thenReturn(Date(time + 11 * 60 * 60 * 1000L))
+        TestCase.assertEquals(Available("1expectedNONCE"), subject.getNonce(site))
+        verify(coroutineEngine).launch<Any>(any(), any(), any(), any())
+
+        whenever(currentTimeProvider.currentDate()).thenReturn(Date(time + 13 * 60 * 60 * 1000L))
+        TestCase.assertNull(subject.getNonce(site))
+    }
+
+    @Test
+    fun `changed credentials lead to a new login`() = test {
+        val site = SiteModel().apply {
+            id = 1
+            url = "asiteurl.com"
+            username = "a_username"
+            password = "a_password"
+        }
+        val redirectUrl = "${site.url}/wp-admin/admin-ajax.php?action=rest-nonce"
+        val body = mapOf("log" to "a_username", "pwd" to "a_password", "redirect_to" to redirectUrl)
+        val newBody = mapOf("log" to "another_username", "pwd" to "a_password", "redirect_to" to redirectUrl)
+        whenever(wpApiEncodedRequestBuilder.syncPostRequest(subject, "${site.url}/wp-login.php", body = body))
+                .thenReturn(Success("1firstNONCE"))
+        whenever(wpApiEncodedRequestBuilder.syncPostRequest(subject, "${site.url}/wp-login.php", body = newBody))
+                .thenReturn(Success("1secondNONCE"))
+        subject.requestNonce(site)
+        TestCase.assertEquals(Available("1firstNONCE"), subject.getNonce(site))
+
+        site.username = "another_username"
+        TestCase.assertNull(subject.getNonce(site))
+        TestCase.assertEquals(Available("1secondNONCE"), subject.requestNonce(site))
+    }
 }
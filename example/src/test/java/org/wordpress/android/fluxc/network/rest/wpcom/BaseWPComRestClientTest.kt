@@ -0,0 +1,63 @@
+package org.wordpress.android.fluxc.network.rest.wpcom
+
+import android.content.Context
+import com.android.volley.RequestQueue
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import org.wordpress.android.fluxc.network.RequestCoalescer
+import org.wordpress.android.fluxc.network.UserAgent
+import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken
+
+@RunWith(RobolectricTestRunner::class)
+class BaseWPComRestClientTest {
+    private val context = RuntimeEnvironment.application.applicationContext
+    private val requestQueue = mock<RequestQueue>()
+    private val accessToken = mock<AccessToken>()
+    private val userAgent = mock<UserAgent>()
+
+    @Test
+    fun testIdenticalRequestsOfDifferentClientsShareTheNetworkCall() {
+        val coalescer = RequestCoalescer()
+        val client1 = TestRestClient(context, requestQueue, accessToken, userAgent).apply {
+            mRequestCoalescer = coalescer
+        }
+        val client2 = TestRestClient(context, requestQueue, accessToken, userAgent).apply {
+            mRequestCoalescer = coalescer
+        }
+
+        client1.add(buildGetRequest())
+        client2.add(buildGetRequest())
+
+        verify(requestQueue, times(1)).add(any<WPComGsonRequest<String>>())
+    }
+
+    @Test
+    fun testRequestsAreSentOnTheirOwnWithoutCoalescer() {
+        val client = TestRestClient(context, requestQueue, accessToken, userAgent)
+
+        client.add(buildGetRequest())
+        client.add(buildGetRequest())
+
+        verify(requestQueue, times(2)).add(any<WPComGsonRequest<String>>())
+    }
+
+    private fun buildGetRequest(): WPComGsonRequest<String> {
+        val url = WPCOMREST.sites.site(123).plugins.urlV1_2
+        return WPComGsonRequest.buildGetRequest(url, mapOf("a" to "1"), String::class.java, mock(), mock())
+    }
+
+    private class TestRestClient(
+        appContext: Context,
+        requestQueue: RequestQueue,
+        accessToken: AccessToken,
+        userAgent: UserAgent
+    ) : BaseWPComRestClient(appContext, Dispatcher(), requestQueue, accessToken, userAgent)
+}
@@ -0,0 +1,96 @@
+package org.wordpress.android.fluxc.network.rest.wpcom;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Response;
+import com.android.volley.Response.Listener;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST;
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.WPComErrorListener;
+import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonStreamingRequest.BatchListener;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class WPComGsonStreamingRequestTest {
+    private static class Element {
+        long ID;
+    }
+
+    private final List<List<Long>> mBatches = new ArrayList<>();
+
+    @Test
+    public void testElementsAreDeliveredInBatches() {
+        String json = "{\"found\":5,\"meta\":{\"links\":[]},"
+                      + "\"sites\":[{\"ID\":1},{\"ID\":2},{\"ID\":3},{\"ID\":4},{\"ID\":5}],\"total\":5}";
+
+        Response<Integer> response = buildRequest(2).parseNetworkResponse(buildNetworkResponse(json));
+
+        assertTrue(response.isSuccess());
+        assertEquals(Integer.valueOf(5), response.result);
+        assertNull(response.cacheEntry);
+        assertEquals(3, mBatches.size());
+        assertEquals(Arrays.asList(1L, 2L), mBatches.get(0));
+        assertEquals(Arrays.asList(3L, 4L), mBatches.get(1));
+        assertEquals(Collections.singletonList(5L), mBatches.get(2));
+    }
+
+    @Test
+    public void testMissingArrayFieldDeliversNothing() {
+        Response<Integer> response = buildRequest(2).parseNetworkResponse(buildNetworkResponse("{\"sites\":false}"));
+
+        assertTrue(response.isSuccess());
+        assertEquals(Integer.valueOf(0), response.result);
+        assertTrue(mBatches.isEmpty());
+    }
+
+    @Test
+    public void testTruncatedResponseIsAParseError() {
+        String json = "{\"sites\":[{\"ID\":1},{\"ID\":2},{\"ID\"";
+
+        Response<Integer> response = buildRequest(1).parseNetworkResponse(buildNetworkResponse(json));
+
+        assertFalse(response.isSuccess());
+        // The elements parsed before the error were already delivered
+        assertEquals(2, mBatches.size());
+    }
+
+    @Test
+    public void testStreamingRequestsAreNotCoalesced() {
+        assertNull(buildRequest(1).getCoalescingKey());
+    }
+
+    @SuppressWarnings("unchecked")
+    private WPComGsonStreamingRequest<Element> buildRequest(int batchSize) {
+        return WPComGsonStreamingRequest.buildGetRequest(WPCOMREST.me.sites.getUrlV1_2(),
+                Collections.<String, String>emptyMap(), "sites", Element.class, batchSize,
+                new BatchListener<Element>() {
+                    @Override
+                    public void onBatch(@NonNull List<Element> elements) {
+                        List<Long> ids = new ArrayList<>();
+                        for (Element element : elements) {
+                            ids.add(element.ID);
+                        }
+                        mBatches.add(ids);
+                    }
+                }, Mockito.mock(Listener.class), Mockito.mock(WPComErrorListener.class));
+    }
+
+    private static NetworkResponse buildNetworkResponse(String json) {
+        return new NetworkResponse(json.getBytes(Charset.forName("UTF-8")));
+    }
+}
@@ -388,4 +388,58 @@ class NotificationSqlUtilsTest {
         // Verify notification not in database
         assertNull(notificationSqlUtils.getNotificationByRemoteId(noteId))
     }
+
+    @Test
+    fun testGetNoteHashes() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = insertTestNotifications(notificationSqlUtils)
+
+        val noteHashes = notificationSqlUtils.getNoteHashes()
+
+        assertEquals(notesList.size, noteHashes.size())
+        notesList.forEach { assertEquals(it.noteHash, noteHashes.get(it.remoteNoteId)) }
+    }
+
+    @Test
+    fun testDeleteNotificationsByRemoteIds() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = insertTestNotifications(notificationSqlUtils)
+        val staleRemoteNoteIds = notesList.take(4).map { it.remoteNoteId }
+
+        val rowsAffected = notificationSqlUtils.deleteNotificationsByRemoteIds(staleRemoteNoteIds)
+
+        assertEquals(4, rowsAffected)
+        assertEquals(notesList.size - 4, notificationSqlUtils.getNotificationsCount().toInt())
+        staleRemoteNoteIds.forEach { assertNull(notificationSqlUtils.getNotificationByRemoteId(it)) }
+        assertEquals(0, notificationSqlUtils.deleteNotificationsByRemoteIds(emptyList()))
+    }
+
+    @Test
+    fun testFormattableContentIsPreservedWhenReadFromDb() {
+        val notificationSqlUtils = NotificationSqlUtils(FormattableContentMapper(Gson()))
+        val notesList = insertTestNotifications(notificationSqlUtils)
+
+        val notification = notificationSqlUtils.getNotificationByRemoteId(notesList[0].remoteNoteId)
+
+        assertNotNull(notification)
+        assertEquals(notesList[0].body, notification?.body)
+        assertEquals(notesList[0].subject, notification?.subject)
+
+        // Saving a notification whose content was never decoded keeps its content intact
+        val untouched = notificationSqlUtils.getNotificationByRemoteId(notesList[1].remoteNoteId)!!
+        notificationSqlUtils.insertOrUpdateNotification(untouched)
+        assertEquals(notesList[1].body, notificationSqlUtils.getNotificationByRemoteId(notesList[1].remoteNoteId)?.body)
+    }
+
+    private fun insertTestNotifications(notificationSqlUtils: NotificationSqlUtils): List<NotificationModel> {
+        val jsonString = UnitTestUtils
+                .getStringFromResourceFile(this.javaClass, "notifications/notifications-api-response.json")
+        val apiResponse = NotificationTestUtils.parseNotificationsApiResponseFromJsonString(jsonString)
+        val notesList = apiResponse.notes?.map {
+            NotificationApiResponse.notificationResponseToNotificationModel(it)
+        } ?: emptyList()
+        val inserted = notesList.sumBy { notificationSqlUtils.insertOrUpdateNotification(it) }
+        assertEquals(6, inserted)
+        return notesList
+    }
 }
@@ -0,0 +1,183 @@
+package org.wordpress.android.fluxc.outbox
+
+import android.content.Context
+import android.net.ConnectivityManager
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.yarolegovich.wellsql.WellSql
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.Shadows.shadowOf
+import org.wordpress.android.fluxc.SingleStoreWellSqlConfigForTests
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.outbox.OutboxMutationModel
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Companion.ENTITY_TYPE_POST
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Companion.MAX_CONCURRENT_REPLAYS
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Companion.MAX_ONLINE_ATTEMPTS
+import org.wordpress.android.fluxc.persistence.OutboxSqlUtils
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils
+import org.wordpress.android.fluxc.tools.CoroutineEngine
+import org.wordpress.android.fluxc.utils.CurrentTimeProvider
+import java.util.Date
+import javax.inject.Provider
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class MutationOutboxTest {
+    private val context: Context = RuntimeEnvironment.application.applicationContext
+    private val connectivityManager = context.getSystemService(Context.CONNECTIVITY_SERVICE) as ConnectivityManager
+    private val connectedNetworkInfo = connectivityManager.activeNetworkInfo
+    private val siteSqlUtils = mock<SiteSqlUtils>()
+    private val currentTimeProvider = mock<CurrentTimeProvider>()
+    // Replays are triggered explicitly with replayDueMutations, instead of being launched in the background
+    private val coroutineEngine = mock<CoroutineEngine>()
+    private val site = SiteModel().apply { id = SITE_LOCAL_ID }
+    private val replays = mutableListOf<Pair<Long, String?>>()
+    private var now = 1_000_000L
+
+    private lateinit var outbox: MutationOutbox
+
+    @Before
+    fun setUp() {
+        val config = SingleStoreWellSqlConfigForTests(context, OutboxMutationModel::class.java)
+        WellSql.init(config)
+        config.reset()
+
+        whenever(siteSqlUtils.getSitesWithLocalId(any())).thenReturn(listOf(site))
+        whenever(currentTimeProvider.currentDate()).thenAnswer { Date(now) }
+        setConnected(true)
+        outbox = createOutbox()
+        outbox.start()
+    }
+
+    @Test
+    fun testNothingIsRecordedUntilStarted() {
+        outbox.stop()
+
+        assertFalse(outbox.recordMutation(ENTITY_TYPE_POST, site, 1))
+        assertEquals(0L, outbox.getPendingMutationCount())
+    }
+
+    @Test
+    fun testMutationIsForgottenOnceSucceeded() {
+        assertFalse(outbox.recordMutation(ENTITY_TYPE_POST, site, 1))
+        assertEquals(1L, outbox.getPendingMutationCount())
+
+        outbox.onMutationSucceeded(ENTITY_TYPE_POST, site, 1)
+
+        assertEquals(0L, outbox.getPendingMutationCount())
+    }
+
+    @Test
+    fun testEditsOfAPendingEntityAreCoalesced() {
+        assertFalse(outbox.recordMutation(ENTITY_TYPE_POST, site, 1, "first"))
+        assertFalse(outbox.hasNewerMutation(ENTITY_TYPE_POST, site, 1))
+        assertTrue(outbox.recordMutation(ENTITY_TYPE_POST, site, 1, "second"))
+        assertTrue(outbox.recordMutation(ENTITY_TYPE_POST, site, 1, "third"))
+        // The response to the first mutation mustn't overwrite the latest edits
+        assertTrue(outbox.hasNewerMutation(ENTITY_TYPE_POST, site, 1))
+        outbox.replayDueMutations()
+        // The first mutation is still being sent
+        assertTrue(replays.isEmpty())
+
+        outbox.onMutationSucceeded(ENTITY_TYPE_POST, site, 1)
+        outbox.replayDueMutations()
+
+        assertEquals(listOf(1L to "third"), replays)
+        outbox.onMutationSucceeded(ENTITY_TYPE_POST, site, 1)
+        assertEquals(0L, outbox.getPendingMutationCount())
+    }
+
+    @Test
+    fun testMutationInFlightIsNotReplayedWhenRestarted() {
+        outbox.recordMutation(ENTITY_TYPE_POST, site, 1)
+        outbox.stop()
+        outbox.start()
+
+        outbox.replayDueMutations()
+        assertTrue(replays.isEmpty())
+
+        // It's only replayed if it fails
+        setConnected(false)
+        outbox.onMutationFailed(ENTITY_TYPE_POST, site, 1)
+        setConnected(true)
+        now += MutationOutbox.MAX_BACKOFF_MS
+        outbox.replayDueMutations()
+        assertEquals(listOf<Pair<Long, String?>>(1L to null), replays)
+    }
+
+    @Test
+    fun testMutationFailedOfflineIsReplayedAfterBackoff() {
+        outbox.recordMutation(ENTITY_TYPE_POST, site, 1)
+        setConnected(false)
+        outbox.onMutationFailed(ENTITY_TYPE_POST, site, 1)
+        setConnected(true)
+
+        val nextAttempt = OutboxSqlUtils().getMutation(SITE_LOCAL_ID, ENTITY_TYPE_POST, 1)!!.nextAttempt
+        assertTrue(nextAttempt <= now + MutationOutbox.getMaxBackoffMs(1))
+        now = nextAttempt
+        outbox.replayDueMutations()
+
+        assertEquals(listOf<Pair<Long, String?>>(1L to null), replays)
+    }
+
+    @Test
+    fun testMutationFailingOnlineIsDroppedAfterMaxAttempts() {
+        outbox.recordMutation(ENTITY_TYPE_POST, site, 1)
+        repeat(MAX_ONLINE_ATTEMPTS) {
+            now += MutationOutbox.MAX_BACKOFF_MS
+            outbox.replayDueMutations()
+            outbox.onMutationFailed(ENTITY_TYPE_POST, site, 1)
+        }
+
+        assertEquals(0L, outbox.getPendingMutationCount())
+    }
+
+    @Test
+    fun testPendingMutationsAreReplayedWithBoundedConcurrency() {
+        for (postId in 1L..5L) {
+            now++
+            outbox.recordMutation(ENTITY_TYPE_POST, site, postId)
+        }
+        // Simulates a process restart, the mutations were never completed
+        outbox = createOutbox()
+        outbox.start()
+
+        outbox.replayDueMutations()
+        assertEquals(listOf(1L, 2L, 3L), replays.map { it.first })
+        assertEquals(MAX_CONCURRENT_REPLAYS, replays.size)
+
+        outbox.onMutationSucceeded(ENTITY_TYPE_POST, site, 2)
+        outbox.replayDueMutations()
+        assertEquals(listOf(1L, 2L, 3L, 4L), replays.map { it.first })
+    }
+
+    private fun createOutbox() = MutationOutbox(
+            context,
+            OutboxSqlUtils(),
+            siteSqlUtils,
+            currentTimeProvider,
+            coroutineEngine,
+            mapOf(ENTITY_TYPE_POST to Provider<MutationOutbox.Replayer> {
+                object : MutationOutbox.Replayer {
+                    override fun replay(site: SiteModel, entityId: Long, payload: String?) {
+                        replays.add(entityId to payload)
+                    }
+                }
+            })
+    )
+
+    private fun setConnected(connected: Boolean) {
+        shadowOf(connectivityManager).setActiveNetworkInfo(if (connected) connectedNetworkInfo else null)
+    }
+
+    companion object {
+        private const val SITE_LOCAL_ID = 7
+    }
+}
@@ -0,0 +1,110 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.google.gson.Gson
+import com.yarolegovich.wellsql.WellSql
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.activity.ActivityLogModel
+import org.wordpress.android.fluxc.tools.FormattableContentMapper
+import java.util.Date
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class ActivityLogSqlUtilsTest {
+    private val activityLogSqlUtils = ActivityLogSqlUtils(FormattableContentMapper(Gson()))
+    private val site = SiteModel().apply { id = 1 }
+    private val otherSite = SiteModel().apply { id = 2 }
+
+    @Before
+    fun setUp() {
+        val config = WellSqlConfig(RuntimeEnvironment.application.applicationContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun testActivitiesAreUpdatedOnlyWithinTheirSite() {
+        activityLogSqlUtils.insertOrUpdateActivities(otherSite, listOf(activity("1", 1000, "Other site")))
+
+        assertEquals(1, activityLogSqlUtils.insertOrUpdateActivities(site, listOf(activity("1", 1000, "Inserted"))))
+        assertEquals(2, activityLogSqlUtils.insertOrUpdateActivities(site, listOf(
+                activity("1", 1000, "Updated"),
+                activity("2", 2000, "Inserted")
+        )))
+
+        assertEquals(2, activityLogSqlUtils.getActivityCountForSite(site))
+        assertEquals("Updated", activityLogSqlUtils.getActivityPageForSite(site, 10)[1].summary)
+        assertEquals("Other site", activityLogSqlUtils.getActivityPageForSite(otherSite, 10)[0].summary)
+    }
+
+    @Test
+    fun testActivitiesArePagedNewestFirst() {
+        // Two activities are published at the same time, and end up on both sides of a page boundary
+        activityLogSqlUtils.insertOrUpdateActivities(site, listOf(
+                activity("1", 1000),
+                activity("2", 3000),
+                activity("3", 2000),
+                activity("4", 2000),
+                activity("5", 4000)
+        ))
+
+        val firstPage = activityLogSqlUtils.getActivityPageForSite(site, 3)
+        assertEquals(listOf("5", "2", "4"), firstPage.map { it.activityID })
+        assertNotNull(firstPage.nextPageKey)
+
+        val lastPage = activityLogSqlUtils.getActivityPageForSite(site, 3, firstPage.nextPageKey)
+        assertEquals(listOf("3", "1"), lastPage.map { it.activityID })
+        assertNull(lastPage.nextPageKey)
+    }
+
+    @Test
+    fun testRewindableActivitiesArePaged() {
+        activityLogSqlUtils.insertOrUpdateActivities(site, listOf(
+                activity("1", 1000, rewindable = true),
+                activity("2", 2000, rewindable = false),
+                activity("3", 3000, rewindable = true)
+        ))
+
+        val page = activityLogSqlUtils.getActivityPageForSite(site, 1, rewindableOnly = true)
+        assertEquals(listOf("3"), page.map { it.activityID })
+        val nextPage = activityLogSqlUtils.getActivityPageForSite(site, 1, page.nextPageKey, rewindableOnly = true)
+        assertEquals(listOf("1"), nextPage.map { it.activityID })
+        assertNull(nextPage.nextPageKey)
+    }
+
+    @Test
+    fun testNewestActivityPublishedDate() {
+        assertNull(activityLogSqlUtils.getNewestActivityPublishedDate(site))
+
+        activityLogSqlUtils.insertOrUpdateActivities(site, listOf(activity("1", 1000), activity("2", 3000)))
+        activityLogSqlUtils.insertOrUpdateActivities(otherSite, listOf(activity("3", 5000)))
+
+        assertEquals(Date(3000), activityLogSqlUtils.getNewestActivityPublishedDate(site))
+    }
+
+    private fun activity(
+        activityId: String,
+        published: Long,
+        summary: String = "summary",
+        rewindable: Boolean = false
+    ) = ActivityLogModel(
+            activityID = activityId,
+            summary = summary,
+            content = null,
+            name = null,
+            type = null,
+            gridicon = null,
+            status = null,
+            rewindable = rewindable,
+            rewindID = null,
+            published = Date(published)
+    )
+}
@@ -0,0 +1,180 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.yarolegovich.wellsql.SelectQuery
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.CommentModel
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
+import org.wordpress.android.fluxc.model.MediaModel
+import org.wordpress.android.fluxc.model.PostModel
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.util.AppLog
+import org.wordpress.android.util.AppLog.T
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class SearchIndexSqlUtilsTest {
+    private val postSqlUtils = PostSqlUtils()
+    private val site = SiteModel().apply { id = 1 }
+
+    @Before
+    fun setUp() {
+        val appContext = RuntimeEnvironment.application.applicationContext
+
+        val config = WellSqlConfig(appContext)
+        WellSql.init(config)
+        config.reset()
+    }
+
+    @Test
+    fun `buildMatchQuery turns every term into a prefix query`() {
+        assertThat(SearchIndexSqlUtils.buildMatchQuery("Hello, wor")).isEqualTo("hello* wor*")
+        assertThat(SearchIndexSqlUtils.buildMatchQuery("\"quoted\" OR -x")).isEqualTo("quoted* or* x*")
+        assertThat(SearchIndexSqlUtils.buildMatchQuery(" ,. ")).isNull()
+        assertThat(SearchIndexSqlUtils.buildMatchQuery(null)).isNull()
+    }
+
+    @Test
+    fun `search matches prefixes of the words of the local drafts of the site`() {
+        val post1 = insertLocalDraft(localSiteId = 1, title = "Hello World")
+        insertLocalDraft(localSiteId = 1, title = "Goodbye")
+        insertLocalDraft(localSiteId = 2, title = "Hello World")
+        val post4 = insertLocalDraft(localSiteId = 1, title = "Unrelated", content = "<p>Hello, wordy world</p>")
+
+        assertThat(search("hel wor")).containsExactly(LocalId(post1.id), LocalId(post4.id))
+    }
+
+    @Test
+    fun `search doesn't match the middle of words`() {
+        insertLocalDraft(localSiteId = 1, title = "HelloWorld")
+
+        assertThat(search("world")).isEmpty()
+        assertThat(search("ell")).isEmpty()
+        assertThat(search("hellow")).hasSize(1)
+    }
+
+    @Test
+    fun `index is updated when posts are updated or deleted`() {
+        val post = insertLocalDraft(localSiteId = 1, title = "Draft title")
+
+        post.setTitle("Final title")
+        postSqlUtils.insertOrUpdatePost(post, true)
+
+        assertThat(search("draft")).isEmpty()
+        assertThat(search("final")).containsExactly(LocalId(post.id))
+
+        postSqlUtils.deletePost(post)
+
+        assertThat(search("final")).isEmpty()
+    }
+
+    @Test
+    fun `posts and pages are ranked with title matches above content matches`() {
+        val contentMatch = insertLocalDraft(localSiteId = 1, title = "Unrelated", content = "<p>Pancake recipes</p>")
+        val titleMatch = insertLocalDraft(localSiteId = 1, title = "Pancakes")
+        val page = postSqlUtils.insertPostForResult(newLocalDraft(1, "Waffles", "").apply { setIsPage(true) })
+
+        assertThat(postSqlUtils.searchPostIds(site, false, "pancake"))
+                .containsExactly(LocalId(titleMatch.id), LocalId(contentMatch.id))
+        assertThat(postSqlUtils.searchPostIds(site, false, "waffle")).isEmpty()
+        assertThat(postSqlUtils.searchPostIds(site, true, "waffle")).containsExactly(LocalId(page.id))
+    }
+
+    @Test
+    fun `media of the site are searched by relevance`() {
+        val descriptionMatch = insertMedia(localSiteId = 1, title = "Sea", description = "Sunset at the beach")
+        val titleMatch = insertMedia(localSiteId = 1, title = "Beach")
+        insertMedia(localSiteId = 2, title = "Beach")
+        insertMedia(localSiteId = 1, title = "Mountains")
+
+        val result = MediaSqlUtils.searchSiteMediaByRelevance(site, "beach")
+
+        assertThat(result.map { it.id }).containsExactly(titleMatch.id, descriptionMatch.id)
+    }
+
+    @Test
+    fun `comments of the site are searched by relevance`() {
+        val authorMatch = insertComment(localSiteId = 1, content = "Nice post", authorName = "Great Scott")
+        val contentMatch = insertComment(localSiteId = 1, content = "Great post", authorName = "Jane")
+        insertComment(localSiteId = 2, content = "Nice post", authorName = "Great Scott")
+
+        val result = CommentSqlUtils.searchCommentsForSite(site, "great")
+
+        assertThat(result.map { it.id }).containsExactly(contentMatch.id, authorMatch.id)
+        assertThat(CommentSqlUtils.searchCommentsForSite(site, "reat")).isEmpty()
+    }
+
+    @Test
+    fun `searching 10k local drafts through the index is faster than scanning them`() {
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            for (i in 0 until 10_000) {
+                val title = if (i % 1000 == 0) "Needle $i" else "Haystack $i"
+                val content = "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit $i</p>"
+                WellSql.insert(newLocalDraft(site.id, title, content)).execute()
+            }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+        val scanQuery = "SELECT _id FROM PostModel WHERE IS_LOCAL_DRAFT = 1 AND LOCAL_SITE_ID = ? AND IS_PAGE = 0 " +
+                "AND (TITLE LIKE '%needle%' OR CONTENT LIKE '%needle%') ORDER BY _id ASC"
+        val scan = {
+            db.rawQuery(scanQuery, arrayOf(site.id.toString())).use { cursor ->
+                generateSequence { if (cursor.moveToNext()) LocalId(cursor.getInt(0)) else null }.toList()
+            }
+        }
+        // Warm up both queries so that neither pays for compiling its statement
+        scan()
+        search("needle")
+
+        val scanStart = System.nanoTime()
+        val scanResult = (1..ITERATIONS).map { scan() }.last()
+        val scanMs = (System.nanoTime() - scanStart) / 1_000_000.0 / ITERATIONS
+        val searchStart = System.nanoTime()
+        val searchResult = (1..ITERATIONS).map { search("needle") }.last()
+        val searchMs = (System.nanoTime() - searchStart) / 1_000_000.0 / ITERATIONS
+        AppLog.i(T.TESTS, "Searching 10k local drafts: LIKE scan ${scanMs}ms, search index ${searchMs}ms")
+
+        assertThat(searchResult).hasSize(10).isEqualTo(scanResult)
+        assertThat(searchMs).isLessThan(scanMs)
+    }
+
+    private fun search(searchQuery: String) =
+            postSqlUtils.getLocalPostIdsForFilter(site, false, searchQuery, "_id", SelectQuery.ORDER_ASCENDING)
+
+    private fun insertLocalDraft(localSiteId: Int, title: String, content: String = "") =
+            postSqlUtils.insertPostForResult(newLocalDraft(localSiteId, title, content))
+
+    private fun insertMedia(localSiteId: Int, title: String, description: String = "") =
+            MediaSqlUtils.insertMediaForResult(MediaModel().apply {
+                this.localSiteId = localSiteId
+                this.title = title
+                this.description = description
+            })
+
+    private fun insertComment(localSiteId: Int, content: String, authorName: String) =
+            CommentSqlUtils.insertCommentForResult(CommentModel().apply {
+                this.localSiteId = localSiteId
+                this.content = content
+                this.authorName = authorName
+            })
+
+    private fun newLocalDraft(localSiteId: Int, title: String, content: String) = PostModel().apply {
+        setLocalSiteId(localSiteId)
+        setTitle(title)
+        setContent(content)
+        setIsLocalDraft(true)
+    }
+
+    companion object {
+        private const val ITERATIONS = 5
+    }
+}
@@ -0,0 +1,158 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.content.Context
+import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteException
+import com.yarolegovich.wellsql.SelectQuery
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.robolectric.annotation.Config
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.persistence.WellSqlConfig.Companion.ADDON_WOOCOMMERCE
+import org.wordpress.android.fluxc.persistence.WellSqlConfig.Companion.MIN_MIGRATED_DB_VERSION
+import org.wordpress.android.fluxc.persistence.WellSqlConfig.PreservedTable
+import org.wordpress.android.fluxc.utils.SortKeyUtils
+
+@Config(manifest = Config.NONE)
+@RunWith(RobolectricTestRunner::class)
+class WellSqlConfigTest {
+    private lateinit var config: WellSqlConfig
+    private lateinit var db: SQLiteDatabase
+
+    @Before
+    fun setUp() {
+        config = WellSqlConfig(RuntimeEnvironment.application.applicationContext)
+        WellSql.init(config)
+        config.reset()
+        db = WellSql.giveMeWritableDb()
+
+        db.execSQL("INSERT INTO AccountModel (_id, USER_NAME) VALUES (1, 'user')")
+        db.execSQL("INSERT INTO SiteModel (_id, SITE_ID, URL) VALUES (1, 100, 'https://example.com')")
+        db.execSQL("INSERT INTO PostModel (_id, LOCAL_SITE_ID, TITLE, IS_PAGE, IS_LOCAL_DRAFT, IS_LOCALLY_CHANGED) " +
+                "VALUES (1, 1, 'Local draft', 0, 1, 0), (2, 1, 'Edited post', 0, 0, 1), (3, 1, 'Remote post', 0, 0, 0)")
+        // The upload table of an older schema, without the columns added since
+        db.execSQL("DROP TABLE PostUploadModel")
+        db.execSQL("CREATE TABLE PostUploadModel (_id INTEGER PRIMARY KEY,UPLOAD_STATE INTEGER," +
+                "ASSOCIATED_MEDIA_IDS TEXT,ERROR_TYPE TEXT,ERROR_MESSAGE TEXT)")
+        db.execSQL("INSERT INTO PostUploadModel (_id, UPLOAD_STATE) VALUES (1, 2), (3, 3)")
+        db.execSQL("INSERT INTO MediaModel (_id, LOCAL_SITE_ID, UPLOAD_STATE) " +
+                "VALUES (1, 1, 'QUEUED'), (2, 1, 'UPLOADED'), (3, 1, 'UPLOADED')")
+        db.execSQL("INSERT INTO MediaUploadModel (_id, UPLOAD_STATE, PROGRESS) VALUES (1, 0, 0.5), (3, 2, 1.0)")
+        db.execSQL("CREATE TABLE RemovedModel (_id INTEGER PRIMARY KEY)")
+    }
+
+    @Test
+    fun `rebuilding keeps the account, the sites and the local changes`() {
+        config.rebuildFromCurrentSchema(db)
+
+        assertThat(queryIds("SELECT _id FROM AccountModel")).containsExactly(1)
+        assertThat(queryIds("SELECT _id FROM SiteModel WHERE SITE_ID = 100")).containsExactly(1)
+        assertThat(queryIds("SELECT _id FROM PostModel ORDER BY _id")).containsExactly(1, 2)
+        assertThat(queryIds("SELECT _id FROM PostUploadModel WHERE UPLOAD_STATE = 2")).containsExactly(1)
+        assertThat(queryIds("SELECT _id FROM MediaModel ORDER BY _id")).containsExactly(1, 3)
+        assertThat(queryIds("SELECT _id FROM MediaUploadModel ORDER BY _id")).containsExactly(1, 3)
+    }
+
+    @Test
+    fun `rebuilding recreates the tables from the current schema`() {
+        config.rebuildFromCurrentSchema(db)
+
+        assertThat(queryIds("SELECT COUNT(*) FROM sqlite_master WHERE name = 'RemovedModel'")).containsExactly(0)
+        // The post, media and comment search indexes are created like migration 164 does
+        assertThat(queryIds("SELECT COUNT(*) FROM sqlite_master WHERE name LIKE '%SearchIndex'")).containsExactly(3)
+        // The columns missing from the old table are empty
+        assertThat(queryIds("SELECT COUNT(*) FROM PostUploadModel WHERE NUMBER_OF_AUTO_UPLOAD_ATTEMPTS IS NULL"))
+                .containsExactly(1)
+        assertThat(PostSqlUtils().getLocalPostIdsForFilter(SiteModel().apply { id = 1 }, false, "draft", "_id",
+                SelectQuery.ORDER_ASCENDING)).containsExactly(LocalId(1))
+    }
+
+    @Test
+    fun `rebuilding copies the renamed columns and reports the rows which don't fit the current schema`() {
+        val renamingConfig = TestWellSqlConfig(RuntimeEnvironment.application.applicationContext,
+                listOf(PreservedTable("MediaSyncStateModel", renamedColumns = mapOf("MARK" to "WATERMARK"))))
+        db.execSQL("DROP TABLE MediaSyncStateModel")
+        db.execSQL("CREATE TABLE MediaSyncStateModel (_id INTEGER PRIMARY KEY AUTOINCREMENT,LOCAL_SITE_ID INTEGER," +
+                "MIME_TYPE TEXT,MARK TEXT)")
+        db.execSQL("INSERT INTO MediaSyncStateModel (_id, LOCAL_SITE_ID, MIME_TYPE, MARK) " +
+                "VALUES (1, 1, 'image', '2021-01-01'), (2, 1, NULL, '2020-01-01')")
+
+        renamingConfig.rebuildFromCurrentSchema(db)
+
+        // The row without a MIME type doesn't fit the NOT NULL column of the current schema
+        val watermarks = db.rawQuery("SELECT _id, WATERMARK FROM MediaSyncStateModel", null).use { cursor ->
+            generateSequence { if (cursor.moveToNext()) cursor.getInt(0) to cursor.getString(1) else null }.toList()
+        }
+        assertThat(watermarks).containsExactly(1 to "2021-01-01")
+        assertThat(renamingConfig.droppedRows).containsExactly("MediaSyncStateModel" to 1)
+    }
+
+    @Test
+    fun `the columns of the preserved tables in the old databases still exist or are mapped to their new name`() {
+        val preservedTables = TestWellSqlConfig(RuntimeEnvironment.application.applicationContext).defaultTables
+        val oldDb = SQLiteDatabase.create(null)
+        // Created by the first version of the schema and never recreated by a migration since
+        oldDb.execSQL("CREATE TABLE CommentModel (_id INTEGER PRIMARY KEY AUTOINCREMENT)")
+
+        val oldColumns = preservedTables.associate { it.tableName to mutableSetOf<String>() }
+        for (version in 1 until MIN_MIGRATED_DB_VERSION) {
+            config.runMigrations(oldDb, version, version)
+            oldColumns.forEach { (tableName, columns) -> columns += getColumnNames(oldDb, tableName) }
+        }
+        oldDb.close()
+
+        preservedTables.forEach { table ->
+            val currentColumns = getColumnNames(db, table.tableName)
+            val restoredColumns = oldColumns.getValue(table.tableName).map { table.renamedColumns[it] ?: it }
+            assertThat(currentColumns).describedAs(table.tableName).containsAll(restoredColumns)
+        }
+    }
+
+    @Test
+    fun `the product name sort keys are backfilled like the ones set by the products`() {
+        val wcConfig = WellSqlConfig(RuntimeEnvironment.application.applicationContext, ADDON_WOOCOMMERCE)
+        db.execSQL("CREATE TABLE WCProductModel (_id INTEGER PRIMARY KEY, NAME TEXT)")
+        db.execSQL("INSERT INTO WCProductModel (_id, NAME) VALUES (1, 'Éclair'), (2, 'Apple')")
+
+        wcConfig.runMigrations(db, 163, 163)
+
+        val sortKeys = db.rawQuery("SELECT NAME_SORT_KEY FROM WCProductModel ORDER BY _id", null).use { cursor ->
+            generateSequence { if (cursor.moveToNext()) cursor.getString(0) else null }.toList()
+        }
+        assertThat(sortKeys).containsExactly(SortKeyUtils.toSortKey("Éclair"), "apple")
+        assertThat(sortKeys.first()).isEqualTo("éclair")
+    }
+
+    private fun getColumnNames(db: SQLiteDatabase, tableName: String) = try {
+        db.rawQuery("SELECT * FROM $tableName LIMIT 0", null).use { it.columnNames.toList() }
+    } catch (e: SQLiteException) {
+        // The table doesn't exist yet at this version
+        emptyList<String>()
+    }
+
+    private fun queryIds(query: String) = db.rawQuery(query, null).use { cursor ->
+        generateSequence { if (cursor.moveToNext()) cursor.getInt(0) else null }.toList()
+    }
+}
+
+private class TestWellSqlConfig(
+    context: Context,
+    private val tables: List<PreservedTable>? = null
+) : WellSqlConfig(context) {
+    val droppedRows = mutableListOf<Pair<String, Int>>()
+    val defaultTables: List<PreservedTable>
+        get() = super.preservedTables
+
+    override val preservedTables: List<PreservedTable>
+        get() = tables ?: super.preservedTables
+
+    override fun onPreservedRowsDropped(tableName: String, droppedRowCount: Int, error: SQLiteException) {
+        droppedRows += tableName to droppedRowCount
+    }
+}
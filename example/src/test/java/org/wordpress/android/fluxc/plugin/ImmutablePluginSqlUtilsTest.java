@@ -0,0 +1,124 @@
+package org.wordpress.android.fluxc.plugin;
+
+import android.content.Context;
+
+import com.yarolegovich.wellsql.WellSql;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.model.plugin.ImmutablePluginModel;
+import org.wordpress.android.fluxc.model.plugin.SitePluginModel;
+import org.wordpress.android.fluxc.model.plugin.WPOrgPluginModel;
+import org.wordpress.android.fluxc.persistence.PluginSqlUtils;
+import org.wordpress.android.fluxc.persistence.WellSqlConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(RobolectricTestRunner.class)
+public class ImmutablePluginSqlUtilsTest {
+    private static final int TEST_LOCAL_SITE_ID = 1;
+    private static final int OTHER_LOCAL_SITE_ID = 2;
+
+    @Before
+    public void setUp() {
+        Context appContext = RuntimeEnvironment.application.getApplicationContext();
+
+        WellSqlConfig config = new WellSqlConfig(appContext);
+        WellSql.init(config);
+        config.reset();
+    }
+
+    @Test
+    public void testGetImmutableSitePlugins() {
+        SiteModel site = getTestSite(TEST_LOCAL_SITE_ID);
+        PluginSqlUtils.insertOrReplaceSitePlugins(site, Arrays.asList(
+                getSitePlugin("akismet", "Akismet"), getSitePlugin("custom", "Custom")));
+        PluginSqlUtils.insertOrUpdateWPOrgPluginList(Arrays.asList(
+                getWPOrgPlugin("akismet"), getWPOrgPlugin("jetpack")));
+
+        List<ImmutablePluginModel> plugins = PluginSqlUtils.getImmutableSitePlugins(site);
+
+        // Site plugins are ordered by name, only those with a stored wp.org plugin have its details
+        Assert.assertEquals(2, plugins.size());
+        Assert.assertEquals("akismet", plugins.get(0).getSlug());
+        Assert.assertTrue(plugins.get(0).isInstalled());
+        Assert.assertTrue(plugins.get(0).doesHaveWPOrgPluginDetails());
+        Assert.assertEquals("custom", plugins.get(1).getSlug());
+        Assert.assertFalse(plugins.get(1).doesHaveWPOrgPluginDetails());
+
+        Assert.assertTrue(PluginSqlUtils.getImmutableSitePlugins(getTestSite(OTHER_LOCAL_SITE_ID)).isEmpty());
+    }
+
+    @Test
+    public void testGetImmutablePlugins() {
+        SiteModel site = getTestSite(TEST_LOCAL_SITE_ID);
+        PluginSqlUtils.insertOrReplaceSitePlugins(site, Arrays.asList(getSitePlugin("jetpack", "Jetpack")));
+        PluginSqlUtils.insertOrReplaceSitePlugins(getTestSite(OTHER_LOCAL_SITE_ID),
+                Arrays.asList(getSitePlugin("akismet", "Akismet")));
+        List<WPOrgPluginModel> wpOrgPlugins = Arrays.asList(getWPOrgPlugin("jetpack"), getWPOrgPlugin("akismet"));
+
+        List<ImmutablePluginModel> plugins = PluginSqlUtils.getImmutablePlugins(site, wpOrgPlugins);
+
+        // The order of the wp.org plugins is kept, and only the plugins installed on the site are installed
+        Assert.assertEquals(2, plugins.size());
+        Assert.assertEquals("jetpack", plugins.get(0).getSlug());
+        Assert.assertTrue(plugins.get(0).isInstalled());
+        Assert.assertEquals("akismet", plugins.get(1).getSlug());
+        Assert.assertFalse(plugins.get(1).isInstalled());
+
+        // Without a site none of the plugins are installed
+        for (ImmutablePluginModel plugin : PluginSqlUtils.getImmutablePlugins(null, wpOrgPlugins)) {
+            Assert.assertFalse(plugin.isInstalled());
+        }
+    }
+
+    @Test
+    public void testGetWPOrgPluginsBySlugInChunks() {
+        List<WPOrgPluginModel> wpOrgPlugins = new ArrayList<>();
+        List<String> slugs = new ArrayList<>();
+        // More slugs than the SQLite limit of bound arguments in a single query
+        for (int i = 0; i < 1200; i++) {
+            wpOrgPlugins.add(getWPOrgPlugin("slug-" + i));
+            slugs.add("slug-" + i);
+        }
+        PluginSqlUtils.insertOrUpdateWPOrgPluginList(wpOrgPlugins);
+        slugs.add("missing");
+        slugs.add("slug-0");
+
+        Map<String, WPOrgPluginModel> result = PluginSqlUtils.getWPOrgPluginsBySlug(slugs);
+
+        Assert.assertEquals(1200, result.size());
+        Assert.assertEquals("slug-1199", result.get("slug-1199").getSlug());
+        Assert.assertFalse(result.containsKey("missing"));
+        Assert.assertTrue(PluginSqlUtils.getWPOrgPluginsBySlug(new ArrayList<String>()).isEmpty());
+    }
+
+    private SiteModel getTestSite(int localSiteId) {
+        SiteModel site = new SiteModel();
+        site.setId(localSiteId);
+        return site;
+    }
+
+    private SitePluginModel getSitePlugin(String slug, String displayName) {
+        SitePluginModel plugin = new SitePluginModel();
+        plugin.setSlug(slug);
+        plugin.setName(slug + "/" + slug + ".php");
+        plugin.setDisplayName(displayName);
+        return plugin;
+    }
+
+    private WPOrgPluginModel getWPOrgPlugin(String slug) {
+        WPOrgPluginModel plugin = new WPOrgPluginModel();
+        plugin.setSlug(slug);
+        return plugin;
+    }
+}
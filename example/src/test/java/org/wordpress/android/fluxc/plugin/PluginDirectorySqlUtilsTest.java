@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.SortedMap;
 
 @RunWith(RobolectricTestRunner.class)
 public class PluginDirectorySqlUtilsTest {
@@ -160,6 +161,59 @@ public class PluginDirectorySqlUtilsTest {
         }
     }
 
+    @Test
+    public void testReplacePluginDirectoryPage() {
+        PluginDirectoryType directoryType = PluginDirectoryType.POPULAR;
+        PluginSqlUtils.replacePluginDirectoryPage(directoryType, 1, true,
+                getDirectoryPage(directoryType, 1, "akismet", "jetpack"), getWPOrgPlugins("akismet", "jetpack"));
+        PluginSqlUtils.replacePluginDirectoryPage(directoryType, 2, false,
+                getDirectoryPage(directoryType, 2, "woocommerce"), getWPOrgPlugins("woocommerce"));
+
+        // Fetching a page again replaces it, and keeps the other pages
+        PluginSqlUtils.replacePluginDirectoryPage(directoryType, 2, false,
+                getDirectoryPage(directoryType, 2, "jetpack", "yoast"), getWPOrgPlugins("jetpack", "yoast"));
+        SortedMap<Integer, List<WPOrgPluginModel>> pages =
+                PluginSqlUtils.getWPOrgPluginPagesForDirectory(directoryType);
+        Assert.assertEquals(2, pages.size());
+        Assert.assertEquals(2, pages.get(1).size());
+        Assert.assertEquals("yoast", pages.get(2).get(1).getSlug());
+        // The plugin which moved from the first page to the second one is only listed once
+        List<WPOrgPluginModel> plugins = PluginSqlUtils.getWPOrgPluginsForDirectory(directoryType);
+        Assert.assertEquals(3, plugins.size());
+        Assert.assertEquals("akismet", plugins.get(0).getSlug());
+        Assert.assertEquals("jetpack", plugins.get(1).getSlug());
+        Assert.assertEquals("yoast", plugins.get(2).getSlug());
+
+        // A fresh list replaces all the pages
+        PluginSqlUtils.replacePluginDirectoryPage(directoryType, 1, true,
+                getDirectoryPage(directoryType, 1, "woocommerce"), getWPOrgPlugins("woocommerce"));
+        plugins = PluginSqlUtils.getWPOrgPluginsForDirectory(directoryType);
+        Assert.assertEquals(1, plugins.size());
+        Assert.assertEquals("woocommerce", plugins.get(0).getSlug());
+    }
+
+    private List<PluginDirectoryModel> getDirectoryPage(PluginDirectoryType directoryType, int page, String... slugs) {
+        List<PluginDirectoryModel> directoryModels = new ArrayList<>();
+        for (String slug : slugs) {
+            PluginDirectoryModel directoryModel = new PluginDirectoryModel();
+            directoryModel.setSlug(slug);
+            directoryModel.setDirectoryType(directoryType.toString());
+            directoryModel.setPage(page);
+            directoryModels.add(directoryModel);
+        }
+        return directoryModels;
+    }
+
+    private List<WPOrgPluginModel> getWPOrgPlugins(String... slugs) {
+        List<WPOrgPluginModel> wpOrgPlugins = new ArrayList<>();
+        for (String slug : slugs) {
+            WPOrgPluginModel wpOrgPluginModel = new WPOrgPluginModel();
+            wpOrgPluginModel.setSlug(slug);
+            wpOrgPlugins.add(wpOrgPluginModel);
+        }
+        return wpOrgPlugins;
+    }
+
     @SuppressWarnings("unchecked")
     private List<PluginDirectoryModel> getPluginDirectoriesForType(PluginDirectoryType directoryType)
             throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
@@ -105,6 +105,25 @@ public class WPOrgPluginSqlUtilsTest {
         }
     }
 
+    @Test
+    public void testInsertWPOrgPluginListWithDuplicateSlugs() {
+        String slug = randomString("slug");
+        WPOrgPluginModel plugin = new WPOrgPluginModel();
+        plugin.setSlug(slug);
+        WPOrgPluginModel duplicatePlugin = new WPOrgPluginModel();
+        duplicatePlugin.setSlug(slug);
+        duplicatePlugin.setDisplayName("Duplicate");
+        List<WPOrgPluginModel> plugins = new ArrayList<>();
+        plugins.add(plugin);
+        plugins.add(duplicatePlugin);
+
+        // The second occurrence updates the plugin inserted for the first one
+        Assert.assertEquals(2, PluginSqlUtils.insertOrUpdateWPOrgPluginList(plugins));
+        WPOrgPluginModel insertedPlugin = PluginSqlUtils.getWPOrgPluginBySlug(slug);
+        Assert.assertNotNull(insertedPlugin);
+        Assert.assertEquals("Duplicate", insertedPlugin.getDisplayName());
+    }
+
     @Test
     public void testUpdateWPOrgPluginList() {
         int numberOfPlugins = 2;
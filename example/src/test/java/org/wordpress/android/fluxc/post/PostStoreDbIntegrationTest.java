@@ -26,6 +26,7 @@ import org.wordpress.android.fluxc.model.revisions.LocalRevisionModel;
 import org.wordpress.android.fluxc.model.revisions.RevisionModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.post.PostXMLRPCClient;
+import org.wordpress.android.fluxc.outbox.MutationOutbox;
 import org.wordpress.android.fluxc.persistence.PostSqlUtils;
 import org.wordpress.android.fluxc.persistence.WellSqlConfig;
 import org.wordpress.android.fluxc.store.PostStore;
@@ -49,7 +50,7 @@ import static org.junit.Assert.assertNotEquals;
 public class PostStoreDbIntegrationTest {
     private PostSqlUtils mPostSqlUtils = new PostSqlUtils();
     private PostStore mPostStore = new PostStore(new Dispatcher(), Mockito.mock(PostRestClient.class),
-            Mockito.mock(PostXMLRPCClient.class), mPostSqlUtils);
+            Mockito.mock(PostXMLRPCClient.class), mPostSqlUtils, Mockito.mock(MutationOutbox.class));
 
     @Before
     public void setUp() {
@@ -3,6 +3,7 @@ package org.wordpress.android.fluxc.post
 import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.argThat
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.verifyNoMoreInteractions
 import com.nhaarman.mockitokotlin2.whenever
@@ -10,40 +11,95 @@ import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.mockito.Mock
+import org.mockito.Mockito.lenient
 import org.mockito.junit.MockitoJUnitRunner
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.action.ListAction
 import org.wordpress.android.fluxc.action.PostAction
 import org.wordpress.android.fluxc.generated.PostActionBuilder
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
 import org.wordpress.android.fluxc.model.PostModel
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.list.PostListDescriptor
 import org.wordpress.android.fluxc.model.post.PostStatus
 import org.wordpress.android.fluxc.model.post.PostStatus.PUBLISHED
+import org.wordpress.android.fluxc.outbox.MutationOutbox
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Companion.ENTITY_TYPE_POST
 import org.wordpress.android.fluxc.persistence.PostSqlUtils
 import org.wordpress.android.fluxc.store.ListStore.FetchedListItemsPayload
 import org.wordpress.android.fluxc.store.PostStore
 import org.wordpress.android.fluxc.store.PostStore.FetchPostListResponsePayload
+import org.wordpress.android.fluxc.store.PostStore.OnPostUploaded
 import org.wordpress.android.fluxc.store.PostStore.PostError
 import org.wordpress.android.fluxc.store.PostStore.PostErrorType.GENERIC_ERROR
 import org.wordpress.android.fluxc.store.PostStore.PostListItem
+import org.wordpress.android.fluxc.store.PostStore.RemotePostPayload
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
 
 @RunWith(MockitoJUnitRunner::class)
 class PostStoreTest {
     @Mock lateinit var site: SiteModel
     @Mock lateinit var postSqlUtils: PostSqlUtils
     @Mock lateinit var dispatcher: Dispatcher
+    @Mock lateinit var mutationOutbox: MutationOutbox
     private lateinit var store: PostStore
     @Mock lateinit var mockedListDescriptor: PostListDescriptor
 
     @Before
     fun setUp() {
-        store = PostStore(dispatcher, mock(), mock(), postSqlUtils)
-        whenever(mockedListDescriptor.site).thenReturn(mock())
+        store = PostStore(dispatcher, mock(), mock(), postSqlUtils, mutationOutbox)
+        lenient().doReturn(mock<SiteModel>()).whenever(mockedListDescriptor).site
         // verify "register" so we can use verifyNoMoreInteractions in all the test methods
         verify(dispatcher).register(any())
     }
 
+    @Test
+    fun `pushed post keeps the local edits made while the push was in flight`() {
+        // Arrange
+        val uploadedPost = PostModel().apply {
+            id = LOCAL_POST_ID
+            remotePostId = REMOTE_POST_ID
+            title = "uploaded"
+        }
+        val localPost = PostModel().apply {
+            id = LOCAL_POST_ID
+            title = "edited while pushing"
+            setIsLocalDraft(true)
+        }
+        whenever(site.id).thenReturn(LOCAL_SITE_ID)
+        whenever(mutationOutbox.hasNewerMutation(ENTITY_TYPE_POST, site, LOCAL_POST_ID.toLong())).thenReturn(true)
+        whenever(postSqlUtils.getPostsByLocalOrRemotePostIds(listOf(LocalId(LOCAL_POST_ID)), LOCAL_SITE_ID))
+                .thenReturn(listOf(localPost))
+
+        // Act
+        store.onAction(PostActionBuilder.newPushedPostAction(RemotePostPayload(uploadedPost, site)))
+
+        // Assert
+        verify(postSqlUtils).insertOrUpdatePostOverwritingLocalChanges(localPost)
+        verify(postSqlUtils, never()).insertOrUpdatePostOverwritingLocalChanges(uploadedPost)
+        assertEquals("edited while pushing", localPost.title)
+        assertEquals(REMOTE_POST_ID, localPost.remotePostId)
+        assertFalse(localPost.isLocalDraft)
+        verify(mutationOutbox).onMutationSucceeded(ENTITY_TYPE_POST, site, LOCAL_POST_ID.toLong())
+        verify(dispatcher).emitChange(argThat { this is OnPostUploaded && isQueued && error == null })
+    }
+
+    @Test
+    fun `push coalesced with a pending push emits a queued OnPostUploaded`() {
+        // Arrange
+        val pushedPost = PostModel().apply { id = LOCAL_POST_ID }
+        whenever(mutationOutbox.recordMutation(ENTITY_TYPE_POST, site, LOCAL_POST_ID.toLong(), "false"))
+                .thenReturn(true)
+
+        // Act
+        store.onAction(PostActionBuilder.newPushPostAction(RemotePostPayload(pushedPost, site)))
+
+        // Assert
+        verify(dispatcher).emitChange(argThat { this is OnPostUploaded && post == pushedPost && isQueued })
+        verify(site, never()).isUsingWpComRestApi
+    }
+
     @Test
     fun `handleFetchedPostList emits FetchedListItemsAction on success`() {
         // Arrange
@@ -321,4 +377,10 @@ class PostStoreTest {
         lastModified: String = post.lastModified,
         autoSaveModified: String? = post.autoSaveModified
     ) = PostListItem(post.remotePostId, lastModified, status, autoSaveModified)
+
+    companion object {
+        private const val LOCAL_SITE_ID = 2
+        private const val LOCAL_POST_ID = 1
+        private const val REMOTE_POST_ID = 100L
+    }
 }
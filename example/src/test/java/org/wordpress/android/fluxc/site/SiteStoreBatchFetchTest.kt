@@ -0,0 +1,69 @@
+package org.wordpress.android.fluxc.site
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.eq
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.spy
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.yarolegovich.wellsql.WellSql
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.WellSqlTestUtils
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.FetchedSitesInBatchesPayload
+import org.wordpress.android.fluxc.persistence.PostSqlUtils
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils
+import org.wordpress.android.fluxc.persistence.WellSqlConfig
+import org.wordpress.android.fluxc.site.SiteUtils.generateTestSite
+import org.wordpress.android.fluxc.store.SiteStore
+import org.wordpress.android.fluxc.store.SiteStore.FetchSitesPayload
+import org.wordpress.android.fluxc.store.SiteStore.SiteFilter.WPCOM
+import org.wordpress.android.fluxc.test
+import org.wordpress.android.fluxc.tools.initCoroutineEngine
+
+@RunWith(RobolectricTestRunner::class)
+class SiteStoreBatchFetchTest {
+    private val siteRestClient = mock<SiteRestClient>()
+    private val siteSqlUtils = spy(SiteSqlUtils())
+    private val siteStore = SiteStore(Dispatcher(), PostSqlUtils(), siteRestClient, mock(), mock(), siteSqlUtils,
+            initCoroutineEngine())
+
+    @Before
+    fun setUp() {
+        val config = WellSqlConfig(RuntimeEnvironment.application.applicationContext)
+        WellSql.init(config)
+        config.reset()
+        WellSqlTestUtils.setupWordPressComAccount()
+    }
+
+    @Test
+    fun `the local sites are loaded once for all the batches of a fetch`() = test {
+        siteSqlUtils.insertOrUpdateSite(generateTestSite(1, "https://site1.com", "https://site1.com/xmlrpc.php",
+                true, true))
+        val batches = (1L..150L).map {
+            generateTestSite(it, "https://site$it.com", "https://site$it.com/xmlrpc.php", true, true)
+        }.chunked(50)
+        val payload = FetchSitesPayload(listOf(WPCOM), inBatches = true)
+        whenever(siteRestClient.fetchSitesInBatches(eq(payload.filters), any())).thenAnswer {
+            @Suppress("UNCHECKED_CAST")
+            val onBatch = it.arguments[1] as (List<SiteModel>) -> Unit
+            batches.forEach(onBatch)
+            FetchedSitesInBatchesPayload((1L..150L).toSet())
+        }
+
+        val onSiteChanged = siteStore.fetchSites(payload)
+
+        verify(siteSqlUtils, times(1)).getSites()
+        assertThat(onSiteChanged.error).isNull()
+        assertThat(onSiteChanged.rowsAffected).isEqualTo(150)
+        assertThat(siteStore.sitesCount).isEqualTo(150)
+    }
+}
@@ -13,7 +13,9 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.wordpress.android.fluxc.Dispatcher;
 import org.wordpress.android.fluxc.WellSqlTestUtils;
+import org.wordpress.android.fluxc.model.AccountModel;
 import org.wordpress.android.fluxc.model.PostFormatModel;
+import org.wordpress.android.fluxc.model.PostModel;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.SitesModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.site.GutenbergLayout;
@@ -867,6 +869,88 @@ public class SiteStoreUnitTest {
         }
     }
 
+    @Test
+    public void testReconcileWPComRestSites() throws DuplicateSiteException {
+        WellSqlTestUtils.setupWordPressComAccount();
+
+        SiteModel updatedSite = generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true);
+        updatedSite.setMobileEditor("gutenberg");
+        mSiteSqlUtils.insertOrUpdateSite(updatedSite);
+        SiteModel removedSite = generateTestSite(2, "https://pony2.com", "https://pony2.com/xmlrpc.php", true, true);
+        mSiteSqlUtils.insertOrUpdateSite(removedSite);
+        SiteModel siteWithLocalChanges =
+                generateTestSite(3, "https://pony3.com", "https://pony3.com/xmlrpc.php", true, true);
+        mSiteSqlUtils.insertOrUpdateSite(siteWithLocalChanges);
+        SiteModel selfHostedSite = generateTestSite(0, "http://pony5.com", "http://pony5.com/xmlrpc.php", false, true);
+        mSiteSqlUtils.insertOrUpdateSite(selfHostedSite);
+
+        PostModel localDraft = new PostModel();
+        localDraft.setLocalSiteId(siteWithLocalChanges.getId());
+        localDraft.setIsLocalDraft(true);
+        WellSql.insert(localDraft).execute();
+
+        List<SiteModel> fetchedSites = new ArrayList<>();
+        SiteModel fetchedSite = generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true);
+        fetchedSite.setName("Pony 1");
+        fetchedSites.add(fetchedSite);
+        fetchedSites.add(generateTestSite(4, "https://pony4.com", "https://pony4.com/xmlrpc.php", true, true));
+        // The self-hosted site was connected to Jetpack, it's upgraded instead of being duplicated
+        fetchedSites.add(generateTestSite(5, "https://pony5.com", "https://pony5.com/xmlrpc.php", true, true));
+
+        SiteSqlUtils.SitesReconciliationResult res =
+                mSiteSqlUtils.reconcileWPComRestSites(mPostSqlUtils, fetchedSites);
+
+        assertFalse(res.getDuplicateSiteFound());
+        assertEquals(3, res.getRowsAffected());
+        assertEquals(1, res.getRemovedCount());
+        assertEquals(4, mSiteStore.getSitesCount());
+        assertNull(mSiteStore.getSiteBySiteId(2));
+        assertNotNull(mSiteStore.getSiteBySiteId(3));
+        assertNotNull(mSiteStore.getSiteBySiteId(4));
+
+        SiteModel siteFromDb = mSiteStore.getSiteByLocalId(updatedSite.getId());
+        assertEquals("Pony 1", siteFromDb.getName());
+        assertEquals("gutenberg", siteFromDb.getMobileEditor());
+
+        SiteModel upgradedSite = mSiteStore.getSiteByLocalId(selfHostedSite.getId());
+        assertEquals(5, upgradedSite.getSiteId());
+        assertEquals(SiteModel.ORIGIN_WPCOM_REST, upgradedSite.getOrigin());
+    }
+
+    @Test
+    public void testReconcileWPComRestSitesDuplicate() {
+        WellSqlTestUtils.setupWordPressComAccount();
+
+        List<SiteModel> siteList = new ArrayList<>();
+        siteList.add(generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        siteList.add(generateTestSite(2, "https://pony2.com", "https://pony2.com/xmlrpc.php", true, true));
+        // duplicate with a different id, we should ignore it
+        siteList.add(generateTestSite(3, "https://pony2.com", "http://pony2.com/xmlrpc.php", true, true));
+
+        SiteSqlUtils.SitesReconciliationResult res = mSiteSqlUtils.reconcileWPComRestSites(mPostSqlUtils, siteList);
+
+        assertTrue(res.getDuplicateSiteFound());
+        assertEquals(2, res.getRowsAffected());
+        assertEquals(2, mSiteStore.getSitesCount());
+    }
+
+    @Test
+    public void testReconcileWPComRestSitesWithoutAccount() throws DuplicateSiteException {
+        WellSqlTestUtils.setupWordPressComAccount();
+        mSiteSqlUtils.insertOrUpdateSite(
+                generateTestSite(1, "https://pony1.com", "https://pony1.com/xmlrpc.php", true, true));
+        WellSql.delete(AccountModel.class).execute();
+
+        List<SiteModel> siteList = Collections.singletonList(
+                generateTestSite(2, "https://pony2.com", "https://pony2.com/xmlrpc.php", true, true));
+        SiteSqlUtils.SitesReconciliationResult res = mSiteSqlUtils.reconcileWPComRestSites(mPostSqlUtils, siteList);
+
+        // Sites absent from the list are still removed, but nothing is inserted after sign out
+        assertEquals(0, res.getRowsAffected());
+        assertEquals(1, res.getRemovedCount());
+        assertEquals(0, mSiteStore.getSitesCount());
+    }
+
     @Test
     public void testInsertAndRetrieveForActiveModules() throws DuplicateSiteException {
         WellSqlTestUtils.setupWordPressComAccount();
@@ -4,6 +4,7 @@ import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.anyOrNull
 import com.nhaarman.mockitokotlin2.eq
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import com.yarolegovich.wellsql.SelectQuery
@@ -38,7 +39,9 @@ import org.wordpress.android.fluxc.store.ActivityLogStore.RewindPayload
 import org.wordpress.android.fluxc.store.ActivityLogStore.RewindRequestTypes
 import org.wordpress.android.fluxc.store.ActivityLogStore.RewindResultPayload
 import org.wordpress.android.fluxc.test
+import org.wordpress.android.fluxc.tools.JobStatusTracker
 import org.wordpress.android.fluxc.tools.initCoroutineEngine
+import java.util.Date
 
 @RunWith(MockitoJUnitRunner::class)
 class ActivityLogStoreTest {
@@ -51,7 +54,7 @@ class ActivityLogStoreTest {
     @Before
     fun setUp() {
         activityLogStore = ActivityLogStore(activityLogRestClient, activityLogSqlUtils,
-                initCoroutineEngine(), dispatcher)
+                initCoroutineEngine(), JobStatusTracker(initCoroutineEngine()), dispatcher)
     }
 
     @Test
@@ -86,14 +89,63 @@ class ActivityLogStoreTest {
                 )
         )
 
-        val existingActivities = listOf<ActivityLogModel>(mock())
-        whenever(activityLogSqlUtils.getActivitiesForSite(siteModel, SelectQuery.ORDER_ASCENDING))
-                .thenReturn(existingActivities)
+        val existingActivityCount = 1
+        whenever(activityLogSqlUtils.getActivityCountForSite(siteModel)).thenReturn(existingActivityCount)
 
         val action = ActivityLogActionBuilder.newFetchActivitiesAction(payload)
         activityLogStore.onAction(action)
 
-        verify(activityLogRestClient).fetchActivity(payload, PAGE_SIZE, existingActivities.size)
+        verify(activityLogRestClient).fetchActivity(payload, PAGE_SIZE, existingActivityCount)
+    }
+
+    @Test
+    fun incrementalFetchOnlyFetchesActivitiesNewerThanTheStoredOnes() = test {
+        val payload = FetchActivityLogPayload(siteModel, incremental = true)
+        val newest = Date(1_000_000)
+        val newActivities = listOf<ActivityLogModel>(mock())
+        whenever(activityLogSqlUtils.getNewestActivityPublishedDate(siteModel)).thenReturn(newest)
+        whenever(activityLogRestClient.fetchActivitiesNewerThan(payload, PAGE_SIZE, newest)).thenReturn(
+                FetchedActivityLogPayload(newActivities, siteModel, newActivities.size, PAGE_SIZE, 0)
+        )
+        whenever(activityLogSqlUtils.insertOrUpdateActivities(siteModel, newActivities)).thenReturn(1)
+
+        activityLogStore.onAction(ActivityLogActionBuilder.newFetchActivitiesAction(payload))
+
+        verify(activityLogSqlUtils, never()).deleteActivityLog(any())
+        verify(activityLogRestClient, never()).fetchActivity(any(), any(), any())
+        val expectedChangeEvent = ActivityLogStore.OnActivityLogFetched(1, true, ActivityLogAction.FETCH_ACTIVITIES)
+        verify(dispatcher).emitChange(eq(expectedChangeEvent))
+    }
+
+    @Test
+    fun incrementalFetchRefreshesTheLogWhenThereAreMoreNewActivitiesThanAPage() = test {
+        val payload = FetchActivityLogPayload(siteModel, incremental = true)
+        val newest = Date(1_000_000)
+        whenever(activityLogSqlUtils.getNewestActivityPublishedDate(siteModel)).thenReturn(newest)
+        whenever(activityLogRestClient.fetchActivitiesNewerThan(payload, PAGE_SIZE, newest)).thenReturn(
+                FetchedActivityLogPayload(listOf(mock()), siteModel, PAGE_SIZE + 1, PAGE_SIZE, 0)
+        )
+        whenever(activityLogRestClient.fetchActivity(payload, PAGE_SIZE, 0)).thenReturn(
+                FetchedActivityLogPayload(listOf(mock()), siteModel, 500, PAGE_SIZE, 0)
+        )
+
+        activityLogStore.onAction(ActivityLogActionBuilder.newFetchActivitiesAction(payload))
+
+        verify(activityLogSqlUtils).deleteActivityLog(siteModel)
+        verify(activityLogRestClient).fetchActivity(payload, PAGE_SIZE, 0)
+    }
+
+    @Test
+    fun incrementalFetchOfAFilteredLogFetchesTheFirstPage() = test {
+        val payload = FetchActivityLogPayload(siteModel, groups = listOf("post"), incremental = true)
+        whenever(activityLogRestClient.fetchActivity(payload, PAGE_SIZE, 0)).thenReturn(
+                FetchedActivityLogPayload(listOf(), siteModel, 0, PAGE_SIZE, 0)
+        )
+
+        activityLogStore.onAction(ActivityLogActionBuilder.newFetchActivitiesAction(payload))
+
+        verify(activityLogSqlUtils, never()).getNewestActivityPublishedDate(any())
+        verify(activityLogSqlUtils).deleteActivityLog(siteModel)
     }
 
     @Test
@@ -0,0 +1,100 @@
+package org.wordpress.android.fluxc.store
+
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.yarolegovich.wellsql.WellSql
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.RuntimeEnvironment
+import org.wordpress.android.fluxc.model.plugin.PluginDirectoryModel
+import org.wordpress.android.fluxc.model.plugin.PluginDirectoryType
+import org.wordpress.android.fluxc.model.plugin.PluginDirectoryType.NEW
+import org.wordpress.android.fluxc.model.plugin.PluginDirectoryType.POPULAR
+import org.wordpress.android.fluxc.model.plugin.WPOrgPluginModel
+import org.wordpress.android.fluxc.persistence.PluginSqlUtils
+import org.wordpress.android.fluxc.persistence.WellSqlConfig
+import org.wordpress.android.fluxc.utils.CurrentTimeProvider
+import java.util.Date
+import kotlin.test.assertEquals
+
+@RunWith(RobolectricTestRunner::class)
+class PluginDirectoryPageCacheTest {
+    private val currentTimeProvider = mock<CurrentTimeProvider>()
+    private var now = 1_000_000L
+
+    private lateinit var cache: PluginDirectoryPageCache
+
+    @Before
+    fun setUp() {
+        val config = WellSqlConfig(RuntimeEnvironment.application.applicationContext)
+        WellSql.init(config)
+        config.reset()
+
+        whenever(currentTimeProvider.currentDate()).thenAnswer { Date(now) }
+        cache = PluginDirectoryPageCache(currentTimeProvider)
+    }
+
+    @Test
+    fun testPagesAreServedFromTheCacheUntilTheyExpire() {
+        replacePage(POPULAR, 1, "akismet", "jetpack")
+        assertEquals(listOf("akismet", "jetpack"), cache.getPlugins(POPULAR).map { it.slug })
+
+        // Written behind the cache's back, so only visible once the cached directory expires
+        PluginSqlUtils.replacePluginDirectoryPage(POPULAR, 1, true, directoryPage(POPULAR, 1, "yoast"),
+                wpOrgPlugins("yoast"))
+        now += PluginDirectoryPageCache.TTL_MS - 1
+        assertEquals(listOf("akismet", "jetpack"), cache.getPlugins(POPULAR).map { it.slug })
+
+        now++
+        assertEquals(listOf("yoast"), cache.getPlugins(POPULAR).map { it.slug })
+    }
+
+    @Test
+    fun testFetchedPagesAreAddedToTheCachedDirectory() {
+        replacePage(POPULAR, 1, "akismet")
+        cache.getPlugins(POPULAR)
+
+        replacePage(POPULAR, 2, "jetpack", "akismet")
+        now += PluginDirectoryPageCache.TTL_MS / 2
+        replacePage(POPULAR, 3, "yoast")
+
+        assertEquals(listOf("akismet", "jetpack", "yoast"), cache.getPlugins(POPULAR).map { it.slug })
+        // The first page expires before the others, which evicts the whole directory
+        PluginSqlUtils.replacePluginDirectoryPage(POPULAR, 3, false, directoryPage(POPULAR, 3, "woocommerce"),
+                wpOrgPlugins("woocommerce"))
+        now += PluginDirectoryPageCache.TTL_MS / 2
+        assertEquals(listOf("akismet", "jetpack", "woocommerce"), cache.getPlugins(POPULAR).map { it.slug })
+    }
+
+    @Test
+    fun testFetchingAPageEvictsTheOtherDirectories() {
+        replacePage(NEW, 1, "akismet")
+        assertEquals(listOf("akismet"), cache.getPlugins(NEW).map { it.slug })
+        PluginSqlUtils.replacePluginDirectoryPage(NEW, 1, true, directoryPage(NEW, 1, "yoast"), wpOrgPlugins("yoast"))
+
+        replacePage(POPULAR, 1, "jetpack")
+
+        assertEquals(listOf("yoast"), cache.getPlugins(NEW).map { it.slug })
+        assertEquals(listOf("jetpack"), cache.getPlugins(POPULAR).map { it.slug })
+    }
+
+    private fun replacePage(directoryType: PluginDirectoryType, page: Int, vararg slugs: String) {
+        val plugins = wpOrgPlugins(*slugs)
+        PluginSqlUtils.replacePluginDirectoryPage(directoryType, page, page == 1,
+                directoryPage(directoryType, page, *slugs), plugins)
+        cache.putPage(directoryType, page, page == 1, plugins)
+    }
+
+    private fun directoryPage(directoryType: PluginDirectoryType, page: Int, vararg slugs: String) =
+            slugs.map {
+                PluginDirectoryModel().apply {
+                    slug = it
+                    this.directoryType = directoryType.toString()
+                    this.page = page
+                }
+            }
+
+    private fun wpOrgPlugins(vararg slugs: String) = slugs.map { WPOrgPluginModel().apply { slug = it } }
+}
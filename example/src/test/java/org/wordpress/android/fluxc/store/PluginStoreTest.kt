@@ -0,0 +1,46 @@
+package org.wordpress.android.fluxc.store
+
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.Mock
+import org.mockito.junit.MockitoJUnitRunner
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.generated.PluginActionBuilder
+import org.wordpress.android.fluxc.network.wporg.plugin.PluginWPOrgClient
+import org.wordpress.android.fluxc.store.PluginStore.FetchWPOrgPluginsPayload
+import org.wordpress.android.fluxc.utils.CurrentTimeProvider
+import java.util.Date
+
+@RunWith(MockitoJUnitRunner::class)
+class PluginStoreTest {
+    @Mock lateinit var dispatcher: Dispatcher
+    @Mock lateinit var pluginWPOrgClient: PluginWPOrgClient
+    @Mock lateinit var currentTimeProvider: CurrentTimeProvider
+    private lateinit var pluginStore: PluginStore
+
+    @Before
+    fun setUp() {
+        pluginStore = PluginStore(dispatcher, mock(), pluginWPOrgClient, mock(), currentTimeProvider)
+    }
+
+    @Test
+    fun `wp org plugins are requested again once the fetch ttl has expired`() {
+        val slugs = listOf("akismet", "jetpack")
+        whenever(currentTimeProvider.currentDate()).thenReturn(
+                Date(0),
+                Date(PluginStore.WPORG_PLUGIN_FETCH_TTL_MS - 1),
+                Date(PluginStore.WPORG_PLUGIN_FETCH_TTL_MS)
+        )
+
+        repeat(3) {
+            pluginStore.onAction(PluginActionBuilder.newFetchWporgPluginsAction(FetchWPOrgPluginsPayload(slugs)))
+        }
+
+        verify(pluginWPOrgClient, times(2)).fetchWPOrgPlugins(slugs)
+    }
+}
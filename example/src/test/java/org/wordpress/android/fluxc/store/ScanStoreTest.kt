@@ -51,6 +51,7 @@ import org.wordpress.android.fluxc.store.ScanStore.ScanStartResultPayload
 import org.wordpress.android.fluxc.store.ScanStore.ScanStateError
 import org.wordpress.android.fluxc.store.ScanStore.ScanStateErrorType
 import org.wordpress.android.fluxc.test
+import org.wordpress.android.fluxc.tools.JobStatusTracker
 import org.wordpress.android.fluxc.tools.initCoroutineEngine
 import org.wordpress.android.fluxc.utils.BuildConfigWrapper
 
@@ -93,6 +94,7 @@ class ScanStoreTest {
             initCoroutineEngine(),
             mock(),
             buildConfigWrapper,
+            JobStatusTracker(initCoroutineEngine()),
             dispatcher
         )
     }
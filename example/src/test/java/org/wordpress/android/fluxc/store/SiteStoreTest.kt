@@ -1,6 +1,11 @@
 package org.wordpress.android.fluxc.store
 
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.eq
 import com.nhaarman.mockitokotlin2.inOrder
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.verifyZeroInteractions
 import com.nhaarman.mockitokotlin2.whenever
@@ -18,16 +23,20 @@ import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError
 import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType.PARSE_ERROR
 import org.wordpress.android.fluxc.network.rest.wpcom.site.PrivateAtomicCookie
 import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.FetchedSitesInBatchesPayload
 import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient.NewSiteResponsePayload
 import org.wordpress.android.fluxc.network.xmlrpc.site.SiteXMLRPCClient
 import org.wordpress.android.fluxc.persistence.PostSqlUtils
 import org.wordpress.android.fluxc.persistence.SiteSqlUtils
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils.SitesReconciliation
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils.SitesReconciliationResult
 import org.wordpress.android.fluxc.store.SiteStore.FetchSitesPayload
 import org.wordpress.android.fluxc.store.SiteStore.FetchedPostFormatsPayload
 import org.wordpress.android.fluxc.store.SiteStore.NewSiteError
 import org.wordpress.android.fluxc.store.SiteStore.NewSiteErrorType.SITE_NAME_INVALID
 import org.wordpress.android.fluxc.store.SiteStore.NewSitePayload
 import org.wordpress.android.fluxc.store.SiteStore.OnPostFormatsChanged
+import org.wordpress.android.fluxc.store.SiteStore.OnSitesFetchProgress
 import org.wordpress.android.fluxc.store.SiteStore.PostFormatsError
 import org.wordpress.android.fluxc.store.SiteStore.PostFormatsErrorType.INVALID_SITE
 import org.wordpress.android.fluxc.store.SiteStore.SiteError
@@ -132,17 +141,59 @@ class SiteStoreTest {
         val siteB = SiteModel()
         sitesModel.sites = listOf(siteA, siteB)
         whenever(siteRestClient.fetchSites(payload.filters)).thenReturn(sitesModel)
-        whenever(siteSqlUtils.insertOrUpdateSite(siteA)).thenReturn(1)
-        whenever(siteSqlUtils.insertOrUpdateSite(siteB)).thenReturn(1)
+        whenever(siteSqlUtils.reconcileWPComRestSites(postSqlUtils, sitesModel.sites))
+                .thenReturn(SitesReconciliationResult(rowsAffected = 2, duplicateSiteFound = false, removedCount = 1))
 
         val onSiteChanged = siteStore.fetchSites(payload)
 
         assertThat(onSiteChanged.rowsAffected).isEqualTo(2)
         assertThat(onSiteChanged.error).isNull()
-        val inOrder = inOrder(siteSqlUtils)
-        inOrder.verify(siteSqlUtils).insertOrUpdateSite(siteA)
-        inOrder.verify(siteSqlUtils).insertOrUpdateSite(siteB)
-        inOrder.verify(siteSqlUtils).removeWPComRestSitesAbsentFromList(postSqlUtils, sitesModel.sites)
+        verify(siteSqlUtils).reconcileWPComRestSites(postSqlUtils, sitesModel.sites)
+        verify(siteSqlUtils, never()).insertOrUpdateSite(any())
+    }
+
+    @Test
+    fun `fetchSites in batches saves each batch and removes absent sites at the end`() = test {
+        val payload = FetchSitesPayload(listOf(WPCOM), inBatches = true)
+        val firstBatch = listOf(SiteModel(), SiteModel())
+        val secondBatch = listOf(SiteModel())
+        val reconciliation = mock<SitesReconciliation>()
+        whenever(siteSqlUtils.newSitesReconciliation()).thenReturn(reconciliation)
+        whenever(siteRestClient.fetchSitesInBatches(eq(payload.filters), any())).thenAnswer {
+            @Suppress("UNCHECKED_CAST")
+            val onBatch = it.arguments[1] as (List<SiteModel>) -> Unit
+            onBatch(firstBatch)
+            onBatch(secondBatch)
+            FetchedSitesInBatchesPayload(setOf(1L, 2L, 3L))
+        }
+        whenever(siteSqlUtils.reconcileWPComRestSites(postSqlUtils, firstBatch, false, reconciliation))
+                .thenReturn(SitesReconciliationResult(rowsAffected = 2, duplicateSiteFound = false, removedCount = 0))
+        whenever(siteSqlUtils.reconcileWPComRestSites(postSqlUtils, secondBatch, false, reconciliation))
+                .thenReturn(SitesReconciliationResult(rowsAffected = 1, duplicateSiteFound = false, removedCount = 0))
+
+        val onSiteChanged = siteStore.fetchSites(payload)
+
+        assertThat(onSiteChanged.rowsAffected).isEqualTo(3)
+        assertThat(onSiteChanged.error).isNull()
+        val inOrder = inOrder(dispatcher, siteSqlUtils)
+        inOrder.verify(dispatcher).emitChange(OnSitesFetchProgress(fetchedCount = 2, rowsAffected = 2))
+        inOrder.verify(dispatcher).emitChange(OnSitesFetchProgress(fetchedCount = 3, rowsAffected = 3))
+        inOrder.verify(siteSqlUtils).removeWPComRestSitesAbsentFromSiteIds(postSqlUtils, setOf(1L, 2L, 3L))
+        // Both batches are reconciled against the same local sites
+        verify(siteSqlUtils, times(1)).newSitesReconciliation()
+    }
+
+    @Test
+    fun `fetchSites in batches keeps the absent sites on error`() = test {
+        val payload = FetchSitesPayload(listOf(WPCOM), inBatches = true)
+        val errorPayload = FetchedSitesInBatchesPayload()
+        errorPayload.error = BaseNetworkError(PARSE_ERROR)
+        whenever(siteRestClient.fetchSitesInBatches(eq(payload.filters), any())).thenReturn(errorPayload)
+
+        val onSiteChanged = siteStore.fetchSites(payload)
+
+        assertThat(onSiteChanged.error).isEqualTo(SiteError(GENERIC_ERROR, null))
+        verify(siteSqlUtils, never()).removeWPComRestSitesAbsentFromSiteIds(any(), any())
     }
 
     @Test
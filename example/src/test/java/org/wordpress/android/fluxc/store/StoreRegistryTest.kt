@@ -0,0 +1,79 @@
+package org.wordpress.android.fluxc.store
+
+import org.assertj.core.api.Assertions.assertThat
+import org.greenrobot.eventbus.Subscribe
+import org.greenrobot.eventbus.ThreadMode
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.wordpress.android.fluxc.Dispatcher
+import org.wordpress.android.fluxc.StoreRegistry
+import org.wordpress.android.fluxc.StoreRegistry.Registration
+import org.wordpress.android.fluxc.action.AccountAction
+import org.wordpress.android.fluxc.action.AuthenticationAction
+import org.wordpress.android.fluxc.action.SiteAction
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.generated.AccountActionBuilder
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import javax.inject.Provider
+
+@RunWith(RobolectricTestRunner::class)
+class StoreRegistryTest {
+    private val dispatcher = Dispatcher()
+    private val accountStore = LazyFakeStore(dispatcher)
+    private val siteStore = LazyFakeStore(dispatcher)
+    private val storeRegistry = StoreRegistry(dispatcher, setOf(
+            Registration(accountStore, AccountAction::class.java, AuthenticationAction::class.java),
+            Registration(siteStore, SiteAction::class.java)
+    ))
+
+    @Test
+    fun `stores are built when one of their actions is dispatched`() {
+        assertThat(accountStore.buildCount).isEqualTo(0)
+        assertThat(storeRegistry.hasPendingStores(AccountAction::class.java)).isTrue()
+
+        dispatcher.dispatch(AccountActionBuilder.newSignOutAction())
+        dispatcher.dispatch(AccountActionBuilder.newSignOutAction())
+
+        // The store was registered before the first action was posted
+        assertThat(accountStore.get().receivedActions.await(1, TimeUnit.SECONDS)).isTrue()
+        assertThat(accountStore.buildCount).isEqualTo(1)
+        assertThat(storeRegistry.hasPendingStores(AccountAction::class.java)).isFalse()
+        assertThat(storeRegistry.hasPendingStores(AuthenticationAction::class.java)).isFalse()
+        assertThat(siteStore.buildCount).isEqualTo(0)
+    }
+
+    @Test
+    fun `all the stores can be built on startup`() {
+        storeRegistry.buildAllStores()
+
+        assertThat(accountStore.buildCount).isEqualTo(1)
+        assertThat(siteStore.buildCount).isEqualTo(1)
+        assertThat(storeRegistry.hasPendingStores(SiteAction::class.java)).isFalse()
+    }
+
+    // Builds a single store, like the singleton providers of Dagger
+    private class LazyFakeStore(private val dispatcher: Dispatcher) : Provider<FakeStore> {
+        private var store: FakeStore? = null
+        var buildCount = 0
+
+        override fun get() = store ?: FakeStore(dispatcher).also {
+            store = it
+            buildCount++
+        }
+    }
+
+    class FakeStore(dispatcher: Dispatcher) : Store(dispatcher) {
+        val receivedActions = CountDownLatch(2)
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        override fun onAction(action: Action<*>) {
+            if (action.type is AccountAction) {
+                receivedActions.countDown()
+            }
+        }
+
+        override fun onRegister() {}
+    }
+}
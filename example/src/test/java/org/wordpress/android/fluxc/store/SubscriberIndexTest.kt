@@ -0,0 +1,41 @@
+package org.wordpress.android.fluxc.store
+
+import org.assertj.core.api.Assertions.assertThat
+import org.greenrobot.eventbus.ThreadMode
+import org.junit.Test
+import org.wordpress.android.fluxc.annotations.action.Action
+import org.wordpress.android.fluxc.generated.FluxCSubscriberIndex
+import org.wordpress.android.fluxc.generated.WCSubscriberIndex
+import org.wordpress.android.fluxc.network.rest.wpcom.site.SiteRestClient
+
+class SubscriberIndexTest {
+    @Test
+    fun `FluxC stores are indexed with their action subscriber`() {
+        val subscriberInfo = FluxCSubscriberIndex().getSubscriberInfo(SiteStore::class.java)
+
+        assertThat(subscriberInfo).isNotNull
+        val onAction = subscriberInfo!!.subscriberMethods.single()
+        assertThat(onAction.methodName).isEqualTo("onAction")
+        assertThat(onAction.eventType).isEqualTo(Action::class.java)
+        assertThat(onAction.threadMode).isEqualTo(ThreadMode.ASYNC)
+    }
+
+    @Test
+    fun `the superclass of the stores is indexed so that it isn't looked up by reflection`() {
+        val subscriberInfo = FluxCSubscriberIndex().getSubscriberInfo(Store::class.java)
+
+        assertThat(subscriberInfo).isNotNull
+        assertThat(subscriberInfo!!.subscriberMethods).isEmpty()
+    }
+
+    @Test
+    fun `classes without subscriber methods are not indexed`() {
+        assertThat(FluxCSubscriberIndex().getSubscriberInfo(SiteRestClient::class.java)).isNull()
+    }
+
+    @Test
+    fun `WooCommerce stores are indexed by the plugin index`() {
+        assertThat(WCSubscriberIndex().getSubscriberInfo(WCProductStore::class.java)).isNotNull
+        assertThat(FluxCSubscriberIndex().getSubscriberInfo(WCProductStore::class.java)).isNull()
+    }
+}
@@ -0,0 +1,125 @@
+package org.wordpress.android.fluxc.tools
+
+import com.nhaarman.mockitokotlin2.mock
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineStart.UNDISPATCHED
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.flow.toList
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.wordpress.android.fluxc.test
+import java.util.concurrent.atomic.AtomicInteger
+
+class JobStatusTrackerTest {
+    private val policy = PollingPolicy(initialDelayMs = 10, maxDelayMs = 40)
+    private val tracker = JobStatusTracker(CoroutineEngine(Dispatchers.Default, mock()))
+
+    @Test
+    fun `emits the statuses until a terminal status`() = test {
+        val job = FakeJob(FakeStatus(progress = 10), FakeStatus(progress = 50), FakeStatus(done = true))
+
+        val statuses = tracker.track("job", job, policy).toList()
+
+        assertThat(statuses).containsExactly(
+                FakeStatus(progress = 10),
+                FakeStatus(progress = 50),
+                FakeStatus(done = true)
+        )
+        assertThat(job.fetchCount.get()).isEqualTo(3)
+    }
+
+    @Test
+    fun `emits the last error after consecutive failed polls`() = test {
+        val job = FakeJob(
+                FakeStatus(error = true),
+                FakeStatus(progress = 10),
+                FakeStatus(error = true),
+                FakeStatus(error = true),
+                FakeStatus(error = true)
+        )
+
+        val statuses = tracker.track("job", job, policy.copy(maxConsecutiveErrors = 3)).toList()
+
+        // The first error is transient, and isn't emitted
+        assertThat(statuses).containsExactly(FakeStatus(progress = 10), FakeStatus(error = true))
+        assertThat(job.fetchCount.get()).isEqualTo(5)
+    }
+
+    @Test
+    fun `watchers of the same job share the polls`() = test {
+        val gate = CompletableDeferred<Unit>()
+        val job = FakeJob(FakeStatus(progress = 10), FakeStatus(progress = 50), FakeStatus(done = true), gate = gate)
+
+        val first = async(start = UNDISPATCHED) { tracker.track("job", job, policy).toList() }
+        val second = async(start = UNDISPATCHED) { tracker.track("job", job, policy).toList() }
+        val otherJob = FakeJob(FakeStatus(done = true))
+        val other = async(start = UNDISPATCHED) { tracker.track("other job", otherJob, policy).toList() }
+        gate.complete(Unit)
+
+        assertThat(first.await().last()).isEqualTo(FakeStatus(done = true))
+        assertThat(second.await().last()).isEqualTo(FakeStatus(done = true))
+        assertThat(job.fetchCount.get()).isEqualTo(3)
+        assertThat(other.await()).containsExactly(FakeStatus(done = true))
+        assertThat(otherJob.fetchCount.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun `watchers fail with the exception thrown while polling`() = test {
+        val gate = CompletableDeferred<Unit>()
+        val job = FakeJob(FakeStatus(progress = 10), gate = gate)
+
+        val first = async(start = UNDISPATCHED) { runCatching { tracker.track("job", job, policy).toList() } }
+        val second = async(start = UNDISPATCHED) { runCatching { tracker.track("job", job, policy).toList() } }
+        gate.complete(Unit)
+
+        // The second poll runs past the statuses of the job
+        assertThat(first.await().exceptionOrNull()).isInstanceOf(ArrayIndexOutOfBoundsException::class.java)
+        assertThat(second.await().exceptionOrNull()).isInstanceOf(ArrayIndexOutOfBoundsException::class.java)
+
+        // The failed job isn't watched anymore, a new watcher polls it again
+        val retriedJob = FakeJob(FakeStatus(done = true))
+        assertThat(tracker.track("job", retriedJob, policy).toList()).containsExactly(FakeStatus(done = true))
+    }
+
+    @Test
+    fun `backs off while the job reports no progress`() {
+        assertThat(policy.nextDelay(10, null, null)).isEqualTo(20)
+        assertThat(policy.nextDelay(20, 30, 30)).isEqualTo(40)
+        assertThat(policy.nextDelay(40, 30, 30)).isEqualTo(40)
+    }
+
+    @Test
+    fun `sizes the delay to the reported progress`() {
+        val progressPolicy = PollingPolicy(initialDelayMs = 100, maxDelayMs = 10_000, progressPerPoll = 5)
+
+        // 1% every 100ms, polled again after 5%
+        assertThat(progressPolicy.nextDelay(100, 10, 11)).isEqualTo(500)
+        // 10% every 1000ms, polled again after 5%
+        assertThat(progressPolicy.nextDelay(1000, 10, 20)).isEqualTo(500)
+        // Polled again when the job is expected to be done
+        assertThat(progressPolicy.nextDelay(1000, 90, 98)).isEqualTo(250)
+        // A new run of the job starts over
+        assertThat(progressPolicy.nextDelay(1000, 90, 5)).isEqualTo(100)
+    }
+
+    private data class FakeStatus(val progress: Int? = null, val done: Boolean = false, val error: Boolean = false)
+
+    private class FakeJob(
+        vararg val statuses: FakeStatus,
+        val gate: CompletableDeferred<Unit>? = null
+    ) : TrackedJob<FakeStatus> {
+        val fetchCount = AtomicInteger()
+
+        override suspend fun fetchStatus(): FakeStatus {
+            gate?.await()
+            return statuses[fetchCount.getAndIncrement()]
+        }
+
+        override fun isError(status: FakeStatus) = status.error
+
+        override fun isTerminal(status: FakeStatus) = status.done
+
+        override fun progressOf(status: FakeStatus) = status.progress
+    }
+}
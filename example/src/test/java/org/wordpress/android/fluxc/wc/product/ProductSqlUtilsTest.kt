@@ -19,6 +19,8 @@ import org.wordpress.android.fluxc.model.WCProductTagModel
 import org.wordpress.android.fluxc.persistence.ProductSqlUtils
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
 import org.wordpress.android.fluxc.store.WCProductStore.ProductFilterOption
+import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_ASC
+import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.TITLE_DESC
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
@@ -406,6 +408,65 @@ class ProductSqlUtilsTest {
         assertEquals(3, differentSiteProducts.size)
     }
 
+    @Test
+    fun testGetProductsPageSortsByTitleCaseInsensitively() {
+        val names = listOf("banana", "Apple", "cherry", "apple", "Banana")
+        names.forEachIndexed { index, name ->
+            ProductSqlUtils.insertOrUpdateProduct(
+                    ProductTestUtils.generateSampleProduct(40L + index, name = name)
+            )
+        }
+        val site = SiteModel().apply { id = 6 }
+
+        val firstPage = ProductSqlUtils.getProductsPage(site, sortType = TITLE_ASC, pageSize = 2)
+        assertEquals(listOf("apple", "apple"), firstPage.products.map { it.nameSortKey })
+        assertNotNull(firstPage.nextPageKey)
+
+        val secondPage = ProductSqlUtils.getProductsPage(
+                site,
+                sortType = TITLE_ASC,
+                pageSize = 2,
+                afterKey = firstPage.nextPageKey
+        )
+        assertEquals(listOf("banana", "banana"), secondPage.products.map { it.nameSortKey })
+
+        val lastPage = ProductSqlUtils.getProductsPage(
+                site,
+                sortType = TITLE_ASC,
+                pageSize = 2,
+                afterKey = secondPage.nextPageKey
+        )
+        assertEquals(listOf("cherry"), lastPage.products.map { it.name })
+        assertNull(lastPage.nextPageKey)
+
+        val descendingPage = ProductSqlUtils.getProductsPage(site, sortType = TITLE_DESC, pageSize = 10)
+        assertEquals(listOf("cherry", "banana", "banana", "apple", "apple"),
+                descendingPage.products.map { it.nameSortKey })
+    }
+
+    @Test
+    fun testGetProductsPageWithFilterOptions() {
+        ProductSqlUtils.insertOrUpdateProduct(ProductTestUtils.generateSampleProduct(40, name = "a"))
+        ProductSqlUtils.insertOrUpdateProduct(
+                ProductTestUtils.generateSampleProduct(41, name = "b", stockStatus = "onbackorder")
+        )
+        ProductSqlUtils.insertOrUpdateProduct(ProductTestUtils.generateSampleProduct(42, name = "c"))
+        val site = SiteModel().apply { id = 6 }
+        val filterOptions = mapOf(ProductFilterOption.STOCK_STATUS to "instock")
+
+        val firstPage = ProductSqlUtils.getProductsPage(site, filterOptions, pageSize = 1)
+        assertEquals(listOf(40L), firstPage.products.map { it.remoteProductId })
+
+        val secondPage = ProductSqlUtils.getProductsPage(
+                site,
+                filterOptions,
+                pageSize = 1,
+                afterKey = firstPage.nextPageKey
+        )
+        assertEquals(listOf(42L), secondPage.products.map { it.remoteProductId })
+        assertNull(secondPage.nextPageKey)
+    }
+
     @Test
     fun testGetProductsForSiteWithFilterOptions() {
         val productFilterOptions = mapOf(
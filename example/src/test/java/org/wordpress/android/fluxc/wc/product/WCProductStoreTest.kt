@@ -1,6 +1,13 @@
 package org.wordpress.android.fluxc.wc.product
 
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.anyOrNull
+import com.nhaarman.mockitokotlin2.argThat
+import com.nhaarman.mockitokotlin2.eq
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
 import com.yarolegovich.wellsql.WellSql
 import org.junit.Before
 import org.junit.Test
@@ -14,13 +21,18 @@ import org.wordpress.android.fluxc.generated.WCProductActionBuilder
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCProductModel
 import org.wordpress.android.fluxc.model.WCProductVariationModel
+import org.wordpress.android.fluxc.network.rest.wpcom.wc.product.ProductRestClient
+import org.wordpress.android.fluxc.outbox.MutationOutbox
 import org.wordpress.android.fluxc.persistence.ProductSqlUtils
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
 import org.wordpress.android.fluxc.store.WCProductStore
+import org.wordpress.android.fluxc.store.WCProductStore.Companion.ENTITY_TYPE_PRODUCT
+import org.wordpress.android.fluxc.store.WCProductStore.OnProductUpdated
 import org.wordpress.android.fluxc.store.WCProductStore.ProductFilterOption
 import org.wordpress.android.fluxc.store.WCProductStore.RemoteAddProductPayload
 import org.wordpress.android.fluxc.store.WCProductStore.RemoteUpdateProductPayload
 import org.wordpress.android.fluxc.store.WCProductStore.RemoteUpdateVariationPayload
+import org.wordpress.android.fluxc.store.WCProductStore.UpdateProductPayload
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
@@ -92,6 +104,42 @@ class WCProductStoreTest {
         assertEquals(differentSiteProduct3.remoteProductId, differentSiteProducts[2].remoteProductId)
     }
 
+    @Test
+    fun testUpdateCoalescedWithAPendingUpdateEmitsAQueuedEvent() {
+        val dispatcher = mock<Dispatcher>()
+        val restClient = mock<ProductRestClient>()
+        val mutationOutbox = mock<MutationOutbox>()
+        val store = WCProductStore(dispatcher, restClient, addonsDao = mock(), logger = mock(),
+                mutationOutbox = mutationOutbox)
+        val productModel = ProductTestUtils.generateSampleProduct(42)
+        val site = SiteModel().apply { id = productModel.localSiteId }
+        whenever(mutationOutbox.recordMutation(eq(ENTITY_TYPE_PRODUCT), eq(site), eq(42L), any())).thenReturn(true)
+
+        store.onAction(WCProductActionBuilder.newUpdateProductAction(UpdateProductPayload(site, productModel)))
+
+        verify(dispatcher).emitChange(argThat { this is OnProductUpdated && remoteProductId == 42L && isQueued })
+        verify(restClient, never()).updateProduct(any(), anyOrNull(), any())
+    }
+
+    @Test
+    fun testStaleUpdateResponseDoesNotOverwriteTheProductWhileANewerUpdateIsPending() {
+        val dispatcher = mock<Dispatcher>()
+        val mutationOutbox = mock<MutationOutbox>()
+        val store = WCProductStore(dispatcher, mock(), addonsDao = mock(), logger = mock(),
+                mutationOutbox = mutationOutbox)
+        val productModel = ProductTestUtils.generateSampleProduct(42, name = "stored")
+        val site = SiteModel().apply { id = productModel.localSiteId }
+        ProductSqlUtils.insertOrUpdateProduct(productModel)
+        whenever(mutationOutbox.hasNewerMutation(ENTITY_TYPE_PRODUCT, site, 42L)).thenReturn(true)
+
+        val staleProduct = ProductTestUtils.generateSampleProduct(42, name = "stale")
+        store.onAction(WCProductActionBuilder.newUpdatedProductAction(RemoteUpdateProductPayload(site, staleProduct)))
+
+        assertEquals("stored", store.getProductByRemoteId(site, 42)?.name)
+        verify(mutationOutbox).onMutationSucceeded(ENTITY_TYPE_PRODUCT, site, 42L)
+        verify(dispatcher).emitChange(argThat { this is OnProductUpdated && isQueued && error == null })
+    }
+
     @Test
     fun testUpdateProduct() {
         val productModel = ProductTestUtils.generateSampleProduct(42).apply {
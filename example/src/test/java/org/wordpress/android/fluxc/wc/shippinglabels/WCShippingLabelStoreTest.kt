@@ -52,6 +52,7 @@ import org.wordpress.android.fluxc.network.rest.wpcom.wc.shippinglabels.Shipping
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
 import org.wordpress.android.fluxc.store.WCShippingLabelStore
 import org.wordpress.android.fluxc.test
+import org.wordpress.android.fluxc.tools.JobStatusTracker
 import org.wordpress.android.fluxc.tools.initCoroutineEngine
 import java.math.BigDecimal
 import kotlin.test.assertEquals
@@ -222,7 +223,8 @@ class WCShippingLabelStoreTest {
         store = WCShippingLabelStore(
                 restClient,
                 initCoroutineEngine(),
-                mapper
+                mapper,
+                JobStatusTracker(initCoroutineEngine())
         )
 
         // Insert the site into the db so it's available later when testing shipping labels
@@ -0,0 +1,98 @@
+package org.wordpress.android.fluxc.annotations.endpoint;
+
+import java.util.Arrays;
+
+/**
+ * A precompiled endpoint, generated along with the endpoint classes for every endpoint they declare.
+ *
+ * The template is split into its literal parts at compile time, so building a URL only appends the prefix of the API
+ * version, the literal parts and the given variable values to a reusable {@link StringBuilder}, instead of allocating
+ * an endpoint object and a new string for each segment.
+ *
+ * The generated templates expose methods with the variables of their endpoint, e.g. {@code urlV1_1(long site)}, so
+ * that the number and the types of the values are checked at compile time.
+ */
+public class EndpointTemplate {
+    private static final ThreadLocal<StringBuilder> BUILDER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(128);
+        }
+    };
+
+    private final String mTemplate;
+    private final String[] mLiterals;
+
+    /**
+     * @param template The endpoint, as declared in the endpoint file, e.g. {@code /sites/$site/posts/}
+     * @param literals The literal parts of the endpoint, around its variables
+     */
+    public EndpointTemplate(String template, String... literals) {
+        mTemplate = template;
+        mLiterals = literals;
+    }
+
+    public String getTemplate() {
+        return mTemplate;
+    }
+
+    public int getVariableCount() {
+        return mLiterals.length - 1;
+    }
+
+    /**
+     * Returns the number of literal characters of this endpoint. The more of them, the more specific the endpoint,
+     * e.g. {@code /sites/$site/posts/new/} is more specific than {@code /sites/$site/posts/$post_ID/}.
+     */
+    public int getLiteralLength() {
+        int length = 0;
+        for (String literal : mLiterals) {
+            length += literal.length();
+        }
+        return length;
+    }
+
+    /**
+     * Returns true if the given path, relative to the prefix of the API version, was built from this endpoint. Each
+     * variable matches a non-empty value that doesn't contain any '/'. Trailing slashes are ignored.
+     */
+    public boolean matches(String path) {
+        String normalizedPath = path.endsWith("/") ? path : path + "/";
+        int last = mLiterals.length - 1;
+        String lastLiteral = mLiterals[last].endsWith("/") ? mLiterals[last] : mLiterals[last] + "/";
+        if (last == 0) {
+            return normalizedPath.equals(lastLiteral);
+        }
+        if (!normalizedPath.startsWith(mLiterals[0]) || !normalizedPath.endsWith(lastLiteral)) {
+            return false;
+        }
+        int position = mLiterals[0].length();
+        int end = normalizedPath.length() - lastLiteral.length();
+        for (int i = 1; i < last; i++) {
+            int literalStart = normalizedPath.indexOf(mLiterals[i], position + 1);
+            if (literalStart < 0 || literalStart > end || !isValue(normalizedPath, position, literalStart)) {
+                return false;
+            }
+            position = literalStart + mLiterals[i].length();
+        }
+        return position < end && isValue(normalizedPath, position, end);
+    }
+
+    private static boolean isValue(String path, int start, int end) {
+        return start < end && path.lastIndexOf('/', end - 1) < start;
+    }
+
+    protected String build(String prefix, Object[] values) {
+        if (values.length != mLiterals.length - 1) {
+            throw new IllegalArgumentException("Endpoint " + mTemplate + " expects " + getVariableCount()
+                                               + " values, got " + Arrays.toString(values));
+        }
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        builder.append(prefix).append(mLiterals[0]);
+        for (int i = 0; i < values.length; i++) {
+            builder.append(values[i]).append(mLiterals[i + 1]);
+        }
+        return builder.toString();
+    }
+}
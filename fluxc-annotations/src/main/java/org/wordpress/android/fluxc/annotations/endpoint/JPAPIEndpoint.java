@@ -24,4 +24,18 @@ public class JPAPIEndpoint {
     public String getPathV4() {
         return "/" + JP_PREFIX_V4 + mEndpoint;
     }
+
+    /**
+     * Precompiled version of this endpoint, see {@link EndpointTemplate}. The generated subclasses expose these methods
+     * with the parameters of each endpoint.
+     */
+    public static class Template extends EndpointTemplate {
+        protected Template(String template, String... literals) {
+            super(template, literals);
+        }
+
+        protected String pathV4(Object[] values) {
+            return build("/" + JP_PREFIX_V4, values);
+        }
+    }
 }
@@ -54,4 +54,38 @@ public class WCWPAPIEndpoint {
     public String getPathV1Addons() {
         return "/" + WC_PREFIX_V1_ADDONS + mEndpoint;
     }
+
+    /**
+     * Precompiled version of this endpoint, see {@link EndpointTemplate}. The generated subclasses expose these methods
+     * with the parameters of each endpoint.
+     */
+    public static class Template extends EndpointTemplate {
+        protected Template(String template, String... literals) {
+            super(template, literals);
+        }
+
+        protected String pathV3(Object[] values) {
+            return build("/" + WC_PREFIX_V3, values);
+        }
+
+        protected String pathV2(Object[] values) {
+            return build("/" + WC_PREFIX_V2, values);
+        }
+
+        protected String pathV1(Object[] values) {
+            return build("/" + WC_PREFIX_V1, values);
+        }
+
+        protected String pathV4(Object[] values) {
+            return build("/" + WC_PREFIX_V4, values);
+        }
+
+        protected String pathV4Analytics(Object[] values) {
+            return build("/" + WC_PREFIX_V4_ANALYTICS, values);
+        }
+
+        protected String pathV1Addons(Object[] values) {
+            return build("/" + WC_PREFIX_V1_ADDONS, values);
+        }
+    }
 }
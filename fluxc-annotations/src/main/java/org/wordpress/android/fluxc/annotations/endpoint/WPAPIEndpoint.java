@@ -24,4 +24,18 @@ public class WPAPIEndpoint {
     public String getUrlV2() {
         return WPAPI_PREFIX_V2 + mEndpoint;
     }
+
+    /**
+     * Precompiled version of this endpoint, see {@link EndpointTemplate}. The generated subclasses expose these methods
+     * with the parameters of each endpoint.
+     */
+    public static class Template extends EndpointTemplate {
+        protected Template(String template, String... literals) {
+            super(template, literals);
+        }
+
+        protected String urlV2(Object[] values) {
+            return build(WPAPI_PREFIX_V2, values);
+        }
+    }
 }
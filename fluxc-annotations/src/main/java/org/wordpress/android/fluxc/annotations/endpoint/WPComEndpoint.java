@@ -8,6 +8,8 @@ public class WPComEndpoint {
     private static final String WPCOM_PREFIX_V1_3 = WPCOM_REST_PREFIX + "/rest/v1.3";
     private static final String WPCOM_PREFIX_V0 = WPCOM_REST_PREFIX;
 
+    public static final String LOCALE_PARAM_NAME = "locale";
+
     private final String mEndpoint;
 
     public WPComEndpoint(String endpoint) {
@@ -45,4 +47,34 @@ public class WPComEndpoint {
     public String getUrlV0() {
         return WPCOM_PREFIX_V0 + mEndpoint;
     }
+
+    /**
+     * Precompiled version of this endpoint, see {@link EndpointTemplate}. The generated subclasses expose these methods
+     * with the parameters of each endpoint.
+     */
+    public static class Template extends EndpointTemplate {
+        protected Template(String template, String... literals) {
+            super(template, literals);
+        }
+
+        protected String urlV1(Object[] values) {
+            return build(WPCOM_PREFIX_V1, values);
+        }
+
+        protected String urlV1_1(Object[] values) {
+            return build(WPCOM_PREFIX_V1_1, values);
+        }
+
+        protected String urlV1_2(Object[] values) {
+            return build(WPCOM_PREFIX_V1_2, values);
+        }
+
+        protected String urlV1_3(Object[] values) {
+            return build(WPCOM_PREFIX_V1_3, values);
+        }
+
+        protected String urlV0(Object[] values) {
+            return build(WPCOM_PREFIX_V0, values);
+        }
+    }
 }
@@ -4,6 +4,9 @@ public class WPComV2Endpoint {
     private static final String WPCOM_REST_PREFIX = "https://public-api.wordpress.com";
     private static final String WPCOM_V2_PREFIX = WPCOM_REST_PREFIX + "/wpcom/v2";
 
+    // The v2 API doesn't use the same locale parameter as the other versions, see WPComEndpoint
+    public static final String LOCALE_PARAM_NAME = "_locale";
+
     private final String mEndpoint;
 
     public WPComV2Endpoint(String endpoint) {
@@ -25,4 +28,25 @@ public class WPComV2Endpoint {
     public String getUrl() {
         return WPCOM_V2_PREFIX + mEndpoint;
     }
+
+    /**
+     * Returns true if the given URL was built by an endpoint of the v2 API.
+     */
+    public static boolean isUrl(String url) {
+        return url.startsWith(WPCOM_V2_PREFIX);
+    }
+
+    /**
+     * Precompiled version of this endpoint, see {@link EndpointTemplate}. The generated subclasses expose these methods
+     * with the parameters of each endpoint.
+     */
+    public static class Template extends EndpointTemplate {
+        protected Template(String template, String... literals) {
+            super(template, literals);
+        }
+
+        protected String url(Object[] values) {
+            return build(WPCOM_V2_PREFIX, values);
+        }
+    }
 }
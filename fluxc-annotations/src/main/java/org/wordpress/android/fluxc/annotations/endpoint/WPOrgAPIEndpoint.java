@@ -29,4 +29,23 @@ public class WPOrgAPIEndpoint {
         }
         return WPORG_API_PREFIX + mEndpoint;
     }
+
+    /**
+     * Precompiled version of this endpoint, see {@link EndpointTemplate}. The generated subclasses expose these methods
+     * with the parameters of each endpoint.
+     */
+    public static class Template extends EndpointTemplate {
+        protected Template(String template, String... literals) {
+            super(template, literals);
+        }
+
+        protected String url(Object[] values) {
+            String url = build(WPORG_API_PREFIX, values);
+            if (url.contains("plugins/info/1.0")) {
+                // Same as getUrl(), request JSON data from the plugins-info endpoint for 1.0
+                return url.substring(0, url.length() - 1) + ".json";
+            }
+            return url;
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package org.wordpress.android.fluxc.processor;
 
 import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeName;
@@ -10,9 +12,14 @@ import com.squareup.javapoet.TypeSpec;
 import org.wordpress.android.fluxc.annotations.Endpoint;
 import org.wordpress.android.fluxc.annotations.endpoint.EndpointNode;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,22 +38,194 @@ public class RESTPoet {
             "try", "void", "volatile", "while"
     };
 
+    // Variables of any of the endpoint files: $name, <name> and {name}
+    private static final Pattern TEMPLATE_VARIABLE_PATTERN = Pattern.compile("\\$[^/]+|<[^>/]+>|\\{[^}/]+\\}");
+
     private static TypeName sBaseEndpointClass;
+    private static ClassName sTemplateClass;
+    private static List<String> sTemplateVersionMethods;
+    private static Map<String, TypeSpec> sTemplateSignatureClasses;
     private static Pattern sVariableEndpointPattern;
 
     public static TypeSpec generate(EndpointNode rootNode, String fileName, Class baseEndpointClass,
                                     Pattern variableEndpointPattern) {
         sBaseEndpointClass = ClassName.get(baseEndpointClass);
+        sTemplateClass = ClassName.get(baseEndpointClass).nestedClass("Template");
+        sTemplateVersionMethods = getTemplateVersionMethods(baseEndpointClass);
+        sTemplateSignatureClasses = new LinkedHashMap<>();
         sVariableEndpointPattern = variableEndpointPattern;
 
         TypeSpec.Builder wpcomRestBuilder = TypeSpec.classBuilder(fileName)
                 .addModifiers(Modifier.PUBLIC);
 
+        // Precompiled templates of all the endpoints, e.g. Templates.SITES_SITE_POSTS for /sites/$site/posts/
+        TypeSpec.Builder templatesBuilder = TypeSpec.classBuilder("Templates")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+        List<String> templateNames = new ArrayList<>();
         for (EndpointNode endpoint : rootNode.getChildren()) {
             addEndpointToBuilder(endpoint, wpcomRestBuilder);
+            addEndpointTemplatesToBuilder(endpoint, "", new ArrayList<List<Class>>(), templatesBuilder,
+                    templateNames);
+        }
+
+        for (TypeSpec templateSignatureClass : sTemplateSignatureClasses.values()) {
+            templatesBuilder.addType(templateSignatureClass);
+        }
+
+        // All the templates, e.g. to find the endpoint a URL was built from
+        CodeBlock.Builder allTemplates = CodeBlock.builder().add("{");
+        for (int i = 0; i < templateNames.size(); i++) {
+            allTemplates.add(i == 0 ? "$L" : ", $L", templateNames.get(i));
+        }
+        templatesBuilder.addField(FieldSpec.builder(ArrayTypeName.of(sTemplateClass), "ALL")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer(allTemplates.add("}").build())
+                .build());
+
+        return wpcomRestBuilder.addType(templatesBuilder.build()).build();
+    }
+
+    private static void addEndpointTemplatesToBuilder(EndpointNode endpointNode, String parentTemplateName,
+                                                      List<List<Class>> parentVariableTypes,
+                                                      TypeSpec.Builder templatesBuilder, List<String> templateNames) {
+        String endpointName = endpointNode.getCleanEndpointName();
+        if (sVariableEndpointPattern.matcher(endpointNode.getLocalEndpoint()).find()
+            && endpointNode.getParent().getCleanEndpointName().equals(endpointName)) {
+            // Same rule as for the accessor methods, e.g. '.../media/$media_ID/' is MEDIA_ITEM
+            endpointName = "item";
+        }
+        String templateName = (parentTemplateName.isEmpty() ? "" : parentTemplateName + "_")
+                              + endpointName.replaceAll("[^A-Za-z0-9_]", "_").toUpperCase(Locale.US);
+
+        String fullEndpoint = endpointNode.getFullEndpoint();
+        List<String> literals = new ArrayList<>();
+        Matcher variableMatcher = TEMPLATE_VARIABLE_PATTERN.matcher(fullEndpoint);
+        int literalStart = 0;
+        while (variableMatcher.find()) {
+            literals.add(fullEndpoint.substring(literalStart, variableMatcher.start()));
+            literalStart = variableMatcher.end();
+        }
+        literals.add(fullEndpoint.substring(literalStart));
+
+        List<List<Class>> variableTypes = new ArrayList<>(parentVariableTypes);
+        if (TEMPLATE_VARIABLE_PATTERN.matcher(endpointNode.getLocalEndpoint()).find()) {
+            variableTypes.add(getVariableEndpointTypes(endpointNode));
+        }
+        if (variableTypes.size() != literals.size() - 1) {
+            throw new IllegalStateException("Can't find the types of the variables of " + fullEndpoint);
+        }
+        ClassName templateClass = getTemplateSignatureClass(variableTypes);
+
+        CodeBlock.Builder initializer = CodeBlock.builder().add("new $T($S", templateClass, fullEndpoint);
+        for (String literal : literals) {
+            initializer.add(", $S", literal);
+        }
+        templatesBuilder.addField(FieldSpec.builder(templateClass, templateName)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addAnnotation(AnnotationSpec.builder(Endpoint.class)
+                        .addMember("value", "$S", fullEndpoint)
+                        .build())
+                .initializer(initializer.add(")").build())
+                .build());
+        templateNames.add(templateName);
+
+        if (endpointNode.hasChildren()) {
+            for (EndpointNode childEndpoint : endpointNode.getChildren()) {
+                addEndpointTemplatesToBuilder(childEndpoint, templateName, variableTypes, templatesBuilder,
+                        templateNames);
+            }
         }
+    }
+
+    /**
+     * Returns the template class of the endpoints with the given variable types, e.g. {@code LongStringTemplate} with
+     * methods such as {@code urlV1_1(long value1, String value2)}. Endpoints sharing the same variable types share the
+     * same class, to keep the number of generated classes low.
+     */
+    private static ClassName getTemplateSignatureClass(List<List<Class>> variableTypes) {
+        StringBuilder className = new StringBuilder();
+        for (List<Class> types : variableTypes) {
+            for (int i = 0; i < types.size(); i++) {
+                className.append(i == 0 ? "" : "Or").append(capitalize(types.get(i).getSimpleName()));
+            }
+        }
+        if (className.length() == 0) {
+            className.append("Static");
+        }
+        className.append("Template");
+
+        String name = className.toString();
+        if (!sTemplateSignatureClasses.containsKey(name)) {
+            TypeSpec.Builder classBuilder = TypeSpec.classBuilder(name)
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                    .superclass(sTemplateClass)
+                    .addMethod(MethodSpec.constructorBuilder()
+                            .addParameter(String.class, "template")
+                            .addParameter(ArrayTypeName.of(String.class), "literals")
+                            .varargs(true)
+                            .addStatement("super(template, literals)")
+                            .build());
+            // Variables accepting several types get an overload for each combination
+            for (List<Class> signature : getSignatures(variableTypes)) {
+                for (String versionMethod : sTemplateVersionMethods) {
+                    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(versionMethod)
+                            .addModifiers(Modifier.PUBLIC)
+                            .returns(String.class);
+                    CodeBlock.Builder values = CodeBlock.builder();
+                    for (int i = 0; i < signature.size(); i++) {
+                        String parameterName = "value" + (i + 1);
+                        methodBuilder.addParameter(signature.get(i), parameterName);
+                        values.add(i == 0 ? "$L" : ", $L", parameterName);
+                    }
+                    classBuilder.addMethod(methodBuilder
+                            .addStatement("return $L(new Object[] {$L})", versionMethod, values.build())
+                            .build());
+                }
+            }
+            sTemplateSignatureClasses.put(name, classBuilder.build());
+        }
+        return ClassName.get("", name);
+    }
+
+    private static List<List<Class>> getSignatures(List<List<Class>> variableTypes) {
+        List<List<Class>> signatures = new ArrayList<>();
+        signatures.add(new ArrayList<Class>());
+        for (List<Class> types : variableTypes) {
+            List<List<Class>> extendedSignatures = new ArrayList<>();
+            for (List<Class> signature : signatures) {
+                for (Class type : types) {
+                    List<Class> extendedSignature = new ArrayList<>(signature);
+                    extendedSignature.add(type);
+                    extendedSignatures.add(extendedSignature);
+                }
+            }
+            signatures = extendedSignatures;
+        }
+        return signatures;
+    }
 
-        return wpcomRestBuilder.build();
+    /**
+     * Returns the methods building a URL for each version of the API, declared by the Template class of the base
+     * endpoint class as taking an array of values, e.g. {@code urlV1_1(Object[] values)}.
+     */
+    private static List<String> getTemplateVersionMethods(Class baseEndpointClass) {
+        List<String> methodNames = new ArrayList<>();
+        for (Class nestedClass : baseEndpointClass.getDeclaredClasses()) {
+            if (!nestedClass.getSimpleName().equals("Template")) {
+                continue;
+            }
+            for (Method method : nestedClass.getDeclaredMethods()) {
+                if (java.lang.reflect.Modifier.isProtected(method.getModifiers())
+                    && method.getReturnType().equals(String.class)
+                    && Arrays.equals(method.getParameterTypes(), new Class[]{Object[].class})) {
+                    methodNames.add(method.getName());
+                }
+            }
+        }
+        Collections.sort(methodNames);
+        return methodNames;
     }
 
     private static void addEndpointToBuilder(EndpointNode endpointNode, TypeSpec.Builder classBuilder) {
@@ -0,0 +1,268 @@
+package org.wordpress.android.fluxc.processor;
+
+import com.google.auto.service.AutoService;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+import static java.util.Collections.singleton;
+import static javax.lang.model.SourceVersion.latestSupported;
+
+/**
+ * Generates an EventBus subscriber index for the classes of a module with {@code @Subscribe} methods, so that
+ * registering them with the Dispatcher doesn't look up their methods by reflection.
+ *
+ * The fully qualified name of the index is given with the {@value #OPTION_SUBSCRIBER_INDEX} processor option, no index
+ * is generated without it. The superclasses of the subscribers compiled along with them are indexed as well, even
+ * without subscriber methods, since EventBus falls back to reflection for every class of the hierarchy which isn't
+ * indexed.
+ */
+@SuppressWarnings("unused")
+@SupportedOptions(SubscriberIndexProcessor.OPTION_SUBSCRIBER_INDEX)
+@AutoService(Processor.class)
+public class SubscriberIndexProcessor extends AbstractProcessor {
+    public static final String OPTION_SUBSCRIBER_INDEX = "fluxc.subscriberIndex";
+
+    private static final String SUBSCRIBE_ANNOTATION = "org.greenrobot.eventbus.Subscribe";
+    private static final String EVENTBUS_META_PACKAGE = "org.greenrobot.eventbus.meta";
+    private static final ClassName SUBSCRIBER_INFO_INDEX = ClassName.get(EVENTBUS_META_PACKAGE, "SubscriberInfoIndex");
+    private static final ClassName SUBSCRIBER_INFO = ClassName.get(EVENTBUS_META_PACKAGE, "SubscriberInfo");
+    private static final ClassName SIMPLE_SUBSCRIBER_INFO = ClassName.get(EVENTBUS_META_PACKAGE,
+            "SimpleSubscriberInfo");
+    private static final ClassName SUBSCRIBER_METHOD_INFO = ClassName.get(EVENTBUS_META_PACKAGE,
+            "SubscriberMethodInfo");
+    private static final ClassName THREAD_MODE = ClassName.get("org.greenrobot.eventbus", "ThreadMode");
+    // Same as EventBus, which doesn't look for subscriber methods in the classes of these packages
+    private static final String[] SKIPPED_PACKAGE_PREFIXES = {"java.", "javax.", "android.", "androidx."};
+
+    private Messager mMessager;
+    private boolean mIndexWritten;
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return singleton(SUBSCRIBE_ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        String indexName = processingEnv.getOptions().get(OPTION_SUBSCRIBER_INDEX);
+        TypeElement subscribeAnnotation = processingEnv.getElementUtils().getTypeElement(SUBSCRIBE_ANNOTATION);
+        if (indexName == null || subscribeAnnotation == null || annotations.isEmpty()) {
+            return false;
+        }
+        if (mIndexWritten) {
+            // Subscribers generated by another processor, they're looked up by reflection
+            mMessager.printMessage(Diagnostic.Kind.WARNING, "Subscribers found after " + indexName + " was written");
+            return false;
+        }
+
+        // The subscriber methods of each class, in the order they were found
+        Map<TypeElement, List<ExecutableElement>> subscribers = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(subscribeAnnotation)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            TypeElement subscriberClass = (TypeElement) element.getEnclosingElement();
+            List<ExecutableElement> methods = subscribers.get(subscriberClass);
+            if (methods == null) {
+                methods = new ArrayList<>();
+                subscribers.put(subscriberClass, methods);
+            }
+            methods.add((ExecutableElement) element);
+        }
+
+        // Superclasses without subscriber methods are indexed as well, unless they come from a library which might
+        // have its own index
+        Set<? extends Element> rootElements = roundEnv.getRootElements();
+        for (TypeElement subscriberClass : new ArrayList<>(subscribers.keySet())) {
+            TypeElement superclass = getIndexedSuperclass(subscriberClass, rootElements);
+            while (superclass != null) {
+                if (!subscribers.containsKey(superclass)) {
+                    subscribers.put(superclass, new ArrayList<ExecutableElement>());
+                }
+                superclass = getIndexedSuperclass(superclass, rootElements);
+            }
+        }
+
+        writeIndex(indexName, subscribers, subscribeAnnotation);
+        mIndexWritten = true;
+        // Other processors might need the annotation as well
+        return false;
+    }
+
+    private void writeIndex(String indexName, Map<TypeElement, List<ExecutableElement>> subscribers,
+                            TypeElement subscribeAnnotation) {
+        ClassName index = ClassName.bestGuess(indexName);
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        TypeName mapType = ParameterizedTypeName.get(ClassName.get(Map.class), classType, SUBSCRIBER_INFO);
+
+        CodeBlock.Builder staticBlock = CodeBlock.builder();
+        for (Map.Entry<TypeElement, List<ExecutableElement>> subscriber : subscribers.entrySet()) {
+            CodeBlock subscriberInfo = getSubscriberInfo(subscriber.getKey(), subscriber.getValue(),
+                    subscribeAnnotation);
+            if (subscriberInfo != null) {
+                staticBlock.addStatement("putIndex($L)", subscriberInfo);
+            }
+        }
+
+        TypeSpec indexClass = TypeSpec.classBuilder(index.simpleName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(SUBSCRIBER_INFO_INDEX)
+                .addField(FieldSpec.builder(mapType, "SUBSCRIBER_INDEX", Modifier.PRIVATE, Modifier.STATIC,
+                        Modifier.FINAL).initializer("new $T<>()", HashMap.class).build())
+                .addStaticBlock(staticBlock.build())
+                .addMethod(MethodSpec.methodBuilder("putIndex")
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .addParameter(SUBSCRIBER_INFO, "info")
+                        .addStatement("SUBSCRIBER_INDEX.put(info.getSubscriberClass(), info)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getSubscriberInfo")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(SUBSCRIBER_INFO)
+                        .addParameter(classType, "subscriberClass")
+                        .addStatement("return SUBSCRIBER_INDEX.get(subscriberClass)")
+                        .build())
+                .build();
+
+        try {
+            JavaFile.builder(index.packageName(), indexClass).build().writeTo(processingEnv.getFiler());
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, "Failed to create file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the {@code SimpleSubscriberInfo} of the class, or null if the class can't be referenced from the index,
+     * in which case its methods are looked up by reflection.
+     */
+    private CodeBlock getSubscriberInfo(TypeElement subscriberClass, List<ExecutableElement> methods,
+                                        TypeElement subscribeAnnotation) {
+        if (!isAccessible(subscriberClass)) {
+            mMessager.printMessage(Diagnostic.Kind.NOTE, "Not indexing non public subscriber", subscriberClass);
+            return null;
+        }
+        CodeBlock.Builder methodInfos = CodeBlock.builder();
+        String separator = "\n";
+        for (ExecutableElement method : methods) {
+            TypeMirror eventType = method.getParameters().size() == 1
+                    ? processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType()) : null;
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || eventType == null
+                || eventType.getKind() != TypeKind.DECLARED
+                || !isAccessible((TypeElement) ((DeclaredType) eventType).asElement())) {
+                mMessager.printMessage(Diagnostic.Kind.NOTE, "Not indexing subscriber method", method);
+                return null;
+            }
+            methodInfos.add(separator);
+            separator = ",\n";
+            methodInfos.add("new $T($S, $T.class, $T.$L, $L, $L)", SUBSCRIBER_METHOD_INFO, method.getSimpleName(),
+                    TypeName.get(eventType), THREAD_MODE, getAnnotationValue(method, subscribeAnnotation, "threadMode"),
+                    getAnnotationValue(method, subscribeAnnotation, "priority"),
+                    getAnnotationValue(method, subscribeAnnotation, "sticky"));
+        }
+        return CodeBlock.of("new $T($T.class, true, new $T[] {$>$L$<})", SIMPLE_SUBSCRIBER_INFO,
+                ClassName.get(subscriberClass), SUBSCRIBER_METHOD_INFO, methodInfos.build());
+    }
+
+    private Object getAnnotationValue(ExecutableElement method, TypeElement annotation, String name) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().asElement().equals(annotation)) {
+                continue;
+            }
+            Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : values.entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals(name)) {
+                    Object annotationValue = value.getValue().getValue();
+                    // Enum constants, such as the thread mode, are referenced by their name
+                    return annotationValue instanceof VariableElement
+                            ? ((VariableElement) annotationValue).getSimpleName() : annotationValue;
+                }
+            }
+        }
+        throw new IllegalStateException("Missing " + name + " in the annotation of " + method);
+    }
+
+    private TypeElement getIndexedSuperclass(TypeElement typeElement, Set<? extends Element> rootElements) {
+        TypeMirror superclass = typeElement.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement superclassElement = (TypeElement) ((DeclaredType) superclass).asElement();
+        Element outermostElement = superclassElement;
+        while (outermostElement.getEnclosingElement() instanceof TypeElement) {
+            outermostElement = outermostElement.getEnclosingElement();
+        }
+        if (!rootElements.contains(outermostElement)) {
+            return null;
+        }
+        String name = superclassElement.getQualifiedName().toString();
+        for (String prefix : SKIPPED_PACKAGE_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return null;
+            }
+        }
+        return superclassElement;
+    }
+
+    private boolean isAccessible(TypeElement typeElement) {
+        Element element = typeElement;
+        while (element instanceof TypeElement) {
+            TypeElement enclosingType = (TypeElement) element;
+            if (!enclosingType.getModifiers().contains(Modifier.PUBLIC)
+                || (enclosingType.getNestingKind() != NestingKind.TOP_LEVEL
+                    && enclosingType.getNestingKind() != NestingKind.MEMBER)) {
+                return false;
+            }
+            element = enclosingType.getEnclosingElement();
+        }
+        return true;
+    }
+}
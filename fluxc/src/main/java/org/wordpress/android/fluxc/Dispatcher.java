@@ -1,24 +1,49 @@
 package org.wordpress.android.fluxc;
 
 import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.EventBusBuilder;
+import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
 import org.wordpress.android.fluxc.annotations.action.Action;
+import org.wordpress.android.fluxc.generated.FluxCSubscriberIndex;
 import org.wordpress.android.fluxc.store.Store;
 import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 
 @Singleton
 public class Dispatcher {
     private final EventBus mBus;
+    private volatile StoreRegistry mStoreRegistry;
+
+    public Dispatcher() {
+        this(Collections.<SubscriberInfoIndex>emptySet(), Executors.newCachedThreadPool());
+    }
 
-    @Inject public Dispatcher() {
-        mBus = EventBus.builder()
+    /**
+     * @param subscriberIndexes EventBus subscriber indexes generated for the host app and plugin subscribers, used
+     *                          along with the FluxC index to register subscribers without reflection
+     * @param asyncExecutor     runs the {@code ThreadMode.ASYNC} subscribers, provided by the network module
+     */
+    @Inject public Dispatcher(Set<SubscriberInfoIndex> subscriberIndexes,
+                              @Named("dispatcher") ExecutorService asyncExecutor) {
+        EventBusBuilder builder = EventBus.builder()
                 .logNoSubscriberMessages(true)
                 .sendNoSubscriberEvent(true)
                 .throwSubscriberException(true)
-                .build();
+                .executorService(asyncExecutor)
+                .addIndex(new FluxCSubscriberIndex());
+        for (SubscriberInfoIndex subscriberIndex : subscriberIndexes) {
+            builder.addIndex(subscriberIndex);
+        }
+        mBus = builder.build();
     }
 
     public void register(final Object object) {
@@ -32,9 +57,17 @@ public class Dispatcher {
         mBus.unregister(object);
     }
 
+    void setStoreRegistry(StoreRegistry storeRegistry) {
+        mStoreRegistry = storeRegistry;
+    }
+
     public void dispatch(Action action) {
         AppLog.d(T.API, "Dispatching action: " + action.getType().getClass().getSimpleName()
                 + "-" + action.getType().toString());
+        StoreRegistry storeRegistry = mStoreRegistry;
+        if (storeRegistry != null) {
+            storeRegistry.onDispatch(action.getType());
+        }
         post(action);
     }
 
@@ -0,0 +1,100 @@
+package org.wordpress.android.fluxc;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.fluxc.annotations.action.IAction;
+import org.wordpress.android.fluxc.store.Store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * Builds stores on demand, instead of having the host app inject every store on startup so that they're registered
+ * with the {@link Dispatcher} before any action is dispatched.
+ *
+ * Each store is registered with the action types it handles (see StoreRegistryModule), and is only built the first
+ * time one of these actions is dispatched. Stores which are used for their getters should be injected lazily by the
+ * host app (with a {@link dagger.Lazy} or a {@link Provider}), they're built the first time they're used then.
+ *
+ * The host app only needs to inject the registry on startup.
+ */
+@Singleton
+public class StoreRegistry {
+    public static class Registration {
+        private final Provider<? extends Store> mStoreProvider;
+        private final List<Class<? extends IAction>> mActionTypes;
+
+        @SafeVarargs
+        public Registration(@NonNull Provider<? extends Store> storeProvider,
+                            @NonNull Class<? extends IAction>... actionTypes) {
+            mStoreProvider = storeProvider;
+            mActionTypes = Arrays.asList(actionTypes);
+        }
+    }
+
+    // The stores which weren't built yet, by the action types they handle
+    private final Map<Class<?>, List<Provider<? extends Store>>> mPendingStores = new ConcurrentHashMap<>();
+
+    @Inject public StoreRegistry(Dispatcher dispatcher, Set<Registration> registrations) {
+        for (Registration registration : registrations) {
+            for (Class<? extends IAction> actionType : registration.mActionTypes) {
+                List<Provider<? extends Store>> stores = mPendingStores.get(actionType);
+                if (stores == null) {
+                    stores = new ArrayList<>();
+                    mPendingStores.put(actionType, stores);
+                }
+                stores.add(registration.mStoreProvider);
+            }
+        }
+        dispatcher.setStoreRegistry(this);
+    }
+
+    /**
+     * Builds every registered store, for host apps which need all of them right away.
+     */
+    public void buildAllStores() {
+        for (Class<?> actionType : new ArrayList<>(mPendingStores.keySet())) {
+            buildStores(actionType);
+        }
+    }
+
+    /**
+     * Returns true if some of the stores registered for the given action type weren't built yet.
+     */
+    public boolean hasPendingStores(@NonNull Class<? extends IAction> actionType) {
+        return mPendingStores.containsKey(actionType);
+    }
+
+    /**
+     * Builds the stores handling the given action type, if they weren't built yet. Stores register themselves with
+     * the dispatcher when they're built, so they receive the action about to be dispatched.
+     */
+    void onDispatch(@NonNull IAction actionType) {
+        Class<?> actionClass = actionType instanceof Enum
+                ? ((Enum<?>) actionType).getDeclaringClass() : actionType.getClass();
+        // Once the stores of an action type are built this is the only cost of a dispatch
+        if (mPendingStores.containsKey(actionClass)) {
+            buildStores(actionClass);
+        }
+    }
+
+    private synchronized void buildStores(Class<?> actionType) {
+        List<Provider<? extends Store>> stores = mPendingStores.get(actionType);
+        if (stores == null) {
+            return;
+        }
+        for (Provider<? extends Store> store : stores) {
+            store.get();
+        }
+        // Only removed once the stores are registered, concurrent dispatches of the same action type wait for them
+        mPendingStores.remove(actionType);
+    }
+}
@@ -0,0 +1,28 @@
+package org.wordpress.android.fluxc.model
+
+import com.yarolegovich.wellsql.core.Identifiable
+import com.yarolegovich.wellsql.core.annotation.Column
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey
+import com.yarolegovich.wellsql.core.annotation.RawConstraints
+import com.yarolegovich.wellsql.core.annotation.Table
+
+/**
+ * Watermark of the delta syncs of the media library of a site, for a MIME type or for the whole library, see
+ * [org.wordpress.android.fluxc.store.MediaStore.FetchMediaListPayload.deltaSync]. The watermark is an upload date,
+ * since the media list can't be filtered by modification date: media edited remotely after being synced aren't
+ * fetched again by delta syncs.
+ */
+@Table
+@RawConstraints("UNIQUE(LOCAL_SITE_ID, MIME_TYPE) ON CONFLICT REPLACE")
+class MediaSyncStateModel(@PrimaryKey @Column private var id: Int = 0) : Identifiable {
+    @Column var localSiteId: Int = 0
+    @Column var mimeType: String = "" // Empty for the whole library
+    // Upload date of the newest synced media: the next delta sync only fetches the media uploaded after it
+    @Column var watermark: String? = null
+
+    override fun getId(): Int = id
+
+    override fun setId(id: Int) {
+        this.id = id
+    }
+}
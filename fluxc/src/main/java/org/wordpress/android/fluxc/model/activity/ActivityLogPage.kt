@@ -0,0 +1,23 @@
+package org.wordpress.android.fluxc.model.activity
+
+/**
+ * A page of the activity log of a site, newest first. Activities are decoded on first access, so that only the
+ * activities which are actually bound pay for the parsing of their formattable content.
+ *
+ * @param nextPageKey The key to pass to read the next page, or null if this is the last page
+ */
+class ActivityLogPage(
+    private val activities: List<Lazy<ActivityLogModel>>,
+    val nextPageKey: ActivityLogPageKey?
+) : AbstractList<ActivityLogModel>() {
+    override val size: Int
+        get() = activities.size
+
+    override fun get(index: Int): ActivityLogModel = activities[index].value
+}
+
+/**
+ * Position of the last activity of a page, the next page starts with the activity published right before it.
+ * Activities published at the same time are ordered by their local id.
+ */
+data class ActivityLogPageKey(val published: Long, val localId: Int)
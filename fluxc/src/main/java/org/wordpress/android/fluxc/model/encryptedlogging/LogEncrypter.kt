@@ -5,6 +5,10 @@ import com.goterl.lazysodium.interfaces.SecretStream
 import com.goterl.lazysodium.interfaces.SecretStream.State
 import com.goterl.lazysodium.utils.Key
 import dagger.Reusable
+import java.io.BufferedReader
+import java.io.File
+import java.io.StringWriter
+import java.io.Writer
 import javax.inject.Inject
 
 data class EncryptedLoggingKey(val publicKey: Key)
@@ -23,21 +27,65 @@ class LogEncrypter @Inject constructor(private val encryptedLoggingKey: Encrypte
      * @param text Text contents to be encrypted
      * @param uuid Uuid for the encrypted log
      */
-    fun encrypt(text: String, uuid: String): String = buildString {
+    fun encrypt(text: String, uuid: String): String {
+        val writer = StringWriter()
+        encrypt(text.reader().buffered(), writer, uuid)
+        return writer.toString()
+    }
+
+    /**
+     * Encrypts the contents of the [source] file into the [destination] file. It also adds the given [uuid] to its
+     * headers.
+     *
+     * The log is read, encrypted and written one line at a time, so the memory usage doesn't depend on its size.
+     *
+     * @param source Log file to be encrypted
+     * @param destination File the encrypted log will be written to
+     * @param uuid Uuid for the encrypted log
+     */
+    fun encrypt(source: File, destination: File, uuid: String) {
+        source.bufferedReader().use { reader ->
+            destination.bufferedWriter().use { writer ->
+                encrypt(reader, writer, uuid)
+            }
+        }
+    }
+
+    private fun encrypt(reader: BufferedReader, writer: Writer, uuid: String) {
         val state = State.ByReference()
-        append(buildHeader(uuid, state))
-        val lines = text.lines()
-        lines.asSequence().mapIndexed { index, line ->
-            if (index + 1 >= lines.size) {
-                // If it's the last element
-                line
-            } else {
-                "$line\n"
+        writer.write(buildHeader(uuid, state))
+        reader.forEachLogLine { line, isLastLine ->
+            writer.write(buildMessage(if (isLastLine) line else "$line\n", state))
+        }
+        writer.write(buildFooter(state))
+    }
+
+    /**
+     * Reads the lines the same way [String.lines] splits them: "\n", "\r\n" and "\r" are all line breaks and a
+     * trailing line break results in an empty last line.
+     */
+    private inline fun BufferedReader.forEachLogLine(action: (line: String, isLastLine: Boolean) -> Unit) {
+        val line = StringBuilder()
+        var char = read()
+        while (char != -1) {
+            when (char.toChar()) {
+                '\n' -> {
+                    action(line.toString(), false)
+                    line.setLength(0)
+                }
+                '\r' -> {
+                    mark(1)
+                    if (read() != '\n'.toInt()) {
+                        reset()
+                    }
+                    action(line.toString(), false)
+                    line.setLength(0)
+                }
+                else -> line.append(char.toChar())
             }
-        }.forEach { line ->
-            append(buildMessage(line, state))
+            char = read()
         }
-        append(buildFooter(state))
+        action(line.toString(), true)
     }
 
     /**
@@ -1,6 +1,5 @@
 package org.wordpress.android.fluxc.model.list.datasource
 
-import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.list.ListDescriptor
 
 /**
@@ -14,23 +13,34 @@ import org.wordpress.android.fluxc.model.list.ListDescriptor
  * identifiers for each index to represent.
  *
  * After the identifiers are cached, whenever `PositionalDataSource` asks for a range of items, they'll be converted
- * to identifiers and propagated to [ListItemDataSourceInterface].
+ * to identifiers and propagated to [ListItemDataSourceInterface]. If the [ListItemDataSourceInterface] supports remote
+ * item id ranges, the primitive snapshot of the remote ids is used instead and no identifiers are created.
  *
  * Most importantly, by separating this component, we are able to keep a single instance of [ListItemDataSourceInterface]
  * and hide the requirement for identifiers needing to be cached from it.
  */
 class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIFIER, LIST_ITEM>(
     private val listDescriptor: LIST_DESCRIPTOR,
-    remoteItemIds: List<RemoteId>,
+    private val remoteItemIds: LongArray,
     isListFullyFetched: Boolean,
     private val itemDataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
 ) {
+    /*
+     * If the items map one-to-one to the remote ids, the primitive snapshot of the remote ids is all we need and
+     * pages are requested from [ListItemDataSourceInterface] as ranges of it.
+     */
+    private val usesRemoteItemIdRanges = itemDataSource.supportsRemoteItemIdRanges(listDescriptor)
+
     /*
      * PagedList library needs a snapshot of the data. It does the heavy lifting by caching the items provided to it,
      * but it still needs a consistent list of identifiers to work with. In order to do that, we take a snapshot of the
      * current identifiers and work with those until a new instance is created by PagedList.
      */
-    private val itemIdentifiers = itemDataSource.getItemIdentifiers(listDescriptor, remoteItemIds, isListFullyFetched)
+    private val itemIdentifiers: List<ITEM_IDENTIFIER>? = if (usesRemoteItemIdRanges) {
+        null
+    } else {
+        itemDataSource.getItemIdentifiers(listDescriptor, remoteItemIds, isListFullyFetched)
+    }
 
     /**
      * Number of items the list contains.
@@ -39,7 +49,7 @@ class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIF
      * value will be valid and unchanged during the lifecycle of this instance.
      */
     val totalSize: Int
-        get() = itemIdentifiers.size
+        get() = itemIdentifiers?.size ?: remoteItemIds.size
 
     /**
      * Returns the list of items [LIST_ITEM] by propagating the call to [ListItemDataSourceInterface]
@@ -47,21 +57,18 @@ class InternalPagedListDataSource<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDENTIF
      * @param startPosition Start position that's inclusive
      * @param endPosition End position that's exclusive
      */
-    fun getItemsInRange(startPosition: Int, endPosition: Int): List<LIST_ITEM> =
-            itemDataSource.getItemsAndFetchIfNecessary(listDescriptor, getItemIds(startPosition, endPosition))
-
-    /**
-     * Helper function that returns the list [ITEM_IDENTIFIER]s for the given start and end positions using the
-     * internal [itemIdentifiers].
-     *
-     * @param startPosition Start position that's inclusive
-     * @param endPosition End position that's exclusive
-     */
-    private fun getItemIds(startPosition: Int, endPosition: Int): List<ITEM_IDENTIFIER> {
+    fun getItemsInRange(startPosition: Int, endPosition: Int): List<LIST_ITEM> {
         require(startPosition in 0 until endPosition && endPosition <= totalSize) {
             "Illegal start($startPosition) or end($endPosition) position for totalSize($totalSize)"
         }
 
-        return itemIdentifiers.subList(startPosition, endPosition)
+        return if (itemIdentifiers == null) {
+            itemDataSource.getItemsInRange(listDescriptor, remoteItemIds, startPosition, endPosition)
+        } else {
+            itemDataSource.getItemsAndFetchIfNecessary(
+                    listDescriptor,
+                    itemIdentifiers.subList(startPosition, endPosition)
+            )
+        }
     }
 }
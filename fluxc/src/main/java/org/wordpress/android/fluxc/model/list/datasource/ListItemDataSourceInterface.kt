@@ -34,6 +34,54 @@ interface ListItemDataSourceInterface<LIST_DESCRIPTOR : ListDescriptor, ITEM_IDE
         isListFullyFetched: Boolean
     ): List<ITEM_IDENTIFIER>
 
+    /**
+     * Primitive counterpart of [getItemIdentifiers] that's used by `ListStore`. The default implementation wraps
+     * each value in a [RemoteId] and propagates the call to [getItemIdentifiers], so existing implementations don't
+     * need to change. It still boxes the whole list, implementations can avoid that by overriding it or, if their
+     * items map one-to-one to the remote ids, by returning `true` from [supportsRemoteItemIdRanges].
+     */
+    fun getItemIdentifiers(
+        listDescriptor: LIST_DESCRIPTOR,
+        remoteItemIds: LongArray,
+        isListFullyFetched: Boolean
+    ): List<ITEM_IDENTIFIER> = getItemIdentifiers(
+            listDescriptor = listDescriptor,
+            remoteItemIds = remoteItemIds.map { RemoteId(value = it) },
+            isListFullyFetched = isListFullyFetched
+    )
+
+    /**
+     * Should return whether the items of this data source map one-to-one to the remote ids of the list, meaning
+     * [getItemIdentifiers] doesn't add, remove or reorder anything.
+     *
+     * If it returns `true`, item identifiers will never be requested for the given [LIST_DESCRIPTOR] and pages will
+     * be loaded through [getItemsInRange] directly from the primitive snapshot of the remote ids.
+     */
+    fun supportsRemoteItemIdRanges(listDescriptor: LIST_DESCRIPTOR): Boolean = false
+
+    /**
+     * Should return the list of [LIST_ITEM]s for the remote ids between [startPosition] (inclusive) and [endPosition]
+     * (exclusive) of the given [remoteItemIds] snapshot. It should also fetch the missing items if necessary.
+     *
+     * This is only called if [supportsRemoteItemIdRanges] returns `true`. The default implementation only boxes the
+     * remote ids of the requested range and propagates the call to [getItemIdentifiers] and
+     * [getItemsAndFetchIfNecessary], which is valid since the items map one-to-one to the remote ids.
+     */
+    fun getItemsInRange(
+        listDescriptor: LIST_DESCRIPTOR,
+        remoteItemIds: LongArray,
+        startPosition: Int,
+        endPosition: Int
+    ): List<LIST_ITEM> = getItemsAndFetchIfNecessary(
+            listDescriptor = listDescriptor,
+            itemIdentifiers = getItemIdentifiers(
+                    listDescriptor = listDescriptor,
+                    remoteItemIds = remoteItemIds.copyOfRange(startPosition, endPosition),
+                    // Doesn't change anything for items that map one-to-one to the remote ids
+                    isListFullyFetched = false
+            )
+    )
+
     /**
      * Should fetch the list for the given [LIST_DESCRIPTOR] and an offset.
      */
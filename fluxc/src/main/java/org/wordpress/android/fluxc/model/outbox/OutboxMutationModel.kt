@@ -0,0 +1,33 @@
+package org.wordpress.android.fluxc.model.outbox
+
+import com.yarolegovich.wellsql.core.Identifiable
+import com.yarolegovich.wellsql.core.annotation.Column
+import com.yarolegovich.wellsql.core.annotation.PrimaryKey
+import com.yarolegovich.wellsql.core.annotation.RawConstraints
+import com.yarolegovich.wellsql.core.annotation.Table
+
+/**
+ * A mutation of a local entity that hasn't been confirmed by the server yet, see
+ * [org.wordpress.android.fluxc.outbox.MutationOutbox]. There's at most one mutation per entity: successive edits of
+ * the same entity are coalesced into a single row.
+ */
+@Table
+@RawConstraints("UNIQUE(LOCAL_SITE_ID, ENTITY_TYPE, ENTITY_ID) ON CONFLICT REPLACE")
+class OutboxMutationModel(@PrimaryKey @Column private var id: Int = 0) : Identifiable {
+    @Column var localSiteId: Int = 0
+    @Column var entityType: String? = null
+    @Column var entityId: Long = 0
+    // Latest state of the entity, for the entities which aren't saved locally before being sent
+    @Column var payload: String? = null
+    // Incremented on each coalesced edit, to tell whether the state that was sent is still the latest one
+    @Column var revision: Int = 0
+    @Column var dateCreated: Long = 0 // Time of the first edit, in milliseconds
+    @Column var failedCount: Int = 0
+    @Column var nextAttempt: Long = 0 // Time before which the mutation isn't replayed, in milliseconds
+
+    override fun getId(): Int = id
+
+    override fun setId(id: Int) {
+        this.id = id
+    }
+}
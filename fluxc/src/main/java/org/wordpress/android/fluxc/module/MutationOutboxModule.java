@@ -0,0 +1,34 @@
+package org.wordpress.android.fluxc.module;
+
+import org.wordpress.android.fluxc.outbox.MutationOutbox;
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Replayer;
+import org.wordpress.android.fluxc.store.CommentsStore;
+import org.wordpress.android.fluxc.store.PostStore;
+
+import java.util.Map;
+
+import dagger.Module;
+import dagger.Provides;
+import dagger.multibindings.IntoMap;
+import dagger.multibindings.Multibinds;
+import dagger.multibindings.StringKey;
+
+/**
+ * Declares the {@link Replayer}s handed to the {@link MutationOutbox}, by entity type, so that it can replay the
+ * pending mutations of every entity type as soon as it starts, whether their store was built yet or not.
+ * Plugins contribute the replayers of their own stores with {@code @IntoMap}.
+ */
+@Module
+public abstract class MutationOutboxModule {
+    @Multibinds abstract Map<String, Replayer> replayers();
+
+    @Provides @IntoMap @StringKey(MutationOutbox.ENTITY_TYPE_POST)
+    static Replayer providePostReplayer(PostStore store) {
+        return store.getOutboxReplayer();
+    }
+
+    @Provides @IntoMap @StringKey(MutationOutbox.ENTITY_TYPE_COMMENT)
+    static Replayer provideCommentReplayer(CommentsStore store) {
+        return store.getOutboxReplayer();
+    }
+}
@@ -9,9 +9,13 @@ import com.android.volley.toolbox.DiskBasedCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import org.wordpress.android.fluxc.network.CircuitBreakerNetwork;
 import org.wordpress.android.fluxc.network.MemorizingTrustManager;
+import org.wordpress.android.fluxc.network.NetworkMetrics;
 import org.wordpress.android.fluxc.network.OkHttpStack;
 import org.wordpress.android.fluxc.network.RetryOnRedirectBasicNetwork;
+import org.wordpress.android.fluxc.network.ScheduledRequestQueue;
+import org.wordpress.android.fluxc.network.SiteHealthTracker;
 import org.wordpress.android.fluxc.network.rest.JsonObjectOrEmptyArray;
 import org.wordpress.android.fluxc.network.rest.JsonObjectOrEmptyArrayDeserializer;
 import org.wordpress.android.fluxc.network.rest.JsonObjectOrFalse;
@@ -20,6 +24,8 @@ import org.wordpress.android.fluxc.network.rest.JsonObjectOrFalseDeserializer;
 import java.io.File;
 import java.net.CookieHandler;
 import java.net.CookieManager;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -32,24 +38,48 @@ import okhttp3.CookieJar;
 import okhttp3.JavaNetCookieJar;
 import okhttp3.OkHttpClient;
 
-@Module
+@Module(includes = {SubscriberIndexModule.class, MutationOutboxModule.class})
 public class ReleaseNetworkModule {
     private static final String DEFAULT_CACHE_DIR = "volley-fluxc";
     private static final int NETWORK_THREAD_POOL_SIZE = 10;
+    private static final int DEFAULT_CACHE_SIZE_IN_BYTES = 5 * 1024 * 1024;
+    // WordPress.com API requests, including Jetpack tunnel requests, aren't limited per host
+    private static final String WPCOM_API_HOST = "public-api.wordpress.com";
 
-    private RequestQueue newRetryOnRedirectRequestQueue(OkHttpClient okHttpClient, Context appContext) {
+    private final int mCacheSizeInBytes;
+
+    public ReleaseNetworkModule() {
+        this(DEFAULT_CACHE_SIZE_IN_BYTES);
+    }
+
+    /**
+     * @param cacheSizeInBytes the size budget of the HTTP response cache of each request queue. When it's exceeded,
+     *                         the least recently used responses are evicted.
+     */
+    public ReleaseNetworkModule(int cacheSizeInBytes) {
+        mCacheSizeInBytes = cacheSizeInBytes;
+    }
+
+    private RequestQueue newRetryOnRedirectRequestQueue(OkHttpClient okHttpClient, Context appContext,
+                                                        SiteHealthTracker siteHealthTracker) {
         Network network = new RetryOnRedirectBasicNetwork(new OkHttpStack(okHttpClient));
-        return createRequestQueue(network, appContext);
+        return createRequestQueue(network, appContext, siteHealthTracker);
     }
 
-    private RequestQueue newRequestQueue(OkHttpClient okHttpClient, Context appContext) {
+    private RequestQueue newRequestQueue(OkHttpClient okHttpClient, Context appContext,
+                                         SiteHealthTracker siteHealthTracker) {
         Network network = new BasicNetwork(new OkHttpStack(okHttpClient));
-        return createRequestQueue(network, appContext);
+        return createRequestQueue(network, appContext, siteHealthTracker);
     }
 
-    private RequestQueue createRequestQueue(Network network, Context appContext) {
+    private RequestQueue createRequestQueue(Network network, Context appContext,
+                                            SiteHealthTracker siteHealthTracker) {
         File cacheDir = new File(appContext.getCacheDir(), DEFAULT_CACHE_DIR);
-        RequestQueue queue = new RequestQueue(new DiskBasedCache(cacheDir), network, NETWORK_THREAD_POOL_SIZE);
+        Network circuitBreakerNetwork = new CircuitBreakerNetwork(network, siteHealthTracker);
+        RequestQueue queue = new ScheduledRequestQueue(new DiskBasedCache(cacheDir, mCacheSizeInBytes),
+                circuitBreakerNetwork,
+                NETWORK_THREAD_POOL_SIZE, ScheduledRequestQueue.DEFAULT_MAX_REQUESTS_PER_HOST,
+                Collections.singleton(WPCOM_API_HOST));
         queue.start();
         return queue;
     }
@@ -58,24 +88,36 @@ public class ReleaseNetworkModule {
     @Named("regular")
     @Provides
     public RequestQueue provideRequestQueue(@Named("regular") OkHttpClient okHttpClient,
-                                            Context appContext) {
-        return newRequestQueue(okHttpClient, appContext);
+                                            Context appContext,
+                                            SiteHealthTracker siteHealthTracker) {
+        return newRequestQueue(okHttpClient, appContext, siteHealthTracker);
     }
 
     @Singleton
     @Named("no-redirects")
     @Provides
     public RequestQueue provideNoRedirectsRequestQueue(@Named("no-redirects") OkHttpClient okHttpClient,
-                                                       Context appContext) {
-        return newRetryOnRedirectRequestQueue(okHttpClient, appContext);
+                                                       Context appContext,
+                                                       SiteHealthTracker siteHealthTracker) {
+        return newRetryOnRedirectRequestQueue(okHttpClient, appContext, siteHealthTracker);
     }
 
     @Singleton
     @Named("custom-ssl")
     @Provides
     public RequestQueue provideRequestQueueCustomSSL(@Named("custom-ssl") OkHttpClient okHttpClient,
-                                                     Context appContext) {
-        return newRequestQueue(okHttpClient, appContext);
+                                                     Context appContext,
+                                                     SiteHealthTracker siteHealthTracker) {
+        return newRequestQueue(okHttpClient, appContext, siteHealthTracker);
+    }
+
+    /**
+     * Shared by all request queues, and exposed for diagnostics.
+     */
+    @Singleton
+    @Provides
+    public SiteHealthTracker provideSiteHealthTracker() {
+        return new SiteHealthTracker();
     }
 
     @Singleton
@@ -102,6 +144,17 @@ public class ReleaseNetworkModule {
         return new JavaNetCookieJar(cookieManager);
     }
 
+    /**
+     * Executor of the asynchronous store handlers, which times them for the {@link NetworkMetrics} of the response
+     * that dispatched their action.
+     */
+    @Singleton
+    @Named("dispatcher")
+    @Provides
+    public ExecutorService provideDispatcherExecutor() {
+        return NetworkMetrics.newStoreExecutor();
+    }
+
     @Singleton
     @Provides
     public CoroutineContext provideCoroutineContext() {
@@ -0,0 +1,178 @@
+package org.wordpress.android.fluxc.module;
+
+import org.wordpress.android.fluxc.StoreRegistry.Registration;
+import org.wordpress.android.fluxc.action.AccountAction;
+import org.wordpress.android.fluxc.action.ActivityLogAction;
+import org.wordpress.android.fluxc.action.AuthenticationAction;
+import org.wordpress.android.fluxc.action.CommentAction;
+import org.wordpress.android.fluxc.action.CommentsAction;
+import org.wordpress.android.fluxc.action.EditorThemeAction;
+import org.wordpress.android.fluxc.action.EncryptedLogAction;
+import org.wordpress.android.fluxc.action.JetpackAction;
+import org.wordpress.android.fluxc.action.ListAction;
+import org.wordpress.android.fluxc.action.MediaAction;
+import org.wordpress.android.fluxc.action.NotificationAction;
+import org.wordpress.android.fluxc.action.PlanOffersAction;
+import org.wordpress.android.fluxc.action.PluginAction;
+import org.wordpress.android.fluxc.action.PostAction;
+import org.wordpress.android.fluxc.action.ReaderAction;
+import org.wordpress.android.fluxc.action.ScanAction;
+import org.wordpress.android.fluxc.action.SiteAction;
+import org.wordpress.android.fluxc.action.StockMediaAction;
+import org.wordpress.android.fluxc.action.TaxonomyAction;
+import org.wordpress.android.fluxc.action.ThemeAction;
+import org.wordpress.android.fluxc.action.TransactionAction;
+import org.wordpress.android.fluxc.action.UploadAction;
+import org.wordpress.android.fluxc.action.VerticalAction;
+import org.wordpress.android.fluxc.action.WhatsNewAction;
+import org.wordpress.android.fluxc.store.AccountStore;
+import org.wordpress.android.fluxc.store.ActivityLogStore;
+import org.wordpress.android.fluxc.store.CommentStore;
+import org.wordpress.android.fluxc.store.CommentsStore;
+import org.wordpress.android.fluxc.store.EditorThemeStore;
+import org.wordpress.android.fluxc.store.EncryptedLogStore;
+import org.wordpress.android.fluxc.store.JetpackStore;
+import org.wordpress.android.fluxc.store.ListStore;
+import org.wordpress.android.fluxc.store.MediaStore;
+import org.wordpress.android.fluxc.store.NotificationStore;
+import org.wordpress.android.fluxc.store.PlanOffersStore;
+import org.wordpress.android.fluxc.store.PluginStore;
+import org.wordpress.android.fluxc.store.PostStore;
+import org.wordpress.android.fluxc.store.ReaderStore;
+import org.wordpress.android.fluxc.store.ScanStore;
+import org.wordpress.android.fluxc.store.SiteStore;
+import org.wordpress.android.fluxc.store.StockMediaStore;
+import org.wordpress.android.fluxc.store.TaxonomyStore;
+import org.wordpress.android.fluxc.store.ThemeStore;
+import org.wordpress.android.fluxc.store.TransactionsStore;
+import org.wordpress.android.fluxc.store.UploadStore;
+import org.wordpress.android.fluxc.store.VerticalStore;
+import org.wordpress.android.fluxc.store.WhatsNewStore;
+
+import javax.inject.Provider;
+
+import dagger.Module;
+import dagger.Provides;
+import dagger.multibindings.IntoSet;
+
+/**
+ * Registers the FluxC stores with the {@link org.wordpress.android.fluxc.StoreRegistry}, with the action types each
+ * of them handles. A store handling a new action type must be updated here as well.
+ */
+@Module
+public class StoreRegistryModule {
+    @Provides @IntoSet
+    public Registration provideAccountStoreRegistration(Provider<AccountStore> store) {
+        return new Registration(store, AccountAction.class, AuthenticationAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideActivityLogStoreRegistration(Provider<ActivityLogStore> store) {
+        return new Registration(store, ActivityLogAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideCommentStoreRegistration(Provider<CommentStore> store) {
+        return new Registration(store, CommentAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideCommentsStoreRegistration(Provider<CommentsStore> store) {
+        return new Registration(store, CommentsAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideEditorThemeStoreRegistration(Provider<EditorThemeStore> store) {
+        return new Registration(store, EditorThemeAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideEncryptedLogStoreRegistration(Provider<EncryptedLogStore> store) {
+        return new Registration(store, EncryptedLogAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideJetpackStoreRegistration(Provider<JetpackStore> store) {
+        return new Registration(store, JetpackAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideListStoreRegistration(Provider<ListStore> store) {
+        return new Registration(store, ListAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideMediaStoreRegistration(Provider<MediaStore> store) {
+        return new Registration(store, MediaAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideNotificationStoreRegistration(Provider<NotificationStore> store) {
+        return new Registration(store, NotificationAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration providePlanOffersStoreRegistration(Provider<PlanOffersStore> store) {
+        return new Registration(store, PlanOffersAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration providePluginStoreRegistration(Provider<PluginStore> store) {
+        return new Registration(store, PluginAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration providePostStoreRegistration(Provider<PostStore> store) {
+        return new Registration(store, PostAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideReaderStoreRegistration(Provider<ReaderStore> store) {
+        return new Registration(store, ReaderAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideScanStoreRegistration(Provider<ScanStore> store) {
+        return new Registration(store, ScanAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideSiteStoreRegistration(Provider<SiteStore> store) {
+        return new Registration(store, SiteAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideStockMediaStoreRegistration(Provider<StockMediaStore> store) {
+        return new Registration(store, StockMediaAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideTaxonomyStoreRegistration(Provider<TaxonomyStore> store) {
+        return new Registration(store, TaxonomyAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideThemeStoreRegistration(Provider<ThemeStore> store) {
+        return new Registration(store, ThemeAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideTransactionsStoreRegistration(Provider<TransactionsStore> store) {
+        return new Registration(store, TransactionAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideUploadStoreRegistration(Provider<UploadStore> store) {
+        return new Registration(store, UploadAction.class, MediaAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideVerticalStoreRegistration(Provider<VerticalStore> store) {
+        return new Registration(store, VerticalAction.class);
+    }
+
+    @Provides @IntoSet
+    public Registration provideWhatsNewStoreRegistration(Provider<WhatsNewStore> store) {
+        return new Registration(store, WhatsNewAction.class);
+    }
+}
@@ -0,0 +1,17 @@
+package org.wordpress.android.fluxc.module;
+
+import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
+
+import java.util.Set;
+
+import dagger.Module;
+import dagger.multibindings.Multibinds;
+
+/**
+ * Declares the set of EventBus subscriber indexes handed to the {@link org.wordpress.android.fluxc.Dispatcher}.
+ * Host apps and plugins contribute the indexes generated for their own subscribers with {@code @IntoSet}.
+ */
+@Module
+public abstract class SubscriberIndexModule {
+    @Multibinds abstract Set<SubscriberInfoIndex> subscriberIndexes();
+}
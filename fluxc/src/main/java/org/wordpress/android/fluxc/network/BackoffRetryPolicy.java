@@ -0,0 +1,88 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.RetryPolicy;
+import com.android.volley.VolleyError;
+
+import org.wordpress.android.fluxc.network.SiteHealthTracker.CircuitState;
+
+import java.util.Random;
+
+/**
+ * A {@link RetryPolicy} that waits before each retry, for a random time up to an exponentially growing backoff
+ * ("full jitter"), so that requests that failed together don't retry together.
+ *
+ * The wait doesn't block the network thread: {@link #retry} ends the attempt with a {@link RetryScheduledError}, and
+ * the request is added back to its queue once the delay has elapsed, see {@link BaseRequest#deliverError}.
+ *
+ * Requests to a site whose circuit is open are not retried, see {@link SiteHealthTracker}.
+ */
+public class BackoffRetryPolicy implements RetryPolicy {
+    public static final int DEFAULT_INITIAL_BACKOFF_MS = 500;
+    public static final int DEFAULT_MAX_BACKOFF_MS = 4000;
+
+    private static final Random RANDOM = new Random();
+
+    private final int mTimeoutMs;
+    private final int mMaxRetries;
+    private final int mInitialBackoffMs;
+    private final int mMaxBackoffMs;
+    private int mRetryCount;
+    @Nullable private volatile SiteHealthTracker mSiteHealthTracker;
+    @Nullable private volatile String mSiteKey;
+
+    public BackoffRetryPolicy(int timeoutMs, int maxRetries) {
+        this(timeoutMs, maxRetries, DEFAULT_INITIAL_BACKOFF_MS, DEFAULT_MAX_BACKOFF_MS);
+    }
+
+    public BackoffRetryPolicy(int timeoutMs, int maxRetries, int initialBackoffMs, int maxBackoffMs) {
+        mTimeoutMs = timeoutMs;
+        mMaxRetries = maxRetries;
+        mInitialBackoffMs = initialBackoffMs;
+        mMaxBackoffMs = maxBackoffMs;
+    }
+
+    @Override
+    public int getCurrentTimeout() {
+        return mTimeoutMs;
+    }
+
+    @Override
+    public int getCurrentRetryCount() {
+        return mRetryCount;
+    }
+
+    /**
+     * Sets the circuit breaker of the site the request is sent to, so that it's not retried while the circuit is open.
+     */
+    void setCircuitBreaker(@NonNull SiteHealthTracker siteHealthTracker, @NonNull String siteKey) {
+        mSiteHealthTracker = siteHealthTracker;
+        mSiteKey = siteKey;
+    }
+
+    @Override
+    public void retry(VolleyError error) throws VolleyError {
+        if (mRetryCount >= mMaxRetries || isCircuitOpen()) {
+            throw error;
+        }
+        long backoffMs = getMaxBackoffMs(mRetryCount);
+        mRetryCount++;
+        throw new RetryScheduledError(error, (long) (RANDOM.nextDouble() * backoffMs));
+    }
+
+    private boolean isCircuitOpen() {
+        SiteHealthTracker siteHealthTracker = mSiteHealthTracker;
+        String siteKey = mSiteKey;
+        return siteHealthTracker != null && siteKey != null
+               && siteHealthTracker.getCircuitState(siteKey) == CircuitState.OPEN;
+    }
+
+    /**
+     * Returns the upper bound of the time to wait before the given retry.
+     */
+    long getMaxBackoffMs(int retryCount) {
+        return Math.min(mMaxBackoffMs, (long) mInitialBackoffMs << Math.min(retryCount, 30));
+    }
+}
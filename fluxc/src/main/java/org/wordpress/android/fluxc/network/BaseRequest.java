@@ -2,9 +2,12 @@ package org.wordpress.android.fluxc.network;
 
 import android.net.Uri;
 import android.net.Uri.Builder;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Base64;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.android.volley.AuthFailureError;
 import com.android.volley.Cache;
@@ -14,17 +17,23 @@ import com.android.volley.NetworkResponse;
 import com.android.volley.NoConnectionError;
 import com.android.volley.ParseError;
 import com.android.volley.Request;
+import com.android.volley.RequestQueue;
 import com.android.volley.TimeoutError;
 import com.android.volley.VolleyError;
 import com.android.volley.toolbox.HttpHeaderParser;
 
 import org.wordpress.android.fluxc.FluxCError;
+import org.wordpress.android.fluxc.network.NetworkMetrics.Phase;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
 import org.wordpress.android.util.AppLog;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import javax.net.ssl.SSLHandshakeException;
 
@@ -48,6 +57,7 @@ public abstract class BaseRequest<T> extends Request<T> {
     }
 
     private static final String USER_AGENT_HEADER = "User-Agent";
+    protected static final String AUTHORIZATION_HEADER = "Authorization";
 
     protected OnAuthFailedListener mOnAuthFailedListener;
     protected OnParseErrorListener mOnParseErrorListener;
@@ -58,6 +68,19 @@ public abstract class BaseRequest<T> extends Request<T> {
     private int mCacheTtl;
     private int mCacheSoftTtl;
 
+    private RequestPriority mRequestPriority = RequestPriority.INTERACTIVE;
+    private long mQueueWaitTime;
+    private String mMetricsEndpoint;
+    private boolean mBodyCompressionEnabled;
+
+    // Coalescing state, see RequestCoalescer. Guarded by this request's monitor.
+    private RequestCoalescer mCoalescer;
+    private BaseRequest<T> mCoalescedInto;
+    private final List<BaseRequest<T>> mCoalescedRequests = new ArrayList<>();
+    private boolean mDelivered;
+    private boolean mCanceledBySender;
+    private RequestQueue mRequestQueue;
+
     public static class BaseNetworkError implements FluxCError {
         public GenericErrorType type;
         public String message;
@@ -129,8 +152,9 @@ public abstract class BaseRequest<T> extends Request<T> {
         mErrorListener = errorListener;
         // Make sure all our custom Requests are never cached.
         setShouldCache(false);
-        setRetryPolicy(new DefaultRetryPolicy(DEFAULT_REQUEST_TIMEOUT,
-                DefaultRetryPolicy.DEFAULT_MAX_RETRIES, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        // Only idempotent requests are retried, as a request that timed out might still have been processed
+        setRetryPolicy(new BackoffRetryPolicy(DEFAULT_REQUEST_TIMEOUT,
+                isIdempotent(method) ? DefaultRetryPolicy.DEFAULT_MAX_RETRIES : 0));
     }
 
     @Override
@@ -178,6 +202,288 @@ public abstract class BaseRequest<T> extends Request<T> {
         mCacheSoftTtl = softTimeToLive;
     }
 
+    /**
+     * Enable caching for this request, following the given {@link CachePolicy}.
+     *
+     * Stale responses are revalidated with the server, which only sends them again if they changed.
+     */
+    public void enableCaching(@NonNull CachePolicy cachePolicy) {
+        enableCaching(cachePolicy.getTimeToLive());
+    }
+
+    /**
+     * Returns the canonical URL of this request as cache key, so that a resource is only cached once regardless of
+     * the order in which its query parameters were added.
+     */
+    @Override
+    public String getCacheKey() {
+        String canonicalUrl = getCanonicalUrl(mUri);
+        int method = getMethod();
+        if (method == Method.GET || method == Method.DEPRECATED_GET_OR_POST) {
+            return canonicalUrl;
+        }
+        return method + "-" + canonicalUrl;
+    }
+
+    static String getCanonicalUrl(Uri uri) {
+        Set<String> parameterNames = uri.isHierarchical() ? uri.getQueryParameterNames() : null;
+        if (parameterNames == null || parameterNames.size() < 2) {
+            return uri.toString();
+        }
+        Builder builder = uri.buildUpon().clearQuery();
+        for (String name : new TreeSet<>(parameterNames)) {
+            for (String value : uri.getQueryParameters(name)) {
+                builder.appendQueryParameter(name, value);
+            }
+        }
+        return builder.build().toString();
+    }
+
+    /**
+     * Sets the priority class of this request, which defines when it's sent and how many requests of the same class
+     * can run at the same time. Requests are {@link RequestPriority#INTERACTIVE} by default.
+     */
+    public void setRequestPriority(@NonNull RequestPriority requestPriority) {
+        mRequestPriority = requestPriority;
+    }
+
+    @NonNull
+    public RequestPriority getRequestPriority() {
+        return mRequestPriority;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return mRequestPriority.getVolleyPriority();
+    }
+
+    /**
+     * Returns the time in milliseconds this request waited for its turn in a {@link ScheduledRequestQueue}.
+     */
+    public synchronized long getQueueWaitTime() {
+        return mQueueWaitTime;
+    }
+
+    synchronized void setQueueWaitTime(long queueWaitTime) {
+        mQueueWaitTime = queueWaitTime;
+        if (NetworkMetrics.isEnabled()) {
+            NetworkMetrics.record(getMetricsEndpoint(), Phase.QUEUE_WAIT, queueWaitTime);
+        }
+    }
+
+    /**
+     * Returns the endpoint template under which the {@link NetworkMetrics} of this request are aggregated.
+     */
+    @NonNull
+    protected String getMetricsEndpoint() {
+        if (mMetricsEndpoint == null) {
+            mMetricsEndpoint = NetworkMetrics.getEndpointTemplate(getMethodName(getMethod()), getUrl());
+        }
+        return mMetricsEndpoint;
+    }
+
+    /**
+     * Returns the value to be passed to {@link #recordMetricDuration}, or 0 if {@link NetworkMetrics} are disabled.
+     */
+    protected static long startMetricTiming() {
+        return NetworkMetrics.startTiming();
+    }
+
+    protected void recordMetricDuration(@NonNull Phase phase, long startNanos) {
+        NetworkMetrics.recordDuration(this, phase, startNanos);
+    }
+
+    void recordMetricSize(@NonNull Phase phase, long bytes) {
+        if (NetworkMetrics.isEnabled()) {
+            NetworkMetrics.record(getMetricsEndpoint(), phase, bytes);
+        }
+    }
+
+    /**
+     * To be called before a response is delivered to the listener of this request, with the returned value passed
+     * to {@link #endMetricDelivery} once it's done.
+     */
+    protected long beginMetricDelivery() {
+        return NetworkMetrics.beginDelivery(this);
+    }
+
+    protected void endMetricDelivery(long startNanos) {
+        NetworkMetrics.endDelivery(this, startNanos);
+    }
+
+    private static String getMethodName(int method) {
+        switch (method) {
+            case Method.GET:
+                return "GET";
+            case Method.POST:
+                return "POST";
+            case Method.PUT:
+                return "PUT";
+            case Method.DELETE:
+                return "DELETE";
+            case Method.HEAD:
+                return "HEAD";
+            case Method.OPTIONS:
+                return "OPTIONS";
+            case Method.TRACE:
+                return "TRACE";
+            case Method.PATCH:
+                return "PATCH";
+            default:
+                return "GET";
+        }
+    }
+
+    /**
+     * Returns the key identifying the requests that are identical to this one, and can share its network call, or
+     * null if this request must always be sent on its own. See {@link RequestCoalescer}.
+     */
+    @Nullable
+    protected String getCoalescingKey() {
+        return null;
+    }
+
+    /**
+     * Coalesces an identical request into this one, so that it receives the result of this request instead of being
+     * sent. Returns false if it's too late for that, because this request already got its result or was canceled.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized boolean coalesce(@NonNull BaseRequest<?> request) {
+        if (mDelivered || isCanceled()) {
+            return false;
+        }
+        BaseRequest<T> coalescedRequest = (BaseRequest<T>) request;
+        synchronized (coalescedRequest) {
+            coalescedRequest.mCoalescedInto = this;
+        }
+        mCoalescedRequests.add(coalescedRequest);
+        return true;
+    }
+
+    synchronized void setCoalescer(@NonNull RequestCoalescer coalescer) {
+        // The request might be sent again, e.g. when retrying a Jetpack tunnel timeout
+        mCoalescer = coalescer;
+        mDelivered = false;
+    }
+
+    /**
+     * Returns true if this request was canceled by its sender, but is still sent on behalf of the identical requests
+     * coalesced into it. Its own listeners must not be called.
+     */
+    protected synchronized boolean isCanceledBySender() {
+        return mCanceledBySender;
+    }
+
+    /**
+     * Cancels this request. If identical requests were coalesced into it, the network call is only canceled once all
+     * of them have been canceled too.
+     */
+    @Override
+    public void cancel() {
+        BaseRequest<T> coalescedInto;
+        synchronized (this) {
+            coalescedInto = mCoalescedInto;
+            if (hasPendingCoalescedRequests()) {
+                mCanceledBySender = true;
+                return;
+            }
+        }
+        super.cancel();
+        if (coalescedInto != null) {
+            coalescedInto.onCoalescedRequestCanceled();
+        } else {
+            detachFromCoalescer();
+        }
+    }
+
+    private void onCoalescedRequestCanceled() {
+        synchronized (this) {
+            if (!mCanceledBySender || hasPendingCoalescedRequests()) {
+                return;
+            }
+            mCanceledBySender = false;
+        }
+        cancel();
+    }
+
+    private synchronized boolean hasPendingCoalescedRequests() {
+        for (BaseRequest<T> request : mCoalescedRequests) {
+            if (!request.isCanceled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Request<?> setRequestQueue(RequestQueue requestQueue) {
+        synchronized (this) {
+            mRequestQueue = requestQueue;
+        }
+        return super.setRequestQueue(requestQueue);
+    }
+
+    /**
+     * Adds this request back to its queue after the given delay, see {@link BackoffRetryPolicy}. Returns false if it
+     * can't be retried, because it wasn't added to a queue.
+     */
+    private boolean scheduleRetry(long delayMs) {
+        final RequestQueue requestQueue;
+        synchronized (this) {
+            requestQueue = mRequestQueue;
+        }
+        if (requestQueue == null) {
+            return false;
+        }
+        new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                if (!isCanceled()) {
+                    requestQueue.add(BaseRequest.this);
+                }
+            }
+        }, delayMs);
+        return true;
+    }
+
+    /**
+     * Marks this request as delivered, and returns the identical requests coalesced into it, which are now waiting
+     * for its result.
+     */
+    private List<BaseRequest<T>> takeCoalescedRequests() {
+        List<BaseRequest<T>> coalescedRequests;
+        synchronized (this) {
+            mDelivered = true;
+            coalescedRequests = new ArrayList<>(mCoalescedRequests);
+            mCoalescedRequests.clear();
+        }
+        detachFromCoalescer();
+        return coalescedRequests;
+    }
+
+    private void detachFromCoalescer() {
+        RequestCoalescer coalescer;
+        synchronized (this) {
+            coalescer = mCoalescer;
+            mCoalescer = null;
+        }
+        if (coalescer != null) {
+            coalescer.detach(this);
+        }
+    }
+
+    /**
+     * Delivers the response of this request to the identical requests coalesced into it. Must be called by
+     * subclasses that support coalescing when delivering their own response.
+     */
+    protected void deliverResponseToCoalescedRequests(T response) {
+        for (BaseRequest<T> request : takeCoalescedRequests()) {
+            if (!request.isCanceled()) {
+                request.deliverResponse(response);
+            }
+        }
+    }
+
     /**
      * Reset the cache for this request, to force an update over the network.
      */
@@ -202,7 +508,7 @@ public abstract class BaseRequest<T> extends Request<T> {
         if (httpAuthModel != null) {
             String creds = String.format("%s:%s", httpAuthModel.getUsername(), httpAuthModel.getPassword());
             String auth = "Basic " + Base64.encodeToString(creds.getBytes(), Base64.NO_WRAP);
-            mHeaders.put("Authorization", auth);
+            mHeaders.put(AUTHORIZATION_HEADER, auth);
         }
     }
 
@@ -222,11 +528,36 @@ public abstract class BaseRequest<T> extends Request<T> {
         mHeaders.put(header, value);
     }
 
+    /**
+     * Sends the body of this request gzip compressed when it's large enough, and its host hasn't rejected compressed
+     * bodies before. See {@link RequestCompression}. Ignored by requests that don't {@link #supportsBodyCompression()}.
+     */
+    public void enableBodyCompression() {
+        mBodyCompressionEnabled = true;
+    }
+
+    public boolean isBodyCompressionEnabled() {
+        return mBodyCompressionEnabled && supportsBodyCompression();
+    }
+
+    /**
+     * Returns false if the responses of this type of request can't tell whether a compressed body was read, in which
+     * case support for compression can't be negotiated.
+     */
+    protected boolean supportsBodyCompression() {
+        return true;
+    }
+
     /**
      * Convenience method for setting a {@link com.android.volley.RetryPolicy} with no retries.
      */
     public void disableRetries() {
-        setRetryPolicy(new DefaultRetryPolicy(DEFAULT_REQUEST_TIMEOUT, 0, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        setRetryPolicy(new BackoffRetryPolicy(DEFAULT_REQUEST_TIMEOUT, 0));
+    }
+
+    protected static boolean isIdempotent(int method) {
+        return method == Method.GET || method == Method.HEAD || method == Method.PUT || method == Method.DELETE
+               || method == Method.OPTIONS;
     }
 
     /**
@@ -257,6 +588,9 @@ public abstract class BaseRequest<T> extends Request<T> {
                 cacheEntry.lastModified = HttpHeaderParser.parseDateAsEpoch(headerValue);
             }
 
+            // Keep the validator even if the server asked not to cache the response, so that it can be revalidated
+            cacheEntry.etag = response.headers.get("ETag");
+
             cacheEntry.data = response.data;
             cacheEntry.responseHeaders = response.headers;
         }
@@ -324,12 +658,29 @@ public abstract class BaseRequest<T> extends Request<T> {
     public abstract BaseNetworkError deliverBaseNetworkError(@NonNull BaseNetworkError error);
 
     @Override
-    public final void deliverError(VolleyError volleyError) {
+    public final void deliverError(VolleyError error) {
+        VolleyError volleyError = error;
+        if (error instanceof RetryScheduledError) {
+            RetryScheduledError retryScheduledError = (RetryScheduledError) error;
+            if (scheduleRetry(retryScheduledError.getDelayMs())) {
+                // The requests coalesced into this one keep waiting for its result
+                return;
+            }
+            volleyError = retryScheduledError.getError();
+        }
+        for (BaseRequest<T> request : takeCoalescedRequests()) {
+            if (!request.isCanceled()) {
+                request.deliverError(volleyError);
+            }
+        }
+        if (isCanceledBySender()) {
+            return;
+        }
         AppLog.e(AppLog.T.API, "Volley error on " + getUrl(), volleyError);
         if (volleyError instanceof ParseError && mOnParseErrorListener != null) {
-            OnUnexpectedError error = new OnUnexpectedError(volleyError, "API response parse error");
-            error.addExtra(OnUnexpectedError.KEY_URL, getUrl());
-            mOnParseErrorListener.onParseError(error);
+            OnUnexpectedError parseError = new OnUnexpectedError(volleyError, "API response parse error");
+            parseError.addExtra(OnUnexpectedError.KEY_URL, getUrl());
+            mOnParseErrorListener.onParseError(parseError);
         }
         BaseNetworkError baseNetworkError = getBaseNetworkError(volleyError);
         BaseNetworkError modifiedBaseNetworkError = deliverBaseNetworkError(baseNetworkError);
@@ -0,0 +1,27 @@
+package org.wordpress.android.fluxc.network
+
+/**
+ * Freshness policy of a cached GET request, see [BaseRequest.enableCaching].
+ *
+ * Responses are stored in the disk cache of the request queue under their canonical URL, along with the `ETag` and
+ * `Last-Modified` validators sent by the server. While a response is fresh it's returned without hitting the network.
+ * Once it's stale, the request is sent with `If-None-Match`/`If-Modified-Since` headers and a `304 Not Modified`
+ * response is turned into a cache hit, so unchanged responses aren't downloaded again.
+ *
+ * @property timeToLive the time in milliseconds during which a cached response is returned without revalidation
+ */
+data class CachePolicy(val timeToLive: Int) {
+    companion object {
+        /**
+         * Always checks with the server, but only downloads the response again if it changed. Meant for data that
+         * must be current, like settings or plugin lists.
+         */
+        @JvmField val REVALIDATE = CachePolicy(0)
+
+        /**
+         * Returns the cached response for a short while, then revalidates it. Meant for data that's refreshed often
+         * but changes slowly, like stats.
+         */
+        @JvmField val SHORT_LIVED = CachePolicy(BaseRequest.DEFAULT_CACHE_LIFETIME)
+    }
+}
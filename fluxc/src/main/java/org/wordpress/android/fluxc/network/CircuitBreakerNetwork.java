@@ -0,0 +1,75 @@
+package org.wordpress.android.fluxc.network;
+
+import com.android.volley.Network;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Request;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+
+import java.nio.charset.Charset;
+
+/**
+ * Wraps a {@link Network} to fail fast on requests to sites that are down, and to report the outcome of the other
+ * requests to the {@link SiteHealthTracker}.
+ *
+ * Only timeouts and server errors count as failures: client errors mean the site is up, and connection errors are
+ * more likely caused by the device being offline.
+ */
+public class CircuitBreakerNetwork implements Network {
+    private static final int HTTP_INTERNAL_SERVER_ERROR = 500;
+    private static final String JETPACK_UNREACHABLE_ERROR = "http_request_failed";
+
+    private final Network mNetwork;
+    private final SiteHealthTracker mSiteHealthTracker;
+
+    public CircuitBreakerNetwork(Network network, SiteHealthTracker siteHealthTracker) {
+        mNetwork = network;
+        mSiteHealthTracker = siteHealthTracker;
+    }
+
+    @Override
+    public NetworkResponse performRequest(Request<?> request) throws VolleyError {
+        String siteKey = SiteHealthTracker.getSiteKey(request);
+        if (siteKey == null) {
+            return mNetwork.performRequest(request);
+        }
+        if (!mSiteHealthTracker.allowRequest(siteKey)) {
+            throw new CircuitOpenError(siteKey);
+        }
+        if (request.getRetryPolicy() instanceof BackoffRetryPolicy) {
+            ((BackoffRetryPolicy) request.getRetryPolicy()).setCircuitBreaker(mSiteHealthTracker, siteKey);
+        }
+        try {
+            NetworkResponse response = mNetwork.performRequest(request);
+            mSiteHealthTracker.recordSuccess(siteKey);
+            return response;
+        } catch (VolleyError thrownError) {
+            // A retry scheduled by the BackoffRetryPolicy still reports the outcome of the failed attempt
+            VolleyError error = thrownError instanceof RetryScheduledError
+                    ? ((RetryScheduledError) thrownError).getError() : thrownError;
+            if (isSiteFailure(error)) {
+                mSiteHealthTracker.recordFailure(siteKey);
+            } else if (error.networkResponse != null) {
+                // The site answered, so it's up
+                mSiteHealthTracker.recordSuccess(siteKey);
+            } else {
+                mSiteHealthTracker.recordInconclusive(siteKey);
+            }
+            throw thrownError;
+        }
+    }
+
+    private static boolean isSiteFailure(VolleyError error) {
+        if (error instanceof TimeoutError) {
+            return true;
+        }
+        if (error.networkResponse == null || error.networkResponse.data == null) {
+            return false;
+        }
+        if (error.networkResponse.statusCode >= HTTP_INTERNAL_SERVER_ERROR) {
+            return true;
+        }
+        // WordPress.com reports Jetpack sites it couldn't reach with this error
+        return new String(error.networkResponse.data, Charset.forName("UTF-8")).contains(JETPACK_UNREACHABLE_ERROR);
+    }
+}
@@ -0,0 +1,20 @@
+package org.wordpress.android.fluxc.network;
+
+import com.android.volley.TimeoutError;
+
+/**
+ * Error of a request that wasn't sent because its site is considered down, see {@link SiteHealthTracker}. It's a
+ * {@link TimeoutError}, as that's what the request would most likely have ended with.
+ */
+public class CircuitOpenError extends TimeoutError {
+    private final String mSiteKey;
+
+    public CircuitOpenError(String siteKey) {
+        mSiteKey = siteKey;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Circuit open for " + mSiteKey + ", request not sent";
+    }
+}
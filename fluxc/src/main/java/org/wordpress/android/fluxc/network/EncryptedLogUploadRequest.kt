@@ -7,8 +7,12 @@ import com.android.volley.Response
 import com.android.volley.Response.ErrorListener
 import com.android.volley.VolleyError
 import com.android.volley.toolbox.HttpHeaderParser
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.RequestBody
+import okhttp3.RequestBody.Companion.asRequestBody
 import org.json.JSONObject
 import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST
+import java.io.File
 
 private const val AUTHORIZATION_HEADER = "Authorization"
 private const val CONTENT_TYPE_HEADER = "Content-Type"
@@ -17,11 +21,12 @@ private const val UUID_HEADER = "log-uuid"
 
 class EncryptedLogUploadRequest(
     private val logUuid: String,
-    private val contents: String,
+    private val contents: File,
     private val clientSecret: String,
     private val successListener: Response.Listener<NetworkResponse>,
     errorListener: ErrorListener
-) : Request<NetworkResponse>(Method.POST, WPCOMREST.encrypted_logging.urlV1_1, errorListener) {
+) : Request<NetworkResponse>(Method.POST, WPCOMREST.encrypted_logging.urlV1_1, errorListener),
+        StreamingBodyRequest {
     override fun getHeaders(): Map<String, String> {
         return mapOf(
                 CONTENT_TYPE_HEADER to CONTENT_TYPE_JSON,
@@ -30,11 +35,18 @@ class EncryptedLogUploadRequest(
         )
     }
 
+    /**
+     * Only used by HTTP stacks other than [OkHttpStack], which streams the file through [getStreamingBody].
+     */
     override fun getBody(): ByteArray {
         // TODO: Max file size is 10MB - maybe we should just handle that in the error callback?
-        return contents.toByteArray()
+        return contents.readBytes()
     }
 
+    override fun getBodyContentType() = CONTENT_TYPE_JSON
+
+    override fun getStreamingBody(): RequestBody = contents.asRequestBody(CONTENT_TYPE_JSON.toMediaType())
+
     override fun parseNetworkResponse(response: NetworkResponse?): Response<NetworkResponse> {
         return try {
             Response.success(response, HttpHeaderParser.parseCacheHeaders(response))
@@ -0,0 +1,115 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A histogram with fixed bucket bounds, used by {@link NetworkMetrics} to aggregate samples without keeping them.
+ *
+ * Every bucket counts the samples that are lower than or equal to its upper bound, and higher than the upper bound of
+ * the previous bucket. Samples higher than the last bound are counted in an additional overflow bucket.
+ */
+public class MetricsHistogram {
+    private final double[] mUpperBounds;
+    private final long[] mCounts;
+    private long mCount;
+    private double mSum;
+    private double mMax;
+
+    MetricsHistogram(@NonNull double[] upperBounds) {
+        mUpperBounds = upperBounds;
+        mCounts = new long[upperBounds.length + 1];
+    }
+
+    synchronized void record(double value) {
+        int bucket = Arrays.binarySearch(mUpperBounds, value);
+        mCounts[bucket >= 0 ? bucket : -bucket - 1]++;
+        mCount++;
+        mSum += value;
+        mMax = Math.max(mMax, value);
+    }
+
+    @NonNull
+    synchronized Snapshot getSnapshot() {
+        return new Snapshot(mUpperBounds, mCounts.clone(), mCount, mSum, mMax);
+    }
+
+    /**
+     * An immutable copy of the content of a histogram.
+     */
+    public static class Snapshot {
+        private final double[] mUpperBounds;
+        private final long[] mCounts;
+        private final long mCount;
+        private final double mSum;
+        private final double mMax;
+
+        Snapshot(double[] upperBounds, long[] counts, long count, double sum, double max) {
+            mUpperBounds = upperBounds;
+            mCounts = counts;
+            mCount = count;
+            mSum = sum;
+            mMax = max;
+        }
+
+        /**
+         * Returns the upper bounds of the buckets, the overflow bucket excluded.
+         */
+        @NonNull
+        public double[] getUpperBounds() {
+            return mUpperBounds.clone();
+        }
+
+        /**
+         * Returns the number of samples in each bucket, the last one being the overflow bucket.
+         */
+        @NonNull
+        public long[] getCounts() {
+            return mCounts.clone();
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public double getSum() {
+            return mSum;
+        }
+
+        public double getMax() {
+            return mMax;
+        }
+
+        public double getMean() {
+            return mCount == 0 ? 0 : mSum / mCount;
+        }
+
+        /**
+         * Returns an estimate of the given percentile (between 0 and 100): the upper bound of the bucket that
+         * contains it, capped at the highest recorded sample.
+         */
+        public double getPercentile(double percentile) {
+            if (mCount == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100 * mCount);
+            long seen = 0;
+            for (int i = 0; i < mUpperBounds.length; i++) {
+                seen += mCounts[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(mUpperBounds[i], mMax);
+                }
+            }
+            return mMax;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "count=%d mean=%.1f p50=%.1f p95=%.1f max=%.1f",
+                    mCount, getMean(), getPercentile(50), getPercentile(95), mMax);
+        }
+    }
+}
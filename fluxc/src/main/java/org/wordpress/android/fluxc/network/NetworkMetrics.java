@@ -0,0 +1,450 @@
+package org.wordpress.android.fluxc.network;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.annotations.endpoint.EndpointTemplate;
+import org.wordpress.android.fluxc.generated.endpoint.JPAPI;
+import org.wordpress.android.fluxc.generated.endpoint.WPAPI;
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMREST;
+import org.wordpress.android.fluxc.generated.endpoint.WPCOMV2;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Timing metrics of the requests made by FluxC, aggregated per endpoint template into {@link MetricsHistogram}s.
+ *
+ * Concrete URLs are aggregated under the endpoint they were built from, as declared in the endpoint files, so that
+ * {@code /rest/v1.1/sites/123/posts/456/} and {@code /rest/v1.1/sites/example.com/posts/789/} are both aggregated
+ * under {@code GET /rest/v1.1/sites/$site/posts/$post_ID/}. URLs that don't match any registered endpoint, e.g. of
+ * plugin APIs that didn't call {@link #registerEndpointTemplates}, fall back to a heuristic that replaces ids and site
+ * identifiers with placeholders: {@code GET /rest/v1.1/sites/{site}/posts/{id}/}. XML-RPC requests are aggregated per
+ * method.
+ *
+ * Metrics are disabled by default, and cost a single volatile read per instrumentation point until the host app
+ * calls {@link #setEnabled(boolean)}.
+ */
+public class NetworkMetrics {
+    private static final double[] DURATION_BOUNDS_MS =
+            {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+    private static final double[] SIZE_BOUNDS_BYTES =
+            {1 << 10, 4 << 10, 16 << 10, 64 << 10, 256 << 10, 1 << 20, 4 << 20, 16 << 20};
+
+    // Guards against unbounded growth if some URLs can't be turned into templates
+    static final int MAX_ENDPOINTS = 500;
+    static final String OTHER_ENDPOINTS = "other";
+
+    public enum Phase {
+        /** Time spent by queued requests waiting for a slot in the {@link ScheduledRequestQueue}, in milliseconds */
+        QUEUE_WAIT(DURATION_BOUNDS_MS),
+        /** DNS lookup, in milliseconds */
+        DNS(DURATION_BOUNDS_MS),
+        /** Connection establishment, TLS included, in milliseconds */
+        CONNECT(DURATION_BOUNDS_MS),
+        /** TLS handshake, in milliseconds */
+        TLS(DURATION_BOUNDS_MS),
+        /** Size of the request body, before any compression, in bytes */
+        REQUEST_SIZE(SIZE_BOUNDS_BYTES),
+        /** Size of the request body once compressed, for the requests sent compressed, in bytes */
+        COMPRESSED_REQUEST_SIZE(SIZE_BOUNDS_BYTES),
+        /** Sending of the request headers and body, in milliseconds */
+        REQUEST(DURATION_BOUNDS_MS),
+        /** Time from the end of the request to the first byte of the response, in milliseconds */
+        SERVER(DURATION_BOUNDS_MS),
+        /** Reading of the response body, in milliseconds */
+        DOWNLOAD(DURATION_BOUNDS_MS),
+        /** Size of the response body, in bytes */
+        RESPONSE_SIZE(SIZE_BOUNDS_BYTES),
+        /** Parsing of the response in {@code parseNetworkResponse}, in milliseconds */
+        PARSE(DURATION_BOUNDS_MS),
+        /** Delivery of the parsed response to the listener of the request, in milliseconds */
+        DELIVERY(DURATION_BOUNDS_MS),
+        /**
+         * Time from the delivery of the response until the stores are done handling the actions it dispatched,
+         * in milliseconds
+         */
+        STORE(DURATION_BOUNDS_MS);
+
+        private final double[] mBounds;
+
+        Phase(double[] bounds) {
+            mBounds = bounds;
+        }
+    }
+
+    private static class RegisteredTemplates {
+        private final EndpointTemplate[] mTemplates;
+        private final String[] mPathPrefixes;
+
+        RegisteredTemplates(EndpointTemplate[] templates, String[] pathPrefixes) {
+            mTemplates = templates;
+            mPathPrefixes = pathPrefixes;
+        }
+    }
+
+    // The endpoints of the FluxC APIs, only loaded once a request needs its endpoint template
+    private static class FluxCEndpointTemplates {
+        static {
+            registerEndpointTemplates(WPCOMREST.Templates.ALL, "/rest/v1", "/rest/v1.1", "/rest/v1.2", "/rest/v1.3");
+            registerEndpointTemplates(WPCOMV2.Templates.ALL, "/wpcom/v2");
+            registerEndpointTemplates(WPAPI.Templates.ALL, "/wp/v2", "/wp-json/wp/v2");
+            registerEndpointTemplates(JPAPI.Templates.ALL, "/jetpack/v4", "/wp-json/jetpack/v4");
+        }
+
+        static void ensureRegistered() {
+            // Registration happens in the static initializer
+        }
+    }
+
+    private static final List<RegisteredTemplates> sEndpointTemplates = new CopyOnWriteArrayList<>();
+    private static volatile boolean sEnabled;
+    private static final ConcurrentHashMap<String, Map<Phase, MetricsHistogram>> sHistograms =
+            new ConcurrentHashMap<>();
+    private static final ThreadLocal<Delivery> sCurrentDelivery = new ThreadLocal<>();
+
+    private NetworkMetrics() {}
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Enables or disables the collection of metrics. Metrics collected so far are kept until {@link #reset()}.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static void reset() {
+        sHistograms.clear();
+    }
+
+    /**
+     * Returns the metrics collected so far, sorted by endpoint template.
+     */
+    @NonNull
+    public static Map<String, Map<Phase, MetricsHistogram.Snapshot>> getSnapshot() {
+        Map<String, Map<Phase, MetricsHistogram.Snapshot>> snapshot = new TreeMap<>();
+        for (Entry<String, Map<Phase, MetricsHistogram>> endpoint : sHistograms.entrySet()) {
+            Map<Phase, MetricsHistogram.Snapshot> phases = new EnumMap<>(Phase.class);
+            synchronized (endpoint.getValue()) {
+                for (Entry<Phase, MetricsHistogram> phase : endpoint.getValue().entrySet()) {
+                    phases.put(phase.getKey(), phase.getValue().getSnapshot());
+                }
+            }
+            snapshot.put(endpoint.getKey(), Collections.unmodifiableMap(phases));
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Returns a plain text report of the metrics collected so far, one line per endpoint template and phase.
+     */
+    @NonNull
+    public static String formatReport() {
+        StringBuilder report = new StringBuilder();
+        for (Entry<String, Map<Phase, MetricsHistogram.Snapshot>> endpoint : getSnapshot().entrySet()) {
+            for (Entry<Phase, MetricsHistogram.Snapshot> phase : endpoint.getValue().entrySet()) {
+                report.append(String.format(Locale.US, "%s %s %s%n",
+                        endpoint.getKey(), phase.getKey(), phase.getValue()));
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns the current time to be passed to {@link #recordDuration}, or 0 if metrics are disabled.
+     */
+    static long startTiming() {
+        return sEnabled ? SystemClock.elapsedRealtimeNanos() : 0;
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, as returned by {@link #startTiming()}, for the endpoint of
+     * the given request.
+     */
+    static void recordDuration(@NonNull BaseRequest<?> request, @NonNull Phase phase, long startNanos) {
+        if (startNanos != 0 && sEnabled) {
+            long elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+            record(request.getMetricsEndpoint(), phase, nanosToMillis(elapsedNanos));
+        }
+    }
+
+    static void record(@NonNull String endpoint, @NonNull Phase phase, double value) {
+        Map<Phase, MetricsHistogram> phases = sHistograms.get(endpoint);
+        if (phases == null) {
+            if (sHistograms.size() >= MAX_ENDPOINTS) {
+                endpoint = OTHER_ENDPOINTS;
+            }
+            phases = new EnumMap<>(Phase.class);
+            Map<Phase, MetricsHistogram> existing = sHistograms.putIfAbsent(endpoint, phases);
+            if (existing != null) {
+                phases = existing;
+            }
+        }
+        MetricsHistogram histogram;
+        synchronized (phases) {
+            histogram = phases.get(phase);
+            if (histogram == null) {
+                histogram = new MetricsHistogram(phase.mBounds);
+                phases.put(phase, histogram);
+            }
+        }
+        histogram.record(value);
+    }
+
+    static double nanosToMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Marks the beginning of the delivery of a response to the listener of the given request, and returns the
+     * value to be passed to {@link #endDelivery}. Actions dispatched to the stores during the delivery are tracked,
+     * to time how long the stores take to handle them.
+     */
+    static long beginDelivery(@NonNull BaseRequest<?> request) {
+        if (!sEnabled) {
+            return 0;
+        }
+        long start = SystemClock.elapsedRealtimeNanos();
+        sCurrentDelivery.set(new Delivery(request.getMetricsEndpoint(), start));
+        return start;
+    }
+
+    static void endDelivery(@NonNull BaseRequest<?> request, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        Delivery delivery = sCurrentDelivery.get();
+        sCurrentDelivery.remove();
+        recordDuration(request, Phase.DELIVERY, startNanos);
+        if (delivery != null) {
+            delivery.seal();
+        }
+    }
+
+    /**
+     * Registers the endpoints of an API, so that the metrics of its requests are aggregated under the endpoint they
+     * were built from instead of a heuristic template.
+     *
+     * @param pathPrefixes the URL paths the endpoints are relative to, e.g. one per version of the API
+     */
+    public static void registerEndpointTemplates(@NonNull EndpointTemplate[] templates,
+                                                 @NonNull String... pathPrefixes) {
+        sEndpointTemplates.add(new RegisteredTemplates(templates, Arrays.copyOf(pathPrefixes, pathPrefixes.length)));
+    }
+
+    /**
+     * Returns the endpoint template of the given URL, prefixed by the HTTP method.
+     */
+    @NonNull
+    public static String getEndpointTemplate(@NonNull String method, @NonNull String url) {
+        HttpUrl httpUrl = HttpUrl.parse(url);
+        return httpUrl == null ? method + " " + OTHER_ENDPOINTS : getEndpointTemplate(method, httpUrl);
+    }
+
+    @NonNull
+    static String getEndpointTemplate(@NonNull String method, @NonNull HttpUrl url) {
+        StringBuilder template = new StringBuilder(method).append(' ');
+        appendPathTemplate(template, url.encodedPath(), url.encodedPathSegments());
+        // Jetpack tunnel requests carry the actual endpoint in the path parameter
+        String tunneledPath = url.queryParameter("path");
+        if (tunneledPath != null && url.encodedPath().contains("/jetpack-blogs/")) {
+            int end = indexOfAny(tunneledPath, '?', '&');
+            String path = end < 0 ? tunneledPath : tunneledPath.substring(0, end);
+            HttpUrl tunneledUrl = HttpUrl.get("http://localhost" + (path.startsWith("/") ? "" : "/") + path);
+            template.append("?path=");
+            appendPathTemplate(template, tunneledUrl.encodedPath(), tunneledUrl.encodedPathSegments());
+        }
+        return template.toString();
+    }
+
+    private static void appendPathTemplate(StringBuilder template, String path, List<String> segments) {
+        if (!appendRegisteredTemplate(template, path)) {
+            appendHeuristicTemplate(template, segments);
+        }
+    }
+
+    /**
+     * Appends the most specific registered endpoint the given path was built from, and returns false if none
+     * matches. This is a linear scan of the endpoints, only done once per request while metrics are enabled.
+     */
+    private static boolean appendRegisteredTemplate(StringBuilder template, String path) {
+        FluxCEndpointTemplates.ensureRegistered();
+        String bestPrefix = null;
+        EndpointTemplate bestTemplate = null;
+        for (RegisteredTemplates registeredTemplates : sEndpointTemplates) {
+            for (String prefix : registeredTemplates.mPathPrefixes) {
+                if (!path.startsWith(prefix + "/")) {
+                    continue;
+                }
+                String relativePath = path.substring(prefix.length());
+                for (EndpointTemplate endpointTemplate : registeredTemplates.mTemplates) {
+                    if ((bestTemplate == null || endpointTemplate.getLiteralLength() > bestTemplate.getLiteralLength())
+                        && endpointTemplate.matches(relativePath)) {
+                        bestPrefix = prefix;
+                        bestTemplate = endpointTemplate;
+                    }
+                }
+            }
+        }
+        if (bestTemplate == null) {
+            return false;
+        }
+        template.append(bestPrefix).append(bestTemplate.getTemplate());
+        return true;
+    }
+
+    private static void appendHeuristicTemplate(StringBuilder template, List<String> segments) {
+        String previous = null;
+        for (String segment : segments) {
+            template.append('/');
+            if ("sites".equals(previous) || "jetpack-blogs".equals(previous)) {
+                template.append("{site}");
+            } else if (isId(segment)) {
+                template.append("{id}");
+            } else {
+                template.append(segment);
+            }
+            previous = segment;
+        }
+    }
+
+    /**
+     * Numbers, and long hexadecimal strings such as hashes and UUIDs, are considered to be ids. Only used for the URLs
+     * that don't match any registered endpoint.
+     */
+    static boolean isId(@NonNull String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        boolean hasDigit = false;
+        boolean numeric = true;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if ((c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-') {
+                numeric = false;
+            } else {
+                return false;
+            }
+        }
+        return numeric || (hasDigit && segment.length() >= 16);
+    }
+
+    private static int indexOfAny(String string, char first, char second) {
+        int firstIndex = string.indexOf(first);
+        int secondIndex = string.indexOf(second);
+        if (firstIndex < 0) {
+            return secondIndex;
+        }
+        return secondIndex < 0 ? firstIndex : Math.min(firstIndex, secondIndex);
+    }
+
+    /**
+     * Returns an executor to be used by the {@link org.greenrobot.eventbus.EventBus} of the dispatcher. It times the
+     * handling of the actions dispatched while a response is delivered, and attributes it to the endpoint of the
+     * response.
+     */
+    @NonNull
+    public static ExecutorService newStoreExecutor() {
+        return new StoreExecutor();
+    }
+
+    /**
+     * Tracks the store handlers scheduled during the delivery of a response. The {@link Phase#STORE} duration is
+     * recorded once the delivery is over and all of them are done.
+     */
+    private static class Delivery {
+        private final String mEndpoint;
+        private final long mStartNanos;
+        private int mScheduledHandlers;
+        private int mPendingHandlers;
+        private boolean mSealed;
+
+        Delivery(String endpoint, long startNanos) {
+            mEndpoint = endpoint;
+            mStartNanos = startNanos;
+        }
+
+        synchronized void onHandlerScheduled() {
+            mScheduledHandlers++;
+            mPendingHandlers++;
+        }
+
+        void onHandlerDone() {
+            boolean done;
+            synchronized (this) {
+                done = --mPendingHandlers == 0 && mSealed;
+            }
+            if (done) {
+                recordStoreDuration();
+            }
+        }
+
+        void seal() {
+            boolean done;
+            synchronized (this) {
+                mSealed = true;
+                // If no handler was scheduled, the response didn't trigger any store work
+                done = mScheduledHandlers > 0 && mPendingHandlers == 0;
+            }
+            if (done) {
+                recordStoreDuration();
+            }
+        }
+
+        private void recordStoreDuration() {
+            if (sEnabled) {
+                record(mEndpoint, Phase.STORE, nanosToMillis(SystemClock.elapsedRealtimeNanos() - mStartNanos));
+            }
+        }
+    }
+
+    /**
+     * Same configuration as the default executor of EventBus, a cached thread pool.
+     */
+    private static class StoreExecutor extends ThreadPoolExecutor {
+        StoreExecutor() {
+            super(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+        }
+
+        @Override
+        public void execute(@Nullable final Runnable command) {
+            final Delivery delivery = sEnabled ? sCurrentDelivery.get() : null;
+            if (delivery == null || command == null) {
+                super.execute(command);
+                return;
+            }
+            delivery.onHandlerScheduled();
+            super.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        command.run();
+                    } finally {
+                        delivery.onHandlerDone();
+                    }
+                }
+            });
+        }
+    }
+}
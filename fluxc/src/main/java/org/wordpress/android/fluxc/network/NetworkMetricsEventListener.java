@@ -0,0 +1,132 @@
+package org.wordpress.android.fluxc.network;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.network.NetworkMetrics.Phase;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+/**
+ * Records the {@link NetworkMetrics} of the connection, request and response phases of an OkHttp call.
+ *
+ * A listener is only created for calls started while metrics are enabled, other calls get {@link EventListener#NONE}.
+ */
+public class NetworkMetricsEventListener extends EventListener {
+    public static final EventListener.Factory FACTORY = new EventListener.Factory() {
+        @NonNull
+        @Override
+        public EventListener create(@NonNull Call call) {
+            if (!NetworkMetrics.isEnabled()) {
+                return EventListener.NONE;
+            }
+            return new NetworkMetricsEventListener(getEndpoint(call.request()));
+        }
+    };
+
+    private final String mEndpoint;
+    private long mDnsStart;
+    private long mConnectStart;
+    private long mSecureConnectStart;
+    private long mRequestStart;
+    private long mRequestEnd;
+    private long mResponseStart;
+
+    NetworkMetricsEventListener(@NonNull String endpoint) {
+        mEndpoint = endpoint;
+    }
+
+    @NonNull
+    static String getEndpoint(@NonNull Request request) {
+        BaseRequest<?> baseRequest = request.tag(BaseRequest.class);
+        if (baseRequest != null) {
+            return baseRequest.getMetricsEndpoint();
+        }
+        return NetworkMetrics.getEndpointTemplate(request.method(), request.url());
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        mDnsStart = now();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+        record(Phase.DNS, mDnsStart);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                             @NonNull Proxy proxy) {
+        mConnectStart = now();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        mSecureConnectStart = now();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        record(Phase.TLS, mSecureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy,
+                           @Nullable Protocol protocol) {
+        record(Phase.CONNECT, mConnectStart);
+    }
+
+    @Override
+    public void requestHeadersStart(@NonNull Call call) {
+        mRequestStart = now();
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        mRequestEnd = now();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        mRequestEnd = now();
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        mResponseStart = now();
+        record(Phase.REQUEST, mRequestStart, mRequestEnd);
+        record(Phase.SERVER, mRequestEnd, mResponseStart);
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        record(Phase.DOWNLOAD, mResponseStart);
+        NetworkMetrics.record(mEndpoint, Phase.RESPONSE_SIZE, byteCount);
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    private void record(Phase phase, long startNanos) {
+        record(phase, startNanos, now());
+    }
+
+    private void record(Phase phase, long startNanos, long endNanos) {
+        if (startNanos != 0 && endNanos >= startNanos) {
+            NetworkMetrics.record(mEndpoint, phase, NetworkMetrics.nanosToMillis(endNanos - startNanos));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.network;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.android.volley.AuthFailureError;
 import com.android.volley.Header;
@@ -8,6 +9,8 @@ import com.android.volley.Request;
 import com.android.volley.toolbox.BaseHttpStack;
 import com.android.volley.toolbox.HttpResponse;
 
+import org.wordpress.android.fluxc.network.NetworkMetrics.Phase;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -17,6 +20,7 @@ import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
 import okhttp3.Headers;
+import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -29,14 +33,22 @@ import okhttp3.ResponseBody;
  * use okhttp-urlconnection
  */
 public class OkHttpStack extends BaseHttpStack {
+    private static final int HTTP_BAD_REQUEST = 400;
+    // Enough to tell whether a server failed to decode a compressed body, see RequestCompression
+    private static final long MAX_PEEKED_ERROR_BODY_SIZE = 1024;
+
     private final OkHttpClient mOkHttpClient;
 
     public OkHttpStack(final OkHttpClient okHttpClient) {
         this.mOkHttpClient = okHttpClient;
     }
 
-    private static void setConnectionParametersForRequest(okhttp3.Request.Builder builder, Request<?> request)
-            throws AuthFailureError {
+    /**
+     * @param compressionHost The host of the request if its body may be compressed, null otherwise
+     */
+    private static void setConnectionParametersForRequest(okhttp3.Request.Builder builder, Request<?> request,
+                                                          @Nullable String compressionHost)
+            throws AuthFailureError, IOException {
         switch (request.getMethod()) {
             case Request.Method.DEPRECATED_GET_OR_POST:
                 // Ensure backwards compatibility.  Volley assumes a request with a null body is a GET.
@@ -49,13 +61,13 @@ public class OkHttpStack extends BaseHttpStack {
                 builder.get();
                 break;
             case Request.Method.DELETE:
-                builder.delete(createRequestBody(request));
+                builder.delete(createRequestBody(builder, request, compressionHost));
                 break;
             case Request.Method.POST:
-                builder.post(createRequestBody(request));
+                builder.post(createRequestBody(builder, request, compressionHost));
                 break;
             case Request.Method.PUT:
-                builder.put(createRequestBody(request));
+                builder.put(createRequestBody(builder, request, compressionHost));
                 break;
             case Request.Method.HEAD:
                 builder.head();
@@ -67,7 +79,7 @@ public class OkHttpStack extends BaseHttpStack {
                 builder.method("TRACE", null);
                 break;
             case Request.Method.PATCH:
-                builder.patch(createRequestBody(request));
+                builder.patch(createRequestBody(builder, request, compressionHost));
                 break;
             default:
                 throw new IllegalStateException("Unknown method type.");
@@ -75,11 +87,26 @@ public class OkHttpStack extends BaseHttpStack {
     }
 
     @NonNull
-    private static RequestBody createRequestBody(Request r) throws AuthFailureError {
-        final byte[] body = r.getBody();
+    private static RequestBody createRequestBody(okhttp3.Request.Builder builder, Request r,
+                                                 @Nullable String compressionHost)
+            throws AuthFailureError, IOException {
+        if (r instanceof StreamingBodyRequest) {
+            return ((StreamingBodyRequest) r).getStreamingBody();
+        }
+        byte[] body = r.getBody();
         if (body == null) {
             return RequestBody.create(null, new byte[]{});
         }
+        if (r instanceof BaseRequest) {
+            BaseRequest<?> baseRequest = (BaseRequest<?>) r;
+            baseRequest.recordMetricSize(Phase.REQUEST_SIZE, body.length);
+            if (compressionHost != null
+                && RequestCompression.shouldCompress(baseRequest, compressionHost, body.length)) {
+                body = RequestCompression.gzip(body);
+                builder.header(RequestCompression.CONTENT_ENCODING_HEADER, RequestCompression.GZIP_ENCODING);
+                baseRequest.recordMetricSize(Phase.COMPRESSED_REQUEST_SIZE, body.length);
+            }
+        }
         return RequestBody.create(MediaType.parse(r.getBodyContentType()), body);
     }
 
@@ -94,8 +121,37 @@ public class OkHttpStack extends BaseHttpStack {
                                                              .writeTimeout(timeoutMs, TimeUnit.MILLISECONDS)
                                                              .build();
 
+        okhttp3.Response okHttpResponse = execute(timeoutAwareClient, request, additionalHeaders, true);
+        okhttp3.Request okHttpRequest = okHttpResponse.request();
+        if (okHttpRequest.header(RequestCompression.CONTENT_ENCODING_HEADER) != null) {
+            String host = okHttpRequest.url().host();
+            int compressedCode = okHttpResponse.code();
+            String errorBody = compressedCode == HTTP_BAD_REQUEST
+                    ? okHttpResponse.peekBody(MAX_PEEKED_ERROR_BODY_SIZE).string() : null;
+            if (RequestCompression.shouldRetryUncompressed(host, compressedCode, errorBody)) {
+                // The server didn't process the request, it's safe to send it again
+                okHttpResponse.close();
+                okHttpResponse = execute(timeoutAwareClient, request, additionalHeaders, false);
+                RequestCompression.onUncompressedRetryResponse(host, compressedCode, okHttpResponse.code());
+            } else {
+                RequestCompression.onCompressedResponse(host, compressedCode);
+            }
+        }
+
+        int code = okHttpResponse.code();
+        ResponseBody body = okHttpResponse.body();
+        InputStream content = body == null ? null : body.byteStream();
+        int contentLength = body == null ? 0 : (int) body.contentLength();
+        List<Header> responseHeaders = mapHeaders(okHttpResponse.headers());
+        return new HttpResponse(code, responseHeaders, contentLength, content);
+    }
+
+    private static okhttp3.Response execute(OkHttpClient client, Request<?> request,
+                                            Map<String, String> additionalHeaders, boolean allowCompression)
+            throws IOException, AuthFailureError {
+        HttpUrl url = HttpUrl.get(request.getUrl());
         okhttp3.Request.Builder okHttpRequestBuilder = new okhttp3.Request.Builder();
-        okHttpRequestBuilder.url(request.getUrl());
+        okHttpRequestBuilder.url(url);
 
         Map<String, String> headers = request.getHeaders();
         for (final String name : headers.keySet()) {
@@ -111,20 +167,15 @@ public class OkHttpStack extends BaseHttpStack {
             }
         }
 
-        setConnectionParametersForRequest(okHttpRequestBuilder, request);
-
-
-        okhttp3.Request okHttpRequest = okHttpRequestBuilder.build();
-        Call okHttpCall = timeoutAwareClient.newCall(okHttpRequest);
-        okhttp3.Response okHttpResponse = okHttpCall.execute();
+        setConnectionParametersForRequest(okHttpRequestBuilder, request, allowCompression ? url.host() : null);
 
+        if (NetworkMetrics.isEnabled() && request instanceof BaseRequest) {
+            // Lets NetworkMetricsEventListener attribute the call to the endpoint of the request
+            okHttpRequestBuilder.tag(BaseRequest.class, (BaseRequest<?>) request);
+        }
 
-        int code = okHttpResponse.code();
-        ResponseBody body = okHttpResponse.body();
-        InputStream content = body == null ? null : body.byteStream();
-        int contentLength = body == null ? 0 : (int) body.contentLength();
-        List<Header> responseHeaders = mapHeaders(okHttpResponse.headers());
-        return new HttpResponse(code, responseHeaders, contentLength, content);
+        Call okHttpCall = client.newCall(okHttpRequestBuilder.build());
+        return okHttpCall.execute();
     }
 
     private List<Header> mapHeaders(Headers responseHeaders) {
@@ -0,0 +1,55 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Lets identical requests share a single network call.
+ *
+ * A request that's added while an identical one is in flight isn't sent: it's coalesced into the request in flight,
+ * and gets its parsed result, or its error, when it's delivered. Requests are identical when they have the same
+ * {@link BaseRequest#getCoalescingKey() coalescing key}, which is typically made of the method, the canonical URL,
+ * the credentials and the expected response type.
+ *
+ * Canceling a request in flight only cancels its network call once all the requests coalesced into it have been
+ * canceled too.
+ *
+ * It's shared by all the REST clients, so that identical requests sent through different clients are coalesced too.
+ */
+@Singleton
+public class RequestCoalescer {
+    private final Map<String, BaseRequest<?>> mInFlightRequests = new HashMap<>();
+
+    @Inject public RequestCoalescer() {
+    }
+
+    /**
+     * Returns true if the given request was coalesced into an identical request in flight, in which case it must not
+     * be sent. Otherwise, the request is now considered in flight and must be sent.
+     */
+    public synchronized boolean coalesce(@NonNull BaseRequest<?> request) {
+        String key = request.getCoalescingKey();
+        if (key == null) {
+            return false;
+        }
+        BaseRequest<?> inFlightRequest = mInFlightRequests.get(key);
+        if (inFlightRequest != null && inFlightRequest != request && inFlightRequest.coalesce(request)) {
+            return true;
+        }
+        mInFlightRequests.put(key, request);
+        request.setCoalescer(this);
+        return false;
+    }
+
+    synchronized void detach(@NonNull BaseRequest<?> request) {
+        String key = request.getCoalescingKey();
+        if (key != null && mInFlightRequests.get(key) == request) {
+            mInFlightRequests.remove(key);
+        }
+    }
+}
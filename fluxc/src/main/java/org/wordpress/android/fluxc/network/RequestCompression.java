@@ -0,0 +1,138 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiates the gzip compression of request bodies, for requests that opted in with
+ * {@link BaseRequest#enableBodyCompression()}.
+ *
+ * Hosts aren't required to accept compressed bodies, so the outcome of the compressed requests sent to each host is
+ * remembered: a host that answered with a success accepts them, while a host that rejected a compressed body that was
+ * accepted once sent uncompressed doesn't, and is sent uncompressed bodies for the rest of the session.
+ *
+ * A rejected compressed body is only sent again uncompressed when the server said it couldn't read it: on a 415, or on
+ * a 400 whose body blames the encoding. Other errors might come from a server that processed the request, and sending
+ * a non-idempotent request again could apply it twice.
+ */
+public class RequestCompression {
+    public static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    public static final String GZIP_ENCODING = "gzip";
+
+    // Smaller bodies fit in a couple of packets anyway, compressing them isn't worth the CPU time
+    static final int MIN_COMPRESSED_BODY_SIZE = 4 << 10;
+
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+    // Words found in the errors of servers that couldn't decode a request body
+    private static final String[] DECODE_ERROR_KEYWORDS = {"gzip", "encoding", "decod", "compress", "inflate"};
+
+    enum HostSupport {
+        UNKNOWN,
+        ACCEPTED,
+        REJECTED
+    }
+
+    private static final ConcurrentHashMap<String, HostSupport> sHostSupport = new ConcurrentHashMap<>();
+
+    private RequestCompression() {}
+
+    /**
+     * Forgets which hosts accept compressed request bodies.
+     */
+    public static void reset() {
+        sHostSupport.clear();
+    }
+
+    @NonNull
+    static HostSupport getHostSupport(@NonNull String host) {
+        HostSupport support = sHostSupport.get(host);
+        return support != null ? support : HostSupport.UNKNOWN;
+    }
+
+    /**
+     * Returns true if a body of the given size, sent by the given request to the given host, should be compressed.
+     */
+    static boolean shouldCompress(@NonNull BaseRequest<?> request, @NonNull String host, int bodySize) {
+        return request.isBodyCompressionEnabled()
+               && bodySize >= MIN_COMPRESSED_BODY_SIZE
+               && getHostSupport(host) != HostSupport.REJECTED;
+    }
+
+    /**
+     * Returns true if the given response to a compressed body was caused by the compression, in which case the
+     * request should be sent again uncompressed.
+     *
+     * @param errorBody The beginning of the body of the response, if any
+     */
+    static boolean shouldRetryUncompressed(@NonNull String host, int statusCode, @Nullable String errorBody) {
+        if (statusCode == HTTP_UNSUPPORTED_MEDIA_TYPE) {
+            return true;
+        }
+        // Some servers answer with a generic error when they fail to read the body, unless they already proved they
+        // can read compressed bodies
+        return statusCode == HTTP_BAD_REQUEST && getHostSupport(host) != HostSupport.ACCEPTED
+               && isDecodeError(errorBody);
+    }
+
+    static boolean isDecodeError(@Nullable String errorBody) {
+        if (errorBody == null) {
+            return false;
+        }
+        String lowerCaseBody = errorBody.toLowerCase(Locale.ROOT);
+        for (String keyword : DECODE_ERROR_KEYWORDS) {
+            if (lowerCaseBody.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the status code of a compressed request sent to the given host.
+     */
+    static void onCompressedResponse(@NonNull String host, int statusCode) {
+        if (statusCode == HTTP_UNSUPPORTED_MEDIA_TYPE) {
+            markRejected(host);
+        } else if (statusCode >= 200 && statusCode < 300) {
+            sHostSupport.put(host, HostSupport.ACCEPTED);
+        }
+    }
+
+    /**
+     * Records the status code of the uncompressed retry of a request whose compressed body was rejected with
+     * {@code rejectedStatusCode}. If the uncompressed body gets through, the compression was the culprit.
+     */
+    static void onUncompressedRetryResponse(@NonNull String host, int rejectedStatusCode, int statusCode) {
+        if (rejectedStatusCode == HTTP_UNSUPPORTED_MEDIA_TYPE || statusCode != rejectedStatusCode) {
+            markRejected(host);
+        }
+    }
+
+    private static void markRejected(@NonNull String host) {
+        if (sHostSupport.put(host, HostSupport.REJECTED) != HostSupport.REJECTED) {
+            AppLog.i(T.API, "Compressed request bodies are rejected by " + host + ", sending them uncompressed");
+        }
+    }
+
+    @NonNull
+    static byte[] gzip(@NonNull byte[] body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4);
+        GZIPOutputStream gzip = new GZIPOutputStream(output);
+        try {
+            gzip.write(body);
+        } finally {
+            gzip.close();
+        }
+        return output.toByteArray();
+    }
+}
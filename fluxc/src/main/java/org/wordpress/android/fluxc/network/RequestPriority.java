@@ -0,0 +1,51 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.Request.Priority;
+
+/**
+ * Priority classes of requests, see {@link BaseRequest#setRequestPriority(RequestPriority)}.
+ *
+ * Requests are dispatched in the order of their priority class, and lower priority classes can only use a share of
+ * the network threads, so that they never hold all of them while the user waits on an interactive request.
+ */
+public enum RequestPriority {
+    /**
+     * A request the user is waiting on, like saving a post. This is the default priority class.
+     */
+    INTERACTIVE(Priority.HIGH, 1f),
+    /**
+     * A request for data the user is likely to need soon.
+     */
+    PREFETCH(Priority.NORMAL, 0.6f),
+    /**
+     * A request that syncs data in the background, like refreshing the order list or the media library.
+     */
+    BACKGROUND_SYNC(Priority.LOW, 0.4f),
+    /**
+     * One of many requests sent in bulk, like a batch of uploads.
+     */
+    BULK_UPLOAD(Priority.LOW, 0.2f);
+
+    private final Priority mVolleyPriority;
+    private final float mMaxThreadShare;
+
+    RequestPriority(Priority volleyPriority, float maxThreadShare) {
+        mVolleyPriority = volleyPriority;
+        mMaxThreadShare = maxThreadShare;
+    }
+
+    @NonNull
+    public Priority getVolleyPriority() {
+        return mVolleyPriority;
+    }
+
+    /**
+     * Returns the maximum number of requests of this priority class that can run at the same time, given the number
+     * of network threads.
+     */
+    public int getMaxConcurrentRequests(int threadPoolSize) {
+        return Math.max(1, Math.round(threadPoolSize * mMaxThreadShare));
+    }
+}
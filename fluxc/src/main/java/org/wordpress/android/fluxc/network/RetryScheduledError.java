@@ -0,0 +1,33 @@
+package org.wordpress.android.fluxc.network;
+
+import androidx.annotation.NonNull;
+
+import com.android.volley.VolleyError;
+
+/**
+ * Thrown by {@link BackoffRetryPolicy} instead of waiting on the network thread: the attempt ends right away with this
+ * error, and {@link BaseRequest} adds the request back to its queue once the delay has elapsed.
+ */
+public class RetryScheduledError extends VolleyError {
+    private final VolleyError mError;
+    private final long mDelayMs;
+
+    public RetryScheduledError(@NonNull VolleyError error, long delayMs) {
+        super(error.networkResponse);
+        initCause(error);
+        mError = error;
+        mDelayMs = delayMs;
+    }
+
+    /**
+     * Returns the error of the failed attempt, to be delivered if the request can't be retried.
+     */
+    @NonNull
+    public VolleyError getError() {
+        return mError;
+    }
+
+    public long getDelayMs() {
+        return mDelayMs;
+    }
+}
@@ -0,0 +1,216 @@
+package org.wordpress.android.fluxc.network;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.Cache;
+import com.android.volley.Network;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * A {@link RequestQueue} that schedules {@link BaseRequest}s by {@link RequestPriority priority class}, and limits the
+ * number of requests running at the same time for each priority class and each host.
+ *
+ * Requests that can't run yet are held by this queue, and only handed over to Volley once a request of the same
+ * priority class or host finishes. Other requests are added to Volley right away.
+ */
+public class ScheduledRequestQueue extends RequestQueue {
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 4;
+
+    /**
+     * Time spent by requests waiting for their turn in this queue.
+     */
+    public static class QueueWaitMetrics {
+        public final int requestCount;
+        public final long totalWaitTimeMs;
+        public final long maxWaitTimeMs;
+
+        QueueWaitMetrics(int requestCount, long totalWaitTimeMs, long maxWaitTimeMs) {
+            this.requestCount = requestCount;
+            this.totalWaitTimeMs = totalWaitTimeMs;
+            this.maxWaitTimeMs = maxWaitTimeMs;
+        }
+
+        public long getAverageWaitTimeMs() {
+            return requestCount == 0 ? 0 : totalWaitTimeMs / requestCount;
+        }
+    }
+
+    private static class PendingRequest implements Comparable<PendingRequest> {
+        final BaseRequest<?> request;
+        final String host;
+        final long sequence;
+        final long queuedAt;
+
+        PendingRequest(BaseRequest<?> request, String host, long sequence) {
+            this.request = request;
+            this.host = host;
+            this.sequence = sequence;
+            this.queuedAt = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public int compareTo(PendingRequest other) {
+            int priorityComparison = request.getRequestPriority().compareTo(other.request.getRequestPriority());
+            return priorityComparison != 0 ? priorityComparison : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final int mThreadPoolSize;
+    private final int mMaxRequestsPerHost;
+    private final Set<String> mUncappedHosts;
+
+    // Guarded by this queue's monitor
+    private final PriorityQueue<PendingRequest> mPendingRequests = new PriorityQueue<>();
+    private final Map<Request<?>, PendingRequest> mRunningRequests = new IdentityHashMap<>();
+    private final Map<String, Integer> mRunningRequestsPerHost = new HashMap<>();
+    private final int[] mRunningRequestsPerPriority = new int[RequestPriority.values().length];
+    private final int[] mWaitCount = new int[RequestPriority.values().length];
+    private final long[] mTotalWaitTime = new long[RequestPriority.values().length];
+    private final long[] mMaxWaitTime = new long[RequestPriority.values().length];
+    private long mSequence;
+
+    /**
+     * @param maxRequestsPerHost the maximum number of requests running at the same time for each host
+     * @param uncappedHosts hosts that aren't subject to {@code maxRequestsPerHost}, like the WordPress.com API
+     */
+    public ScheduledRequestQueue(Cache cache, Network network, int threadPoolSize, int maxRequestsPerHost,
+                                 @NonNull Set<String> uncappedHosts) {
+        super(cache, network, threadPoolSize);
+        mThreadPoolSize = threadPoolSize;
+        mMaxRequestsPerHost = maxRequestsPerHost;
+        mUncappedHosts = Collections.unmodifiableSet(uncappedHosts);
+        addRequestFinishedListener(new RequestFinishedListener<Object>() {
+            @Override
+            public void onRequestFinished(Request<Object> request) {
+                onScheduledRequestFinished(request);
+            }
+        });
+    }
+
+    @Override
+    public <T> Request<T> add(Request<T> request) {
+        if (!(request instanceof BaseRequest)) {
+            return super.add(request);
+        }
+        synchronized (this) {
+            // A request that's sent again before it finished, e.g. when retrying a Jetpack tunnel timeout, keeps its
+            // slot
+            if (!mRunningRequests.containsKey(request)) {
+                BaseRequest<?> baseRequest = (BaseRequest<?>) request;
+                PendingRequest pendingRequest = new PendingRequest(baseRequest, getHost(request), mSequence++);
+                if (!canRun(pendingRequest)) {
+                    mPendingRequests.add(pendingRequest);
+                    return request;
+                }
+                markAsRunning(pendingRequest);
+            }
+        }
+        return super.add(request);
+    }
+
+    @Override
+    public void cancelAll(RequestFilter filter) {
+        synchronized (this) {
+            for (PendingRequest pendingRequest : mPendingRequests) {
+                if (filter.apply(pendingRequest.request)) {
+                    pendingRequest.request.cancel();
+                }
+            }
+        }
+        super.cancelAll(filter);
+    }
+
+    /**
+     * Returns the time spent waiting in this queue by the requests of the given priority class that were sent so far.
+     */
+    @NonNull
+    public synchronized QueueWaitMetrics getQueueWaitMetrics(@NonNull RequestPriority priority) {
+        int index = priority.ordinal();
+        return new QueueWaitMetrics(mWaitCount[index], mTotalWaitTime[index], mMaxWaitTime[index]);
+    }
+
+    private void onScheduledRequestFinished(Request<?> request) {
+        List<BaseRequest<?>> admittedRequests = new ArrayList<>();
+        synchronized (this) {
+            PendingRequest finishedRequest = mRunningRequests.remove(request);
+            if (finishedRequest == null) {
+                return;
+            }
+            mRunningRequestsPerPriority[finishedRequest.request.getRequestPriority().ordinal()]--;
+            decrementHostCount(finishedRequest.host);
+
+            // Hand over the pending requests that can now run, in priority order
+            PriorityQueue<PendingRequest> candidates = new PriorityQueue<>(mPendingRequests);
+            while (!candidates.isEmpty()) {
+                PendingRequest candidate = candidates.poll();
+                if (canRun(candidate)) {
+                    mPendingRequests.remove(candidate);
+                    markAsRunning(candidate);
+                    admittedRequests.add(candidate.request);
+                }
+            }
+        }
+        for (BaseRequest<?> admittedRequest : admittedRequests) {
+            super.add(admittedRequest);
+        }
+    }
+
+    private boolean canRun(PendingRequest pendingRequest) {
+        RequestPriority priority = pendingRequest.request.getRequestPriority();
+        if (mRunningRequestsPerPriority[priority.ordinal()] >= priority.getMaxConcurrentRequests(mThreadPoolSize)) {
+            return false;
+        }
+        if (pendingRequest.host == null || mUncappedHosts.contains(pendingRequest.host)) {
+            return true;
+        }
+        Integer runningRequestsForHost = mRunningRequestsPerHost.get(pendingRequest.host);
+        return runningRequestsForHost == null || runningRequestsForHost < mMaxRequestsPerHost;
+    }
+
+    private void markAsRunning(PendingRequest pendingRequest) {
+        int index = pendingRequest.request.getRequestPriority().ordinal();
+        mRunningRequests.put(pendingRequest.request, pendingRequest);
+        mRunningRequestsPerPriority[index]++;
+        if (pendingRequest.host != null) {
+            Integer runningRequestsForHost = mRunningRequestsPerHost.get(pendingRequest.host);
+            mRunningRequestsPerHost.put(pendingRequest.host,
+                    runningRequestsForHost == null ? 1 : runningRequestsForHost + 1);
+        }
+
+        long waitTime = SystemClock.elapsedRealtime() - pendingRequest.queuedAt;
+        pendingRequest.request.setQueueWaitTime(waitTime);
+        mWaitCount[index]++;
+        mTotalWaitTime[index] += waitTime;
+        mMaxWaitTime[index] = Math.max(mMaxWaitTime[index], waitTime);
+    }
+
+    private void decrementHostCount(@Nullable String host) {
+        if (host == null) {
+            return;
+        }
+        Integer runningRequestsForHost = mRunningRequestsPerHost.get(host);
+        if (runningRequestsForHost == null || runningRequestsForHost <= 1) {
+            mRunningRequestsPerHost.remove(host);
+        } else {
+            mRunningRequestsPerHost.put(host, runningRequestsForHost - 1);
+        }
+    }
+
+    @Nullable
+    private static String getHost(Request<?> request) {
+        return request instanceof BaseRequest ? ((BaseRequest<?>) request).mUri.getHost() : null;
+    }
+}
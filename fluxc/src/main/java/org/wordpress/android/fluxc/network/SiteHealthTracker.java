@@ -0,0 +1,158 @@
+package org.wordpress.android.fluxc.network;
+
+import android.net.Uri;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.Request;
+
+import org.wordpress.android.util.AppLog;
+import org.wordpress.android.util.AppLog.T;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the health of the sites requests are sent to, with a circuit breaker per site.
+ *
+ * A site's circuit is closed while it's healthy. After {@link #DEFAULT_FAILURE_THRESHOLD} consecutive timeouts or
+ * server errors, it opens: requests to that site then fail right away with a {@link CircuitOpenError} instead of
+ * waiting for their timeout. Once the open period is over, the circuit is half-open and a single request is let
+ * through: the circuit closes again if it succeeds, and opens again if it fails.
+ *
+ * Sites are identified by their host, except for Jetpack tunnel requests, which are identified by their site id.
+ */
+public class SiteHealthTracker {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_OPEN_DURATION_MS = 30 * 1000;
+
+    private static final String WPCOM_API_HOST = "public-api.wordpress.com";
+    private static final String JETPACK_TUNNEL_PATH_SEGMENT = "jetpack-blogs";
+
+    public enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static class SiteHealth {
+        int consecutiveFailures;
+        long openedAt;
+        boolean isOpen;
+        boolean isProbing;
+    }
+
+    private final int mFailureThreshold;
+    private final long mOpenDurationMs;
+    private final Map<String, SiteHealth> mSiteHealth = new HashMap<>();
+
+    public SiteHealthTracker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION_MS);
+    }
+
+    public SiteHealthTracker(int failureThreshold, long openDurationMs) {
+        mFailureThreshold = failureThreshold;
+        mOpenDurationMs = openDurationMs;
+    }
+
+    /**
+     * Returns the key of the site the given request is sent to, or null if it's a WordPress.com request that isn't
+     * tracked.
+     */
+    @Nullable
+    public static String getSiteKey(@NonNull Request<?> request) {
+        Uri uri = Uri.parse(request.getUrl());
+        String host = uri.getHost();
+        if (host == null) {
+            return null;
+        }
+        if (!host.equals(WPCOM_API_HOST)) {
+            return host;
+        }
+        List<String> segments = uri.getPathSegments();
+        int index = segments.indexOf(JETPACK_TUNNEL_PATH_SEGMENT);
+        if (index >= 0 && index + 1 < segments.size()) {
+            return JETPACK_TUNNEL_PATH_SEGMENT + "/" + segments.get(index + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if a request can be sent to the given site. When the circuit is half-open, only the first caller
+     * gets true, and its request decides whether the circuit closes.
+     */
+    public synchronized boolean allowRequest(@NonNull String siteKey) {
+        SiteHealth health = mSiteHealth.get(siteKey);
+        if (health == null || !health.isOpen) {
+            return true;
+        }
+        if (SystemClock.elapsedRealtime() - health.openedAt < mOpenDurationMs || health.isProbing) {
+            return false;
+        }
+        health.isProbing = true;
+        return true;
+    }
+
+    public synchronized void recordSuccess(@NonNull String siteKey) {
+        SiteHealth health = mSiteHealth.remove(siteKey);
+        if (health != null && health.isOpen) {
+            AppLog.i(T.API, "Circuit closed for " + siteKey);
+        }
+    }
+
+    /**
+     * Records a request whose outcome says nothing about the health of the site, like a connection error. If it was
+     * the request let through a half-open circuit, another one will be.
+     */
+    public synchronized void recordInconclusive(@NonNull String siteKey) {
+        SiteHealth health = mSiteHealth.get(siteKey);
+        if (health != null) {
+            health.isProbing = false;
+        }
+    }
+
+    public synchronized void recordFailure(@NonNull String siteKey) {
+        SiteHealth health = mSiteHealth.get(siteKey);
+        if (health == null) {
+            health = new SiteHealth();
+            mSiteHealth.put(siteKey, health);
+        }
+        health.consecutiveFailures++;
+        if (health.isProbing || health.consecutiveFailures >= mFailureThreshold) {
+            if (!health.isOpen) {
+                AppLog.w(T.API, "Circuit opened for " + siteKey);
+            }
+            health.isOpen = true;
+            health.isProbing = false;
+            health.openedAt = SystemClock.elapsedRealtime();
+        }
+    }
+
+    @NonNull
+    public synchronized CircuitState getCircuitState(@NonNull String siteKey) {
+        SiteHealth health = mSiteHealth.get(siteKey);
+        if (health == null || !health.isOpen) {
+            return CircuitState.CLOSED;
+        }
+        boolean isOpenPeriodOver = SystemClock.elapsedRealtime() - health.openedAt >= mOpenDurationMs;
+        return isOpenPeriodOver ? CircuitState.HALF_OPEN : CircuitState.OPEN;
+    }
+
+    /**
+     * Returns the state of the circuits that aren't closed, for diagnostics.
+     */
+    @NonNull
+    public synchronized Map<String, CircuitState> getUnhealthySites() {
+        Map<String, CircuitState> states = new HashMap<>();
+        for (String siteKey : mSiteHealth.keySet()) {
+            CircuitState state = getCircuitState(siteKey);
+            if (state != CircuitState.CLOSED) {
+                states.put(siteKey, state);
+            }
+        }
+        return states;
+    }
+}
@@ -0,0 +1,11 @@
+package org.wordpress.android.fluxc.network
+
+import okhttp3.RequestBody
+
+/**
+ * Implemented by requests whose body is too large to be held in memory by `getBody`. [OkHttpStack] sends the
+ * [RequestBody] returned by [getStreamingBody] instead, which is written to the network as it's read.
+ */
+interface StreamingBodyRequest {
+    fun getStreamingBody(): RequestBody
+}
@@ -48,7 +48,10 @@ public class DiscoveryXMLRPCClient extends BaseXMLRPCClient {
 
         try {
             return future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException | TimeoutException e) {
+        } catch (InterruptedException e) {
+            // The discovery doesn't need this response anymore
+            request.cancel();
+        } catch (TimeoutException e) {
             AppLog.e(AppLog.T.API, "Couldn't get XML-RPC response");
         } catch (ExecutionException e) {
             if (e.getCause() instanceof AuthFailureError) {
@@ -89,7 +92,10 @@ public class DiscoveryXMLRPCClient extends BaseXMLRPCClient {
 
         try {
             return future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException | TimeoutException e) {
+        } catch (InterruptedException e) {
+            // The discovery doesn't need this response anymore
+            request.cancel();
+        } catch (TimeoutException e) {
             AppLog.e(AppLog.T.API, "Couldn't get XML-RPC response.");
         } catch (ExecutionException e) {
             if (e.getCause() instanceof AuthFailureError) {
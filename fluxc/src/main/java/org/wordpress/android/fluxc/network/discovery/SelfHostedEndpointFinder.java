@@ -1,5 +1,6 @@
 package org.wordpress.android.fluxc.network.discovery;
 
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.webkit.URLUtil;
 
@@ -15,19 +16,53 @@ import org.wordpress.android.util.AppLog;
 import org.wordpress.android.util.AppLog.T;
 import org.wordpress.android.util.UrlUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
+@Singleton
 public class SelfHostedEndpointFinder {
     public static final int TIMEOUT_MS = 60000;
 
+    // Delay between the start of two concurrent probes of candidate URLs
+    private static final long PROBE_STAGGER_MS = 1000;
+    private static final int MAX_CONCURRENT_PROBES = 5;
+    private static final long DISCOVERY_RESULT_CACHE_DURATION_MS = 10 * 60 * 1000;
+
     private final Dispatcher mDispatcher;
     private final DiscoveryXMLRPCClient mDiscoveryXMLRPCClient;
     private final DiscoveryWPAPIRestClient mDiscoveryWPAPIRestClient;
+    private final ScheduledExecutorService mProbeExecutor = Executors.newScheduledThreadPool(MAX_CONCURRENT_PROBES);
+    private final Map<String, CachedDiscoveryResult> mDiscoveryResults = new HashMap<>();
+
+    private static class CachedDiscoveryResult {
+        final String xmlRpcEndpoint;
+        final String wpRestEndpoint;
+        final long discoveredAt;
+
+        CachedDiscoveryResult(String xmlRpcEndpoint, String wpRestEndpoint) {
+            this.xmlRpcEndpoint = xmlRpcEndpoint;
+            this.wpRestEndpoint = wpRestEndpoint;
+            this.discoveredAt = SystemClock.elapsedRealtime();
+        }
+
+        boolean isExpired() {
+            return SystemClock.elapsedRealtime() - discoveredAt > DISCOVERY_RESULT_CACHE_DURATION_MS;
+        }
+    }
 
     public enum DiscoveryError implements OnChangedError {
         INVALID_URL,
@@ -81,13 +116,26 @@ public class SelfHostedEndpointFinder {
             @Override
             public void run() {
                 try {
-                    String wpRestEndpoint = "";
-                    if (BuildConfig.ENABLE_WPAPI) {
-                        wpRestEndpoint = discoverWPRESTEndpoint(url);
+                    String cacheKey = getDiscoveryResultCacheKey(url);
+                    CachedDiscoveryResult result = getCachedDiscoveryResult(cacheKey);
+                    if (result == null) {
+                        // The WP-API discovery runs alongside the XML-RPC one
+                        Future<String> wpRestEndpoint = null;
+                        if (BuildConfig.ENABLE_WPAPI) {
+                            wpRestEndpoint = mProbeExecutor.submit(new Callable<String>() {
+                                @Override
+                                public String call() throws DiscoveryException {
+                                    return discoverWPRESTEndpoint(url);
+                                }
+                            });
+                        }
+                        // TODO: Eventually make the XML-RPC discovery only run if WP-API discovery fails
+                        String xmlRpcEndpoint = verifyOrDiscoverXMLRPCEndpoint(url);
+                        result = new CachedDiscoveryResult(xmlRpcEndpoint, getWPRESTEndpoint(wpRestEndpoint, url));
+                        putCachedDiscoveryResult(cacheKey, result);
                     }
-                    // TODO: Eventually make the XML-RPC discovery only run if WP-API discovery fails
-                    String xmlRpcEndpoint = verifyOrDiscoverXMLRPCEndpoint(url);
-                    DiscoveryResultPayload payload = new DiscoveryResultPayload(xmlRpcEndpoint, wpRestEndpoint);
+                    DiscoveryResultPayload payload =
+                            new DiscoveryResultPayload(result.xmlRpcEndpoint, result.wpRestEndpoint);
                     mDispatcher.dispatch(AuthenticationActionBuilder.newDiscoveryResultAction(payload));
                 } catch (DiscoveryException e) {
                     // TODO: Handle tracking of XMLRPCDiscoveryException
@@ -102,6 +150,46 @@ public class SelfHostedEndpointFinder {
         }).start();
     }
 
+    private String getWPRESTEndpoint(Future<String> wpRestEndpoint, String url) throws DiscoveryException {
+        if (wpRestEndpoint == null) {
+            return "";
+        }
+        try {
+            return wpRestEndpoint.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DiscoveryException) {
+                throw (DiscoveryException) e.getCause();
+            }
+            AppLog.e(T.NUX, "WP-API discovery failed for " + url, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the key of the discovery results of the given URL, which doesn't depend on how the user typed it.
+     */
+    private String getDiscoveryResultCacheKey(String url) throws DiscoveryException {
+        if (TextUtils.isEmpty(url)) {
+            throw new DiscoveryException(DiscoveryError.INVALID_URL, url);
+        }
+        return sanitizeSiteUrl(url, !url.trim().startsWith("http://"));
+    }
+
+    private synchronized CachedDiscoveryResult getCachedDiscoveryResult(String cacheKey) {
+        CachedDiscoveryResult result = mDiscoveryResults.get(cacheKey);
+        if (result != null && result.isExpired()) {
+            mDiscoveryResults.remove(cacheKey);
+            return null;
+        }
+        return result;
+    }
+
+    private synchronized void putCachedDiscoveryResult(String cacheKey, CachedDiscoveryResult result) {
+        mDiscoveryResults.put(cacheKey, result);
+    }
+
     private String verifyOrDiscoverXMLRPCEndpoint(final String siteUrl) throws DiscoveryException {
         if (TextUtils.isEmpty(siteUrl)) {
             throw new DiscoveryException(DiscoveryError.INVALID_URL, siteUrl);
@@ -163,25 +251,34 @@ public class SelfHostedEndpointFinder {
         final LinkedHashSet<String> urlsToTry = getOrderedVerifyUrlsToTry(siteUrl);
 
         AppLog.i(T.NUX, "Calling system.listMethods on the following URLs: " + urlsToTry);
-        for (String url : urlsToTry) {
-            try {
-                if (checkXMLRPCEndpointValidity(url)) {
-                    // Endpoint found and works fine.
-                    return url;
-                }
-            } catch (DiscoveryException e) {
-                // Stop execution for errors requiring user interaction
-                if (e.discoveryError == DiscoveryError.ERRONEOUS_SSL_CERTIFICATE
-                    || e.discoveryError == DiscoveryError.HTTP_AUTH_REQUIRED
-                    || e.discoveryError == DiscoveryError.MISSING_XMLRPC_METHOD
-                    || e.discoveryError == DiscoveryError.XMLRPC_BLOCKED) {
-                    throw e;
+        // The URLs are probed concurrently, but the first one in the list that works wins
+        StaggeredProbes<Boolean> probes = new StaggeredProbes<>(mProbeExecutor, new ArrayList<>(urlsToTry),
+                PROBE_STAGGER_MS, new StaggeredProbes.Probe<Boolean>() {
+                    @Override
+                    public Boolean probe(@NonNull String url) throws DiscoveryException {
+                        return checkXMLRPCEndpointValidity(url);
+                    }
+                });
+        try {
+            for (int i = 0; i < probes.size(); i++) {
+                try {
+                    if (Boolean.TRUE.equals(probes.get(i))) {
+                        // Endpoint found and works fine.
+                        return probes.getUrl(i);
+                    }
+                } catch (DiscoveryException e) {
+                    // Stop execution for errors requiring user interaction
+                    if (e.discoveryError == DiscoveryError.ERRONEOUS_SSL_CERTIFICATE
+                        || e.discoveryError == DiscoveryError.HTTP_AUTH_REQUIRED
+                        || e.discoveryError == DiscoveryError.MISSING_XMLRPC_METHOD
+                        || e.discoveryError == DiscoveryError.XMLRPC_BLOCKED) {
+                        throw e;
+                    }
+                    // Otherwise. swallow the error since we are just verifying various URLs
                 }
-                // Otherwise. swallow the error since we are just verifying various URLs
-            } catch (RuntimeException re) {
-                // Depending how corrupt the user entered URL is, it can generate several kinds of runtime exceptions,
-                // ignore them
             }
+        } finally {
+            probes.cancel();
         }
         // Input url was not verified to be working
         return null;
@@ -208,54 +305,71 @@ public class SelfHostedEndpointFinder {
 
         AppLog.i(AppLog.T.NUX, "Running RSD discovery process on the following URLs: " + urlsToTry);
 
-        String xmlrpcUrl = null;
-        boolean isWpSite = false;
+        List<String> validUrlsToTry = new ArrayList<>();
         for (String currentURL : urlsToTry) {
-            if (!URLUtil.isValidUrl(currentURL)) {
-                continue;
-            }
-            // Download the HTML content
-            AppLog.i(AppLog.T.NUX, "Downloading the HTML content at the following URL: " + currentURL);
-            String responseHTML = mDiscoveryXMLRPCClient.getResponse(currentURL);
-            if (TextUtils.isEmpty(responseHTML)) {
-                AppLog.w(AppLog.T.NUX, "Content downloaded but it's empty or null. Skipping this URL");
-                continue;
+            if (URLUtil.isValidUrl(currentURL)) {
+                validUrlsToTry.add(currentURL);
             }
+        }
 
-            // Try to find the RSD tag with a regex
-            String rsdUrl = getRSDMetaTagHrefRegEx(responseHTML);
-            rsdUrl = UrlUtils.addUrlSchemeIfNeeded(rsdUrl, false);
-
-            // If the RSD URL is empty here, try to see if the pingback or Apilink are in the doc, as the user
-            // could have inserted a direct link to the XML-RPC endpoint
-            if (rsdUrl == null) {
-                AppLog.i(AppLog.T.NUX, "Can't find the RSD endpoint in the HTML document. Try to check the "
-                                       + "pingback tag, and the apiLink tag.");
-                xmlrpcUrl = UrlUtils.addUrlSchemeIfNeeded(DiscoveryUtils.getXMLRPCPingback(responseHTML), false);
-                if (xmlrpcUrl == null) {
-                    xmlrpcUrl = UrlUtils.addUrlSchemeIfNeeded(DiscoveryUtils.getXMLRPCApiLink(responseHTML), false);
-                }
-            } else {
-                // If the site contains RSD link, it is WP.org site
-                isWpSite = true;
-                AppLog.i(AppLog.T.NUX, "RSD endpoint found at the following address: " + rsdUrl);
-                AppLog.i(AppLog.T.NUX, "Downloading the RSD document...");
-                String rsdEndpointDocument = mDiscoveryXMLRPCClient.getResponse(rsdUrl);
-                if (TextUtils.isEmpty(rsdEndpointDocument)) {
-                    AppLog.w(AppLog.T.NUX, "Content downloaded but it's empty or null. Skipping this RSD document"
-                                           + " URL.");
+        // The HTML content of the URLs is downloaded concurrently, but processed in order
+        StaggeredProbes<String> htmlDownloads = new StaggeredProbes<>(mProbeExecutor, validUrlsToTry,
+                PROBE_STAGGER_MS, new StaggeredProbes.Probe<String>() {
+                    @Override
+                    public String probe(@NonNull String url) throws DiscoveryException {
+                        AppLog.i(AppLog.T.NUX, "Downloading the HTML content at the following URL: " + url);
+                        return mDiscoveryXMLRPCClient.getResponse(url);
+                    }
+                });
+
+        String xmlrpcUrl = null;
+        boolean isWpSite = false;
+        try {
+            for (int i = 0; i < htmlDownloads.size(); i++) {
+                String responseHTML = htmlDownloads.get(i);
+                if (TextUtils.isEmpty(responseHTML)) {
+                    AppLog.w(AppLog.T.NUX, "Content downloaded but it's empty or null. Skipping this URL");
                     continue;
                 }
-                AppLog.i(AppLog.T.NUX, "Extracting the XML-RPC Endpoint address from the RSD document");
-                xmlrpcUrl = UrlUtils.addUrlSchemeIfNeeded(DiscoveryUtils.getXMLRPCApiLink(rsdEndpointDocument),
-                        false);
-            }
-            if (xmlrpcUrl != null) {
-                AppLog.i(AppLog.T.NUX, "Found the XML-RPC endpoint in the HTML document");
-                break;
-            } else {
-                AppLog.i(AppLog.T.NUX, "XML-RPC endpoint not found");
+
+                // Try to find the RSD tag with a regex
+                String rsdUrl = getRSDMetaTagHrefRegEx(responseHTML);
+                rsdUrl = UrlUtils.addUrlSchemeIfNeeded(rsdUrl, false);
+
+                // If the RSD URL is empty here, try to see if the pingback or Apilink are in the doc, as the user
+                // could have inserted a direct link to the XML-RPC endpoint
+                if (rsdUrl == null) {
+                    AppLog.i(AppLog.T.NUX, "Can't find the RSD endpoint in the HTML document. Try to check the "
+                                           + "pingback tag, and the apiLink tag.");
+                    xmlrpcUrl = UrlUtils.addUrlSchemeIfNeeded(DiscoveryUtils.getXMLRPCPingback(responseHTML), false);
+                    if (xmlrpcUrl == null) {
+                        xmlrpcUrl = UrlUtils.addUrlSchemeIfNeeded(DiscoveryUtils.getXMLRPCApiLink(responseHTML),
+                                false);
+                    }
+                } else {
+                    // If the site contains RSD link, it is WP.org site
+                    isWpSite = true;
+                    AppLog.i(AppLog.T.NUX, "RSD endpoint found at the following address: " + rsdUrl);
+                    AppLog.i(AppLog.T.NUX, "Downloading the RSD document...");
+                    String rsdEndpointDocument = mDiscoveryXMLRPCClient.getResponse(rsdUrl);
+                    if (TextUtils.isEmpty(rsdEndpointDocument)) {
+                        AppLog.w(AppLog.T.NUX, "Content downloaded but it's empty or null. Skipping this RSD "
+                                               + "document URL.");
+                        continue;
+                    }
+                    AppLog.i(AppLog.T.NUX, "Extracting the XML-RPC Endpoint address from the RSD document");
+                    xmlrpcUrl = UrlUtils.addUrlSchemeIfNeeded(DiscoveryUtils.getXMLRPCApiLink(rsdEndpointDocument),
+                            false);
+                }
+                if (xmlrpcUrl != null) {
+                    AppLog.i(AppLog.T.NUX, "Found the XML-RPC endpoint in the HTML document");
+                    break;
+                } else {
+                    AppLog.i(AppLog.T.NUX, "XML-RPC endpoint not found");
+                }
             }
+        } finally {
+            htmlDownloads.cancel();
         }
 
         if (URLUtil.isValidUrl(xmlrpcUrl)) {
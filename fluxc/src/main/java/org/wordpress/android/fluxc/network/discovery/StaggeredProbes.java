@@ -0,0 +1,85 @@
+package org.wordpress.android.fluxc.network.discovery;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.network.discovery.SelfHostedEndpointFinder.DiscoveryException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes a list of URLs concurrently, starting each probe a bit after the previous one. A fast URL answers before the
+ * others are even started, while a slow one doesn't hold back the others.
+ *
+ * Results are read in the order of the URLs, which is their priority order, and {@link #cancel()} stops the probes
+ * that are no longer needed once the caller found what it was looking for.
+ */
+class StaggeredProbes<T> {
+    interface Probe<T> {
+        @Nullable T probe(@NonNull String url) throws DiscoveryException;
+    }
+
+    private final List<String> mUrls;
+    private final List<Future<T>> mFutures = new ArrayList<>();
+
+    StaggeredProbes(@NonNull ScheduledExecutorService executor, @NonNull List<String> urls, long staggerMs,
+                    @NonNull final Probe<T> probe) {
+        mUrls = urls;
+        for (int i = 0; i < urls.size(); i++) {
+            final String url = urls.get(i);
+            mFutures.add(executor.schedule(new Callable<T>() {
+                @Override
+                public T call() throws DiscoveryException {
+                    return probe.probe(url);
+                }
+            }, i * staggerMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    int size() {
+        return mUrls.size();
+    }
+
+    @NonNull
+    String getUrl(int index) {
+        return mUrls.get(index);
+    }
+
+    /**
+     * Waits for the probe of the URL at the given index, and returns its result. Returns null if the probe failed
+     * with an unexpected error, or if it was interrupted.
+     */
+    @Nullable
+    T get(int index) throws DiscoveryException {
+        try {
+            return mFutures.get(index).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DiscoveryException) {
+                throw (DiscoveryException) e.getCause();
+            }
+            // Depending how corrupt the URL is, the probe can fail with various runtime exceptions: ignore them
+            return null;
+        } catch (CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Cancels the probes that didn't start yet, and interrupts the ones in progress.
+     */
+    void cancel() {
+        for (Future<T> future : mFutures) {
+            future.cancel(true);
+        }
+    }
+}
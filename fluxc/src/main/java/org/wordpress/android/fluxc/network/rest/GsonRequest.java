@@ -12,6 +12,7 @@ import com.google.gson.JsonSyntaxException;
 
 import org.jetbrains.annotations.Nullable;
 import org.wordpress.android.fluxc.network.BaseRequest;
+import org.wordpress.android.fluxc.network.NetworkMetrics.Phase;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
@@ -50,7 +51,32 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
 
     @Override
     protected void deliverResponse(T response) {
-        mListener.onResponse(response);
+        if (!isCanceledBySender()) {
+            long deliveryStart = beginMetricDelivery();
+            try {
+                mListener.onResponse(response);
+            } finally {
+                endMetricDelivery(deliveryStart);
+            }
+        }
+        deliverResponseToCoalescedRequests(response);
+    }
+
+    /**
+     * GET requests are coalesced when they have the same canonical URL, credentials and response type.
+     */
+    @Nullable
+    @Override
+    protected String getCoalescingKey() {
+        if (getMethod() != Method.GET || shouldForceUpdate()) {
+            return null;
+        }
+        String responseType = mClass != null ? mClass.getName() : String.valueOf(mType);
+        return getCacheKey() + " " + getHeaders().get(AUTHORIZATION_HEADER) + " " + responseType;
+    }
+
+    protected Gson getGson() {
+        return mGson;
     }
 
     @Override
@@ -83,6 +109,7 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
 
     @Override
     protected Response<T> parseNetworkResponse(NetworkResponse response) {
+        long parseStart = startMetricTiming();
         try {
             String json = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
             T res;
@@ -96,6 +123,8 @@ public abstract class GsonRequest<T> extends BaseRequest<T> {
             return Response.error(new ParseError(e));
         } catch (JsonSyntaxException e) {
             return Response.error(new ParseError(e));
+        } finally {
+            recordMetricDuration(Phase.PARSE, parseStart);
         }
     }
 
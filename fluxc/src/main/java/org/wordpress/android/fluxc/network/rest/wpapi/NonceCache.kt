@@ -0,0 +1,25 @@
+package org.wordpress.android.fluxc.network.rest.wpapi
+
+import java.util.concurrent.ConcurrentHashMap
+import javax.inject.Inject
+import javax.inject.Singleton
+
+/**
+ * Thread-safe cache of the nonces of self-hosted sites, keyed by site and credentials.
+ *
+ * Nonces are only kept in memory: a nonce is only valid along with the login cookies it was issued with, and those
+ * aren't persisted either.
+ */
+@Singleton
+class NonceCache
+@Inject constructor() {
+    data class Entry(val nonce: Nonce, val fetchedAt: Long)
+
+    private val entries = ConcurrentHashMap<String, Entry>()
+
+    operator fun get(key: String): Entry? = entries[key]
+
+    fun put(key: String, entry: Entry) {
+        entries[key] = entry
+    }
+}
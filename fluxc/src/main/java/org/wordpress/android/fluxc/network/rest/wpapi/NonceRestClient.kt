@@ -2,15 +2,21 @@ package org.wordpress.android.fluxc.network.rest.wpapi
 
 import com.android.volley.NoConnectionError
 import com.android.volley.RequestQueue
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 import org.wordpress.android.fluxc.Dispatcher
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.rest.wpapi.Nonce.Available
 import org.wordpress.android.fluxc.network.rest.wpapi.Nonce.FailedRequest
 import org.wordpress.android.fluxc.network.rest.wpapi.Nonce.Unknown
+import org.wordpress.android.fluxc.network.rest.wpapi.NonceCache.Entry
 import org.wordpress.android.fluxc.network.rest.wpapi.WPAPIResponse.Error
 import org.wordpress.android.fluxc.network.rest.wpapi.WPAPIResponse.Success
+import org.wordpress.android.fluxc.tools.CoroutineEngine
 import org.wordpress.android.fluxc.utils.CurrentTimeProvider
+import org.wordpress.android.util.AppLog.T
+import java.util.concurrent.ConcurrentHashMap
 import javax.inject.Inject
 import javax.inject.Named
 import javax.inject.Singleton
@@ -20,19 +26,68 @@ class NonceRestClient
 @Inject constructor(
     private val wpApiEncodedBodyRequestBuilder: WPAPIEncodedBodyRequestBuilder,
     private val currentTimeProvider: CurrentTimeProvider,
+    private val nonceCache: NonceCache,
+    private val coroutineEngine: CoroutineEngine,
     dispatcher: Dispatcher,
     @Named("custom-ssl") requestQueue: RequestQueue,
     userAgent: UserAgent
 ) : BaseWPAPIRestClient(dispatcher, requestQueue, userAgent) {
-    private val nonceMap: MutableMap<SiteModel, Nonce> = mutableMapOf()
-    fun getNonce(site: SiteModel): Nonce? = nonceMap[site]
+    private val requestLocks = ConcurrentHashMap<String, Mutex>()
+    private val backgroundRefreshes: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    /**
+     * Returns the cached nonce of the site, or null if there is none or it has expired. A nonce that's about to
+     * expire is still returned, but a new one is requested in the background.
+     */
+    fun getNonce(site: SiteModel): Nonce? {
+        val key = site.nonceKey()
+        val entry = nonceCache[key] ?: return null
+        if (entry.nonce is Available) {
+            val age = currentTimeProvider.currentDate().time - entry.fetchedAt
+            if (age >= NONCE_LIFETIME_MILLIS) {
+                return null
+            }
+            if (age >= NONCE_REFRESH_AGE_MILLIS) {
+                refreshInBackground(site, key)
+            }
+        }
+        return entry.nonce
+    }
 
     /**
      *  Requests a nonce using the
      *  [rest-nonce endpoint](https://developer.wordpress.org/reference/functions/wp_ajax_rest_nonce/)
      *  that became available in WordPress 5.3.
+     *
+     *  Concurrent requests for the same site share a single login: callers that were waiting while another one got
+     *  a new nonce get that nonce too.
      */
     suspend fun requestNonce(site: SiteModel): Nonce? {
+        val key = site.nonceKey()
+        val previous = nonceCache[key]
+        return requestLocks.getOrPut(key) { Mutex() }.withLock {
+            val current = nonceCache[key]
+            if (current != null && current !== previous) {
+                current.nonce
+            } else {
+                fetchNonce(site, key)
+            }
+        }
+    }
+
+    private fun refreshInBackground(site: SiteModel, key: String) {
+        if (backgroundRefreshes.add(key)) {
+            coroutineEngine.launch(T.API, this, "Refreshing nonce before it expires") {
+                try {
+                    requestNonce(site)
+                } finally {
+                    backgroundRefreshes.remove(key)
+                }
+            }
+        }
+    }
+
+    private suspend fun fetchNonce(site: SiteModel, key: String): Nonce {
         val wpLoginUrl = slashJoin(site.url, "wp-login.php")
         val redirectUrl = slashJoin(site.url, "wp-admin/admin-ajax.php?action=rest-nonce")
         val body = mapOf(
@@ -42,7 +97,7 @@ class NonceRestClient
         )
         val response =
                 wpApiEncodedBodyRequestBuilder.syncPostRequest(this, wpLoginUrl, body = body)
-        nonceMap[site] = when (response) {
+        val nonce = when (response) {
             is Success -> if (response.data?.matches("[0-9a-zA-Z]{2,}".toRegex()) == true) {
                 Available(response.data)
             } else {
@@ -57,7 +112,15 @@ class NonceRestClient
                 }
             }
         }
-        return nonceMap[site]
+        nonceCache.put(key, Entry(nonce, currentTimeProvider.currentDate().time))
+        return nonce
+    }
+
+    // Sites that aren't persisted yet don't have a local id. A nonce belongs to the user it was issued to, so the
+    // credentials are part of the key: changing them leads to a new login instead of reusing the previous nonce.
+    private fun SiteModel.nonceKey(): String {
+        val site = if (id != 0) id.toString() else url
+        return "$site:${username.orEmpty()}:${password.orEmpty().hashCode()}"
     }
 
     private fun slashJoin(begin: String, end: String): String {
@@ -65,4 +128,10 @@ class NonceRestClient
         val noSlashEnd = end.replace("^/".toRegex(), "")
         return "$noSlashBegin/$noSlashEnd"
     }
+
+    companion object {
+        // WordPress nonces are valid for 12 to 24 hours, depending on when they were created
+        private const val NONCE_LIFETIME_MILLIS = 12 * 60 * 60 * 1000L
+        private const val NONCE_REFRESH_AGE_MILLIS = 10 * 60 * 60 * 1000L
+    }
 }
@@ -8,10 +8,13 @@ import com.android.volley.RequestQueue;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.wordpress.android.fluxc.Dispatcher;
+import org.wordpress.android.fluxc.annotations.endpoint.WPComEndpoint;
+import org.wordpress.android.fluxc.annotations.endpoint.WPComV2Endpoint;
 import org.wordpress.android.fluxc.generated.AuthenticationActionBuilder;
 import org.wordpress.android.fluxc.network.BaseRequest;
 import org.wordpress.android.fluxc.network.BaseRequest.OnAuthFailedListener;
 import org.wordpress.android.fluxc.network.BaseRequest.OnParseErrorListener;
+import org.wordpress.android.fluxc.network.RequestCoalescer;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.OnJetpackTimeoutError;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest.OnJetpackTunnelTimeoutListener;
@@ -19,17 +22,16 @@ import org.wordpress.android.fluxc.network.rest.wpcom.account.AccountSocialReque
 import org.wordpress.android.fluxc.network.rest.wpcom.auth.AccessToken;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
-import org.wordpress.android.util.LanguageUtils;
+
+import javax.inject.Inject;
 
 import okhttp3.HttpUrl;
 
 public abstract class BaseWPComRestClient {
-    private static final String WPCOM_V2_PREFIX = "/wpcom/v2";
-    private static final String LOCALE_PARAM_NAME_FOR_V1 = "locale";
-    private static final String LOCALE_PARAM_NAME_FOR_V2 = "_locale";
-
     private AccessToken mAccessToken;
     private final RequestQueue mRequestQueue;
+    // Shared by all the clients, null when the client isn't built by Dagger
+    @Inject @Nullable RequestCoalescer mRequestCoalescer;
 
     protected final Context mAppContext;
     protected final Dispatcher mDispatcher;
@@ -119,7 +121,11 @@ public abstract class BaseWPComRestClient {
     private Request addRequest(BaseRequest request) {
         request.setOnParseErrorListener(mOnParseErrorListener);
         if (request.shouldCache() && request.shouldForceUpdate()) {
-            mRequestQueue.getCache().invalidate(request.mUri.toString(), true);
+            mRequestQueue.getCache().invalidate(request.getCacheKey(), true);
+        }
+        // Identical requests in flight share a single network call
+        if (mRequestCoalescer != null && mRequestCoalescer.coalesce(request)) {
+            return request;
         }
         return mRequestQueue.add(request);
     }
@@ -130,12 +136,12 @@ public abstract class BaseWPComRestClient {
         if (url != null) {
             // WPCOM V2 endpoints use a different locale parameter than other endpoints
             String localeParamName = getLocaleParamName(url);
-            request.addQueryParameter(localeParamName, LanguageUtils.getPatchedCurrentDeviceLanguage(mAppContext));
+            request.addQueryParameter(localeParamName, DeviceLanguageCache.getLanguage(mAppContext));
         }
     }
 
     private @NotNull String getLocaleParamName(@NotNull String url) {
-        return url.contains(WPCOM_V2_PREFIX) ? LOCALE_PARAM_NAME_FOR_V2 : LOCALE_PARAM_NAME_FOR_V1;
+        return WPComV2Endpoint.isUrl(url) ? WPComV2Endpoint.LOCALE_PARAM_NAME : WPComEndpoint.LOCALE_PARAM_NAME;
     }
 
     protected @Nullable HttpUrl getHttpUrlWithLocale(@NotNull String url) {
@@ -143,7 +149,7 @@ public abstract class BaseWPComRestClient {
 
         if (null != httpUrl) {
             httpUrl = httpUrl.newBuilder().addQueryParameter(getLocaleParamName(url),
-                    LanguageUtils.getPatchedCurrentDeviceLanguage(mAppContext)).build();
+                    DeviceLanguageCache.getLanguage(mAppContext)).build();
         }
 
         return httpUrl;
@@ -0,0 +1,64 @@
+package org.wordpress.android.fluxc.network.rest.wpcom;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+
+import org.wordpress.android.util.LanguageUtils;
+
+import java.util.Locale;
+
+/**
+ * Caches the device language sent with every WordPress.com request, since resolving it for each request is wasteful.
+ *
+ * The cached value is keyed on {@link Locale#getDefault()}, so it's refreshed as soon as the app sets its own locale,
+ * and is also dropped when the configuration of the application changes.
+ */
+final class DeviceLanguageCache {
+    private static class Entry {
+        final Locale locale;
+        final String language;
+
+        Entry(Locale locale, String language) {
+            this.locale = locale;
+            this.language = language;
+        }
+    }
+
+    private static volatile Entry sEntry;
+    private static boolean sListening;
+
+    private DeviceLanguageCache() {}
+
+    @NonNull
+    static String getLanguage(@NonNull Context context) {
+        Locale locale = Locale.getDefault();
+        Entry entry = sEntry;
+        if (entry == null || !entry.locale.equals(locale)) {
+            listenToConfigurationChanges(context);
+            entry = new Entry(locale, LanguageUtils.getPatchedCurrentDeviceLanguage(context));
+            sEntry = entry;
+        }
+        return entry.language;
+    }
+
+    private static synchronized void listenToConfigurationChanges(Context context) {
+        if (sListening) {
+            return;
+        }
+        sListening = true;
+        Context appContext = context.getApplicationContext();
+        (appContext != null ? appContext : context).registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                sEntry = null;
+            }
+
+            @Override
+            public void onLowMemory() {
+            }
+        });
+    }
+}
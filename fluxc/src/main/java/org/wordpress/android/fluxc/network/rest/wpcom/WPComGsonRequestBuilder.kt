@@ -62,6 +62,37 @@ class WPComGsonRequestBuilder
         restClient.add(request)
     }
 
+    /**
+     * Creates a new GET request whose response array is parsed and delivered in batches, see
+     * [WPComGsonStreamingRequest], triggers it and awaits the number of parsed elements.
+     * @param restClient rest client that handles the request
+     * @param url the request URL
+     * @param params the parameters to append to the request URL
+     * @param arrayField the top-level field of the response containing the array of elements
+     * @param elementClass the class defining the elements of the array
+     * @param batchSize the maximum number of elements handed to [onBatch] at once
+     * @param onBatch called on the network thread with each batch of parsed elements
+     */
+    suspend fun <E> syncGetStreamingRequest(
+        restClient: BaseWPComRestClient,
+        url: String,
+        params: Map<String, String>,
+        arrayField: String,
+        elementClass: Class<E>,
+        batchSize: Int,
+        onBatch: (List<E>) -> Unit
+    ) = suspendCancellableCoroutine<Response<Int>> { cont ->
+        val request = WPComGsonStreamingRequest.buildGetRequest(url, params, arrayField, elementClass, batchSize, {
+            onBatch(it)
+        }, {
+            cont.resume(Success(it))
+        }, {
+            cont.resume(Error(it))
+        })
+        cont.invokeOnCancellation { request.cancel() }
+        restClient.add(request)
+    }
+
     /**
      * Creates a new JSON-formatted POST request.
      * @param url the request URL
@@ -0,0 +1,136 @@
+package org.wordpress.android.fluxc.network.rest.wpcom;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Response;
+import com.android.volley.Response.Listener;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.wordpress.android.fluxc.network.NetworkMetrics.Phase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A GET request whose response contains a large array of elements, such as the sites of `/me/sites`.
+ *
+ * Instead of deserializing the whole response, the elements of the array field are decoded one by one and handed
+ * to the {@link BatchListener} in batches as they're parsed, on the network thread. Only the elements of the current
+ * batch are kept in memory, and the listener receives the number of parsed elements once the response is complete.
+ *
+ * Streamed responses are neither cached nor coalesced, since their elements are only delivered to the batch listener.
+ */
+public class WPComGsonStreamingRequest<E> extends WPComGsonRequest<Integer> {
+    public interface BatchListener<E> {
+        /**
+         * Called on the network thread for each batch of parsed elements, in order.
+         */
+        void onBatch(@NonNull List<E> elements);
+    }
+
+    private final String mArrayField;
+    private final Class<E> mElementClass;
+    private final int mBatchSize;
+    private final BatchListener<E> mBatchListener;
+
+    private WPComGsonStreamingRequest(String url, Map<String, String> params, String arrayField,
+                                      Class<E> elementClass, int batchSize, BatchListener<E> batchListener,
+                                      Listener<Integer> listener, BaseErrorListener errorListener) {
+        super(Method.GET, url, params, null, Integer.class, null, listener, errorListener);
+        mArrayField = arrayField;
+        mElementClass = elementClass;
+        mBatchSize = batchSize;
+        mBatchListener = batchListener;
+    }
+
+    /**
+     * Creates a new streaming GET request.
+     * @param url the request URL
+     * @param params the parameters to append to the request URL
+     * @param arrayField the top-level field of the response containing the array of elements
+     * @param elementClass the class defining the elements of the array
+     * @param batchSize the maximum number of elements handed to the batch listener at once
+     * @param batchListener the listener receiving the parsed elements
+     * @param listener the success listener, receiving the number of parsed elements
+     * @param errorListener the error listener
+     */
+    public static <E> WPComGsonStreamingRequest<E> buildGetRequest(String url, Map<String, String> params,
+                                                                   String arrayField, Class<E> elementClass,
+                                                                   int batchSize, BatchListener<E> batchListener,
+                                                                   Listener<Integer> listener,
+                                                                   WPComErrorListener errorListener) {
+        return new WPComGsonStreamingRequest<>(url, params, arrayField, elementClass, batchSize, batchListener,
+                listener, wrapInBaseListener(errorListener));
+    }
+
+    @Nullable
+    @Override
+    protected String getCoalescingKey() {
+        return null;
+    }
+
+    @Override
+    protected Response<Integer> parseNetworkResponse(NetworkResponse response) {
+        long parseStart = startMetricTiming();
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(response.data),
+                    HttpHeaderParser.parseCharset(response.headers)));
+            reader.setLenient(true);
+            return Response.success(readArrayField(reader), null);
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            return Response.error(new ParseError(e));
+        } finally {
+            closeQuietly(reader);
+            recordMetricDuration(Phase.PARSE, parseStart);
+        }
+    }
+
+    private int readArrayField(JsonReader reader) throws IOException {
+        int count = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!mArrayField.equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                continue;
+            }
+            List<E> batch = new ArrayList<>(mBatchSize);
+            reader.beginArray();
+            while (reader.hasNext()) {
+                batch.add(getGson().<E>fromJson(reader, mElementClass));
+                if (batch.size() >= mBatchSize) {
+                    mBatchListener.onBatch(batch);
+                    count += batch.size();
+                    batch = new ArrayList<>(mBatchSize);
+                }
+            }
+            reader.endArray();
+            if (!batch.isEmpty()) {
+                mBatchListener.onBatch(batch);
+                count += batch.size();
+            }
+        }
+        reader.endObject();
+        return count;
+    }
+
+    private static void closeQuietly(@Nullable JsonReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -69,8 +69,32 @@ class ActivityLogRestClient @Inject constructor(
 ) :
         BaseWPComRestClient(appContext, dispatcher, requestQueue, accessToken, userAgent) {
     suspend fun fetchActivity(payload: FetchActivityLogPayload, number: Int, offset: Int): FetchedActivityLogPayload {
+        return fetchActivityWithParams(payload, number, offset, buildParams(offset, number, payload))
+    }
+
+    /**
+     * Fetches the first page of the activities published after the given date, to add the activities which are newer
+     * than the stored ones without fetching the whole log again. The date filters of the payload are ignored.
+     */
+    suspend fun fetchActivitiesNewerThan(
+        payload: FetchActivityLogPayload,
+        number: Int,
+        newerThan: Date
+    ): FetchedActivityLogPayload {
+        val params = buildParams(0, number, payload)
+        // Unlike the user-picked date range, this is an exact instant which doesn't depend on the device time zone
+        params.remove("before")
+        params["after"] = DateTimeUtils.iso8601UTCFromDate(newerThan)
+        return fetchActivityWithParams(payload, number, 0, params)
+    }
+
+    private suspend fun fetchActivityWithParams(
+        payload: FetchActivityLogPayload,
+        number: Int,
+        offset: Int,
+        params: Map<String, String>
+    ): FetchedActivityLogPayload {
         val url = WPCOMV2.sites.site(payload.site.siteId).activity.url
-        val params = buildParams(offset, number, payload)
         val response = wpComGsonRequestBuilder.syncGetRequest(this, url, params, ActivitiesResponse::class.java)
         return when (response) {
             is Success -> {
@@ -11,6 +11,7 @@ import org.wordpress.android.fluxc.network.rest.wpcom.auth.AppSecrets
 import org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog.UploadEncryptedLogResult.LogUploadFailed
 import org.wordpress.android.fluxc.network.rest.wpcom.encryptedlog.UploadEncryptedLogResult.LogUploaded
 import org.wordpress.android.fluxc.store.EncryptedLogStore.UploadEncryptedLogError
+import java.io.File
 import javax.inject.Inject
 import javax.inject.Named
 import javax.inject.Singleton
@@ -24,7 +25,11 @@ class EncryptedLogRestClient @Inject constructor(
     @Named("regular") private val requestQueue: RequestQueue,
     private val appSecrets: AppSecrets
 ) {
-    suspend fun uploadLog(logUuid: String, contents: String): UploadEncryptedLogResult {
+    /**
+     * Uploads the encrypted log in the [contents] file. The file is streamed to the network instead of being read
+     * into memory.
+     */
+    suspend fun uploadLog(logUuid: String, contents: File): UploadEncryptedLogResult {
         return suspendCancellableCoroutine { cont ->
             val request = EncryptedLogUploadRequest(logUuid, contents, appSecrets.appSecret, Response.Listener {
                 cont.resume(LogUploaded)
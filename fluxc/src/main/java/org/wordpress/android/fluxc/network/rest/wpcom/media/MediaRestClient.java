@@ -4,6 +4,7 @@ import android.content.Context;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.android.volley.RequestQueue;
 import com.android.volley.Response.Listener;
@@ -24,6 +25,7 @@ import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
 import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.StockMediaModel;
 import org.wordpress.android.fluxc.network.BaseUploadRequestBody.ProgressListener;
+import org.wordpress.android.fluxc.network.RequestPriority;
 import org.wordpress.android.fluxc.network.UserAgent;
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient;
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest;
@@ -303,6 +305,17 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
      * provided in the response {@link MediaModel}'s (via {@link MediaModel#getUrl()}).
      */
     public void fetchMediaList(final SiteModel site, final int number, final int offset, final MimeType.Type mimeType) {
+        fetchMediaList(site, number, offset, mimeType, false, null);
+    }
+
+    /**
+     * Gets a list of media items, for a delta sync of the media library if deltaSync is true.
+     *
+     * @param uploadedAfter if not null, only the media uploaded after this ISO 8601 date are fetched
+     */
+    public void fetchMediaList(final SiteModel site, final int number, final int offset,
+                               final MimeType.Type mimeType, final boolean deltaSync,
+                               @Nullable final String uploadedAfter) {
         final Map<String, String> params = new HashMap<>();
         params.put("number", String.valueOf(number));
         if (offset > 0) {
@@ -311,8 +324,12 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
         if (mimeType != null) {
             params.put("mime_type", mimeType.getValue());
         }
+        if (uploadedAfter != null) {
+            params.put("after", uploadedAfter);
+        }
         String url = WPCOMREST.sites.site(site.getSiteId()).media.getUrlV1_1();
-        add(WPComGsonRequest.buildGetRequest(url, params, MultipleMediaResponse.class,
+        WPComGsonRequest<MultipleMediaResponse> request = WPComGsonRequest.buildGetRequest(url, params,
+                MultipleMediaResponse.class,
                 new Listener<MultipleMediaResponse>() {
                     @Override
                     public void onResponse(MultipleMediaResponse response) {
@@ -321,7 +338,8 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
                         if (mediaList != null) {
                             AppLog.v(T.MEDIA, "Fetched media list for site with size: " + mediaList.size());
                             boolean canLoadMore = mediaList.size() == number;
-                            notifyMediaListFetched(site, mediaList, offset > 0, canLoadMore, mimeType);
+                            notifyMediaListFetched(site, mediaList, offset > 0, canLoadMore, mimeType, deltaSync,
+                                    uploadedAfter);
                         } else {
                             String errorMessage = "could not parse Fetch all media response: " + response;
                             AppLog.w(T.MEDIA, errorMessage);
@@ -341,7 +359,9 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
                         notifyMediaListFetched(site, mediaError, mimeType);
                     }
                 }
-        ));
+        );
+        request.setRequestPriority(RequestPriority.BACKGROUND_SYNC);
+        add(request);
     }
 
     /**
@@ -582,9 +602,13 @@ public class MediaRestClient extends BaseWPComRestClient implements ProgressList
                                         @NonNull List<MediaModel> media,
                                         boolean loadedMore,
                                         boolean canLoadMore,
-                                        MimeType.Type mimeType) {
+                                        MimeType.Type mimeType,
+                                        boolean deltaSync,
+                                        @Nullable String uploadedAfter) {
         FetchMediaListResponsePayload payload = new FetchMediaListResponsePayload(site, media,
                 loadedMore, canLoadMore, mimeType);
+        payload.deltaSync = deltaSync;
+        payload.uploadedAfter = uploadedAfter;
         mDispatcher.dispatch(MediaActionBuilder.newFetchedMediaListAction(payload));
     }
 
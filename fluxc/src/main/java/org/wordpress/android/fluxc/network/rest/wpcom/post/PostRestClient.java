@@ -348,6 +348,7 @@ public class PostRestClient extends BaseWPComRestClient {
         request.addQueryParameter("context", "edit");
 
         request.disableRetries();
+        request.enableBodyCompression();
         add(request);
     }
 
@@ -378,6 +379,7 @@ public class PostRestClient extends BaseWPComRestClient {
                     }
                 }
                                                                                                    );
+        request.enableBodyCompression();
         add(request);
     }
 
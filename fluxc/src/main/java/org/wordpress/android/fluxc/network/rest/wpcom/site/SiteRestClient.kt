@@ -114,6 +114,8 @@ class SiteRestClient @Inject constructor(
 
     data class DeleteSiteResponsePayload(val site: SiteModel? = null) : Payload<DeleteSiteError>()
 
+    data class FetchedSitesInBatchesPayload(val siteIds: Set<Long> = emptySet()) : Payload<BaseNetworkError>()
+
     class ExportSiteResponsePayload : Payload<BaseNetworkError>()
     data class IsWPComResponsePayload(
         val url: String,
@@ -145,6 +147,40 @@ class SiteRestClient @Inject constructor(
         }
     }
 
+    /**
+     * Fetches the sites like [fetchSites], but decodes them one by one as the response is parsed, and hands them to
+     * [onBatch] on the network thread in batches of at most [SITES_BATCH_SIZE] sites. Returns the ids of all the
+     * fetched sites, without keeping the sites themselves in memory.
+     */
+    suspend fun fetchSitesInBatches(
+        filters: List<SiteFilter?>,
+        onBatch: (List<SiteModel>) -> Unit
+    ): FetchedSitesInBatchesPayload {
+        val params = getFetchSitesParams(filters)
+        val url = WPCOMREST.me.sites.urlV1_2
+        val siteIds = mutableSetOf<Long>()
+        val response = wpComGsonRequestBuilder.syncGetStreamingRequest(
+                this,
+                url,
+                params,
+                SITES_ARRAY_FIELD,
+                SiteWPComRestResponse::class.java,
+                SITES_BATCH_SIZE
+        ) { siteResponses ->
+            val sites = siteResponses.map { siteResponseToSiteModel(it) }
+            sites.mapTo(siteIds) { it.siteId }
+            onBatch(sites)
+        }
+        return when (response) {
+            is Success -> FetchedSitesInBatchesPayload(siteIds)
+            is Error -> {
+                val payload = FetchedSitesInBatchesPayload()
+                payload.error = response.error
+                payload
+            }
+        }
+    }
+
     private fun getFetchSitesParams(filters: List<SiteFilter?>): Map<String, String> {
         val params = mutableMapOf<String, String>()
         if (filters.isNotEmpty()) params[FILTERS] = TextUtils.join(",", filters)
@@ -1066,5 +1102,7 @@ class SiteRestClient @Inject constructor(
                 "capabilities,quota,icon,meta,zendesk_site_meta")
         private const val FIELDS = "fields"
         private const val FILTERS = "filters"
+        private const val SITES_ARRAY_FIELD = "sites"
+        const val SITES_BATCH_SIZE = 50
     }
 }
@@ -31,7 +31,7 @@ class AllTimeInsightsRestClient @Inject constructor(
     val statsUtils: StatsUtils
 ) : BaseWPComRestClient(appContext, dispatcher, requestQueue, accessToken, userAgent) {
     suspend fun fetchAllTimeInsights(site: SiteModel, forced: Boolean): FetchStatsPayload<AllTimeResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS.urlV1_1(site.siteId)
 
         val params = mapOf<String, String>()
         val response = wpComGsonRequestBuilder.syncGetRequest(
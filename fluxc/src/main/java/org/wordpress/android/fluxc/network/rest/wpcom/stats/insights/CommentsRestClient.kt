@@ -33,7 +33,7 @@ class CommentsRestClient @Inject constructor(
         site: SiteModel,
         forced: Boolean
     ): FetchStatsPayload<CommentsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.comments.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_COMMENTS.urlV1_1(site.siteId)
 
         val response = wpComGsonRequestBuilder.syncGetRequest(
                 this,
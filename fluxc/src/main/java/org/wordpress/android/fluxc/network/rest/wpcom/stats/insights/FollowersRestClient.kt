@@ -37,7 +37,7 @@ class FollowersRestClient @Inject constructor(
         pageSize: Int,
         forced: Boolean
     ): FetchStatsPayload<FollowersResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.followers.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_FOLLOWERS.urlV1_1(site.siteId)
 
         val params = mutableMapOf(
                 "type" to type.path,
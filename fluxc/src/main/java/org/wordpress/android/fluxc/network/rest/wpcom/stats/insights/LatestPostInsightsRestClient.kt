@@ -31,7 +31,7 @@ class LatestPostInsightsRestClient @Inject constructor(
     val statsUtils: StatsUtils
 ) : BaseWPComRestClient(appContext, dispatcher, requestQueue, accessToken, userAgent) {
     suspend fun fetchLatestPostForInsights(site: SiteModel, forced: Boolean): FetchStatsPayload<PostsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).posts.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_POSTS.urlV1_1(site.siteId)
         val params = mapOf(
                 "order_by" to "date",
                 "number" to "1",
@@ -61,7 +61,7 @@ class LatestPostInsightsRestClient @Inject constructor(
         postId: Long,
         forced: Boolean
     ): FetchStatsPayload<PostStatsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.post.item(postId).urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_POST_ITEM.urlV1_1(site.siteId, postId)
 
         val response = wpComGsonRequestBuilder.syncGetRequest(
                 this,
@@ -28,7 +28,7 @@ class MostPopularRestClient @Inject constructor(
     userAgent: UserAgent
 ) : BaseWPComRestClient(appContext, dispatcher, requestQueue, accessToken, userAgent) {
     suspend fun fetchMostPopularInsights(site: SiteModel, forced: Boolean): FetchStatsPayload<MostPopularResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.insights.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_INSIGHTS.urlV1_1(site.siteId)
 
         val response = wpComGsonRequestBuilder.syncGetRequest(
                 this,
@@ -39,7 +39,7 @@ class PostingActivityRestClient
         endDay: Day,
         forced: Boolean
     ): FetchStatsPayload<PostingActivityResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.streak.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_STREAK.urlV1_1(site.siteId)
         val params = mapOf(
                 "startDate" to statsUtils.getFormattedDate(startDay),
                 "endDate" to statsUtils.getFormattedDate(endDay),
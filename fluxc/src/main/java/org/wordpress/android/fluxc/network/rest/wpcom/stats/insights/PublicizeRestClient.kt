@@ -33,7 +33,7 @@ class PublicizeRestClient @Inject constructor(
         site: SiteModel,
         forced: Boolean
     ): FetchStatsPayload<PublicizeResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.publicize.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_PUBLICIZE.urlV1_1(site.siteId)
 
         val response = wpComGsonRequestBuilder.syncGetRequest(
                 this,
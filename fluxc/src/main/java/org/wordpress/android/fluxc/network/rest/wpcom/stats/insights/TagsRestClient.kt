@@ -34,7 +34,7 @@ class TagsRestClient @Inject constructor(
         max: Int,
         forced: Boolean
     ): FetchStatsPayload<TagsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.tags.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_TAGS.urlV1_1(site.siteId)
 
         val params = mapOf(
                 "max" to max.toString()
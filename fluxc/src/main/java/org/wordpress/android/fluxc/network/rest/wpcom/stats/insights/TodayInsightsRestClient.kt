@@ -36,7 +36,7 @@ class TodayInsightsRestClient @Inject constructor(
         period: StatsGranularity,
         forced: Boolean
     ): FetchStatsPayload<VisitResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.visits.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_VISITS.urlV1_1(site.siteId)
 
         val params = mapOf(
                 "unit" to period.toString(),
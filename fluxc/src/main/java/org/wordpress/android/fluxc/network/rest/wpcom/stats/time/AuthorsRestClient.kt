@@ -44,7 +44,7 @@ class AuthorsRestClient
         itemsToLoad: Int,
         forced: Boolean
     ): FetchStatsPayload<AuthorsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.top_authors.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_TOP_AUTHORS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "max" to itemsToLoad.toString(),
@@ -42,7 +42,7 @@ class ClicksRestClient
         pageSize: Int,
         forced: Boolean
     ): FetchStatsPayload<ClicksResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.clicks.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_CLICKS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "max" to pageSize.toString(),
@@ -38,7 +38,7 @@ class CountryViewsRestClient
         itemsToLoad: Int,
         forced: Boolean
     ): FetchStatsPayload<CountryViewsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.country_views.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_COUNTRY_VIEWS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "max" to itemsToLoad.toString(),
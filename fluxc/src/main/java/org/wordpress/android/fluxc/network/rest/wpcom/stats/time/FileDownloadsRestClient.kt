@@ -40,7 +40,7 @@ class FileDownloadsRestClient
         itemsToLoad: Int,
         forced: Boolean
     ): FetchStatsPayload<FileDownloadsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.file_downloads.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_FILE_DOWNLOADS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "num" to itemsToLoad.toString(),
@@ -38,7 +38,7 @@ class PostAndPageViewsRestClient
         pageSize: Int,
         forced: Boolean
     ): FetchStatsPayload<PostAndPageViewsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.top_posts.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_TOP_POSTS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "max" to pageSize.toString(),
@@ -48,7 +48,7 @@ class ReferrersRestClient
         pageSize: Int,
         forced: Boolean
     ): FetchStatsPayload<ReferrersResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.referrers.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_REFERRERS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "max" to pageSize.toString(),
@@ -87,7 +87,7 @@ class ReferrersRestClient
         site: SiteModel,
         domain: String
     ): ReportReferrerAsSpamPayload<ReportReferrerAsSpamResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.referrers.spam.new_.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_REFERRERS_SPAM_NEW.urlV1_1(site.siteId)
         val params = mapOf(
                 "domain" to domain
         )
@@ -112,7 +112,7 @@ class ReferrersRestClient
         site: SiteModel,
         domain: String
     ): ReportReferrerAsSpamPayload<ReportReferrerAsSpamResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.referrers.spam.delete.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_REFERRERS_SPAM_DELETE.urlV1_1(site.siteId)
         val params = mapOf(
                 "domain" to domain
         )
@@ -38,7 +38,7 @@ class SearchTermsRestClient
         itemsToLoad: Int,
         forced: Boolean
     ): FetchStatsPayload<SearchTermsResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.search_terms.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_SEARCH_TERMS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "max" to itemsToLoad.toString(),
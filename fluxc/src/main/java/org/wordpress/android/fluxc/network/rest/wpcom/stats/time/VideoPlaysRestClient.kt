@@ -40,7 +40,7 @@ class VideoPlaysRestClient
         itemsToLoad: Int,
         forced: Boolean
     ): FetchStatsPayload<VideoPlaysResponse> {
-        val url = WPCOMREST.sites.site(site.siteId).stats.video_plays.urlV1_1
+        val url = WPCOMREST.Templates.SITES_SITE_STATS_VIDEO_PLAYS.urlV1_1(site.siteId)
         val params = mapOf(
                 "period" to granularity.toString(),
                 "max" to itemsToLoad.toString(),
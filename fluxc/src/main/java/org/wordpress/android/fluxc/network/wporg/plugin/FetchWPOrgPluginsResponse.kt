@@ -0,0 +1,36 @@
+package org.wordpress.android.fluxc.network.wporg.plugin
+
+import com.google.gson.JsonDeserializationContext
+import com.google.gson.JsonDeserializer
+import com.google.gson.JsonElement
+import com.google.gson.JsonParseException
+import com.google.gson.annotations.JsonAdapter
+import java.lang.reflect.Type
+
+/**
+ * Response of a multi-slug `plugin_information` request: the details of each requested plugin, by slug. The slugs of
+ * the plugins which don't exist on wp.org are mapped to null.
+ */
+@JsonAdapter(FetchWPOrgPluginsDeserializer::class)
+class FetchWPOrgPluginsResponse(val plugins: Map<String, WPOrgPluginResponse?>)
+
+private class FetchWPOrgPluginsDeserializer : JsonDeserializer<FetchWPOrgPluginsResponse> {
+    @Throws(JsonParseException::class)
+    override fun deserialize(
+        json: JsonElement,
+        typeOfT: Type,
+        context: JsonDeserializationContext
+    ): FetchWPOrgPluginsResponse {
+        val plugins = mutableMapOf<String, WPOrgPluginResponse?>()
+        for ((slug, element) in json.asJsonObject.entrySet()) {
+            // Unknown plugins are either returned as `false` or as an object with an error message
+            val plugin = if (element.isJsonObject) {
+                context.deserialize<WPOrgPluginResponse>(element, WPOrgPluginResponse::class.java)
+            } else {
+                null
+            }
+            plugins[slug] = plugin?.takeIf { it.errorMessage.isNullOrEmpty() }
+        }
+        return FetchWPOrgPluginsResponse(plugins)
+    }
+}
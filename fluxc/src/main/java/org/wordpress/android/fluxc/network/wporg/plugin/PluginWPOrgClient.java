@@ -26,6 +26,7 @@ import org.wordpress.android.fluxc.store.PluginStore.FetchWPOrgPluginError;
 import org.wordpress.android.fluxc.store.PluginStore.FetchWPOrgPluginErrorType;
 import org.wordpress.android.fluxc.store.PluginStore.FetchedPluginDirectoryPayload;
 import org.wordpress.android.fluxc.store.PluginStore.FetchedWPOrgPluginPayload;
+import org.wordpress.android.fluxc.store.PluginStore.FetchedWPOrgPluginsPayload;
 import org.wordpress.android.fluxc.store.PluginStore.PluginDirectoryError;
 import org.wordpress.android.fluxc.store.PluginStore.PluginDirectoryErrorType;
 import org.wordpress.android.fluxc.store.PluginStore.SearchedPluginDirectoryPayload;
@@ -172,6 +173,51 @@ public class PluginWPOrgClient extends BaseWPOrgAPIClient {
         add(request);
     }
 
+    /**
+     * Fetches the details of several plugins at once, with a single multi-slug `plugin_information` request.
+     */
+    public void fetchWPOrgPlugins(@NonNull final List<String> pluginSlugs) {
+        String url = WPORGAPI.plugins.info.version("1.2").getUrl();
+        Map<String, String> params = new HashMap<>();
+        params.put("action", "plugin_information");
+        params.put("request[slugs]", TextUtils.join(",", pluginSlugs));
+        params.put("request[fields][banners]", String.valueOf(1));
+        params.put("request[fields][icons]", String.valueOf(1));
+        final WPOrgAPIGsonRequest<FetchWPOrgPluginsResponse> request =
+                new WPOrgAPIGsonRequest<>(Method.GET, url, params, null, FetchWPOrgPluginsResponse.class,
+                        new Listener<FetchWPOrgPluginsResponse>() {
+                            @Override
+                            public void onResponse(FetchWPOrgPluginsResponse response) {
+                                FetchedWPOrgPluginsPayload payload;
+                                if (response == null) {
+                                    FetchWPOrgPluginError error = new FetchWPOrgPluginError(
+                                            FetchWPOrgPluginErrorType.EMPTY_RESPONSE);
+                                    payload = new FetchedWPOrgPluginsPayload(pluginSlugs, error);
+                                } else {
+                                    List<WPOrgPluginModel> wpOrgPlugins = new ArrayList<>();
+                                    for (WPOrgPluginResponse wpOrgPluginResponse : response.getPlugins().values()) {
+                                        if (wpOrgPluginResponse != null) {
+                                            wpOrgPlugins.add(wpOrgPluginFromResponse(wpOrgPluginResponse));
+                                        }
+                                    }
+                                    payload = new FetchedWPOrgPluginsPayload(pluginSlugs, wpOrgPlugins);
+                                }
+                                mDispatcher.dispatch(PluginActionBuilder.newFetchedWporgPluginsAction(payload));
+                            }
+                        },
+                        new BaseErrorListener() {
+                            @Override
+                            public void onErrorResponse(@NonNull BaseNetworkError networkError) {
+                                FetchWPOrgPluginError error = new FetchWPOrgPluginError(
+                                        FetchWPOrgPluginErrorType.GENERIC_ERROR);
+                                mDispatcher.dispatch(PluginActionBuilder.newFetchedWporgPluginsAction(
+                                        new FetchedWPOrgPluginsPayload(pluginSlugs, error)));
+                            }
+                        }
+                );
+        add(request);
+    }
+
     public void searchPluginDirectory(@Nullable final SiteModel site, final String searchTerm, final int page) {
         String url = WPORGAPI.plugins.info.version("1.1").getUrl();
         final Map<String, String> params = getCommonPluginDirectoryParams(page);
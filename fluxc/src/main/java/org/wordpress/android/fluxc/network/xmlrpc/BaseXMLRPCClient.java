@@ -46,7 +46,7 @@ public abstract class BaseXMLRPCClient {
 
     protected Request add(XMLRPCRequest request) {
         if (request.shouldCache() && request.shouldForceUpdate()) {
-            mRequestQueue.getCache().invalidate(request.mUri.toString(), true);
+            mRequestQueue.getCache().invalidate(request.getCacheKey(), true);
         }
         return mRequestQueue.add(setRequestAuthParams(request));
     }
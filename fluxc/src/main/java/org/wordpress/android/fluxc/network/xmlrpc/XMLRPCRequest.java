@@ -5,6 +5,7 @@ import android.util.Xml;
 import androidx.annotation.NonNull;
 
 import com.android.volley.AuthFailureError;
+import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.NetworkResponse;
 import com.android.volley.ParseError;
 import com.android.volley.Response;
@@ -13,7 +14,9 @@ import com.android.volley.VolleyError;
 import com.android.volley.toolbox.HttpHeaderParser;
 
 import org.wordpress.android.fluxc.generated.endpoint.XMLRPC;
+import org.wordpress.android.fluxc.network.BackoffRetryPolicy;
 import org.wordpress.android.fluxc.network.BaseRequest;
+import org.wordpress.android.fluxc.network.NetworkMetrics.Phase;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticateErrorPayload;
 import org.wordpress.android.fluxc.store.AccountStore.AuthenticationErrorType;
 import org.wordpress.android.fluxc.utils.ErrorUtils.OnUnexpectedError;
@@ -48,15 +51,39 @@ public class XMLRPCRequest extends BaseRequest<Object> {
         mMethod = method;
         // First params are always username/password
         mParams = (params == null ? null : params.toArray());
+        // XML-RPC calls are all POST requests, but the ones only reading data can safely be retried
+        if (isReadOnly(method)) {
+            setRetryPolicy(new BackoffRetryPolicy(DEFAULT_REQUEST_TIMEOUT, DefaultRetryPolicy.DEFAULT_MAX_RETRIES));
+        }
+    }
+
+    private static boolean isReadOnly(XMLRPC method) {
+        String methodName = method.toString();
+        return methodName.startsWith("wp.get") || methodName.equals("system.listMethods");
     }
 
     @Override
     protected void deliverResponse(Object response) {
-        deliverResponse(mListener, response);
+        long deliveryStart = beginMetricDelivery();
+        try {
+            deliverResponse(mListener, response);
+        } finally {
+            endMetricDelivery(deliveryStart);
+        }
+    }
+
+    /**
+     * All XML-RPC requests share the same URL, so their metrics are aggregated per method instead.
+     */
+    @NonNull
+    @Override
+    protected String getMetricsEndpoint() {
+        return "XMLRPC " + mMethod;
     }
 
     @Override
     protected Response<Object> parseNetworkResponse(NetworkResponse response) {
+        long parseStart = startMetricTiming();
         try {
             String data = new String(response.data, HttpHeaderParser.parseCharset(response.headers));
             InputStream is = new ByteArrayInputStream(data.getBytes(Charset.forName("UTF-8")));
@@ -75,9 +102,20 @@ public class XMLRPCRequest extends BaseRequest<Object> {
         } catch (XMLRPCException e) {
             AppLog.e(T.API, "Can't deserialize XMLRPC response", e);
             return Response.error(new ParseError(e));
+        } finally {
+            recordMetricDuration(Phase.PARSE, parseStart);
         }
     }
 
+    /**
+     * XML-RPC reports errors, including unreadable requests, as faults in HTTP 200 responses, so a success status
+     * doesn't prove the server could read a compressed body.
+     */
+    @Override
+    protected boolean supportsBodyCompression() {
+        return false;
+    }
+
     @Override
     public String getBodyContentType() {
         return PROTOCOL_CONTENT_TYPE;
@@ -0,0 +1,281 @@
+package org.wordpress.android.fluxc.outbox
+
+import android.content.Context
+import android.net.ConnectivityManager
+import android.net.ConnectivityManager.NetworkCallback
+import android.net.Network
+import android.net.NetworkCapabilities
+import android.net.NetworkRequest
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
+import org.wordpress.android.fluxc.model.SiteModel
+import org.wordpress.android.fluxc.model.outbox.OutboxMutationModel
+import org.wordpress.android.fluxc.persistence.OutboxSqlUtils
+import org.wordpress.android.fluxc.persistence.SiteSqlUtils
+import org.wordpress.android.fluxc.tools.CoroutineEngine
+import org.wordpress.android.fluxc.utils.CurrentTimeProvider
+import org.wordpress.android.util.AppLog.T
+import org.wordpress.android.util.NetworkUtils
+import java.util.Random
+import javax.inject.Inject
+import javax.inject.Provider
+import javax.inject.Singleton
+
+/**
+ * Persistent outbox of the mutations sent by the stores, such as post pushes, comment pushes and product updates.
+ *
+ * A store records each mutation with [recordMutation] before sending it, and reports its outcome with
+ * [onMutationSucceeded] or [onMutationFailed]. Mutations are kept in the database until the server confirms them, so:
+ * - Mutations that failed while offline, or didn't complete before the process was killed, are replayed once the
+ * device is connected, with a bounded concurrency and an exponential backoff between failed attempts.
+ * - Successive edits of an entity whose mutation is pending are coalesced: [recordMutation] returns true, and only the
+ * latest state of the entity is sent once the pending mutation completes. Until then, [hasNewerMutation] tells the
+ * stores not to overwrite the local entity with the response to the mutation that was in flight.
+ *
+ * Mutations are replayed by the [Replayer] of their entity type, bound by the store of that type in
+ * [org.wordpress.android.fluxc.module.MutationOutboxModule]. The outbox is disabled until the app calls [start], in
+ * which case stores send every mutation immediately, as before.
+ */
+@Singleton
+class MutationOutbox
+@Inject constructor(
+    private val context: Context,
+    private val outboxSqlUtils: OutboxSqlUtils,
+    private val siteSqlUtils: SiteSqlUtils,
+    private val currentTimeProvider: CurrentTimeProvider,
+    private val coroutineEngine: CoroutineEngine,
+    // Providers, since each replayer is built by the store it replays the mutations of, which needs this outbox
+    private val replayers: Map<String, @JvmSuppressWildcards Provider<Replayer>>
+) {
+    companion object {
+        const val ENTITY_TYPE_POST = "POST"
+        const val ENTITY_TYPE_COMMENT = "COMMENT"
+
+        const val MAX_CONCURRENT_REPLAYS = 3
+        // Mutations failing while online are likely rejected by the server, only retry them a few times
+        const val MAX_ONLINE_ATTEMPTS = 3
+        const val INITIAL_BACKOFF_MS = 5_000L
+        const val MAX_BACKOFF_MS = 30 * 60 * 1000L
+
+        private val RANDOM = Random()
+
+        /**
+         * Returns the upper bound of the time to wait before replaying a mutation that failed the given number of
+         * times.
+         */
+        fun getMaxBackoffMs(failedCount: Int): Long {
+            return minOf(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS shl minOf(failedCount - 1, 30).coerceAtLeast(0))
+        }
+    }
+
+    interface Replayer {
+        /**
+         * Sends the latest state of the given entity, then reports the outcome with [onMutationSucceeded] or
+         * [onMutationFailed]. The mutation must be sent even though it's pending, without calling [recordMutation].
+         *
+         * @param payload The payload recorded with the latest mutation of the entity, if any
+         */
+        fun replay(site: SiteModel, entityId: Long, payload: String?)
+    }
+
+    private data class Key(val localSiteId: Int, val entityType: String, val entityId: Long)
+
+    // Revision of the mutations being sent, by entity. Guarded by this outbox's monitor.
+    private val inFlight = mutableMapOf<Key, Int>()
+    private var scheduledReplay: Job? = null
+    private var networkCallback: NetworkCallback? = null
+    @Volatile var isStarted = false
+        private set
+
+    /**
+     * Starts recording the mutations, and replays the pending ones whenever the device gets connected.
+     */
+    @Synchronized
+    fun start() {
+        if (isStarted) {
+            return
+        }
+        isStarted = true
+        val callback = object : NetworkCallback() {
+            override fun onAvailable(network: Network) {
+                replayPending()
+            }
+        }
+        val networkRequest = NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build()
+        getConnectivityManager()?.registerNetworkCallback(networkRequest, callback)
+        networkCallback = callback
+        replayPending()
+    }
+
+    /**
+     * Stops recording and replaying mutations. Pending mutations are kept, and replayed on the next [start], except
+     * for the ones still in flight, which are replayed if they fail.
+     */
+    @Synchronized
+    fun stop() {
+        if (!isStarted) {
+            return
+        }
+        isStarted = false
+        networkCallback?.let { getConnectivityManager()?.unregisterNetworkCallback(it) }
+        networkCallback = null
+        scheduledReplay?.cancel()
+        scheduledReplay = null
+    }
+
+    fun getPendingMutationCount(): Long = outboxSqlUtils.getMutationCount()
+
+    /**
+     * Records a mutation of the given entity, to be called by stores before sending it.
+     *
+     * @param payload The state of the entity to send, for entities which aren't saved locally before being sent
+     * @return true if the mutation was coalesced into a pending mutation of the same entity, in which case the caller
+     * must not send it: the latest state of the entity is replayed once the pending mutation completes
+     */
+    @JvmOverloads
+    @Synchronized
+    fun recordMutation(entityType: String, site: SiteModel, entityId: Long, payload: String? = null): Boolean {
+        if (!isStarted) {
+            return false
+        }
+        val key = Key(site.id, entityType, entityId)
+        val now = currentTimeProvider.currentDate().time
+        val pending = outboxSqlUtils.getMutation(site.id, entityType, entityId)
+        if (pending == null) {
+            outboxSqlUtils.insertOrReplaceMutation(OutboxMutationModel().apply {
+                localSiteId = site.id
+                this.entityType = entityType
+                this.entityId = entityId
+                this.payload = payload
+                dateCreated = now
+                nextAttempt = now
+            })
+            inFlight[key] = 0
+            return false
+        }
+
+        pending.payload = payload
+        pending.revision++
+        // A new edit is worth sending right away, regardless of the previous failures
+        pending.nextAttempt = now
+        outboxSqlUtils.insertOrReplaceMutation(pending)
+        if (!inFlight.containsKey(key)) {
+            replayPending()
+        }
+        return true
+    }
+
+    /**
+     * Returns true if the given entity was edited again while its mutation was in flight. The response to that
+     * mutation is then stale: stores must not overwrite the local entity with it, since the latest edits are sent
+     * once the mutation is reported as succeeded.
+     */
+    @Synchronized
+    fun hasNewerMutation(entityType: String, site: SiteModel, entityId: Long): Boolean {
+        val sentRevision = inFlight[Key(site.id, entityType, entityId)] ?: return false
+        val pending = outboxSqlUtils.getMutation(site.id, entityType, entityId) ?: return false
+        return pending.revision != sentRevision
+    }
+
+    /**
+     * Reports that the mutation of the given entity was accepted by the server.
+     */
+    @Synchronized
+    fun onMutationSucceeded(entityType: String, site: SiteModel, entityId: Long) {
+        val sentRevision = inFlight.remove(Key(site.id, entityType, entityId))
+        val pending = outboxSqlUtils.getMutation(site.id, entityType, entityId) ?: return
+        if (sentRevision != null && pending.revision != sentRevision) {
+            // The entity was edited again while its mutation was being sent, send its latest state
+            pending.nextAttempt = currentTimeProvider.currentDate().time
+            outboxSqlUtils.insertOrReplaceMutation(pending)
+        } else {
+            outboxSqlUtils.deleteMutation(site.id, entityType, entityId)
+        }
+        replayPending()
+    }
+
+    /**
+     * Reports that the mutation of the given entity failed. Mutations failing while offline are replayed once the
+     * device is connected, the others are retried up to [MAX_ONLINE_ATTEMPTS] times.
+     */
+    @Synchronized
+    fun onMutationFailed(entityType: String, site: SiteModel, entityId: Long) {
+        val sentRevision = inFlight.remove(Key(site.id, entityType, entityId))
+        if (!isStarted) {
+            return
+        }
+        val pending = outboxSqlUtils.getMutation(site.id, entityType, entityId) ?: return
+        val now = currentTimeProvider.currentDate().time
+        if (sentRevision != null && pending.revision != sentRevision) {
+            pending.nextAttempt = now
+        } else {
+            pending.failedCount++
+            if (isConnected() && pending.failedCount >= MAX_ONLINE_ATTEMPTS) {
+                outboxSqlUtils.deleteMutation(site.id, entityType, entityId)
+                replayPending()
+                return
+            }
+            pending.nextAttempt = now + (RANDOM.nextDouble() * getMaxBackoffMs(pending.failedCount)).toLong()
+        }
+        outboxSqlUtils.insertOrReplaceMutation(pending)
+        replayPending()
+    }
+
+    /**
+     * Replays the pending mutations which are due, if the device is connected.
+     */
+    fun replayPending() {
+        if (!isStarted || !isConnected()) {
+            return
+        }
+        coroutineEngine.launch(T.API, this, "Replaying pending mutations") {
+            replayDueMutations()
+        }
+    }
+
+    internal fun replayDueMutations() {
+        val replays = mutableListOf<() -> Unit>()
+        synchronized(this) {
+            if (!isStarted) {
+                return
+            }
+            val now = currentTimeProvider.currentDate().time
+            for (mutation in outboxSqlUtils.getDueMutations(now)) {
+                if (inFlight.size >= MAX_CONCURRENT_REPLAYS) {
+                    break
+                }
+                val entityType = mutation.entityType ?: continue
+                val key = Key(mutation.localSiteId, entityType, mutation.entityId)
+                val replayer = replayers[entityType]
+                if (inFlight.containsKey(key) || replayer == null) {
+                    continue
+                }
+                val site = siteSqlUtils.getSitesWithLocalId(mutation.localSiteId).firstOrNull()
+                if (site == null) {
+                    outboxSqlUtils.deleteMutation(mutation.localSiteId, entityType, mutation.entityId)
+                    continue
+                }
+                inFlight[key] = mutation.revision
+                replays.add { replayer.get().replay(site, mutation.entityId, mutation.payload) }
+            }
+            scheduleNextAttempt(now)
+        }
+        replays.forEach { it() }
+    }
+
+    private fun scheduleNextAttempt(now: Long) {
+        scheduledReplay?.cancel()
+        val nextAttempt = outboxSqlUtils.getNextAttempt(now) ?: return
+        scheduledReplay = coroutineEngine.launch(T.API, this, "Scheduling the replay of pending mutations") {
+            delay(nextAttempt - now)
+            replayPending()
+        }
+    }
+
+    private fun isConnected() = NetworkUtils.isNetworkAvailable(context)
+
+    private fun getConnectivityManager() =
+            context.getSystemService(Context.CONNECTIVITY_SERVICE) as ConnectivityManager?
+}
@@ -12,6 +12,8 @@ import com.yarolegovich.wellsql.core.annotation.PrimaryKey
 import com.yarolegovich.wellsql.core.annotation.Table
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.activity.ActivityLogModel
+import org.wordpress.android.fluxc.model.activity.ActivityLogPage
+import org.wordpress.android.fluxc.model.activity.ActivityLogPageKey
 import org.wordpress.android.fluxc.model.activity.BackupDownloadStatusModel
 import org.wordpress.android.fluxc.model.activity.RewindStatusModel
 import org.wordpress.android.fluxc.model.activity.RewindStatusModel.Credentials
@@ -23,27 +25,125 @@ import javax.inject.Singleton
 @Singleton
 class ActivityLogSqlUtils
 @Inject constructor(private val formattableContentMapper: FormattableContentMapper) {
+    companion object {
+        // Keeps the `IN` queries below the SQLite limit of 999 bound arguments
+        private const val MAX_ACTIVITY_IDS_PER_QUERY = 500
+    }
+
+    /**
+     * Inserts or updates the given activities of the site in a single transaction, matching the stored activities
+     * of this site only by activity id.
+     */
     fun insertOrUpdateActivities(siteModel: SiteModel, activityModels: List<ActivityLogModel>): Int {
-        val activityIds = activityModels.map { it.activityID }
-        val activitiesToUpdate = WellSql.select(ActivityLogBuilder::class.java).where()
-                .isIn(ActivityLogTable.ACTIVITY_ID, activityIds)
-                .endWhere()
-                .asModel
-                .map { it.activityID }
+        val activityIdsToUpdate = activityModels.map { it.activityID }
+                .distinct()
+                .chunked(MAX_ACTIVITY_IDS_PER_QUERY)
+                .flatMap { activityIds ->
+                    WellSql.select(ActivityLogBuilder::class.java).where()
+                            .equals(ActivityLogTable.LOCAL_SITE_ID, siteModel.id)
+                            .isIn(ActivityLogTable.ACTIVITY_ID, activityIds)
+                            .endWhere()
+                            .asModel
+                            .map { it.activityID }
+                }
+                .toHashSet()
         val (existing, new) = activityModels
                 .map { it.toBuilder(siteModel) }
-                .partition { activitiesToUpdate.contains(it.activityID) }
-        val insertQuery = WellSql.insert(new)
-        val updateQueries = existing.map {
-            WellSql.update(ActivityLogBuilder::class.java)
+                .partition { activityIdsToUpdate.contains(it.activityID) }
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            WellSql.insert(new).execute()
+            val rowsUpdated = existing.sumBy {
+                WellSql.update(ActivityLogBuilder::class.java)
+                        .where()
+                        .equals(ActivityLogTable.ACTIVITY_ID, it.activityID)
+                        .equals(ActivityLogTable.LOCAL_SITE_ID, it.localSiteId)
+                        .endWhere()
+                        .put(it, UpdateAllExceptId<ActivityLogBuilder>(ActivityLogBuilder::class.java))
+                        .execute()
+            }
+            db.setTransactionSuccessful()
+            return rowsUpdated + new.count()
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    /**
+     * Returns a page of the activities of the site, newest first. Pages are read with a keyset on the publication
+     * date, so reading a page doesn't depend on the number of activities before it, and the formattable content of
+     * the activities is only decoded when they're accessed.
+     *
+     * @param pageKey The [ActivityLogPage.nextPageKey] of the previous page, or null to read the first page
+     */
+    fun getActivityPageForSite(
+        site: SiteModel,
+        pageSize: Int,
+        pageKey: ActivityLogPageKey? = null,
+        rewindableOnly: Boolean = false
+    ): ActivityLogPage {
+        val sql = StringBuilder("SELECT _id FROM ActivityLog WHERE ${ActivityLogTable.LOCAL_SITE_ID} = ?")
+        val args = mutableListOf(site.id.toString())
+        if (rewindableOnly) {
+            sql.append(" AND ${ActivityLogTable.REWINDABLE} = 1")
+        }
+        if (pageKey != null) {
+            sql.append(" AND (${ActivityLogTable.PUBLISHED} < ? OR (${ActivityLogTable.PUBLISHED} = ? AND _id < ?))")
+            args.addAll(listOf(pageKey.published.toString(), pageKey.published.toString(), pageKey.localId.toString()))
+        }
+        // One more row is read to tell whether there's a next page
+        sql.append(" ORDER BY ${ActivityLogTable.PUBLISHED} DESC, _id DESC LIMIT ${pageSize + 1}")
+        val localIds = WellSql.giveMeReadableDb().rawQuery(sql.toString(), args.toTypedArray()).use { cursor ->
+            val ids = mutableListOf<Int>()
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getInt(0))
+            }
+            ids
+        }
+
+        val pageIds = localIds.take(pageSize)
+        val buildersById = if (pageIds.isEmpty()) {
+            emptyMap()
+        } else {
+            WellSql.select(ActivityLogBuilder::class.java)
                     .where()
-                    .equals(ActivityLogTable.ACTIVITY_ID, it.activityID)
-                    .equals(ActivityLogTable.LOCAL_SITE_ID, it.localSiteId)
+                    .isIn(ActivityLogTable.ID, pageIds)
                     .endWhere()
-                    .put(it, UpdateAllExceptId<ActivityLogBuilder>(ActivityLogBuilder::class.java))
+                    .asModel
+                    .associateBy { it.id }
+        }
+        val builders = pageIds.mapNotNull { buildersById[it] }
+        val nextPageKey = if (localIds.size > pageSize) {
+            builders.lastOrNull()?.let { ActivityLogPageKey(it.published, it.id) }
+        } else {
+            null
         }
-        insertQuery.execute()
-        return updateQueries.map { it.execute() }.sum() + new.count()
+        return ActivityLogPage(builders.map { lazy { it.build(formattableContentMapper) } }, nextPageKey)
+    }
+
+    fun getActivityCountForSite(site: SiteModel): Int {
+        return WellSql.select(ActivityLogBuilder::class.java)
+                .where()
+                .equals(ActivityLogTable.LOCAL_SITE_ID, site.id)
+                .endWhere()
+                .count()
+                .toInt()
+    }
+
+    /**
+     * Returns the publication date of the newest stored activity of the site, or null if there's none.
+     */
+    fun getNewestActivityPublishedDate(site: SiteModel): Date? {
+        return WellSql.select(ActivityLogBuilder::class.java)
+                .where()
+                .equals(ActivityLogTable.LOCAL_SITE_ID, site.id)
+                .endWhere()
+                .orderBy(ActivityLogTable.PUBLISHED, SelectQuery.ORDER_DESCENDING)
+                .limit(1)
+                .asModel
+                .firstOrNull()
+                ?.let { Date(it.published) }
     }
 
     fun getActivitiesForSite(site: SiteModel, @SelectQuery.Order order: Int): List<ActivityLogModel> {
@@ -13,7 +13,9 @@ import org.wordpress.android.fluxc.model.CommentModel;
 import org.wordpress.android.fluxc.model.CommentStatus;
 import org.wordpress.android.fluxc.model.LikeModel;
 import org.wordpress.android.fluxc.model.LikeModel.LikeType;
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId;
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.persistence.SearchIndexSqlUtils.SearchIndex;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -221,6 +223,15 @@ public class CommentSqlUtils {
                 .getAsModel();
     }
 
+    /**
+     * Searches the comments of the site through the full-text search index, most relevant first, see
+     * {@link SearchIndexSqlUtils#search}.
+     */
+    public static List<CommentModel> searchCommentsForSite(SiteModel site, String searchQuery) {
+        List<LocalId> localIds = SearchIndexSqlUtils.search(SearchIndex.COMMENTS, searchQuery, site.getId());
+        return SearchIndexSqlUtils.getModelsByLocalIds(CommentModel.class, localIds);
+    }
+
     public static int getCommentsCountForSite(SiteModel site, CommentStatus... statuses) {
         if (site == null) {
             return 0;
@@ -26,6 +26,29 @@ class ListItemSqlUtils @Inject constructor() {
      */
     fun getListItems(listId: Int): List<ListItemModel> = getListItemsQuery(listId).asModel
 
+    /**
+     * This function returns the remote item ids of the [ListItemModel] records for the given [listId] in the same
+     * order as [getListItems].
+     *
+     * Only the [ListItemModelTable.REMOTE_ITEM_ID] column is read and it's copied straight from the cursor into a
+     * primitive array, so no models or boxed values are created even for lists with tens of thousands of items.
+     */
+    fun getListItemRemoteIds(listId: Int): LongArray {
+        val cursor = WellSql.giveMeReadableDb().rawQuery(
+                "SELECT ${ListItemModelTable.REMOTE_ITEM_ID} FROM ListItemModel " +
+                        "WHERE ${ListItemModelTable.LIST_ID} = ? ORDER BY ${ListModelTable.ID} ASC",
+                arrayOf(listId.toString())
+        )
+        return cursor.use {
+            val remoteItemIds = LongArray(it.count)
+            var index = 0
+            while (it.moveToNext()) {
+                remoteItemIds[index++] = it.getLong(0)
+            }
+            remoteItemIds
+        }
+    }
+
     /**
      * This function returns the number of records a list has for the given [listId].
      */
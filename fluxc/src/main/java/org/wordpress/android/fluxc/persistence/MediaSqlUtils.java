@@ -1,21 +1,32 @@
 package org.wordpress.android.fluxc.persistence;
 
+import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.wellsql.generated.MediaModelTable;
+import com.wellsql.generated.MediaSyncStateModelTable;
 import com.yarolegovich.wellsql.ConditionClauseBuilder;
 import com.yarolegovich.wellsql.DeleteQuery;
 import com.yarolegovich.wellsql.SelectQuery;
 import com.yarolegovich.wellsql.WellCursor;
 import com.yarolegovich.wellsql.WellSql;
 
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId;
 import org.wordpress.android.fluxc.model.MediaModel;
 import org.wordpress.android.fluxc.model.MediaModel.MediaUploadState;
+import org.wordpress.android.fluxc.model.MediaSyncStateModel;
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.persistence.SearchIndexSqlUtils.SearchIndex;
 import org.wordpress.android.fluxc.utils.MimeType.Type;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MediaSqlUtils {
     public static List<MediaModel> getAllSiteMedia(SiteModel siteModel) {
@@ -134,6 +145,15 @@ public class MediaSqlUtils {
         return searchSiteMediaByMimeTypeQuery(siteModel, searchTerm, Type.APPLICATION.getValue()).getAsModel();
     }
 
+    /**
+     * Searches the media of the site through the full-text search index, most relevant first, see
+     * {@link SearchIndexSqlUtils#search}.
+     */
+    public static List<MediaModel> searchSiteMediaByRelevance(SiteModel siteModel, String searchQuery) {
+        List<LocalId> localIds = SearchIndexSqlUtils.search(SearchIndex.MEDIA, searchQuery, siteModel.getId());
+        return SearchIndexSqlUtils.getModelsByLocalIds(MediaModel.class, localIds);
+    }
+
     private static SelectQuery<MediaModel> searchSiteMediaQuery(SiteModel siteModel,
                                                                 String searchTerm) {
         return WellSql.select(MediaModel.class)
@@ -398,6 +418,134 @@ public class MediaSqlUtils {
         return builder.endGroup().endWhere().execute();
     }
 
+    /**
+     * Inserts or updates the given media of a site, matching them with the existing media by remote media ID. The
+     * existing media are loaded with a single query, and the media are written in a single transaction.
+     *
+     * @return the number of inserted or updated media
+     */
+    public static int insertOrUpdateSiteMediaList(@NonNull SiteModel site, @NonNull List<MediaModel> mediaList) {
+        if (mediaList.isEmpty()) {
+            return 0;
+        }
+        List<Long> mediaIds = new ArrayList<>();
+        for (MediaModel media : mediaList) {
+            mediaIds.add(media.getMediaId());
+        }
+        Map<Long, Integer> localIdsByMediaId = new HashMap<>();
+        for (MediaModel existingMedia : getSiteMediaWithIds(site, mediaIds)) {
+            if (!localIdsByMediaId.containsKey(existingMedia.getMediaId())) {
+                localIdsByMediaId.put(existingMedia.getMediaId(), existingMedia.getId());
+            }
+        }
+
+        int rowsAffected = 0;
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            for (MediaModel media : mediaList) {
+                media.setLocalSiteId(site.getId());
+                Integer localId = localIdsByMediaId.get(media.getMediaId());
+                if (localId == null) {
+                    WellSql.insert(media).execute();
+                    localIdsByMediaId.put(media.getMediaId(), media.getId());
+                    rowsAffected++;
+                } else {
+                    // retain the local ID, then update this media item
+                    media.setId(localId);
+                    rowsAffected += WellSql.update(MediaModel.class).whereId(localId)
+                                           .put(media, new UpdateAllExceptId<>(MediaModel.class)).execute();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return rowsAffected;
+    }
+
+    /**
+     * Deletes the uploaded media of a site that were uploaded within the given dates but aren't in the given list.
+     * Used to reconcile the local library with a page of media listing every remote media uploaded within these
+     * dates, without touching the media outside of the page.
+     *
+     * @param uploadedAfter the exclusive lower bound of the upload dates, or null for no lower bound
+     * @param uploadedBefore the exclusive upper bound of the upload dates, or null for no upper bound
+     */
+    public static int deleteUploadedSiteMediaInRangeNotInList(@NonNull SiteModel site,
+                                                              @NonNull List<MediaModel> mediaList,
+                                                              String mimeType,
+                                                              @Nullable String uploadedAfter,
+                                                              @Nullable String uploadedBefore) {
+        List<Long> mediaIds = new ArrayList<>();
+        for (MediaModel media : mediaList) {
+            mediaIds.add(media.getMediaId());
+        }
+
+        ConditionClauseBuilder<DeleteQuery<MediaModel>> builder = WellSql.delete(MediaModel.class)
+                .where().beginGroup()
+                .equals(MediaModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(MediaModelTable.UPLOAD_STATE, MediaUploadState.UPLOADED.toString());
+        if (!mediaIds.isEmpty()) {
+            builder.isNotIn(MediaModelTable.MEDIA_ID, mediaIds);
+        }
+        if (!TextUtils.isEmpty(mimeType)) {
+            builder.contains(MediaModelTable.MIME_TYPE, mimeType);
+        }
+        if (uploadedAfter != null) {
+            builder.greaterThen(MediaModelTable.UPLOAD_DATE, uploadedAfter);
+        }
+        if (uploadedBefore != null) {
+            builder.lessThen(MediaModelTable.UPLOAD_DATE, uploadedBefore);
+        }
+
+        return builder.endGroup().endWhere().execute();
+    }
+
+    /**
+     * Returns the upload date of the newest media synced with a delta sync for the given site and MIME type, or null
+     * if the media library must be fully synced.
+     */
+    @Nullable
+    public static String getMediaSyncWatermark(@NonNull SiteModel site, @NonNull String mimeType) {
+        List<MediaSyncStateModel> states = WellSql.select(MediaSyncStateModel.class)
+                .where().beginGroup()
+                .equals(MediaSyncStateModelTable.LOCAL_SITE_ID, site.getId())
+                .equals(MediaSyncStateModelTable.MIME_TYPE, mimeType)
+                .endGroup().endWhere()
+                .getAsModel();
+        return states.isEmpty() ? null : states.get(0).getWatermark();
+    }
+
+    public static void setMediaSyncWatermark(@NonNull SiteModel site, @NonNull String mimeType,
+                                             @NonNull String watermark) {
+        MediaSyncStateModel state = new MediaSyncStateModel();
+        state.setLocalSiteId(site.getId());
+        state.setMimeType(mimeType);
+        state.setWatermark(watermark);
+        WellSql.insert(state).asSingleTransaction(true).execute();
+    }
+
+    /**
+     * Forgets the delta sync watermark of a site for the given MIME type, to be called whenever its local media of
+     * that type may no longer match the remote ones uploaded before the watermark. The watermark of the whole library
+     * is forgotten as well since it covers these media, and the watermarks of every MIME type if the MIME type is
+     * empty.
+     */
+    public static int deleteMediaSyncWatermarks(@NonNull SiteModel site, @NonNull String mimeType) {
+        ConditionClauseBuilder<DeleteQuery<MediaSyncStateModel>> builder = WellSql.delete(MediaSyncStateModel.class)
+                .where().beginGroup()
+                .equals(MediaSyncStateModelTable.LOCAL_SITE_ID, site.getId());
+        if (!TextUtils.isEmpty(mimeType)) {
+            builder.isIn(MediaSyncStateModelTable.MIME_TYPE, Arrays.asList(mimeType, ""));
+        }
+        return builder.endGroup().endWhere().execute();
+    }
+
+    public static int deleteAllMediaSyncWatermarks() {
+        return WellSql.delete(MediaSyncStateModel.class).execute();
+    }
+
     private static SelectQuery<MediaModel> getSiteMediaExcludingQuery(SiteModel site, String column, Object value) {
         return WellSql.select(MediaModel.class)
                 .where().beginGroup()
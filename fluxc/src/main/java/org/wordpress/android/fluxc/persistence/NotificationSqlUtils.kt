@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence
 
 import android.annotation.SuppressLint
+import android.util.LongSparseArray
 import com.wellsql.generated.NotificationModelTable
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.SelectQuery.ORDER_DESCENDING
@@ -16,6 +17,7 @@ import org.wordpress.android.fluxc.model.notification.NotificationModel.Kind
 import org.wordpress.android.fluxc.tools.FormattableContent
 import org.wordpress.android.fluxc.tools.FormattableContentMapper
 import org.wordpress.android.fluxc.tools.FormattableMeta
+import org.wordpress.android.fluxc.tools.LazyFormattableContentList
 import javax.inject.Inject
 import javax.inject.Singleton
 
@@ -175,8 +177,45 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 .firstOrNull()?.build(formattableContentMapper)
     }
 
+    /**
+     * Returns the note hash of every cached notification keyed by its remote note id.
+     *
+     * Only the two columns are read, so none of the formattable content is loaded or decoded.
+     */
+    fun getNoteHashes(): LongSparseArray<Long> {
+        val cursor = WellSql.giveMeReadableDb().rawQuery(
+                "SELECT ${NotificationModelTable.REMOTE_NOTE_ID}, ${NotificationModelTable.NOTE_HASH} " +
+                        "FROM NotificationModel",
+                null
+        )
+        return cursor.use {
+            val noteHashes = LongSparseArray<Long>(it.count)
+            while (it.moveToNext()) {
+                noteHashes.put(it.getLong(0), it.getLong(1))
+            }
+            noteHashes
+        }
+    }
+
     fun deleteAllNotifications() = WellSql.delete(NotificationModelBuilder::class.java).execute()
 
+    /**
+     * Deletes the notifications with the given [remoteNoteIds] in a single statement.
+     *
+     * The ids are inlined in the statement instead of being bound as arguments, so the number of deleted
+     * notifications isn't limited by the maximum number of SQLite host parameters.
+     */
+    fun deleteNotificationsByRemoteIds(remoteNoteIds: Collection<Long>): Int {
+        if (remoteNoteIds.isEmpty()) {
+            return 0
+        }
+        return WellSql.giveMeWritableDb().delete(
+                "NotificationModel",
+                "${NotificationModelTable.REMOTE_NOTE_ID} IN (${remoteNoteIds.joinToString(",")})",
+                null
+        )
+    }
+
     fun deleteNotificationByRemoteId(remoteNoteId: Long): Int {
         return WellSql.delete(NotificationModelBuilder::class.java)
                 .where().beginGroup()
@@ -198,12 +237,19 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
                 timestamp = this.timestamp,
                 url = this.url,
                 title = this.title,
-                formattableBody = this.body?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
-                formattableSubject = this.subject?.let { formattableContentMapper.mapFormattableContentListToJson(it) },
+                formattableBody = this.body?.let { mapFormattableContentListToJson(it) },
+                formattableSubject = this.subject?.let { mapFormattableContentListToJson(it) },
                 formattableMeta = this.meta?.let { formattableContentMapper.mapFormattableMetaToJson(it) }
         )
     }
 
+    /**
+     * Content that was read from the DB and never decoded doesn't need to be encoded again.
+     */
+    private fun mapFormattableContentListToJson(formattableList: List<FormattableContent>): String =
+            (formattableList as? LazyFormattableContentList)?.json
+                    ?: formattableContentMapper.mapFormattableContentListToJson(formattableList)
+
     @Table(name = "NotificationModel")
     data class NotificationModelBuilder(
         @PrimaryKey @Column private var mId: Int = -1,
@@ -229,14 +275,18 @@ class NotificationSqlUtils @Inject constructor(private val formattableContentMap
 
         override fun getId() = this.mId
 
+        /**
+         * Builds the [NotificationModel] for this record. The body and the subject are only decoded the first time
+         * they are accessed, so lists that don't render them don't pay for their decoding.
+         */
         fun build(formattableContentMapper: FormattableContentMapper): NotificationModel {
             val subkind: NotificationModel.Subkind? = subtype?.let { NotificationModel.Subkind.fromString(it) }
 
             val body: List<FormattableContent>? = formattableBody?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
+                LazyFormattableContentList(it, formattableContentMapper)
             }
             val subject: List<FormattableContent>? = formattableSubject?.let {
-                formattableContentMapper.mapToFormattableContentList(it)
+                LazyFormattableContentList(it, formattableContentMapper)
             }
             val meta: FormattableMeta? = formattableMeta?.let {
                 formattableContentMapper.mapToFormattableMeta(it)
@@ -0,0 +1,68 @@
+package org.wordpress.android.fluxc.persistence
+
+import com.wellsql.generated.OutboxMutationModelTable
+import com.yarolegovich.wellsql.SelectQuery
+import com.yarolegovich.wellsql.WellSql
+import org.wordpress.android.fluxc.model.outbox.OutboxMutationModel
+import javax.inject.Inject
+import javax.inject.Singleton
+
+@Singleton
+class OutboxSqlUtils @Inject constructor() {
+    fun getMutation(localSiteId: Int, entityType: String, entityId: Long): OutboxMutationModel? {
+        return WellSql.select(OutboxMutationModel::class.java)
+                .where()
+                .equals(OutboxMutationModelTable.LOCAL_SITE_ID, localSiteId)
+                .equals(OutboxMutationModelTable.ENTITY_TYPE, entityType)
+                .equals(OutboxMutationModelTable.ENTITY_ID, entityId)
+                .endWhere()
+                .asModel
+                .firstOrNull()
+    }
+
+    /**
+     * Inserts the given mutation, replacing the existing mutation of the same entity if any.
+     */
+    fun insertOrReplaceMutation(mutation: OutboxMutationModel) {
+        WellSql.insert(mutation).asSingleTransaction(true).execute()
+    }
+
+    fun deleteMutation(localSiteId: Int, entityType: String, entityId: Long): Int {
+        return WellSql.delete(OutboxMutationModel::class.java)
+                .where()
+                .equals(OutboxMutationModelTable.LOCAL_SITE_ID, localSiteId)
+                .equals(OutboxMutationModelTable.ENTITY_TYPE, entityType)
+                .equals(OutboxMutationModelTable.ENTITY_ID, entityId)
+                .endWhere()
+                .execute()
+    }
+
+    /**
+     * Returns the mutations that can be replayed at the given time, oldest first.
+     */
+    fun getDueMutations(now: Long): List<OutboxMutationModel> {
+        return WellSql.select(OutboxMutationModel::class.java)
+                .where()
+                .lessThenOrEqual(OutboxMutationModelTable.NEXT_ATTEMPT, now)
+                .endWhere()
+                .orderBy(OutboxMutationModelTable.DATE_CREATED, SelectQuery.ORDER_ASCENDING)
+                .asModel
+    }
+
+    /**
+     * Returns the time of the earliest attempt of the mutations that can't be replayed yet, or null if there's none.
+     */
+    fun getNextAttempt(now: Long): Long? {
+        return WellSql.select(OutboxMutationModel::class.java)
+                .where()
+                .greaterThen(OutboxMutationModelTable.NEXT_ATTEMPT, now)
+                .endWhere()
+                .orderBy(OutboxMutationModelTable.NEXT_ATTEMPT, SelectQuery.ORDER_ASCENDING)
+                .limit(1)
+                .asModel
+                .firstOrNull()
+                ?.nextAttempt
+    }
+
+    fun getMutationCount(): Long = WellSql.select(OutboxMutationModel::class.java).count()
+}
@@ -1,5 +1,6 @@
 package org.wordpress.android.fluxc.persistence;
 
+import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
@@ -11,20 +12,28 @@ import com.wellsql.generated.WPOrgPluginModelTable;
 import com.yarolegovich.wellsql.WellSql;
 
 import org.wordpress.android.fluxc.model.SiteModel;
+import org.wordpress.android.fluxc.model.plugin.ImmutablePluginModel;
 import org.wordpress.android.fluxc.model.plugin.PluginDirectoryModel;
 import org.wordpress.android.fluxc.model.plugin.PluginDirectoryType;
 import org.wordpress.android.fluxc.model.plugin.SitePluginModel;
 import org.wordpress.android.fluxc.model.plugin.WPOrgPluginModel;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static com.yarolegovich.wellsql.SelectQuery.ORDER_ASCENDING;
 
 public class PluginSqlUtils {
+    // Keeps the `IN` queries below the SQLite limit of 999 bound arguments
+    private static final int MAX_SLUGS_PER_QUERY = 500;
+
     public static @NonNull List<SitePluginModel> getSitePlugins(@NonNull SiteModel site) {
         return WellSql.select(SitePluginModel.class)
                 .where()
@@ -103,29 +112,122 @@ public class PluginSqlUtils {
         return result.isEmpty() ? null : result.get(0);
     }
 
+    /**
+     * Returns the plugins of the given site along with their wp.org details, if they're stored, ordered by name.
+     *
+     * The wp.org details of all the plugins are read at once, instead of one query per plugin.
+     */
+    public static @NonNull List<ImmutablePluginModel> getImmutableSitePlugins(@NonNull SiteModel site) {
+        List<SitePluginModel> sitePlugins = getSitePlugins(site);
+        List<String> slugs = new ArrayList<>(sitePlugins.size());
+        for (SitePluginModel sitePlugin : sitePlugins) {
+            slugs.add(sitePlugin.getSlug());
+        }
+        Map<String, WPOrgPluginModel> wpOrgPlugins = getWPOrgPluginsBySlug(slugs);
+        List<ImmutablePluginModel> immutablePlugins = new ArrayList<>(sitePlugins.size());
+        for (SitePluginModel sitePlugin : sitePlugins) {
+            immutablePlugins.add(ImmutablePluginModel.newInstance(sitePlugin, wpOrgPlugins.get(sitePlugin.getSlug())));
+        }
+        return immutablePlugins;
+    }
+
+    /**
+     * Returns the given wp.org plugins along with the matching plugins installed on the given site, in the same order.
+     *
+     * The site plugins are read at once, instead of one query per wp.org plugin.
+     */
+    public static @NonNull List<ImmutablePluginModel> getImmutablePlugins(
+            @Nullable SiteModel site, @NonNull List<WPOrgPluginModel> wpOrgPlugins) {
+        Map<String, SitePluginModel> sitePlugins = new HashMap<>();
+        if (site != null) {
+            List<String> slugs = new ArrayList<>(wpOrgPlugins.size());
+            for (WPOrgPluginModel wpOrgPlugin : wpOrgPlugins) {
+                slugs.add(wpOrgPlugin.getSlug());
+            }
+            sitePlugins = getSitePluginsBySlug(site, slugs);
+        }
+        List<ImmutablePluginModel> immutablePlugins = new ArrayList<>(wpOrgPlugins.size());
+        for (WPOrgPluginModel wpOrgPlugin : wpOrgPlugins) {
+            immutablePlugins.add(ImmutablePluginModel.newInstance(sitePlugins.get(wpOrgPlugin.getSlug()), wpOrgPlugin));
+        }
+        return immutablePlugins;
+    }
+
+    public static @NonNull Map<String, SitePluginModel> getSitePluginsBySlug(@NonNull SiteModel site,
+                                                                            @NonNull Collection<String> slugs) {
+        Map<String, SitePluginModel> sitePlugins = new HashMap<>();
+        for (List<String> chunk : chunkSlugs(slugs)) {
+            List<SitePluginModel> result = WellSql.select(SitePluginModel.class)
+                    .where()
+                    .equals(SitePluginModelTable.LOCAL_SITE_ID, site.getId())
+                    .isIn(SitePluginModelTable.SLUG, chunk)
+                    .endWhere().getAsModel();
+            for (SitePluginModel sitePlugin : result) {
+                sitePlugins.put(sitePlugin.getSlug(), sitePlugin);
+            }
+        }
+        return sitePlugins;
+    }
+
+    public static @NonNull Map<String, WPOrgPluginModel> getWPOrgPluginsBySlug(@NonNull Collection<String> slugs) {
+        Map<String, WPOrgPluginModel> wpOrgPlugins = new HashMap<>();
+        for (List<String> chunk : chunkSlugs(slugs)) {
+            List<WPOrgPluginModel> result = WellSql.select(WPOrgPluginModel.class)
+                    .where().isIn(WPOrgPluginModelTable.SLUG, chunk)
+                    .endWhere().getAsModel();
+            for (WPOrgPluginModel wpOrgPlugin : result) {
+                wpOrgPlugins.put(wpOrgPlugin.getSlug(), wpOrgPlugin);
+            }
+        }
+        return wpOrgPlugins;
+    }
+
     public static @NonNull List<WPOrgPluginModel> getWPOrgPluginsForDirectory(PluginDirectoryType directoryType) {
+        return flattenPluginDirectoryPages(getWPOrgPluginPagesForDirectory(directoryType));
+    }
+
+    /**
+     * Returns the plugins of the given directory type by page, each page in the order its plugins were fetched in.
+     */
+    public static @NonNull SortedMap<Integer, List<WPOrgPluginModel>> getWPOrgPluginPagesForDirectory(
+            PluginDirectoryType directoryType) {
         List<PluginDirectoryModel> directoryModels = getPluginDirectoriesForType(directoryType);
-        if (directoryModels.size() == 0) {
-            // No directories found, return an empty list
-            return new ArrayList<>();
-        }
         List<String> slugList = new ArrayList<>(directoryModels.size());
-        final HashMap<String, Integer> orderMap = new HashMap<>();
-        for (int i = 0; i < directoryModels.size(); i++) {
-            String slug = directoryModels.get(i).getSlug();
-            slugList.add(slug);
-            orderMap.put(slug, i);
-        }
-        List<WPOrgPluginModel> wpOrgPlugins = WellSql.select(WPOrgPluginModel.class)
-                .where().isIn(WPOrgPluginModelTable.SLUG, slugList)
-                .endWhere().getAsModel();
-        // We need to manually order the list according to the directory models since SQLite will return mixed results
-        Collections.sort(wpOrgPlugins, new Comparator<WPOrgPluginModel>() {
-            @Override
-            public int compare(WPOrgPluginModel plugin1, WPOrgPluginModel plugin2) {
-                return orderMap.get(plugin1.getSlug()).compareTo(orderMap.get(plugin2.getSlug()));
+        for (PluginDirectoryModel directoryModel : directoryModels) {
+            slugList.add(directoryModel.getSlug());
+        }
+        Map<String, WPOrgPluginModel> wpOrgPlugins = getWPOrgPluginsBySlug(slugList);
+        SortedMap<Integer, List<WPOrgPluginModel>> pages = new TreeMap<>();
+        for (PluginDirectoryModel directoryModel : directoryModels) {
+            WPOrgPluginModel wpOrgPlugin = wpOrgPlugins.get(directoryModel.getSlug());
+            if (wpOrgPlugin == null) {
+                continue;
+            }
+            List<WPOrgPluginModel> page = pages.get(directoryModel.getPage());
+            if (page == null) {
+                page = new ArrayList<>();
+                pages.put(directoryModel.getPage(), page);
+            }
+            page.add(wpOrgPlugin);
+        }
+        return pages;
+    }
+
+    /**
+     * Concatenates the given directory pages. A plugin can move to another page between two fetches, in which case
+     * only its first occurrence is kept.
+     */
+    public static @NonNull List<WPOrgPluginModel> flattenPluginDirectoryPages(
+            @NonNull SortedMap<Integer, List<WPOrgPluginModel>> pages) {
+        List<WPOrgPluginModel> wpOrgPlugins = new ArrayList<>();
+        Set<String> slugs = new HashSet<>();
+        for (List<WPOrgPluginModel> page : pages.values()) {
+            for (WPOrgPluginModel wpOrgPlugin : page) {
+                if (slugs.add(wpOrgPlugin.getSlug())) {
+                    wpOrgPlugins.add(wpOrgPlugin);
+                }
             }
-        });
+        }
         return wpOrgPlugins;
     }
 
@@ -147,14 +249,43 @@ public class PluginSqlUtils {
         }
     }
 
+    /**
+     * Inserts or updates the given plugins by slug, in a single transaction. The existing plugins are looked up with
+     * a single query instead of one query per plugin.
+     */
     public static int insertOrUpdateWPOrgPluginList(List<WPOrgPluginModel> wpOrgPluginModels) {
-        if (wpOrgPluginModels == null) {
+        if (wpOrgPluginModels == null || wpOrgPluginModels.isEmpty()) {
             return 0;
         }
 
-        int result = 0;
+        List<String> slugs = new ArrayList<>(wpOrgPluginModels.size());
         for (WPOrgPluginModel pluginModel : wpOrgPluginModels) {
-            result += insertOrUpdateWPOrgPlugin(pluginModel);
+            slugs.add(pluginModel.getSlug());
+        }
+        Map<String, Integer> idsBySlug = new HashMap<>();
+        for (WPOrgPluginModel oldPlugin : getWPOrgPluginsBySlug(slugs).values()) {
+            idsBySlug.put(oldPlugin.getSlug(), oldPlugin.getId());
+        }
+
+        int result = 0;
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            for (WPOrgPluginModel pluginModel : wpOrgPluginModels) {
+                Integer oldId = idsBySlug.get(pluginModel.getSlug());
+                if (oldId == null) {
+                    WellSql.insert(pluginModel).execute();
+                    // The same plugin can be listed twice, the next occurrence should update this row
+                    idsBySlug.put(pluginModel.getSlug(), pluginModel.getId());
+                    result++;
+                } else {
+                    result += WellSql.update(WPOrgPluginModel.class).whereId(oldId)
+                            .put(pluginModel, new UpdateAllExceptId<>(WPOrgPluginModel.class)).execute();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
         return result;
     }
@@ -176,6 +307,35 @@ public class PluginSqlUtils {
         WellSql.insert(pluginDirectories).asSingleTransaction(true).execute();
     }
 
+    /**
+     * Atomically replaces a page of the given directory type and updates the details of its plugins.
+     *
+     * @param isFirstPage true when a fresh list of the directory was fetched, in which case every other page of the
+     * directory is removed as well
+     */
+    public static void replacePluginDirectoryPage(PluginDirectoryType directoryType, int page, boolean isFirstPage,
+                                                  @NonNull List<PluginDirectoryModel> pluginDirectories,
+                                                  @NonNull List<WPOrgPluginModel> wpOrgPlugins) {
+        SQLiteDatabase db = WellSql.giveMeWritableDb();
+        db.beginTransaction();
+        try {
+            if (isFirstPage) {
+                deletePluginDirectoryForType(directoryType);
+            } else {
+                WellSql.delete(PluginDirectoryModel.class)
+                        .where()
+                        .equals(PluginDirectoryModelTable.DIRECTORY_TYPE, directoryType.toString())
+                        .equals(PluginDirectoryModelTable.PAGE, page)
+                        .endWhere().execute();
+            }
+            insertPluginDirectoryList(pluginDirectories);
+            insertOrUpdateWPOrgPluginList(wpOrgPlugins);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     public static int getLastRequestedPageForDirectoryType(PluginDirectoryType directoryType) {
         List<PluginDirectoryModel> list = getPluginDirectoriesForType(directoryType);
         int page = 0;
@@ -190,6 +350,22 @@ public class PluginSqlUtils {
                 .where()
                 .equals(PluginDirectoryModelTable.DIRECTORY_TYPE, directoryType)
                 .endWhere()
+                .orderBy(PluginDirectoryModelTable.ID, ORDER_ASCENDING)
                 .getAsModel();
     }
+
+    private static @NonNull List<List<String>> chunkSlugs(@NonNull Collection<String> slugs) {
+        // Empty lists result in no chunks at all, since SQLite fails on empty `IN` clauses
+        List<String> uniqueSlugs = new ArrayList<>();
+        for (String slug : new HashSet<>(slugs)) {
+            if (!TextUtils.isEmpty(slug)) {
+                uniqueSlugs.add(slug);
+            }
+        }
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < uniqueSlugs.size(); i += MAX_SLUGS_PER_QUERY) {
+            chunks.add(uniqueSlugs.subList(i, Math.min(i + MAX_SLUGS_PER_QUERY, uniqueSlugs.size())));
+        }
+        return chunks;
+    }
 }
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.persistence;
 
 import android.content.ContentValues;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.text.TextUtils;
 
@@ -27,12 +28,15 @@ import org.wordpress.android.fluxc.model.SiteModel;
 import org.wordpress.android.fluxc.model.revisions.LocalDiffModel;
 import org.wordpress.android.fluxc.model.revisions.LocalRevisionModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRemoteAutoSaveModel;
+import org.wordpress.android.fluxc.persistence.SearchIndexSqlUtils.SearchIndex;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -271,6 +275,27 @@ public class PostSqlUtils {
                 .endGroup().endGroup().endWhere().exists();
     }
 
+    /**
+     * Returns the local ids of the sites with local-only posts or local changes, as a single grouped query instead of
+     * one {@link #getSiteHasLocalChanges(SiteModel)} query per site.
+     */
+    @NonNull
+    public Set<Integer> getLocalSiteIdsWithLocalChanges() {
+        Set<Integer> localSiteIds = new HashSet<>();
+        String sql = "SELECT " + PostModelTable.LOCAL_SITE_ID + " FROM PostModel WHERE "
+                     + PostModelTable.IS_LOCAL_DRAFT + " = 1 OR "
+                     + PostModelTable.IS_LOCALLY_CHANGED + " = 1 GROUP BY " + PostModelTable.LOCAL_SITE_ID;
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery(sql, null);
+        try {
+            while (cursor.moveToNext()) {
+                localSiteIds.add(cursor.getInt(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return localSiteIds;
+    }
+
     public int getNumLocalChanges() {
         return (int) WellSql.select(PostModel.class)
                             .where().beginGroup()
@@ -382,6 +407,9 @@ public class PostSqlUtils {
 
     public List<LocalId> getLocalPostIdsForFilter(SiteModel site, boolean isPage, String searchQuery,
                                                          String orderBy, @Order int order) {
+        if (!TextUtils.isEmpty(searchQuery)) {
+            return searchLocalPostIds(site, isPage, searchQuery, orderBy, order);
+        }
         ConditionClauseBuilder<SelectQuery<PostModel>> clauseBuilder =
                 WellSql.select(PostModel.class)
                        // We only need the local ids
@@ -391,10 +419,6 @@ public class PostSqlUtils {
                        .equals(PostModelTable.LOCAL_SITE_ID, site.getId())
                        .equals(PostModelTable.IS_PAGE, isPage)
                        .endGroup();
-        if (!TextUtils.isEmpty(searchQuery)) {
-            clauseBuilder = clauseBuilder.beginGroup().contains(PostModelTable.TITLE, searchQuery).or()
-                                         .contains(PostModelTable.CONTENT, searchQuery).endGroup();
-        }
         /*
          * Remember that, since we are only querying the `PostModelTable.ID` column, the rest of the fields for the
          * post won't be there which is exactly what we want.
@@ -407,6 +431,50 @@ public class PostSqlUtils {
         return localPostIds;
     }
 
+    /**
+     * Searches the local drafts through the full-text search index of the posts instead of scanning the title and
+     * the content of every post, see {@link SearchIndexSqlUtils}. Every term of the query is matched as the prefix of
+     * a word, so unlike the former {@code LIKE '%query%'} scan, a term doesn't match the middle of a word.
+     */
+    private List<LocalId> searchLocalPostIds(SiteModel site, boolean isPage, String searchQuery,
+                                             String orderBy, @Order int order) {
+        List<LocalId> localPostIds = new ArrayList<>();
+        String matchQuery = SearchIndexSqlUtils.buildMatchQuery(searchQuery);
+        if (matchQuery == null) {
+            return localPostIds;
+        }
+        String indexTable = SearchIndex.POSTS.getIndexTable();
+        String sql = "SELECT " + PostModelTable.ID + " FROM PostModel WHERE "
+                     + PostModelTable.IS_LOCAL_DRAFT + " = 1 AND "
+                     + PostModelTable.LOCAL_SITE_ID + " = ? AND "
+                     + PostModelTable.IS_PAGE + " = ? AND "
+                     + PostModelTable.ID + " IN (SELECT docid FROM " + indexTable + " WHERE " + indexTable
+                     + " MATCH ?) ORDER BY " + orderBy + (order == SelectQuery.ORDER_ASCENDING ? " ASC" : " DESC");
+        String[] args = new String[]{
+                String.valueOf(site.getId()),
+                SearchIndexSqlUtils.toSqlArg(isPage),
+                matchQuery
+        };
+        Cursor cursor = WellSql.giveMeReadableDb().rawQuery(sql, args);
+        try {
+            while (cursor.moveToNext()) {
+                localPostIds.add(new LocalId(cursor.getInt(0)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return localPostIds;
+    }
+
+    /**
+     * Searches the posts or the pages of the site through the full-text search index, most relevant first, see
+     * {@link SearchIndexSqlUtils#search}.
+     */
+    public List<LocalId> searchPostIds(SiteModel site, boolean isPage, String searchQuery) {
+        return SearchIndexSqlUtils.search(SearchIndex.POSTS, searchQuery, site.getId(),
+                Collections.<String, Object>singletonMap(PostModelTable.IS_PAGE, isPage));
+    }
+
     public int deletePostLikesAndPurgeExpired(long siteId, long remotePostId) {
         int numDeleted = WellSql.delete(LikeModel.class)
                                 .where()
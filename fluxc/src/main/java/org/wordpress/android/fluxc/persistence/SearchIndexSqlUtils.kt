@@ -0,0 +1,178 @@
+package org.wordpress.android.fluxc.persistence
+
+import android.database.sqlite.SQLiteDatabase
+import com.wellsql.generated.CommentModelTable
+import com.wellsql.generated.MediaModelTable
+import com.wellsql.generated.PostModelTable
+import com.yarolegovich.wellsql.WellSql
+import com.yarolegovich.wellsql.core.Identifiable
+import org.wordpress.android.fluxc.model.LocalOrRemoteId.LocalId
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.Locale
+
+/**
+ * Full-text search over the content of WellSql tables.
+ *
+ * Every [SearchIndex] is an FTS4 virtual table that uses its content table as external content, so the indexed text
+ * isn't stored twice. The index is kept in sync by triggers on the content table, which means that none of the
+ * existing write paths need to know about it.
+ *
+ * Searches are tokenized and every term is matched as a prefix of a word, so "hel wor" matches "Hello World". Unlike
+ * the `LIKE '%query%'` scans used before, a term doesn't match the middle of a word: "world" doesn't match
+ * "HelloWorld" and "ell" doesn't match "Hello". Results of [search] are returned as [LocalId]s, ranked by relevance
+ * with matches in the first columns of the index weighing more.
+ *
+ * Sites aren't indexed: an account only has a few of them, and the site picker relies on matching the middle of
+ * their URL.
+ */
+object SearchIndexSqlUtils {
+    // SQLite limits the number of arguments of a statement to 999
+    private const val MAX_SQL_ARGS = 500
+
+    /**
+     * @property contentTable The WellSql table that's indexed
+     * @property localSiteIdColumn The column of the content table that's used to scope searches to a site
+     * @property columns The indexed columns of the content table, ordered by their weight in the ranking
+     */
+    enum class SearchIndex(
+        val contentTable: String,
+        val localSiteIdColumn: String,
+        vararg val columns: String
+    ) {
+        POSTS("PostModel", PostModelTable.LOCAL_SITE_ID, PostModelTable.TITLE, PostModelTable.CONTENT),
+        MEDIA(
+                "MediaModel",
+                MediaModelTable.LOCAL_SITE_ID,
+                MediaModelTable.TITLE,
+                MediaModelTable.CAPTION,
+                MediaModelTable.DESCRIPTION,
+                MediaModelTable.FILE_NAME
+        ),
+        COMMENTS("CommentModel", CommentModelTable.LOCAL_SITE_ID, CommentModelTable.CONTENT,
+                CommentModelTable.AUTHOR_NAME);
+
+        val indexTable = "${contentTable}SearchIndex"
+    }
+
+    /**
+     * Returns the local ids of the rows of the site with the given local id that match [searchQuery], in the given
+     * [index], ordered by relevance.
+     *
+     * @param conditions Additional equality conditions on the columns of the content table
+     * @param limit The maximum number of results, or 0 for all of them
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun search(
+        index: SearchIndex,
+        searchQuery: String?,
+        localSiteId: Int,
+        conditions: Map<String, Any> = emptyMap(),
+        limit: Int = 0
+    ): List<LocalId> {
+        val matchQuery = buildMatchQuery(searchQuery) ?: return emptyList()
+        val selection = StringBuilder("${index.indexTable} MATCH ? AND c.${index.localSiteIdColumn} = ?")
+        val args = mutableListOf(matchQuery, localSiteId.toString())
+        conditions.forEach { (column, value) ->
+            selection.append(" AND c.$column = ?")
+            args.add(toSqlArg(value))
+        }
+        val sql = "SELECT c._id, matchinfo(${index.indexTable}, 'pcx') FROM ${index.indexTable} " +
+                "JOIN ${index.contentTable} c ON c._id = ${index.indexTable}.docid WHERE $selection"
+
+        val results = WellSql.giveMeReadableDb().rawQuery(sql, args.toTypedArray()).use { cursor ->
+            val rankedIds = ArrayList<Pair<Int, Double>>(cursor.count)
+            while (cursor.moveToNext()) {
+                rankedIds.add(cursor.getInt(0) to rank(cursor.getBlob(1)))
+            }
+            rankedIds
+        }
+        // Sorting is stable, so rows with the same rank keep the order of the content table
+        val sortedIds = results.sortedByDescending { it.second }.map { LocalId(it.first) }
+        return if (limit > 0) sortedIds.take(limit) else sortedIds
+    }
+
+    /**
+     * Loads the models with the given local ids, in the same order, for instance the results of [search].
+     */
+    @JvmStatic
+    fun <T : Identifiable> getModelsByLocalIds(modelClass: Class<T>, localIds: List<LocalId>): List<T> {
+        val models = localIds.chunked(MAX_SQL_ARGS).flatMap { chunk ->
+            WellSql.select(modelClass)
+                    .where().isIn("_id", chunk.map { it.value }).endWhere()
+                    .asModel
+        }.associateBy { it.id }
+        return localIds.mapNotNull { models[it.value] }
+    }
+
+    /**
+     * Computes a simple tf-idf style rank from the `pcx` output of the FTS4 `matchinfo` function. Each hit is
+     * weighted by how rare the phrase is in that column and by the position of the column in the index.
+     */
+    private fun rank(matchInfo: ByteArray): Double {
+        val values = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer()
+        val phraseCount = values.get(0)
+        val columnCount = values.get(1)
+        var rank = 0.0
+        for (phrase in 0 until phraseCount) {
+            for (column in 0 until columnCount) {
+                val offset = 2 + 3 * (phrase * columnCount + column)
+                val hitsInRow = values.get(offset)
+                val hitsInAllRows = values.get(offset + 1)
+                if (hitsInRow > 0) {
+                    rank += hitsInRow.toDouble() / hitsInAllRows / (column + 1)
+                }
+            }
+        }
+        return rank
+    }
+
+    /**
+     * Converts free text typed by the user into an FTS4 MATCH expression in which every term is a prefix query,
+     * and all of them need to match. Returns null if there is nothing to search for.
+     */
+    @JvmStatic
+    fun buildMatchQuery(searchQuery: String?): String? {
+        val terms = searchQuery
+                ?.split(Regex("[^\\p{L}\\p{N}]+"))
+                ?.filter { it.isNotEmpty() }
+                .orEmpty()
+        // Lowercase terms can't be confused with the AND, OR and NOT operators
+        return if (terms.isEmpty()) null else terms.joinToString(" ") { "${it.toLowerCase(Locale.ROOT)}*" }
+    }
+
+    @JvmStatic
+    fun toSqlArg(value: Any): String = when (value) {
+        is Boolean -> if (value) "1" else "0"
+        else -> value.toString()
+    }
+
+    /**
+     * Creates the search indexes of the given content tables along with the triggers that keep them in sync,
+     * and indexes their current content. Indexes whose content table doesn't exist are skipped.
+     */
+    fun createSearchIndexes(db: SQLiteDatabase, contentTables: Collection<String>) {
+        SearchIndex.values().filter { contentTables.contains(it.contentTable) }.forEach { index ->
+            dropSearchIndex(db, index.indexTable)
+            val columns = index.columns.joinToString(",")
+            val newValues = index.columns.joinToString(",") { "new.$it" }
+            db.execSQL("CREATE VIRTUAL TABLE ${index.indexTable} " +
+                    "USING fts4(content=\"${index.contentTable}\",$columns,tokenize=unicode61)")
+            db.execSQL("CREATE TRIGGER ${index.indexTable}_BU BEFORE UPDATE ON ${index.contentTable} BEGIN " +
+                    "DELETE FROM ${index.indexTable} WHERE docid=old._id; END")
+            db.execSQL("CREATE TRIGGER ${index.indexTable}_BD BEFORE DELETE ON ${index.contentTable} BEGIN " +
+                    "DELETE FROM ${index.indexTable} WHERE docid=old._id; END")
+            db.execSQL("CREATE TRIGGER ${index.indexTable}_AU AFTER UPDATE ON ${index.contentTable} BEGIN " +
+                    "INSERT INTO ${index.indexTable}(docid,$columns) VALUES(new._id,$newValues); END")
+            db.execSQL("CREATE TRIGGER ${index.indexTable}_AI AFTER INSERT ON ${index.contentTable} BEGIN " +
+                    "INSERT INTO ${index.indexTable}(docid,$columns) VALUES(new._id,$newValues); END")
+            db.execSQL("INSERT INTO ${index.indexTable}(${index.indexTable}) VALUES('rebuild')")
+        }
+    }
+
+    private fun dropSearchIndex(db: SQLiteDatabase, indexTable: String) {
+        listOf("BU", "BD", "AU", "AI").forEach { db.execSQL("DROP TRIGGER IF EXISTS ${indexTable}_$it") }
+        db.execSQL("DROP TABLE IF EXISTS $indexTable")
+    }
+}
@@ -37,6 +37,11 @@ class SiteSqlUtils
         private const val serialVersionUID = -224883903136726226L
     }
 
+    companion object {
+        // Keeps the IN clauses of the bulk deletes under SQLite's limit of host parameters
+        private const val DELETE_BATCH_SIZE = 500
+    }
+
     fun getSitesWithLocalId(id: Int): List<SiteModel> {
         return WellSql.select(SiteModel::class.java)
                 .where().equals(SiteModelTable.ID, id).endWhere().asModel
@@ -411,37 +416,254 @@ class SiteSqlUtils
      * list of sites to keep in local database
      */
     fun removeWPComRestSitesAbsentFromList(postSqlUtils: PostSqlUtils, sites: List<SiteModel>): Int {
+        return removeWPComRestSitesAbsentFromSiteIds(postSqlUtils, sites.mapTo(HashSet()) { it.siteId })
+    }
+
+    /**
+     * Same as [removeWPComRestSitesAbsentFromList], for the sites whose remote ID isn't in the given set.
+     */
+    fun removeWPComRestSitesAbsentFromSiteIds(postSqlUtils: PostSqlUtils, siteIdsToKeep: Set<Long>): Int {
         // get all local WP.com+Jetpack sites
         val localSites = WellSql.select(SiteModel::class.java)
                 .where()
                 .equals(SiteModelTable.ORIGIN, SiteModel.ORIGIN_WPCOM_REST)
                 .endWhere().asModel
-        if (localSites.size > 0) {
-            // iterate through all local WP.com+Jetpack sites
-            val localIterator = localSites.iterator()
-            while (localIterator.hasNext()) {
-                val localSite = localIterator.next()
-
-                // don't remove sites with local changes
-                if (postSqlUtils.getSiteHasLocalChanges(localSite)) {
-                    localIterator.remove()
+        if (localSites.isEmpty()) {
+            return 0
+        }
+        val localIdsWithLocalChanges = postSqlUtils.localSiteIdsWithLocalChanges
+        val localIdsToDelete = localSites
+                .filter { !siteIdsToKeep.contains(it.siteId) && !localIdsWithLocalChanges.contains(it.id) }
+                .map { it.id }
+        deleteSitesWithLocalIds(localIdsToDelete)
+        return localIdsToDelete.size
+    }
+
+    /**
+     * Reconciles the local sites with the full list of sites fetched from the WP.com REST API, as a bulk equivalent
+     * of calling [insertOrUpdateSite] on each fetched site followed by [removeWPComRestSitesAbsentFromList].
+     *
+     * The local sites are loaded once and matched in memory, following the same rules as [insertOrUpdateSite], the
+     * local-change flags are read with a single grouped query, and the inserts, updates and deletes are applied in a
+     * single transaction. The editor preferences of the updated sites are kept, since the REST API doesn't return
+     * them.
+     *
+     * @param removeAbsentSites false when [sites] is only a part of the fetched sites, in which case the absent sites
+     * must be removed with [removeWPComRestSitesAbsentFromSiteIds] once all of them are reconciled
+     * @param reconciliation the local sites to reconcile [sites] with, to share between the batches of the same fetch
+     */
+    @JvmOverloads
+    fun reconcileWPComRestSites(
+        postSqlUtils: PostSqlUtils,
+        sites: List<SiteModel>,
+        removeAbsentSites: Boolean = true,
+        reconciliation: SitesReconciliation = newSitesReconciliation()
+    ): SitesReconciliationResult {
+        val hasWPComAccount = reconciliation.hasWPComAccount
+        val index = reconciliation.index
+        val operations = ArrayList<() -> Int>()
+        var duplicateSiteFound = false
+        for (site in sites) {
+            if (site.isUsingWpComRestApi && !hasWPComAccount) {
+                AppLog.w(DB, "Can't insert WP.com site " + site.url + ", missing user account")
+                continue
+            }
+            val siteFromDB = index.findBySiteId(site.siteId)
+            if (siteFromDB != null) {
+                site.mobileEditor = siteFromDB.site.mobileEditor
+                site.webEditor = siteFromDB.site.webEditor
+            }
+            var match = index.findByLocalId(site.id)
+            if (match == null) {
+                match = if (site.siteId > 0) siteFromDB else index.findBySiteIdAndUrl(site.siteId, site.url)
+            }
+            if (match == null) {
+                match = index.findByXmlRpcUrl(site.xmlRpcUrl)
+                if (match != null && match.site.origin == SiteModel.ORIGIN_WPCOM_REST) {
+                    AppLog.d(DB, "Site is a duplicate: " + site.url)
+                    duplicateSiteFound = true
+                    continue
+                }
+            }
+            if (match == null) {
+                val row = LocalSiteRow(site)
+                index.add(row)
+                operations.add { insertSite(site).also { row.localId = site.id } }
+            } else {
+                val row: LocalSiteRow = match
+                index.update(row, site)
+                operations.add { updateSite(row.localId, site) }
+            }
+        }
+
+        // Same criteria as removeWPComRestSitesAbsentFromList, applied to the reconciled state of the local sites
+        val localIdsToDelete = if (removeAbsentSites) {
+            val fetchedSiteIds = sites.mapTo(HashSet()) { it.siteId }
+            val localIdsWithLocalChanges = postSqlUtils.localSiteIdsWithLocalChanges
+            index.rows
+                    .filter { it.isStored && it.site.origin == SiteModel.ORIGIN_WPCOM_REST }
+                    .filter { !fetchedSiteIds.contains(it.site.siteId) }
+                    .filter { !localIdsWithLocalChanges.contains(it.localId) }
+                    .map { it.localId }
+        } else {
+            emptyList()
+        }
+
+        var rowsAffected = 0
+        val db = WellSql.giveMeWritableDb()
+        db.beginTransaction()
+        try {
+            for (operation in operations) {
+                val affected = operation()
+                if (affected < 0) {
+                    duplicateSiteFound = true
                 } else {
-                    // don't remove local site if the remote ID matches a given site's ID
-                    for (site in sites) {
-                        if (site.siteId == localSite.siteId) {
-                            localIterator.remove()
-                            break
-                        }
-                    }
+                    rowsAffected += affected
                 }
             }
+            deleteSitesWithLocalIds(localIdsToDelete)
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+        AppLog.d(DB, "Reconciled ${sites.size} sites: $rowsAffected inserted or updated, " +
+                "${localIdsToDelete.size} removed")
+        return SitesReconciliationResult(rowsAffected, duplicateSiteFound, localIdsToDelete.size)
+    }
+
+    /**
+     * Inserts the given site, and returns -1 if it's a duplicate of an existing site.
+     */
+    private fun insertSite(site: SiteModel): Int {
+        return try {
+            WellSql.insert(site).execute()
+            1
+        } catch (e: SQLiteConstraintException) {
+            AppLog.e(DB, "Error while inserting site: siteId=${site.siteId} url=${site.url}", e)
+            -1
+        }
+    }
+
+    /**
+     * Updates the site with the given local id, and returns -1 if the update makes it a duplicate of another site.
+     */
+    private fun updateSite(localId: Int, site: SiteModel): Int {
+        return try {
+            WellSql.update(SiteModel::class.java).whereId(localId)
+                    .put(site, UpdateAllExceptId(SiteModel::class.java)).execute()
+        } catch (e: SQLiteConstraintException) {
+            AppLog.e(DB, "Error while updating site: siteId=${site.siteId} url=${site.url} " +
+                    "xmlrpc=${site.xmlRpcUrl}", e)
+            -1
+        }
+    }
+
+    private fun deleteSitesWithLocalIds(localIds: List<Int>) {
+        localIds.chunked(DELETE_BATCH_SIZE).forEach { chunk ->
+            WellSql.delete(SiteModel::class.java)
+                    .where().isIn(SiteModelTable.ID, chunk).endWhere()
+                    .execute()
+        }
+    }
+
+    /**
+     * Loads the local sites and the account once for a fetch of the sites in several batches, each batch being
+     * reconciled with [reconcileWPComRestSites] against the state left by the previous ones.
+     */
+    fun newSitesReconciliation(): SitesReconciliation {
+        val hasWPComAccount = WellSql.select(AccountModel::class.java)
+                .where()
+                .not().equals(AccountModelTable.USER_ID, 0)
+                .endWhere()
+                .exists()
+        return SitesReconciliation(hasWPComAccount, LocalSitesIndex(getSites()))
+    }
+
+    /**
+     * The local sites as they are once the batches reconciled so far are applied, see [newSitesReconciliation].
+     */
+    class SitesReconciliation internal constructor(
+        internal val hasWPComAccount: Boolean,
+        internal val index: LocalSitesIndex
+    )
+
+    data class SitesReconciliationResult(
+        val rowsAffected: Int,
+        val duplicateSiteFound: Boolean,
+        val removedCount: Int
+    )
+
+    /**
+     * A local site as it will be once the planned operations are applied. [isStored] is false for the sites which are
+     * yet to be inserted, whose local id is only known once inserted.
+     */
+    internal class LocalSiteRow(var site: SiteModel, val isStored: Boolean = false) {
+        // Set once inserted for the sites which weren't stored yet
+        var localId: Int = site.id
+    }
+
+    /**
+     * In-memory indexes of the local sites, matching them the same way as the queries of [insertOrUpdateSite]. Rows
+     * are indexed by each state they go through, and matches are checked against their latest state.
+     */
+    internal class LocalSitesIndex(localSites: List<SiteModel>) {
+        val rows = ArrayList<LocalSiteRow>()
+        private val byLocalId = HashMap<Int, LocalSiteRow>()
+        private val bySiteId = HashMap<Long, MutableList<LocalSiteRow>>()
+        private val byXmlRpcUrl = HashMap<String, MutableList<LocalSiteRow>>()
+
+        init {
+            localSites.forEach { add(LocalSiteRow(it, isStored = true)) }
+        }
+
+        fun add(row: LocalSiteRow) {
+            rows.add(row)
+            if (row.isStored) {
+                byLocalId[row.localId] = row
+            }
+            index(row)
+        }
+
+        fun update(row: LocalSiteRow, site: SiteModel) {
+            row.site = site
+            index(row)
+        }
+
+        fun findByLocalId(localId: Int) = if (localId == 0) null else byLocalId[localId]
+
+        fun findBySiteId(siteId: Long): LocalSiteRow? {
+            if (siteId == 0L) {
+                return null
+            }
+            return bySiteId[siteId]?.firstOrNull { it.site.siteId == siteId }
+        }
+
+        fun findBySiteIdAndUrl(siteId: Long, url: String?): LocalSiteRow? {
+            return bySiteId[siteId]?.firstOrNull { it.site.siteId == siteId && it.site.url == url }
+        }
+
+        fun findByXmlRpcUrl(xmlRpcUrl: String?): LocalSiteRow? {
+            if (xmlRpcUrl.isNullOrEmpty()) {
+                return null
+            }
+            val key = UrlUtils.removeScheme(xmlRpcUrl)
+            return byXmlRpcUrl[key]?.firstOrNull { toXmlRpcUrlKey(it.site.xmlRpcUrl) == key }
+        }
+
+        private fun index(row: LocalSiteRow) {
+            bySiteId.getOrPut(row.site.siteId) { ArrayList() }.add(row)
+            toXmlRpcUrlKey(row.site.xmlRpcUrl)?.let { byXmlRpcUrl.getOrPut(it) { ArrayList() }.add(row) }
+        }
 
-            // delete applicable sites
-            for (site in localSites) {
-                deleteSite(site)
+        /**
+         * [insertOrUpdateSite] matches the stored XML-RPC urls with both the http and https schemes.
+         */
+        private fun toXmlRpcUrlKey(xmlRpcUrl: String?): String? {
+            if (xmlRpcUrl == null || !(xmlRpcUrl.startsWith("http://") || xmlRpcUrl.startsWith("https://"))) {
+                return null
             }
+            return UrlUtils.removeScheme(xmlRpcUrl)
         }
-        return localSites.size
     }
 
     fun isWPComSiteVisibleByLocalId(id: Int): Boolean {
@@ -2,15 +2,18 @@ package org.wordpress.android.fluxc.persistence
 
 import android.content.Context
 import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteException
 import android.os.Build
 import android.preference.PreferenceManager
 import android.view.Gravity
 import android.widget.Toast
 import androidx.annotation.StringDef
+import androidx.annotation.VisibleForTesting
 import com.yarolegovich.wellsql.DefaultWellConfig
 import com.yarolegovich.wellsql.WellSql
 import com.yarolegovich.wellsql.WellTableManager
 import org.wordpress.android.fluxc.BuildConfig
+import org.wordpress.android.fluxc.utils.SortKeyUtils
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.AppLog.T
 import kotlin.annotation.AnnotationRetention.SOURCE
@@ -19,8 +22,31 @@ import kotlin.annotation.AnnotationTarget.VALUE_PARAMETER
 open class WellSqlConfig : DefaultWellConfig {
     companion object {
         const val ADDON_WOOCOMMERCE = "WC"
+
+        /**
+         * Databases older than this version aren't migrated step by step, they're rebuilt from the current schema
+         * instead, keeping only the rows of the [preservedTables]. Raising it drops the support for the migrations
+         * below it, which can then be removed.
+         */
+        const val MIN_MIGRATED_DB_VERSION = 100
+
+        private const val PRESERVED_TABLE_PREFIX = "preserved_"
     }
 
+    /**
+     * A table whose rows are kept when an old database is rebuilt from the current schema, see
+     * [MIN_MIGRATED_DB_VERSION]. The columns which still exist are copied back into the recreated table.
+     *
+     * @param selection an optional WHERE clause picking the rows to keep, evaluated against the old database
+     * @param renamedColumns the current names of the columns renamed by a migration, by their name in the old
+     * databases, so that their values are copied back too
+     */
+    class PreservedTable(
+        val tableName: String,
+        val selection: String? = null,
+        val renamedColumns: Map<String, String> = emptyMap()
+    )
+
     constructor(context: Context) : super(context)
     constructor(context: Context, @AddOn vararg addOns: String) : super(context, mutableSetOf(*addOns))
 
@@ -30,21 +56,51 @@ open class WellSqlConfig : DefaultWellConfig {
     annotation class AddOn
 
     override fun getDbVersion(): Int {
-        return 163
+        return 167
     }
 
     override fun getDbName(): String {
         return "wp-fluxc"
     }
 
+    /**
+     * The tables which survive a rebuild of an old database, in the order they're restored, parents first. Anything
+     * else can be fetched again: accounts, sites and HTTP credentials keep the user logged in, local drafts and
+     * locally changed posts keep unsynced content and the upload tables keep the state of pending uploads.
+     * None of their columns were renamed since version 1, a migration renaming one must map it in
+     * [PreservedTable.renamedColumns].
+     */
+    protected open val preservedTables = listOf(
+            PreservedTable("AccountModel"),
+            PreservedTable("HTTPAuthModel"),
+            PreservedTable("SiteModel"),
+            PreservedTable("PostModel", "IS_LOCAL_DRAFT = 1 OR IS_LOCALLY_CHANGED = 1"),
+            PreservedTable("PostUploadModel",
+                    "_id IN (SELECT _id FROM PostModel WHERE IS_LOCAL_DRAFT = 1 OR IS_LOCALLY_CHANGED = 1)"),
+            PreservedTable("MediaModel", "UPLOAD_STATE != 'UPLOADED' OR _id IN (SELECT _id FROM MediaUploadModel)"),
+            PreservedTable("MediaUploadModel", "_id IN (SELECT _id FROM MediaModel)")
+    )
+
     override fun onCreate(db: SQLiteDatabase, helper: WellTableManager) {
         mTables.forEach { table -> helper.createTable(table) }
+        createSearchIndexes(db)
     }
 
-    @Suppress("CheckStyle")
     override fun onUpgrade(db: SQLiteDatabase, helper: WellTableManager, oldVersion: Int, newVersion: Int) {
         AppLog.d(T.DB, "Upgrading database from version $oldVersion to $newVersion")
+        if (oldVersion < MIN_MIGRATED_DB_VERSION) {
+            rebuildFromCurrentSchema(db)
+        } else {
+            runMigrations(db, oldVersion, newVersion)
+        }
+    }
 
+    /**
+     * Runs the migration steps from [oldVersion] to [newVersion], one version at a time.
+     */
+    @Suppress("CheckStyle")
+    @VisibleForTesting
+    fun runMigrations(db: SQLiteDatabase, oldVersion: Int, newVersion: Int) {
         db.beginTransaction()
         for (version in oldVersion..newVersion) {
             when (version) {
@@ -1817,12 +1873,133 @@ open class WellSqlConfig : DefaultWellConfig {
                 162 -> migrate(version) {
                     db.execSQL("ALTER TABLE PostModel ADD STICKY BOOLEAN")
                 }
+                163 -> migrateAddOn(ADDON_WOOCOMMERCE, version) {
+                    db.execSQL("ALTER TABLE WCProductModel ADD NAME_SORT_KEY TEXT")
+                    backfillProductNameSortKeys(db)
+                }
+                164 -> migrate(version) {
+                    createSearchIndexes(db)
+                }
+                165 -> migrate(version) {
+                    db.execSQL(
+                            "CREATE TABLE OutboxMutationModel (_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                    "LOCAL_SITE_ID INTEGER,ENTITY_TYPE TEXT,ENTITY_ID INTEGER,PAYLOAD TEXT," +
+                                    "REVISION INTEGER,DATE_CREATED INTEGER,FAILED_COUNT INTEGER,NEXT_ATTEMPT INTEGER," +
+                                    "UNIQUE(LOCAL_SITE_ID, ENTITY_TYPE, ENTITY_ID) ON CONFLICT REPLACE)"
+                    )
+                }
+                166 -> migrate(version) {
+                    db.execSQL(
+                            "CREATE TABLE MediaSyncStateModel (_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                                    "LOCAL_SITE_ID INTEGER,MIME_TYPE TEXT NOT NULL,WATERMARK TEXT," +
+                                    "UNIQUE(LOCAL_SITE_ID, MIME_TYPE) ON CONFLICT REPLACE)"
+                    )
+                }
             }
         }
         db.setTransactionSuccessful()
         db.endTransaction()
     }
 
+    /**
+     * Recreates the database from the current schema rather than replaying every migration, keeping the rows of the
+     * [preservedTables]. The preserved rows are copied to temporary tables before all the tables are dropped, then
+     * copied back into the recreated tables, after the search indexes of [SearchIndexSqlUtils] are created like
+     * migration 164 does.
+     *
+     * The upgrade runs in the transaction of the open helper, so a failure can't roll the rebuild back and fall back
+     * to the migrations: the preserved rows which can't be restored are dropped, logged and reported to
+     * [onPreservedRowsDropped] instead.
+     */
+    @VisibleForTesting
+    fun rebuildFromCurrentSchema(db: SQLiteDatabase) {
+        AppLog.d(T.DB, "Rebuilding database from the current schema")
+        val currentTableNames = mTables.map { getTable(it).tableName }.toSet()
+        db.beginTransaction()
+        try {
+            // The tables are dropped in no particular order, foreign keys are checked once they're all restored
+            db.execSQL("PRAGMA defer_foreign_keys = ON")
+            val preserved = preservedTables.filter {
+                it.tableName in currentTableNames && preserveRows(db, it)
+            }
+
+            getExistingTableNames(db).forEach { db.execSQL("DROP TABLE IF EXISTS $it") }
+            mTables.forEach { db.execSQL(getTable(it).createStatement()) }
+            createSearchIndexes(db)
+
+            // Restored after the search indexes are created, so that their triggers index the preserved rows
+            preserved.forEach { restoreRows(db, it) }
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
+        }
+    }
+
+    /**
+     * Copies the rows of the table to keep into a temporary table, returns false if the table can't be read, for
+     * instance if it didn't exist in the old database.
+     */
+    private fun preserveRows(db: SQLiteDatabase, table: PreservedTable): Boolean {
+        val where = table.selection?.let { " WHERE $it" } ?: ""
+        return try {
+            db.execSQL("CREATE TEMP TABLE $PRESERVED_TABLE_PREFIX${table.tableName} AS " +
+                    "SELECT * FROM main.${table.tableName}$where")
+            true
+        } catch (e: SQLiteException) {
+            AppLog.e(T.DB, "Unable to preserve the rows of ${table.tableName}", e)
+            false
+        }
+    }
+
+    private fun restoreRows(db: SQLiteDatabase, table: PreservedTable) {
+        val preservedTableName = "temp.$PRESERVED_TABLE_PREFIX${table.tableName}"
+        val currentColumns = getColumnNames(db, table.tableName).toSet()
+        val columns = getColumnNames(db, preservedTableName)
+                .map { it to (table.renamedColumns[it] ?: it) }
+                .filter { (_, currentColumn) -> currentColumn in currentColumns }
+        val oldColumnList = columns.joinToString(",") { it.first }
+        val currentColumnList = columns.joinToString(",") { it.second }
+        val select = "SELECT $oldColumnList FROM $preservedTableName"
+        try {
+            db.execSQL("INSERT INTO ${table.tableName} ($currentColumnList) $select")
+        } catch (e: SQLiteException) {
+            // Keeps the rows which fit the current schema, skipping the others, such as rows missing a NOT NULL column
+            AppLog.e(T.DB, "Unable to restore every row of ${table.tableName}, restoring the valid ones", e)
+            val preservedCount = count(db, preservedTableName)
+            val restoredCount = db.compileStatement("INSERT OR IGNORE INTO ${table.tableName} ($currentColumnList) " +
+                    select).use { it.executeUpdateDelete() }
+            AppLog.e(T.DB, "Dropped ${preservedCount - restoredCount} of the $preservedCount rows of " +
+                    "${table.tableName} while rebuilding the database")
+            onPreservedRowsDropped(table.tableName, preservedCount - restoredCount, e)
+        }
+        db.execSQL("DROP TABLE $preservedTableName")
+    }
+
+    /**
+     * Called when rows of a [PreservedTable] couldn't be restored after rebuilding an old database, since they don't
+     * fit the current schema. They're lost, so apps can override this to report it, for instance as a tracked event.
+     */
+    protected open fun onPreservedRowsDropped(tableName: String, droppedRowCount: Int, error: SQLiteException) {
+    }
+
+    private fun count(db: SQLiteDatabase, tableName: String) =
+            db.rawQuery("SELECT COUNT(*) FROM $tableName", null).use { it.moveToFirst(); it.getInt(0) }
+
+    private fun getColumnNames(db: SQLiteDatabase, tableName: String) =
+            db.rawQuery("SELECT * FROM $tableName LIMIT 0", null).use { it.columnNames.toList() }
+
+    /**
+     * Returns the tables of the main database, virtual tables first since dropping them also drops their shadow
+     * tables.
+     */
+    private fun getExistingTableNames(db: SQLiteDatabase): List<String> {
+        val query = "SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' " +
+                "AND name != 'android_metadata' ORDER BY sql LIKE 'CREATE VIRTUAL TABLE%' DESC"
+        return db.rawQuery(query, null).use { cursor ->
+            generateSequence { if (cursor.moveToNext()) cursor.getString(0) else null }.toList()
+        }
+    }
+
     /**
      * Detect when the database is downgraded in debug builds so we can recreate all the tables. Note that we
      * hide this behind a BuildConfig flag as a protection against accidentally deleting the data (ie: we
@@ -1841,6 +2018,7 @@ open class WellSqlConfig : DefaultWellConfig {
 
             AppLog.d(T.DB, "Database downgraded from version $oldVersion to $newVersion")
             helper?.let { reset(it) }
+            db?.let { createSearchIndexes(it) }
         } else {
             super.onDowngrade(db, helper, oldVersion, newVersion)
         }
@@ -1869,10 +2047,18 @@ open class WellSqlConfig : DefaultWellConfig {
     @Suppress("CheckStyle")
     open fun reset() {
         val db = WellSql.giveMeWritableDb()
-        mTables.forEach { clazz ->
-            val table = getTable(clazz)
-            db.execSQL("DROP TABLE IF EXISTS ${table.tableName}")
-            db.execSQL(table.createStatement())
+        // A single transaction rather than one per statement, since this runs before every database test
+        db.beginTransaction()
+        try {
+            mTables.forEach { clazz ->
+                val table = getTable(clazz)
+                db.execSQL("DROP TABLE IF EXISTS ${table.tableName}")
+                db.execSQL(table.createStatement())
+            }
+            createSearchIndexes(db)
+            db.setTransactionSuccessful()
+        } finally {
+            db.endTransaction()
         }
     }
 
@@ -1890,6 +2076,29 @@ open class WellSqlConfig : DefaultWellConfig {
         }
     }
 
+    /**
+     * (Re)creates the full-text search indexes, see [SearchIndexSqlUtils]. They need to be created after their
+     * content tables since dropping a content table also drops the triggers that keep its index in sync.
+     */
+    private fun createSearchIndexes(db: SQLiteDatabase) {
+        SearchIndexSqlUtils.createSearchIndexes(db, mTables.map { getTable(it).tableName })
+    }
+
+    /**
+     * Fills the NAME_SORT_KEY of the existing products with the same normalization as the products written since.
+     */
+    private fun backfillProductNameSortKeys(db: SQLiteDatabase) {
+        val update = db.compileStatement("UPDATE WCProductModel SET NAME_SORT_KEY = ? WHERE _id = ?")
+        db.rawQuery("SELECT _id, NAME FROM WCProductModel", null).use { cursor ->
+            while (cursor.moveToNext()) {
+                update.bindString(1, SortKeyUtils.toSortKey(cursor.getString(1) ?: ""))
+                update.bindLong(2, cursor.getLong(0))
+                update.executeUpdateDelete()
+            }
+        }
+        update.close()
+    }
+
     private fun migrate(version: Int, script: () -> Unit) {
         AppLog.d(T.DB, "Migrating to version ${version + 1}")
         script()
@@ -2,6 +2,7 @@ package org.wordpress.android.fluxc.store
 
 import android.annotation.SuppressLint
 import com.yarolegovich.wellsql.SelectQuery
+import kotlinx.coroutines.flow.Flow
 import org.greenrobot.eventbus.Subscribe
 import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
@@ -17,13 +18,19 @@ import org.wordpress.android.fluxc.action.ActivityLogAction.REWIND
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.activity.ActivityLogModel
+import org.wordpress.android.fluxc.model.activity.ActivityLogPage
+import org.wordpress.android.fluxc.model.activity.ActivityLogPageKey
 import org.wordpress.android.fluxc.model.activity.ActivityTypeModel
 import org.wordpress.android.fluxc.model.activity.BackupDownloadStatusModel
 import org.wordpress.android.fluxc.model.activity.RewindStatusModel
+import org.wordpress.android.fluxc.model.activity.RewindStatusModel.Rewind.Status.QUEUED
+import org.wordpress.android.fluxc.model.activity.RewindStatusModel.Rewind.Status.RUNNING
 import org.wordpress.android.fluxc.network.BaseRequest
 import org.wordpress.android.fluxc.network.rest.wpcom.activity.ActivityLogRestClient
 import org.wordpress.android.fluxc.persistence.ActivityLogSqlUtils
 import org.wordpress.android.fluxc.tools.CoroutineEngine
+import org.wordpress.android.fluxc.tools.JobStatusTracker
+import org.wordpress.android.fluxc.tools.TrackedJob
 import org.wordpress.android.util.AppLog
 import java.util.Date
 import javax.inject.Inject
@@ -37,6 +44,7 @@ class ActivityLogStore
     private val activityLogRestClient: ActivityLogRestClient,
     private val activityLogSqlUtils: ActivityLogSqlUtils,
     private val coroutineEngine: CoroutineEngine,
+    private val jobStatusTracker: JobStatusTracker,
     dispatcher: Dispatcher
 ) : Store(dispatcher) {
     @Subscribe(threadMode = ThreadMode.ASYNC)
@@ -95,6 +103,21 @@ class ActivityLogStore
         }
     }
 
+    /**
+     * Returns a page of the activity log of the site, newest first. Unlike [getActivityLogForSite], this only reads
+     * the activities of the page, and only decodes the activities which are accessed.
+     *
+     * @param pageKey The [ActivityLogPage.nextPageKey] of the previous page, or null to read the first page
+     */
+    fun getActivityLogPageForSite(
+        site: SiteModel,
+        pageSize: Int,
+        pageKey: ActivityLogPageKey? = null,
+        rewindableOnly: Boolean = false
+    ): ActivityLogPage {
+        return activityLogSqlUtils.getActivityPageForSite(site, pageSize, pageKey, rewindableOnly)
+    }
+
     fun getActivityLogItemByRewindId(rewindId: String): ActivityLogModel? {
         return activityLogSqlUtils.getActivityByRewindId(rewindId)
     }
@@ -119,24 +142,69 @@ class ActivityLogStore
         AppLog.d(AppLog.T.API, this.javaClass.name + ": onRegister")
     }
 
-    @SuppressLint("WrongConstant")
     suspend fun fetchActivities(fetchActivityLogPayload: FetchActivityLogPayload): OnActivityLogFetched {
+        if (fetchActivityLogPayload.incremental && !fetchActivityLogPayload.loadMore &&
+                fetchActivityLogPayload.isUnfiltered()) {
+            activityLogSqlUtils.getNewestActivityPublishedDate(fetchActivityLogPayload.site)?.let { newest ->
+                return fetchNewerActivities(fetchActivityLogPayload, newest)
+            }
+        }
         var offset = 0
         if (fetchActivityLogPayload.loadMore) {
-            offset = activityLogSqlUtils.getActivitiesForSite(
-                    fetchActivityLogPayload.site,
-                    SelectQuery.ORDER_ASCENDING
-            ).size
+            offset = activityLogSqlUtils.getActivityCountForSite(fetchActivityLogPayload.site)
         }
         val payload = activityLogRestClient.fetchActivity(fetchActivityLogPayload, ACTIVITY_LOG_PAGE_SIZE, offset)
         return storeActivityLog(payload, FETCH_ACTIVITIES)
     }
 
+    private suspend fun fetchNewerActivities(
+        fetchActivityLogPayload: FetchActivityLogPayload,
+        newest: Date
+    ): OnActivityLogFetched {
+        val payload = activityLogRestClient.fetchActivitiesNewerThan(
+                fetchActivityLogPayload,
+                ACTIVITY_LOG_PAGE_SIZE,
+                newest
+        )
+        payload.error?.let { return OnActivityLogFetched(it, FETCH_ACTIVITIES) }
+        if (payload.totalItems > payload.activityLogModels.size) {
+            // There are more new activities than a page, they can't be joined with the stored ones without a gap
+            val firstPage = activityLogRestClient.fetchActivity(fetchActivityLogPayload, ACTIVITY_LOG_PAGE_SIZE, 0)
+            return storeActivityLog(firstPage, FETCH_ACTIVITIES)
+        }
+        val rowsAffected = if (payload.activityLogModels.isNotEmpty()) {
+            activityLogSqlUtils.insertOrUpdateActivities(payload.site, payload.activityLogModels)
+        } else {
+            0
+        }
+        // The older activities were stored by previous fetches, whether there are more of them isn't known
+        return OnActivityLogFetched(rowsAffected, true, FETCH_ACTIVITIES)
+    }
+
     suspend fun fetchActivitiesRewind(fetchActivitiesRewindPayload: FetchRewindStatePayload): OnRewindStatusFetched {
         val payload = activityLogRestClient.fetchActivityRewind(fetchActivitiesRewindPayload.site)
         return storeRewindState(payload, FETCH_REWIND_STATE)
     }
 
+    /**
+     * Polls the rewind status of the site while a rewind is queued or running, see [JobStatusTracker]. The flow
+     * completes once the rewind is done, the status is read with [getRewindStatusForSite].
+     */
+    fun watchRewindStatus(site: SiteModel): Flow<OnRewindStatusFetched> {
+        return jobStatusTracker.track("rewind-status-${site.id}", object : TrackedJob<OnRewindStatusFetched> {
+            override suspend fun fetchStatus() = fetchActivitiesRewind(FetchRewindStatePayload(site))
+
+            override fun isError(status: OnRewindStatusFetched) = status.isError
+
+            override fun isTerminal(status: OnRewindStatusFetched): Boolean {
+                val rewindStatus = getRewindStatusForSite(site)?.rewind?.status
+                return rewindStatus != QUEUED && rewindStatus != RUNNING
+            }
+
+            override fun progressOf(status: OnRewindStatusFetched) = getRewindStatusForSite(site)?.rewind?.progress
+        })
+    }
+
     suspend fun rewind(rewindPayload: RewindPayload): OnRewind {
         val payload = activityLogRestClient.rewind(rewindPayload.site, rewindPayload.rewindId, rewindPayload.types)
         return emitRewindResult(payload, REWIND)
@@ -157,6 +225,29 @@ class ActivityLogStore
         return storeBackupDownloadState(payload, FETCH_BACKUP_DOWNLOAD_STATE)
     }
 
+    /**
+     * Polls the backup download status of the site until the download is ready, see [JobStatusTracker]. The flow
+     * completes once the download has a url, the status is read with [getBackupDownloadStatusForSite].
+     */
+    fun watchBackupDownloadStatus(site: SiteModel): Flow<OnBackupDownloadStatusFetched> {
+        return jobStatusTracker.track(
+                "backup-download-status-${site.id}",
+                object : TrackedJob<OnBackupDownloadStatusFetched> {
+                    override suspend fun fetchStatus() =
+                            fetchBackupDownloadState(FetchBackupDownloadStatePayload(site))
+
+                    override fun isError(status: OnBackupDownloadStatusFetched) = status.isError
+
+                    override fun isTerminal(status: OnBackupDownloadStatusFetched): Boolean {
+                        val backupDownloadStatus = getBackupDownloadStatusForSite(site)
+                        return backupDownloadStatus == null || backupDownloadStatus.url != null
+                    }
+
+                    override fun progressOf(status: OnBackupDownloadStatusFetched) =
+                            getBackupDownloadStatusForSite(site)?.progress
+                })
+    }
+
     suspend fun fetchActivityTypes(fetchActivityTypesPayload: FetchActivityTypesPayload): OnActivityTypesFetched {
         val payload = activityLogRestClient.fetchActivityTypes(
                 fetchActivityTypesPayload.remoteSiteId,
@@ -352,13 +443,20 @@ class ActivityLogStore
     }
 
     // Payloads
+    /**
+     * @param incremental Whether a refresh of an unfiltered log should only fetch the activities which are newer than
+     * the stored ones, instead of replacing the stored log with the first page
+     */
     class FetchActivityLogPayload(
         val site: SiteModel,
         val loadMore: Boolean = false,
         val after: Date? = null,
         val before: Date? = null,
-        val groups: List<String> = listOf()
-    ) : Payload<BaseRequest.BaseNetworkError>()
+        val groups: List<String> = listOf(),
+        val incremental: Boolean = false
+    ) : Payload<BaseRequest.BaseNetworkError>() {
+        fun isUnfiltered() = after == null && before == null && groups.isEmpty()
+    }
 
     class FetchRewindStatePayload(val site: SiteModel) : Payload<BaseRequest.BaseNetworkError>()
 
@@ -256,6 +256,14 @@ public class CommentStore extends Store {
         return CommentSqlUtils.getCommentsCountForSite(site, statuses);
     }
 
+    /**
+     * Searches the content and the author name of the comments of the site, most relevant first. Every term of the
+     * query is matched as the prefix of a word.
+     */
+    public List<CommentModel> searchCommentsForSite(SiteModel site, String searchQuery) {
+        return CommentSqlUtils.searchCommentsForSite(site, searchQuery);
+    }
+
     public CommentModel getCommentBySiteAndRemoteId(SiteModel site, long remoteCommentId) {
         return CommentSqlUtils.getCommentBySiteAndRemoteId(site, remoteCommentId);
     }
@@ -31,6 +31,8 @@ import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.comments.CommentsMapper
 import org.wordpress.android.fluxc.network.rest.wpcom.comment.CommentsRestClient
 import org.wordpress.android.fluxc.network.xmlrpc.comment.CommentsXMLRPCClient
+import org.wordpress.android.fluxc.outbox.MutationOutbox
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Companion.ENTITY_TYPE_COMMENT
 import org.wordpress.android.fluxc.persistence.comments.CommentEntityList
 import org.wordpress.android.fluxc.persistence.comments.CommentsDao
 import org.wordpress.android.fluxc.persistence.comments.CommentsDao.CommentEntity
@@ -62,10 +64,30 @@ class CommentsStore
     private val commentsMapper: CommentsMapper,
     private val coroutineEngine: CoroutineEngine,
     private val appLogWrapper: AppLogWrapper,
+    private val mutationOutbox: MutationOutbox,
     dispatcher: Dispatcher
 ) : Store(dispatcher) {
+    /**
+     * Replayer of the comment pushes recorded in the [MutationOutbox].
+     */
+    val outboxReplayer: MutationOutbox.Replayer = object : MutationOutbox.Replayer {
+        override fun replay(site: SiteModel, entityId: Long, payload: String?) {
+            coroutineEngine.launch(COMMENTS, this@CommentsStore, "Replaying the push of comment $entityId") {
+                val comment = commentsDao.getCommentById(entityId).firstOrNull()
+                if (comment == null) {
+                    // The comment was deleted locally, there's nothing left to push
+                    mutationOutbox.onMutationSucceeded(ENTITY_TYPE_COMMENT, site, entityId)
+                } else {
+                    sendComment(site, comment)
+                }
+            }
+        }
+    }
+
     data class CommentsActionPayload<T>(
-        val data: T? = null
+        val data: T? = null,
+        // True when the push was queued behind a pending push of the same comment, rather than sent
+        val isQueued: Boolean = false
     ) : Payload<CommentError>() {
         constructor(error: CommentError) : this() {
             this.error = error
@@ -203,21 +225,46 @@ class CommentsStore
     }
 
     suspend fun pushComment(site: SiteModel, comment: CommentEntity): CommentsActionPayload<CommentsActionData> {
+        // Only comments saved locally can be replayed
+        if (comment.id != 0L && mutationOutbox.recordMutation(ENTITY_TYPE_COMMENT, site, comment.id)) {
+            // A push of this comment is already pending, its latest local version will be pushed once it completes
+            return CommentsActionPayload(CommentsActionData(comment.toListOrEmpty(), 0), isQueued = true)
+        }
+        return sendComment(site, comment)
+    }
+
+    private suspend fun sendComment(
+        site: SiteModel,
+        comment: CommentEntity
+    ): CommentsActionPayload<CommentsActionData> {
         val payload = if (site.isUsingWpComRestApi) {
             commentsRestClient.pushComment(site, comment)
         } else {
             commentsXMLRPCClient.pushComment(site, comment)
         }
 
-        return if (payload.isError) {
-            CommentsActionPayload(payload.error, CommentsActionData(comment.toListOrEmpty(), 0))
-        } else {
-            payload.response?.let {
-                val commentUpdated = it.copy(id = comment.id)
-                val cachedCommentAsList = commentsDao.insertOrUpdateCommentForResult(commentUpdated)
-                CommentsActionPayload(CommentsActionData(cachedCommentAsList, cachedCommentAsList.size))
-            } ?: CommentsActionPayload(CommentError(INVALID_RESPONSE, "Network response was valid but empty!"))
+        if (payload.isError) {
+            if (comment.id != 0L) {
+                mutationOutbox.onMutationFailed(ENTITY_TYPE_COMMENT, site, comment.id)
+            }
+            return CommentsActionPayload(payload.error, CommentsActionData(comment.toListOrEmpty(), 0))
+        }
+
+        if (comment.id != 0L && mutationOutbox.hasNewerMutation(ENTITY_TYPE_COMMENT, site, comment.id)) {
+            // The comment was edited again while being pushed: keep the local edits, which are pushed next
+            mutationOutbox.onMutationSucceeded(ENTITY_TYPE_COMMENT, site, comment.id)
+            val localComment = commentsDao.getCommentById(comment.id)
+            return CommentsActionPayload(CommentsActionData(localComment, 0), isQueued = true)
+        }
+
+        if (comment.id != 0L) {
+            mutationOutbox.onMutationSucceeded(ENTITY_TYPE_COMMENT, site, comment.id)
         }
+        return payload.response?.let {
+            val commentUpdated = it.copy(id = comment.id)
+            val cachedCommentAsList = commentsDao.insertOrUpdateCommentForResult(commentUpdated)
+            CommentsActionPayload(CommentsActionData(cachedCommentAsList, cachedCommentAsList.size))
+        } ?: CommentsActionPayload(CommentError(INVALID_RESPONSE, "Network response was valid but empty!"))
     }
 
     suspend fun deleteComment(
@@ -48,6 +48,8 @@ private const val ENCRYPTED_LOG_UPLOAD_UNAVAILABLE_UNTIL_DATE = "ENCRYPTED_LOG_U
 private const val TOO_MANY_REQUESTS_ERROR_DELAY = 60 * 60 * 1000L // 1 hour
 private const val REGULAR_UPLOAD_FAILURE_DELAY = 60 * 1000L // 1 minute
 private const val MAX_RETRY_COUNT = 3
+private const val ENCRYPTED_LOG_FILE_PREFIX = "encrypted-log-"
+private const val ENCRYPTED_LOG_FILE_SUFFIX = ".json"
 
 @Singleton
 class EncryptedLogStore @Inject constructor(
@@ -142,20 +144,25 @@ class EncryptedLogStore @Inject constructor(
             uploadNext()
             return
         }
+        // The encrypted log is streamed to a temporary file and uploaded from there, so neither the log nor its
+        // encrypted version is ever fully loaded in memory
+        val encryptedFile = File.createTempFile(ENCRYPTED_LOG_FILE_PREFIX, ENCRYPTED_LOG_FILE_SUFFIX)
         try {
-            val encryptedText = logEncrypter.encrypt(text = encryptedLog.file.readText(), uuid = encryptedLog.uuid)
+            logEncrypter.encrypt(source = encryptedLog.file, destination = encryptedFile, uuid = encryptedLog.uuid)
 
             // Update the upload state of the log
             encryptedLog.copy(uploadState = UPLOADING).let {
                 encryptedLogSqlUtils.insertOrUpdateEncryptedLog(it)
             }
 
-            when (val result = encryptedLogRestClient.uploadLog(encryptedLog.uuid, encryptedText)) {
+            when (val result = encryptedLogRestClient.uploadLog(encryptedLog.uuid, encryptedFile)) {
                 is LogUploaded -> handleSuccessfulUpload(encryptedLog)
                 is LogUploadFailed -> handleFailedUpload(encryptedLog, result.error)
             }
         } catch (e: UnsatisfiedLinkError) {
             handleFailedUpload(encryptedLog, UnsatisfiedLinkException)
+        } finally {
+            encryptedFile.delete()
         }
     }
 
@@ -18,7 +18,6 @@ import org.wordpress.android.fluxc.action.ListAction.LIST_REQUIRES_REFRESH
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_ALL_LISTS
 import org.wordpress.android.fluxc.action.ListAction.REMOVE_EXPIRED_LISTS
 import org.wordpress.android.fluxc.annotations.action.Action
-import org.wordpress.android.fluxc.model.LocalOrRemoteId.RemoteId
 import org.wordpress.android.fluxc.model.list.LIST_STATE_TIMEOUT
 import org.wordpress.android.fluxc.model.list.ListDescriptor
 import org.wordpress.android.fluxc.model.list.ListDescriptorTypeIdentifier
@@ -148,7 +147,7 @@ class ListStore @Inject constructor(
         listDescriptor: LIST_DESCRIPTOR,
         dataSource: ListItemDataSourceInterface<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM>
     ): PagedListFactory<LIST_DESCRIPTOR, ITEM_IDENTIFIER, LIST_ITEM> {
-        val getRemoteItemIds = { getListItems(listDescriptor).map { RemoteId(value = it) } }
+        val getRemoteItemIds = { getListItems(listDescriptor) }
         val getIsListFullyFetched = { getListState(listDescriptor) == FETCHED }
         return PagedListFactory(
                 createDataSource = {
@@ -162,13 +161,13 @@ class ListStore @Inject constructor(
     }
 
     /**
-     * A helper function that returns the list items for the given [ListDescriptor].
+     * A helper function that returns the remote ids of the list items for the given [ListDescriptor].
      */
-    private fun getListItems(listDescriptor: ListDescriptor): List<Long> {
+    private fun getListItems(listDescriptor: ListDescriptor): LongArray {
         val listModel = listSqlUtils.getList(listDescriptor)
         return if (listModel != null) {
-            listItemSqlUtils.getListItems(listModel.id).map { it.remoteItemId }
-        } else emptyList()
+            listItemSqlUtils.getListItemRemoteIds(listModel.id)
+        } else LongArray(0)
     }
 
     /**
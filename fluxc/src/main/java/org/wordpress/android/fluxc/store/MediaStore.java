@@ -92,6 +92,14 @@ public class MediaStore extends Store {
         public boolean loadMore;
         public MimeType.Type mimeType;
         public int number = DEFAULT_NUM_MEDIA_PER_FETCH;
+        /**
+         * Only supported by WP.com REST API sites. When true, the first page only fetches the media uploaded since the
+         * previous delta sync of the same MIME type, and media are only removed when they're missing from a fetched
+         * page covering their upload date, instead of removing every media that isn't in the first page.
+         * The media list doesn't return deleted media, so media deleted remotely are only removed locally once a
+         * page covering their upload date is fetched, or on the next sync that isn't a delta sync.
+         */
+        public boolean deltaSync;
 
         public FetchMediaListPayload(SiteModel site) {
             this.site = site;
@@ -120,6 +128,9 @@ public class MediaStore extends Store {
         public boolean loadedMore;
         public boolean canLoadMore;
         public MimeType.Type mimeType;
+        public boolean deltaSync;
+        // Upload date after which the media were fetched, if the fetch was restricted to the latest uploads
+        @Nullable public String uploadedAfter;
         public FetchMediaListResponsePayload(SiteModel site,
                                              @NonNull List<MediaModel> mediaList,
                                              boolean loadedMore,
@@ -652,6 +663,14 @@ public class MediaStore extends Store {
         return MediaSqlUtils.searchSiteMedia(siteModel, searchTerm);
     }
 
+    /**
+     * Searches the title, caption, description and file name of the media of the site, most relevant first. Unlike
+     * {@link #searchSiteMedia}, every term of the query is matched as the prefix of a word instead of anywhere.
+     */
+    public List<MediaModel> searchSiteMediaByRelevance(SiteModel siteModel, String searchQuery) {
+        return MediaSqlUtils.searchSiteMediaByRelevance(siteModel, searchQuery);
+    }
+
     public List<MediaModel> searchSiteImages(SiteModel siteModel, String searchTerm) {
         return MediaSqlUtils.searchSiteImages(siteModel, searchTerm);
     }
@@ -694,6 +713,7 @@ public class MediaStore extends Store {
 
     private void removeAllMedia() {
         MediaSqlUtils.deleteAllMedia();
+        MediaSqlUtils.deleteAllMediaSyncWatermarks();
         OnMediaChanged event = new OnMediaChanged(MediaAction.REMOVE_ALL_MEDIA);
         emitChange(event);
     }
@@ -807,7 +827,12 @@ public class MediaStore extends Store {
             }
         }
         if (payload.site.isUsingWpComRestApi()) {
-            mMediaRestClient.fetchMediaList(payload.site, payload.number, offset, payload.mimeType);
+            String uploadedAfter = null;
+            if (payload.deltaSync && !payload.loadMore) {
+                uploadedAfter = MediaSqlUtils.getMediaSyncWatermark(payload.site, getMimeTypeValue(payload.mimeType));
+            }
+            mMediaRestClient.fetchMediaList(payload.site, payload.number, offset, payload.mimeType,
+                    payload.deltaSync, uploadedAfter);
         } else {
             mMediaXmlrpcClient.fetchMediaList(payload.site, payload.number, offset, payload.mimeType);
         }
@@ -889,6 +914,11 @@ public class MediaStore extends Store {
     }
 
     private void updateFetchedMediaList(@NonNull FetchMediaListResponsePayload payload) {
+        if (payload.deltaSync) {
+            updateDeltaSyncedMediaList(payload);
+            return;
+        }
+
         // if we loaded another page, simply add the fetched media and be done
         if (payload.loadedMore) {
             for (MediaModel media : payload.mediaList) {
@@ -919,6 +949,8 @@ public class MediaStore extends Store {
         }
         MediaSqlUtils.deleteUploadedSiteMediaNotInList(
                 payload.site, existingMediaList, mimeTypeValue);
+        // The media of this MIME type were replaced by the first page, their delta syncs have to start over
+        MediaSqlUtils.deleteMediaSyncWatermarks(payload.site, mimeTypeValue);
 
         // add new media
         for (MediaModel media : newMediaList) {
@@ -926,6 +958,65 @@ public class MediaStore extends Store {
         }
     }
 
+    /**
+     * Merges a page of media fetched for a delta sync. The media are listed newest first, so a page contains every
+     * remote media uploaded between its oldest and newest media: the local media uploaded within these dates which
+     * aren't in the page were deleted remotely, and the local media outside of them are left untouched.
+     */
+    private void updateDeltaSyncedMediaList(@NonNull FetchMediaListResponsePayload payload) {
+        String mimeTypeValue = getMimeTypeValue(payload.mimeType);
+        List<MediaModel> uploadedMedia = new ArrayList<>();
+        String newestUploadDate = null;
+        String oldestUploadDate = null;
+        for (MediaModel media : payload.mediaList) {
+            uploadedMedia.add(media);
+            String uploadDate = media.getUploadDate();
+            if (uploadDate != null) {
+                if (newestUploadDate == null || uploadDate.compareTo(newestUploadDate) > 0) {
+                    newestUploadDate = uploadDate;
+                }
+                if (oldestUploadDate == null || uploadDate.compareTo(oldestUploadDate) < 0) {
+                    oldestUploadDate = uploadDate;
+                }
+            }
+        }
+        MediaSqlUtils.insertOrUpdateSiteMediaList(payload.site, uploadedMedia);
+
+        if (!payload.loadedMore) {
+            if (payload.uploadedAfter != null && !payload.canLoadMore) {
+                // Every media uploaded since the previous sync was fetched, older media are still in sync
+                MediaSqlUtils.deleteUploadedSiteMediaInRangeNotInList(payload.site, uploadedMedia, mimeTypeValue,
+                        payload.uploadedAfter, null);
+            } else {
+                // Either the first sync, or more media were uploaded since the previous sync than a page can hold:
+                // the local media older than the page may not match the remote ones anymore
+                MediaSqlUtils.deleteUploadedSiteMediaNotInList(payload.site, uploadedMedia, mimeTypeValue);
+                MediaSqlUtils.deleteMediaSyncWatermarks(payload.site, mimeTypeValue);
+            }
+            String watermark = payload.uploadedAfter;
+            if (newestUploadDate != null && (watermark == null || newestUploadDate.compareTo(watermark) > 0)) {
+                watermark = newestUploadDate;
+            }
+            if (watermark != null) {
+                MediaSqlUtils.setMediaSyncWatermark(payload.site, mimeTypeValue, watermark);
+            }
+        } else if (!uploadedMedia.isEmpty()) {
+            // Media uploaded at the same time as the page boundaries may belong to the adjacent pages
+            MediaSqlUtils.deleteUploadedSiteMediaInRangeNotInList(payload.site, uploadedMedia, mimeTypeValue,
+                    payload.canLoadMore ? oldestUploadDate : null, newestUploadDate);
+        }
+
+        if (payload.uploadedAfter != null && !payload.canLoadMore) {
+            // Only the latest uploads were fetched, the next page tells whether older media remain to be loaded
+            payload.canLoadMore = true;
+        }
+    }
+
+    @NonNull
+    private static String getMimeTypeValue(@Nullable MimeType.Type mimeType) {
+        return mimeType != null ? mimeType.getValue() : "";
+    }
+
     private void handleMediaListFetched(@NonNull FetchMediaListResponsePayload payload) {
         OnMediaListFetched onMediaListFetched;
 
@@ -375,23 +375,26 @@ class NotificationStore @Inject constructor(
         // Create a mutable copy of freshly fetched notifications map
         val notifsToFetch = payload.hashesMap.toMutableMap()
 
-        // Pull cached notifications from the database and build a map of remoteNoteId to noteHash
-        val existingNotifsByRemoteIdMap = notificationSqlUtils
-                .getNotifications().associateBy { it.remoteNoteId }.toMap()
+        // Pull the remoteNoteId to noteHash pairs of the cached notifications from the database
+        val cachedNoteHashes = notificationSqlUtils.getNoteHashes()
 
         // Scrub the newly fetched list against the cached db records. Remove any entries for records that
         // do not require an update from the remote API
-        existingNotifsByRemoteIdMap.entries.forEach { cached ->
+        val staleRemoteNoteIds = mutableListOf<Long>()
+        for (index in 0 until cachedNoteHashes.size()) {
+            val remoteNoteId = cachedNoteHashes.keyAt(index)
             // Compare new note_hash values against cached values. Delete from db if
             // cached notification not present in new list
-            notifsToFetch[cached.key]?.let { newNoteHash ->
-                if (cached.value.noteHash == newNoteHash) {
-                    // Notifications are identical. No update needed, remove from
-                    // list of notifs to fetch
-                    notifsToFetch.remove(cached.key)
-                }
-            } ?: notificationSqlUtils.deleteNotificationByRemoteId(cached.key) // Delete notification from the db
+            val newNoteHash = notifsToFetch[remoteNoteId]
+            if (newNoteHash == null) {
+                staleRemoteNoteIds.add(remoteNoteId)
+            } else if (newNoteHash == cachedNoteHashes.valueAt(index)) {
+                // Notifications are identical. No update needed, remove from
+                // list of notifs to fetch
+                notifsToFetch.remove(remoteNoteId)
+            }
         }
+        notificationSqlUtils.deleteNotificationsByRemoteIds(staleRemoteNoteIds)
 
         // Fetch new and updated notifications from the remote api
         notificationRestClient.fetchNotifications(notifsToFetch.keys.toList())
@@ -0,0 +1,114 @@
+package org.wordpress.android.fluxc.store;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.wordpress.android.fluxc.model.plugin.PluginDirectoryType;
+import org.wordpress.android.fluxc.model.plugin.WPOrgPluginModel;
+import org.wordpress.android.fluxc.persistence.PluginSqlUtils;
+import org.wordpress.android.fluxc.utils.CurrentTimeProvider;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory copy of the pages of the wp.org plugin directories, so that the directory lists bound while scrolling
+ * aren't read from the database every time.
+ *
+ * A directory type is either cached with all of its pages, mirroring the database, or not cached at all. The whole
+ * directory is evicted once one of its pages is older than {@link #TTL_MS}, and read again from the database.
+ */
+class PluginDirectoryPageCache {
+    static final long TTL_MS = 10 * 60 * 1000L;
+
+    private static class Page {
+        private final long mCachedAt;
+        private final List<WPOrgPluginModel> mPlugins;
+
+        Page(long cachedAt, List<WPOrgPluginModel> plugins) {
+            mCachedAt = cachedAt;
+            mPlugins = plugins;
+        }
+    }
+
+    private final CurrentTimeProvider mCurrentTimeProvider;
+    private final Map<PluginDirectoryType, SortedMap<Integer, Page>> mDirectories =
+            new EnumMap<>(PluginDirectoryType.class);
+
+    PluginDirectoryPageCache(CurrentTimeProvider currentTimeProvider) {
+        mCurrentTimeProvider = currentTimeProvider;
+    }
+
+    /**
+     * Returns the plugins of the given directory type, from the cache if its pages are fresh, from the database
+     * otherwise.
+     */
+    synchronized @NonNull List<WPOrgPluginModel> getPlugins(PluginDirectoryType directoryType) {
+        SortedMap<Integer, List<WPOrgPluginModel>> pages = getFreshPages(directoryType);
+        if (pages == null) {
+            pages = PluginSqlUtils.getWPOrgPluginPagesForDirectory(directoryType);
+            long now = now();
+            SortedMap<Integer, Page> cachedPages = new TreeMap<>();
+            for (Map.Entry<Integer, List<WPOrgPluginModel>> page : pages.entrySet()) {
+                cachedPages.put(page.getKey(), new Page(now, page.getValue()));
+            }
+            mDirectories.put(directoryType, cachedPages);
+        }
+        return PluginSqlUtils.flattenPluginDirectoryPages(pages);
+    }
+
+    /**
+     * Records a page of the given directory type which was just written to the database. The other directory types
+     * are evicted, since they might list some of the plugins of the page with their previous details.
+     *
+     * @param isFirstPage true when the page replaced every other page of the directory
+     */
+    synchronized void putPage(PluginDirectoryType directoryType, int page, boolean isFirstPage,
+                              @NonNull List<WPOrgPluginModel> plugins) {
+        SortedMap<Integer, Page> cachedPages = mDirectories.get(directoryType);
+        mDirectories.clear();
+        if (cachedPages != null) {
+            mDirectories.put(directoryType, cachedPages);
+        }
+        if (isFirstPage) {
+            cachedPages = new TreeMap<>();
+            mDirectories.put(directoryType, cachedPages);
+        } else if (cachedPages == null) {
+            // The other pages aren't cached, the whole directory will be read from the database on the next access
+            return;
+        }
+        cachedPages.put(page, new Page(now(), plugins));
+    }
+
+    /**
+     * Evicts every directory, to be called when the details of wp.org plugins are updated outside of a directory
+     * fetch, since the cached pages hold the previous details.
+     */
+    synchronized void clear() {
+        mDirectories.clear();
+    }
+
+    private @Nullable SortedMap<Integer, List<WPOrgPluginModel>> getFreshPages(PluginDirectoryType directoryType) {
+        SortedMap<Integer, Page> cachedPages = mDirectories.get(directoryType);
+        if (cachedPages == null) {
+            return null;
+        }
+        long now = now();
+        SortedMap<Integer, List<WPOrgPluginModel>> pages = new TreeMap<>();
+        for (Map.Entry<Integer, Page> page : cachedPages.entrySet()) {
+            if (now - page.getValue().mCachedAt >= TTL_MS) {
+                mDirectories.remove(directoryType);
+                return null;
+            }
+            pages.put(page.getKey(), page.getValue().mPlugins);
+        }
+        return pages;
+    }
+
+    private long now() {
+        return mCurrentTimeProvider.currentDate().getTime();
+    }
+}
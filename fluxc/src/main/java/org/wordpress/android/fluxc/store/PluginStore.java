@@ -1,5 +1,7 @@
 package org.wordpress.android.fluxc.store;
 
+import android.text.TextUtils;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -22,10 +24,16 @@ import org.wordpress.android.fluxc.network.BaseRequest.GenericErrorType;
 import org.wordpress.android.fluxc.network.rest.wpcom.plugin.PluginRestClient;
 import org.wordpress.android.fluxc.network.wporg.plugin.PluginWPOrgClient;
 import org.wordpress.android.fluxc.persistence.PluginSqlUtils;
+import org.wordpress.android.fluxc.utils.CurrentTimeProvider;
 import org.wordpress.android.util.AppLog;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -77,6 +85,15 @@ public class PluginStore extends Store {
         }
     }
 
+    @SuppressWarnings("WeakerAccess")
+    public static class FetchWPOrgPluginsPayload extends Payload<BaseNetworkError> {
+        public List<String> pluginSlugs;
+
+        public FetchWPOrgPluginsPayload(@NonNull List<String> pluginSlugs) {
+            this.pluginSlugs = pluginSlugs;
+        }
+    }
+
     @SuppressWarnings("WeakerAccess")
     public static class InstallSitePluginPayload extends Payload<BaseNetworkError> {
         public SiteModel site;
@@ -204,6 +221,22 @@ public class PluginStore extends Store {
         }
     }
 
+    @SuppressWarnings("WeakerAccess")
+    public static class FetchedWPOrgPluginsPayload extends Payload<FetchWPOrgPluginError> {
+        public List<String> pluginSlugs;
+        public List<WPOrgPluginModel> wpOrgPlugins;
+
+        public FetchedWPOrgPluginsPayload(List<String> pluginSlugs, FetchWPOrgPluginError error) {
+            this.pluginSlugs = pluginSlugs;
+            this.error = error;
+        }
+
+        public FetchedWPOrgPluginsPayload(List<String> pluginSlugs, List<WPOrgPluginModel> plugins) {
+            this.pluginSlugs = pluginSlugs;
+            this.wpOrgPlugins = plugins;
+        }
+    }
+
     @SuppressWarnings("WeakerAccess")
     public static class InstalledSitePluginPayload extends Payload<InstallSitePluginError> {
         public SiteModel site;
@@ -662,6 +695,20 @@ public class PluginStore extends Store {
         }
     }
 
+    /**
+     * Emitted once per batch of wp.org plugins fetched with {@link PluginAction#FETCH_WPORG_PLUGINS}. The requested
+     * slugs which don't exist on wp.org are part of {@link #pluginSlugs} too. An {@link OnWPOrgPluginFetched} is
+     * emitted for each of the plugins of the batch as well.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static class OnWPOrgPluginsFetched extends OnChanged<FetchWPOrgPluginError> {
+        public List<String> pluginSlugs;
+
+        public OnWPOrgPluginsFetched(List<String> pluginSlugs) {
+            this.pluginSlugs = pluginSlugs;
+        }
+    }
+
     @SuppressWarnings("WeakerAccess")
     public static class OnSitePluginsRemoved extends OnChanged<RemoveSitePluginsError> {
         public SiteModel site;
@@ -673,18 +720,31 @@ public class PluginStore extends Store {
         }
     }
 
+    // Number of slugs sent in each multi-slug wp.org plugin request
+    static final int WPORG_PLUGINS_BATCH_SIZE = 50;
+    // Plugins which were requested less than this long ago aren't requested again, including the ones which don't
+    // exist on wp.org, such as premium or custom plugins, that would otherwise be requested on each render
+    static final long WPORG_PLUGIN_FETCH_TTL_MS = 60 * 60 * 1000L;
+
     private final PluginRestClient mPluginRestClient;
     private final PluginWPOrgClient mPluginWPOrgClient;
     private final PluginCoroutineStore mPluginCoroutineStore;
+    private final PluginDirectoryPageCache mPluginDirectoryPageCache;
+    private final CurrentTimeProvider mCurrentTimeProvider;
+    // Time of the latest fetch of the wp.org plugins requested with FETCH_WPORG_PLUGINS, by slug
+    private final Map<String, Long> mWPOrgPluginFetchTimes = new HashMap<>();
 
     @Inject public PluginStore(Dispatcher dispatcher,
                                PluginRestClient pluginRestClient,
                                PluginWPOrgClient pluginWPOrgClient,
-                               PluginCoroutineStore pluginCoroutineStore) {
+                               PluginCoroutineStore pluginCoroutineStore,
+                               CurrentTimeProvider currentTimeProvider) {
         super(dispatcher);
         mPluginRestClient = pluginRestClient;
         mPluginWPOrgClient = pluginWPOrgClient;
         mPluginCoroutineStore = pluginCoroutineStore;
+        mCurrentTimeProvider = currentTimeProvider;
+        mPluginDirectoryPageCache = new PluginDirectoryPageCache(currentTimeProvider);
     }
 
     @Override
@@ -713,6 +773,9 @@ public class PluginStore extends Store {
             case FETCH_WPORG_PLUGIN:
                 fetchWPOrgPlugin((String) action.getPayload());
                 break;
+            case FETCH_WPORG_PLUGINS:
+                fetchWPOrgPlugins((FetchWPOrgPluginsPayload) action.getPayload());
+                break;
             case INSTALL_SITE_PLUGIN:
                 installSitePlugin((InstallSitePluginPayload) action.getPayload());
                 break;
@@ -739,6 +802,9 @@ public class PluginStore extends Store {
             case FETCHED_WPORG_PLUGIN:
                 fetchedWPOrgPlugin((FetchedWPOrgPluginPayload) action.getPayload());
                 break;
+            case FETCHED_WPORG_PLUGINS:
+                fetchedWPOrgPlugins((FetchedWPOrgPluginsPayload) action.getPayload());
+                break;
             case INSTALLED_SITE_PLUGIN:
                 installedSitePlugin((InstalledSitePluginPayload) action.getPayload());
                 break;
@@ -756,14 +822,7 @@ public class PluginStore extends Store {
         if (type == PluginDirectoryType.SITE) {
             return getSitePlugins(site);
         }
-        List<ImmutablePluginModel> immutablePlugins = new ArrayList<>();
-        List<WPOrgPluginModel> wpOrgPlugins = PluginSqlUtils.getWPOrgPluginsForDirectory(type);
-        for (WPOrgPluginModel wpOrgPlugin : wpOrgPlugins) {
-            String slug = wpOrgPlugin.getSlug();
-            SitePluginModel sitePlugin = PluginSqlUtils.getSitePluginBySlug(site, slug);
-            immutablePlugins.add(ImmutablePluginModel.newInstance(sitePlugin, wpOrgPlugin));
-        }
-        return immutablePlugins;
+        return PluginSqlUtils.getImmutablePlugins(site, mPluginDirectoryPageCache.getPlugins(type));
     }
 
     public @Nullable ImmutablePluginModel getImmutablePluginBySlug(@NonNull SiteModel site, String slug) {
@@ -773,15 +832,17 @@ public class PluginStore extends Store {
     }
 
     private @NonNull List<ImmutablePluginModel> getSitePlugins(@NonNull SiteModel site) {
-        List<ImmutablePluginModel> immutablePlugins = new ArrayList<>();
-        List<SitePluginModel> sitePlugins = PluginSqlUtils.getSitePlugins(site);
-        for (SitePluginModel sitePluginModel : sitePlugins) {
-            String slug = sitePluginModel.getSlug();
-            WPOrgPluginModel wpOrgPluginModel = PluginSqlUtils.getWPOrgPluginBySlug(slug);
-            if (wpOrgPluginModel == null) {
-                mDispatcher.dispatch(PluginActionBuilder.newFetchWporgPluginAction(slug));
+        List<ImmutablePluginModel> immutablePlugins = PluginSqlUtils.getImmutableSitePlugins(site);
+        List<String> missingSlugs = new ArrayList<>();
+        for (ImmutablePluginModel immutablePlugin : immutablePlugins) {
+            if (!immutablePlugin.doesHaveWPOrgPluginDetails()) {
+                missingSlugs.add(immutablePlugin.getSlug());
             }
-            immutablePlugins.add(ImmutablePluginModel.newInstance(sitePluginModel, wpOrgPluginModel));
+        }
+        if (!missingSlugs.isEmpty()) {
+            // The slugs are filtered once the action is handled, so this is a no-op while they're being fetched
+            mDispatcher.dispatch(PluginActionBuilder.newFetchWporgPluginsAction(
+                    new FetchWPOrgPluginsPayload(missingSlugs)));
         }
         return immutablePlugins;
     }
@@ -847,6 +908,25 @@ public class PluginStore extends Store {
         mPluginWPOrgClient.fetchWPOrgPlugin(pluginSlug);
     }
 
+    private void fetchWPOrgPlugins(FetchWPOrgPluginsPayload payload) {
+        List<String> slugsToFetch = new ArrayList<>();
+        long now = mCurrentTimeProvider.currentDate().getTime();
+        synchronized (mWPOrgPluginFetchTimes) {
+            for (String slug : new LinkedHashSet<>(payload.pluginSlugs)) {
+                Long fetchTime = mWPOrgPluginFetchTimes.get(slug);
+                if (TextUtils.isEmpty(slug) || (fetchTime != null && now - fetchTime < WPORG_PLUGIN_FETCH_TTL_MS)) {
+                    continue;
+                }
+                mWPOrgPluginFetchTimes.put(slug, now);
+                slugsToFetch.add(slug);
+            }
+        }
+        for (int i = 0; i < slugsToFetch.size(); i += WPORG_PLUGINS_BATCH_SIZE) {
+            List<String> batch = slugsToFetch.subList(i, Math.min(i + WPORG_PLUGINS_BATCH_SIZE, slugsToFetch.size()));
+            mPluginWPOrgClient.fetchWPOrgPlugins(new ArrayList<>(batch));
+        }
+    }
+
     private void installSitePlugin(InstallSitePluginPayload payload) {
         if (payload.site.isUsingWpComRestApi() && payload.site.isJetpackConnected()) {
             mPluginRestClient.installSitePlugin(payload.site, payload.slug);
@@ -920,20 +1000,17 @@ public class PluginStore extends Store {
             if (event.type == PluginDirectoryType.SITE) {
                 PluginSqlUtils.insertOrReplaceSitePlugins(payload.site, payload.sitePlugins);
             } else {
-                if (!payload.loadMore) {
-                    // This is a fresh list, we need to remove the directory records for the fetched type
-                    PluginSqlUtils.deletePluginDirectoryForType(payload.type);
-                }
-                if (payload.wpOrgPlugins != null) {
-                    // For pagination to work correctly, we need to separate the actual plugin data from the list of
-                    // plugins for each directory type. This is important because the same data will be fetched from
-                    // multiple sources. We fetch different directory types (same plugin can be in both new and popular)
-                    // as well as do standalone fetches for plugins with `FETCH_WPORG_PLUGIN` action. We also need to
-                    // keep track of the page the plugin belongs to, because the `per_page` parameter is unreliable.
-                    PluginSqlUtils.insertPluginDirectoryList(
-                            pluginDirectoryListFromWPOrgPlugins(payload.wpOrgPlugins, payload.type, payload.page));
-                    PluginSqlUtils.insertOrUpdateWPOrgPluginList(payload.wpOrgPlugins);
-                }
+                // A fresh list replaces the directory records of the fetched type, otherwise only the fetched page is
+                List<WPOrgPluginModel> wpOrgPlugins =
+                        payload.wpOrgPlugins != null ? payload.wpOrgPlugins : new ArrayList<WPOrgPluginModel>();
+                // For pagination to work correctly, we need to separate the actual plugin data from the list of
+                // plugins for each directory type. This is important because the same data will be fetched from
+                // multiple sources. We fetch different directory types (same plugin can be in both new and popular)
+                // as well as do standalone fetches for plugins with `FETCH_WPORG_PLUGIN` action. We also need to
+                // keep track of the page the plugin belongs to, because the `per_page` parameter is unreliable.
+                PluginSqlUtils.replacePluginDirectoryPage(payload.type, payload.page, !payload.loadMore,
+                        pluginDirectoryListFromWPOrgPlugins(wpOrgPlugins, payload.type, payload.page), wpOrgPlugins);
+                mPluginDirectoryPageCache.putPage(payload.type, payload.page, !payload.loadMore, wpOrgPlugins);
             }
         }
         emitChange(event);
@@ -945,10 +1022,49 @@ public class PluginStore extends Store {
             event.error = payload.error;
         } else if (event.pluginSlug != null) {
             PluginSqlUtils.insertOrUpdateWPOrgPlugin(payload.wpOrgPlugin);
+            mPluginDirectoryPageCache.clear();
         }
         emitChange(event);
     }
 
+    private void fetchedWPOrgPlugins(FetchedWPOrgPluginsPayload payload) {
+        OnWPOrgPluginsFetched event = new OnWPOrgPluginsFetched(payload.pluginSlugs);
+        if (payload.isError()) {
+            event.error = payload.error;
+            // Let the next request retry these plugins right away, they might exist on wp.org
+            synchronized (mWPOrgPluginFetchTimes) {
+                mWPOrgPluginFetchTimes.keySet().removeAll(payload.pluginSlugs);
+            }
+        } else {
+            PluginSqlUtils.insertOrUpdateWPOrgPluginList(payload.wpOrgPlugins);
+            mPluginDirectoryPageCache.clear();
+        }
+        emitChange(event);
+        emitWPOrgPluginFetchedEvents(payload);
+    }
+
+    /**
+     * Emits an {@link OnWPOrgPluginFetched} for each plugin of a batch, as if they had been fetched one at a time,
+     * for the subscribers which only listen to the fetch of a single plugin.
+     */
+    private void emitWPOrgPluginFetchedEvents(FetchedWPOrgPluginsPayload payload) {
+        Set<String> fetchedSlugs = new HashSet<>();
+        if (!payload.isError()) {
+            for (WPOrgPluginModel wpOrgPlugin : payload.wpOrgPlugins) {
+                fetchedSlugs.add(wpOrgPlugin.getSlug());
+            }
+        }
+        for (String pluginSlug : payload.pluginSlugs) {
+            OnWPOrgPluginFetched event = new OnWPOrgPluginFetched(pluginSlug);
+            if (payload.isError()) {
+                event.error = payload.error;
+            } else if (!fetchedSlugs.contains(pluginSlug)) {
+                event.error = new FetchWPOrgPluginError(FetchWPOrgPluginErrorType.PLUGIN_DOES_NOT_EXIST);
+            }
+            emitChange(event);
+        }
+    }
+
     private void installedSitePlugin(InstalledSitePluginPayload payload) {
         OnSitePluginInstalled event = new OnSitePluginInstalled(payload.site, payload.slug);
         if (payload.isError()) {
@@ -981,15 +1097,8 @@ public class PluginStore extends Store {
         } else {
             event.canLoadMore = payload.canLoadMore;
             PluginSqlUtils.insertOrUpdateWPOrgPluginList(payload.plugins);
-            List<ImmutablePluginModel> immutablePluginList = new ArrayList<>();
-            for (WPOrgPluginModel wpOrgPlugin : payload.plugins) {
-                SitePluginModel sitePlugin = null;
-                if (payload.site != null) {
-                    sitePlugin = PluginSqlUtils.getSitePluginBySlug(payload.site, wpOrgPlugin.getSlug());
-                }
-                immutablePluginList.add(ImmutablePluginModel.newInstance(sitePlugin, wpOrgPlugin));
-            }
-            event.plugins = immutablePluginList;
+            mPluginDirectoryPageCache.clear();
+            event.plugins = PluginSqlUtils.getImmutablePlugins(payload.site, payload.plugins);
         }
         emitChange(event);
     }
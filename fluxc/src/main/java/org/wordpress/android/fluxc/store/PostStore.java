@@ -47,6 +47,7 @@ import org.wordpress.android.fluxc.network.BaseRequest.BaseNetworkError;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRemoteAutoSaveModel;
 import org.wordpress.android.fluxc.network.rest.wpcom.post.PostRestClient;
 import org.wordpress.android.fluxc.network.xmlrpc.post.PostXMLRPCClient;
+import org.wordpress.android.fluxc.outbox.MutationOutbox;
 import org.wordpress.android.fluxc.persistence.PostSqlUtils;
 import org.wordpress.android.fluxc.store.ListStore.FetchedListItemsPayload;
 import org.wordpress.android.fluxc.store.ListStore.ListError;
@@ -377,6 +378,9 @@ public class PostStore extends Store {
     public static class OnPostUploaded extends OnChanged<PostError> {
         public PostModel post;
         public boolean isFirstTimePublish;
+        // True when the latest local version of the post is queued behind a pending push of the same post, and will
+        // be pushed once it completes
+        public boolean isQueued;
 
         public OnPostUploaded(PostModel post, boolean isFirstTimePublish) {
             this.post = post;
@@ -437,17 +441,37 @@ public class PostStore extends Store {
     private final PostRestClient mPostRestClient;
     private final PostXMLRPCClient mPostXMLRPCClient;
     private final PostSqlUtils mPostSqlUtils;
+    private final MutationOutbox mMutationOutbox;
     // Ensures that the UploadStore is initialized whenever the PostStore is,
     // to ensure actions are shadowed and repeated by the UploadStore
     @SuppressWarnings("unused")
     @Inject UploadStore mUploadStore;
 
     @Inject public PostStore(Dispatcher dispatcher, PostRestClient postRestClient, PostXMLRPCClient postXMLRPCClient,
-                     PostSqlUtils postSqlUtils) {
+                     PostSqlUtils postSqlUtils, MutationOutbox mutationOutbox) {
         super(dispatcher);
         mPostRestClient = postRestClient;
         mPostXMLRPCClient = postXMLRPCClient;
         mPostSqlUtils = postSqlUtils;
+        mMutationOutbox = mutationOutbox;
+    }
+
+    /**
+     * Returns the replayer of the post pushes recorded in the {@link MutationOutbox}.
+     */
+    public MutationOutbox.Replayer getOutboxReplayer() {
+        return new MutationOutbox.Replayer() {
+            @Override
+            public void replay(@NonNull SiteModel site, long entityId, @Nullable String payload) {
+                PostModel post = getPostByLocalPostId((int) entityId);
+                if (post == null) {
+                    // The post was deleted locally, there's nothing left to push
+                    mMutationOutbox.onMutationSucceeded(MutationOutbox.ENTITY_TYPE_POST, site, entityId);
+                    return;
+                }
+                sendPost(post, site, Boolean.parseBoolean(payload));
+            }
+        };
     }
 
     @Override
@@ -575,6 +599,22 @@ public class PostStore extends Store {
         return mPostSqlUtils.getPostsWithLocalChanges(site.getId(), false);
     }
 
+    /**
+     * Returns the local ids of the posts of the site matching the search query, most relevant first. Every term of the
+     * query is matched as the prefix of a word.
+     */
+    public List<LocalId> searchPostIds(@NonNull SiteModel site, String searchQuery) {
+        return mPostSqlUtils.searchPostIds(site, false, searchQuery);
+    }
+
+    /**
+     * Returns the local ids of the pages of the site matching the search query, most relevant first. Every term of the
+     * query is matched as the prefix of a word.
+     */
+    public List<LocalId> searchPageIds(@NonNull SiteModel site, String searchQuery) {
+        return mPostSqlUtils.searchPostIds(site, true, searchQuery);
+    }
+
     /**
      * Given a local ID for a post, returns that post as a {@link PostModel}.
      */
@@ -632,6 +672,9 @@ public class PostStore extends Store {
 
     /**
      * Returns the local posts for the given post list descriptor.
+     *
+     * The search query of the descriptor is matched against the beginning of the words of the title and the content,
+     * "hel wor" matches "Hello World" but "world" doesn't match "HelloWorld".
      */
     public @NonNull List<LocalId> getLocalPostIdsForDescriptor(PostListDescriptor postListDescriptor) {
         String searchQuery = null;
@@ -1070,10 +1113,27 @@ public class PostStore extends Store {
 
     private void handlePushPostCompleted(RemotePostPayload payload) {
         if (payload.isError()) {
+            mMutationOutbox.onMutationFailed(MutationOutbox.ENTITY_TYPE_POST, payload.site, payload.post.getId());
             OnPostUploaded onPostUploaded = new OnPostUploaded(payload.post, payload.isFirstTimePublish);
             onPostUploaded.error = payload.error;
             emitChange(onPostUploaded);
+        } else if (mMutationOutbox.hasNewerMutation(MutationOutbox.ENTITY_TYPE_POST, payload.site,
+                payload.post.getId())) {
+            // The post was edited again while being pushed: keep the local edits, which are pushed next, and only
+            // save the remote post ID so that they're pushed as an update of the uploaded post
+            List<PostModel> localPosts = mPostSqlUtils.getPostsByLocalOrRemotePostIds(
+                    Collections.singletonList(new LocalId(payload.post.getId())), payload.site.getId());
+            for (PostModel localPost : localPosts) {
+                localPost.setRemotePostId(payload.post.getRemotePostId());
+                localPost.setIsLocalDraft(false);
+                mPostSqlUtils.insertOrUpdatePostOverwritingLocalChanges(localPost);
+            }
+            mMutationOutbox.onMutationSucceeded(MutationOutbox.ENTITY_TYPE_POST, payload.site, payload.post.getId());
+            OnPostUploaded onPostUploaded = new OnPostUploaded(payload.post, payload.isFirstTimePublish);
+            onPostUploaded.isQueued = true;
+            emitChange(onPostUploaded);
         } else {
+            mMutationOutbox.onMutationSucceeded(MutationOutbox.ENTITY_TYPE_POST, payload.site, payload.post.getId());
             if (payload.site.isUsingWpComRestApi()) {
                 // The WP.COM REST API response contains the modified post, so we're already in sync with the server
                 // All we need to do is store it and emit OnPostChanged
@@ -1110,16 +1170,28 @@ public class PostStore extends Store {
     }
 
     private void pushPost(RemotePostPayload payload) {
-        if (payload.site.isUsingWpComRestApi()) {
-            mPostRestClient.pushPost(payload.post, payload.site, payload.isFirstTimePublish);
+        if (mMutationOutbox.recordMutation(MutationOutbox.ENTITY_TYPE_POST, payload.site, payload.post.getId(),
+                String.valueOf(payload.isFirstTimePublish))) {
+            // A push of this post is already pending, its latest local version will be pushed once it completes
+            OnPostUploaded onPostUploaded = new OnPostUploaded(payload.post, payload.isFirstTimePublish);
+            onPostUploaded.isQueued = true;
+            emitChange(onPostUploaded);
+            return;
+        }
+        sendPost(payload.post, payload.site, payload.isFirstTimePublish);
+    }
+
+    private void sendPost(PostModel post, SiteModel site, boolean isFirstTimePublish) {
+        if (site.isUsingWpComRestApi()) {
+            mPostRestClient.pushPost(post, site, isFirstTimePublish);
         } else {
             // TODO: check for WP-REST-API plugin and use it here
-            PostModel postToPush = payload.post;
+            PostModel postToPush = post;
             // empty status indicates that the post is new
             if (TextUtils.isEmpty(postToPush.getStatus())) {
                 postToPush.setStatus(PostStatus.PUBLISHED.toString());
             }
-            mPostXMLRPCClient.pushPost(postToPush, payload.site, payload.isFirstTimePublish);
+            mPostXMLRPCClient.pushPost(postToPush, site, isFirstTimePublish);
         }
     }
 
@@ -1,5 +1,6 @@
 package org.wordpress.android.fluxc.store
 
+import kotlinx.coroutines.flow.Flow
 import org.greenrobot.eventbus.Subscribe
 import org.greenrobot.eventbus.ThreadMode
 import org.wordpress.android.fluxc.Dispatcher
@@ -14,7 +15,11 @@ import org.wordpress.android.fluxc.action.ScanAction.START_SCAN
 import org.wordpress.android.fluxc.annotations.action.Action
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.scan.ScanStateModel
+import org.wordpress.android.fluxc.model.scan.ScanStateModel.State.PROVISIONING
+import org.wordpress.android.fluxc.model.scan.ScanStateModel.State.SCANNING
 import org.wordpress.android.fluxc.model.scan.threat.FixThreatStatusModel
+import org.wordpress.android.fluxc.model.scan.threat.FixThreatStatusModel.FixStatus.IN_PROGRESS
+import org.wordpress.android.fluxc.model.scan.threat.FixThreatStatusModel.FixStatus.NOT_STARTED
 import org.wordpress.android.fluxc.model.scan.threat.ThreatModel
 import org.wordpress.android.fluxc.model.scan.threat.ThreatModel.ThreatStatus
 import org.wordpress.android.fluxc.model.scan.threat.ThreatModel.ThreatStatus.CURRENT
@@ -25,6 +30,8 @@ import org.wordpress.android.fluxc.network.rest.wpcom.scan.ScanRestClient
 import org.wordpress.android.fluxc.persistence.ScanSqlUtils
 import org.wordpress.android.fluxc.persistence.ThreatSqlUtils
 import org.wordpress.android.fluxc.tools.CoroutineEngine
+import org.wordpress.android.fluxc.tools.JobStatusTracker
+import org.wordpress.android.fluxc.tools.TrackedJob
 import org.wordpress.android.fluxc.utils.AppLogWrapper
 import org.wordpress.android.fluxc.utils.BuildConfigWrapper
 import org.wordpress.android.util.AppLog
@@ -42,6 +49,7 @@ class ScanStore @Inject constructor(
     private val coroutineEngine: CoroutineEngine,
     private val appLogWrapper: AppLogWrapper,
     private val buildConfigWrapper: BuildConfigWrapper,
+    private val jobStatusTracker: JobStatusTracker,
     dispatcher: Dispatcher
 ) : Store(dispatcher) {
     @Subscribe(threadMode = ThreadMode.ASYNC)
@@ -120,6 +128,26 @@ class ScanStore @Inject constructor(
         return storeScanState(payload)
     }
 
+    /**
+     * Polls the scan state of the site while a scan is running, see [JobStatusTracker]. The flow completes once the
+     * scan is done, the state is read with [getScanStateForSite].
+     */
+    fun watchScanState(site: SiteModel): Flow<OnScanStateFetched> {
+        return jobStatusTracker.track("scan-state-${site.id}", object : TrackedJob<OnScanStateFetched> {
+            override suspend fun fetchStatus() = fetchScanState(FetchScanStatePayload(site))
+
+            override fun isError(status: OnScanStateFetched) = status.isError
+
+            override fun isTerminal(status: OnScanStateFetched): Boolean {
+                val state = scanSqlUtils.getScanStateForSite(site)?.state
+                return state != SCANNING && state != PROVISIONING
+            }
+
+            override fun progressOf(status: OnScanStateFetched) =
+                    scanSqlUtils.getScanStateForSite(site)?.currentStatus?.progress
+        })
+    }
+
     private suspend fun storeScanState(payload: FetchedScanStatePayload): OnScanStateFetched {
         return if (payload.error != null) {
             OnScanStateFetched(payload.error, FETCH_SCAN_STATE)
@@ -175,6 +203,24 @@ class ScanStore @Inject constructor(
         return emitFixThreatsStatus(resultPayload)
     }
 
+    /**
+     * Polls the fix status of the threats until none of them is waiting to be fixed or being fixed, see
+     * [JobStatusTracker].
+     */
+    fun watchFixThreatsStatus(remoteSiteId: Long, threatIds: List<Long>): Flow<OnFixThreatsStatusFetched> {
+        val key = "fix-threats-status-$remoteSiteId-${threatIds.sorted().joinToString(",")}"
+        return jobStatusTracker.track(key, object : TrackedJob<OnFixThreatsStatusFetched> {
+            override suspend fun fetchStatus() =
+                    fetchFixThreatsStatus(FetchFixThreatsStatusPayload(remoteSiteId, threatIds))
+
+            override fun isError(status: OnFixThreatsStatusFetched) = status.isError
+
+            override fun isTerminal(status: OnFixThreatsStatusFetched) = status.fixThreatStatusModels.none {
+                it.status == NOT_STARTED || it.status == IN_PROGRESS
+            }
+        })
+    }
+
     private fun emitFixThreatsStatus(payload: FetchFixThreatsStatusResultPayload) = if (payload.error != null) {
         OnFixThreatsStatusFetched(payload.remoteSiteId, payload.error, FETCH_FIX_THREATS_STATUS)
     } else {
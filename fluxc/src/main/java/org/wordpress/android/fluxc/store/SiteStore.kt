@@ -136,7 +136,14 @@ open class SiteStore
         @JvmField var url: String = ""
     ) : Payload<BaseNetworkError>()
 
-    data class FetchSitesPayload(@JvmField val filters: List<SiteFilter> = ArrayList()) : Payload<BaseNetworkError>()
+    /**
+     * @param inBatches true to save the sites in batches as they're parsed, emitting an [OnSitesFetchProgress] for
+     * each batch, so that large lists of sites can be displayed while they're still being fetched
+     */
+    data class FetchSitesPayload @JvmOverloads constructor(
+        @JvmField val filters: List<SiteFilter> = ArrayList(),
+        @JvmField val inBatches: Boolean = false
+    ) : Payload<BaseNetworkError>()
 
     data class NewSitePayload(
         @JvmField val siteName: String,
@@ -460,6 +467,15 @@ open class SiteStore
         constructor(siteError: SiteError) : this(0, siteError)
     }
 
+    /**
+     * Emitted for each batch of sites saved while fetching the sites with [FetchSitesPayload.inBatches], before the
+     * final [OnSiteChanged].
+     */
+    data class OnSitesFetchProgress(
+        @JvmField val fetchedCount: Int,
+        @JvmField val rowsAffected: Int
+    ) : OnChanged<SiteError>()
+
     data class OnSiteRemoved(@JvmField val mRowsAffected: Int) : OnChanged<SiteError>()
     data class OnAllSitesRemoved(@JvmField val mRowsAffected: Int) : OnChanged<SiteError>()
     data class OnBlockLayoutsFetched(
@@ -1255,10 +1271,38 @@ open class SiteStore
     }
 
     suspend fun fetchSites(payload: FetchSitesPayload): OnSiteChanged {
+        if (payload.inBatches) {
+            return fetchSitesInBatches(payload)
+        }
         val result = siteRestClient.fetchSites(payload.filters)
         return handleFetchedSitesWPComRest(result)
     }
 
+    private suspend fun fetchSitesInBatches(payload: FetchSitesPayload): OnSiteChanged {
+        var fetchedCount = 0
+        var rowsAffected = 0
+        var duplicateSiteFound = false
+        // The local sites are loaded once for all the batches, which are then reconciled against them in memory
+        val reconciliation by lazy { siteSqlUtils.newSitesReconciliation() }
+        val result = siteRestClient.fetchSitesInBatches(payload.filters) { sites ->
+            val res = siteSqlUtils.reconcileWPComRestSites(postSqlUtils, sites, false, reconciliation)
+            fetchedCount += sites.size
+            rowsAffected += res.rowsAffected
+            duplicateSiteFound = duplicateSiteFound || res.duplicateSiteFound
+            emitChange(OnSitesFetchProgress(fetchedCount, rowsAffected))
+        }
+        if (result.isError) {
+            return OnSiteChanged(SiteErrorUtils.genericToSiteError(result.error))
+        }
+        // The absent sites can only be removed once all the sites were received
+        siteSqlUtils.removeWPComRestSitesAbsentFromSiteIds(postSqlUtils, result.siteIds)
+        return if (duplicateSiteFound) {
+            OnSiteChanged(rowsAffected, SiteError(DUPLICATE_SITE))
+        } else {
+            OnSiteChanged(rowsAffected)
+        }
+    }
+
     suspend fun fetchSitesXmlRpc(payload: RefreshSitesXMLRPCPayload): OnSiteChanged {
         return updateSites(siteXMLRPCClient.fetchSites(payload.url, payload.username, payload.password))
     }
@@ -1319,14 +1363,14 @@ open class SiteStore
             // TODO: what kind of error could we get here?
             OnSiteChanged(SiteErrorUtils.genericToSiteError(fetchedSites.error))
         } else {
-            val res = createOrUpdateSites(fetchedSites)
-            val result = if (res.duplicateSiteFound) {
+            // Inserts, updates and removes the sites in bulk, accounts with many sites would otherwise run several
+            // queries per site
+            val res = siteSqlUtils.reconcileWPComRestSites(postSqlUtils, fetchedSites.sites)
+            if (res.duplicateSiteFound) {
                 OnSiteChanged(res.rowsAffected, SiteError(DUPLICATE_SITE))
             } else {
                 OnSiteChanged(res.rowsAffected)
             }
-            siteSqlUtils.removeWPComRestSitesAbsentFromList(postSqlUtils, fetchedSites.sites)
-            result
         }
     }
 
@@ -0,0 +1,193 @@
+package org.wordpress.android.fluxc.tools
+
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import org.wordpress.android.util.AppLog
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * A long-running server side job (a rewind, a backup download, a scan...) whose status is polled until it's done.
+ */
+interface TrackedJob<S> {
+    /**
+     * Fetches the current status of the job, usually storing it as well.
+     */
+    suspend fun fetchStatus(): S
+
+    fun isError(status: S): Boolean
+
+    /**
+     * Returns true if the job is done, successfully or not, and its status doesn't need to be polled anymore.
+     */
+    fun isTerminal(status: S): Boolean
+
+    /**
+     * Returns the progress of the job reported in the status, from 0 to 100, or null if the job doesn't report it.
+     */
+    fun progressOf(status: S): Int? = null
+}
+
+/**
+ * The delays between two polls of the status of a job. Without reported progress the delay backs off from
+ * [initialDelayMs] up to [maxDelayMs]. With reported progress the delay is sized so that about [progressPerPoll]
+ * percents are done between two polls, and so that the status is polled again when the job is expected to be done.
+ *
+ * @param maxConsecutiveErrors the number of failed polls in a row after which the job isn't polled anymore
+ */
+data class PollingPolicy(
+    val initialDelayMs: Long = 1000,
+    val maxDelayMs: Long = 30_000,
+    val backoffMultiplier: Double = 2.0,
+    val progressPerPoll: Int = 5,
+    val maxConsecutiveErrors: Int = 3
+) {
+    fun backOff(delayMs: Long) = clamp((delayMs * backoffMultiplier).toLong())
+
+    fun nextDelay(delayMs: Long, previousProgress: Int?, progress: Int?): Long {
+        return when {
+            previousProgress == null || progress == null -> backOff(delayMs)
+            // Either the first progress of a new run of the job or an unreliable report, start over
+            progress < previousProgress -> initialDelayMs
+            // The job is stalled, or waiting in a queue
+            progress == previousProgress -> backOff(delayMs)
+            else -> {
+                val msPerPercent = delayMs.toDouble() / (progress - previousProgress)
+                val remainingMs = msPerPercent * (PROGRESS_DONE - min(progress, PROGRESS_DONE))
+                clamp(min(msPerPercent * progressPerPoll, remainingMs).toLong())
+            }
+        }
+    }
+
+    private fun clamp(delayMs: Long) = min(max(delayMs, initialDelayMs), maxDelayMs)
+
+    companion object {
+        private const val PROGRESS_DONE = 100
+    }
+}
+
+/**
+ * Polls the status of long-running jobs with an adaptive delay, see [PollingPolicy].
+ *
+ * The watchers of a job are coalesced by key: the first watcher starts the polling, later watchers receive the latest
+ * status right away and then share the same polls, and the polling is cancelled once every watcher is gone.
+ */
+@Singleton
+class JobStatusTracker @Inject constructor(private val coroutineEngine: CoroutineEngine) {
+    private class Watch<S> {
+        val channels = mutableListOf<Channel<S>>()
+        var latestStatus: S? = null
+        @Volatile var pollingJob: Job? = null
+    }
+
+    private val watches = mutableMapOf<Any, Watch<*>>()
+
+    /**
+     * Returns the statuses of the job identified by [key], the flow completes after emitting a terminal status, or
+     * the error of the last failed poll once [PollingPolicy.maxConsecutiveErrors] is reached. Transient errors aren't
+     * emitted. Statuses are conflated, a slow collector only receives the latest of them. The flow fails with the
+     * exception thrown by [TrackedJob.fetchStatus], if any.
+     *
+     * @param key identifies the job, the same key must always be used with the same status type
+     */
+    fun <S> track(key: Any, job: TrackedJob<S>, policy: PollingPolicy = PollingPolicy()): Flow<S> = flow {
+        val channel = Channel<S>(Channel.CONFLATED)
+        val (watch, isNewWatch) = register(key, channel)
+        try {
+            if (isNewWatch) {
+                watch.pollingJob = coroutineEngine.launch(AppLog.T.API, this@JobStatusTracker, "Polling $key") {
+                    try {
+                        poll(key, watch, job, policy)
+                    } catch (e: CancellationException) {
+                        throw e
+                    } catch (e: Exception) {
+                        AppLog.e(AppLog.T.API, "Polling $key failed", e)
+                        fail(key, watch, e)
+                    }
+                }
+            }
+            for (status in channel) {
+                emit(status)
+            }
+        } finally {
+            unregister(key, watch, channel)
+        }
+    }
+
+    private suspend fun <S> poll(key: Any, watch: Watch<S>, job: TrackedJob<S>, policy: PollingPolicy) {
+        var delayMs = policy.initialDelayMs
+        var previousProgress: Int? = null
+        var consecutiveErrors = 0
+        while (true) {
+            val status = job.fetchStatus()
+            if (job.isError(status)) {
+                if (++consecutiveErrors >= policy.maxConsecutiveErrors) {
+                    finish(key, watch, status)
+                    return
+                }
+                delayMs = policy.backOff(delayMs)
+            } else {
+                consecutiveErrors = 0
+                if (job.isTerminal(status)) {
+                    finish(key, watch, status)
+                    return
+                }
+                publish(watch, status)
+                val progress = job.progressOf(status)
+                delayMs = policy.nextDelay(delayMs, previousProgress, progress)
+                previousProgress = progress
+            }
+            delay(delayMs)
+        }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun <S> register(key: Any, channel: Channel<S>): Pair<Watch<S>, Boolean> = synchronized(this) {
+        val existingWatch = watches[key] as Watch<S>?
+        val watch = existingWatch ?: Watch<S>().also { watches[key] = it }
+        watch.channels.add(channel)
+        watch.latestStatus?.let { channel.offer(it) }
+        Pair(watch, existingWatch == null)
+    }
+
+    private fun <S> unregister(key: Any, watch: Watch<S>, channel: Channel<S>) {
+        val pollingJob = synchronized(this) {
+            watch.channels.remove(channel)
+            if (watch.channels.isEmpty() && watches[key] === watch) {
+                watches.remove(key)
+                watch.pollingJob
+            } else {
+                null
+            }
+        }
+        pollingJob?.cancel()
+    }
+
+    private fun <S> publish(watch: Watch<S>, status: S) = synchronized(this) {
+        watch.latestStatus = status
+        watch.channels.forEach { it.offer(status) }
+    }
+
+    private fun <S> fail(key: Any, watch: Watch<S>, error: Throwable) = synchronized(this) {
+        if (watches[key] === watch) {
+            watches.remove(key)
+        }
+        watch.channels.forEach { it.close(error) }
+    }
+
+    private fun <S> finish(key: Any, watch: Watch<S>, status: S) = synchronized(this) {
+        if (watches[key] === watch) {
+            watches.remove(key)
+        }
+        watch.channels.forEach {
+            it.offer(status)
+            it.close()
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.wordpress.android.fluxc.tools
+
+/**
+ * A read-only list of [FormattableContent] that's only decoded from its [json] the first time it's accessed.
+ *
+ * Notifications and activities keep their formattable content as JSON in the DB and most of the screens that list
+ * them never look at it, so decoding it up front for every row is wasted work.
+ */
+class LazyFormattableContentList(
+    val json: String,
+    private val formattableContentMapper: FormattableContentMapper
+) : AbstractList<FormattableContent>() {
+    private val content: List<FormattableContent> by lazy {
+        formattableContentMapper.mapToFormattableContentList(json).orEmpty()
+    }
+
+    override val size: Int
+        get() = content.size
+
+    override fun get(index: Int): FormattableContent = content[index]
+}
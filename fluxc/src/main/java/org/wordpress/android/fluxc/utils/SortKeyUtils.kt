@@ -0,0 +1,12 @@
+package org.wordpress.android.fluxc.utils
+
+import java.util.Locale
+
+object SortKeyUtils {
+    /**
+     * Returns the key that [value] is sorted by in SQL, for case-insensitive sorting. SQLite's LOWER only folds ASCII
+     * characters, so the keys are always computed here, including when a migration backfills them.
+     */
+    @JvmStatic
+    fun toSortKey(value: String): String = value.toLowerCase(Locale.getDefault())
+}
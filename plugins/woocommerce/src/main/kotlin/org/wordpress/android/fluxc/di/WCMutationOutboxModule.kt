@@ -0,0 +1,17 @@
+package org.wordpress.android.fluxc.di
+
+import dagger.Module
+import dagger.Provides
+import dagger.multibindings.IntoMap
+import dagger.multibindings.StringKey
+import org.wordpress.android.fluxc.outbox.MutationOutbox.Replayer
+import org.wordpress.android.fluxc.store.WCProductStore
+
+/**
+ * Adds the replayers of the WooCommerce stores to the [org.wordpress.android.fluxc.outbox.MutationOutbox].
+ */
+@Module
+class WCMutationOutboxModule {
+    @Provides @IntoMap @StringKey(WCProductStore.ENTITY_TYPE_PRODUCT)
+    fun provideWCProductReplayer(store: WCProductStore): Replayer = store.outboxReplayer
+}
@@ -0,0 +1,34 @@
+package org.wordpress.android.fluxc.di
+
+import dagger.Module
+import dagger.Provides
+import dagger.multibindings.IntoSet
+import org.wordpress.android.fluxc.StoreRegistry.Registration
+import org.wordpress.android.fluxc.action.WCCoreAction
+import org.wordpress.android.fluxc.action.WCOrderAction
+import org.wordpress.android.fluxc.action.WCProductAction
+import org.wordpress.android.fluxc.action.WCStatsAction
+import org.wordpress.android.fluxc.store.WCOrderStore
+import org.wordpress.android.fluxc.store.WCProductStore
+import org.wordpress.android.fluxc.store.WCStatsStore
+import org.wordpress.android.fluxc.store.WooCommerceStore
+import javax.inject.Provider
+
+/**
+ * Registers the WooCommerce stores with the [org.wordpress.android.fluxc.StoreRegistry], to be installed along with
+ * [org.wordpress.android.fluxc.module.StoreRegistryModule].
+ */
+@Module
+class WCStoreRegistryModule {
+    @Provides @IntoSet fun provideWooCommerceStoreRegistration(store: Provider<WooCommerceStore>) =
+            Registration(store, WCCoreAction::class.java)
+
+    @Provides @IntoSet fun provideWCOrderStoreRegistration(store: Provider<WCOrderStore>) =
+            Registration(store, WCOrderAction::class.java)
+
+    @Provides @IntoSet fun provideWCProductStoreRegistration(store: Provider<WCProductStore>) =
+            Registration(store, WCProductAction::class.java)
+
+    @Provides @IntoSet fun provideWCStatsStoreRegistration(store: Provider<WCStatsStore>) =
+            Registration(store, WCStatsAction::class.java)
+}
@@ -0,0 +1,16 @@
+package org.wordpress.android.fluxc.di
+
+import dagger.Module
+import dagger.Provides
+import dagger.multibindings.IntoSet
+import org.greenrobot.eventbus.meta.SubscriberInfoIndex
+import org.wordpress.android.fluxc.generated.WCSubscriberIndex
+
+/**
+ * Adds the EventBus subscriber index generated for the WooCommerce stores to the
+ * [org.wordpress.android.fluxc.Dispatcher].
+ */
+@Module
+class WCSubscriberIndexModule {
+    @Provides @IntoSet fun provideWCSubscriberIndex(): SubscriberInfoIndex = WCSubscriberIndex()
+}
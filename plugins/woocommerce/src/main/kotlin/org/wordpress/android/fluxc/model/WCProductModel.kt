@@ -16,6 +16,7 @@ import org.wordpress.android.fluxc.network.utils.getLong
 import org.wordpress.android.fluxc.network.utils.getString
 import org.wordpress.android.fluxc.persistence.WCGlobalAttributeSqlUtils
 import org.wordpress.android.fluxc.persistence.WellSqlConfig
+import org.wordpress.android.fluxc.utils.SortKeyUtils
 import org.wordpress.android.util.AppLog
 import org.wordpress.android.util.AppLog.T
 
@@ -32,6 +33,11 @@ data class WCProductModel(@PrimaryKey @Column private var id: Int = 0) : Identif
     @Column var localSiteId = 0
     @Column var remoteProductId = 0L // The unique identifier for this product on the server
     @Column var name = ""
+        set(value) {
+            field = value
+            nameSortKey = SortKeyUtils.toSortKey(value)
+        }
+    @Column var nameSortKey = "" // Lowercase copy of the name, used for case-insensitive sorting in SQL
     @Column var slug = ""
     @Column var permalink = ""
 
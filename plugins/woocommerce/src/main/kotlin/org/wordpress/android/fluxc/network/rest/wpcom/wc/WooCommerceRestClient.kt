@@ -11,6 +11,7 @@ import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.WCProductSettingsModel
 import org.wordpress.android.fluxc.model.WCSettingsModel
 import org.wordpress.android.fluxc.model.WCSettingsModel.CurrencyPosition
+import org.wordpress.android.fluxc.network.CachePolicy
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.discovery.RootWPAPIRestResponse
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
@@ -133,6 +134,7 @@ class WooCommerceRestClient @Inject constructor(
                     dispatcher.dispatch(WCCoreActionBuilder.newFetchedSiteSettingsAction(payload))
                 },
                 { request: WPComGsonRequest<*> -> add(request) })
+        request?.enableCaching(CachePolicy.REVALIDATE)
         add(request)
     }
 
@@ -164,6 +166,7 @@ class WooCommerceRestClient @Inject constructor(
                     dispatcher.dispatch(WCCoreActionBuilder.newFetchedProductSettingsAction(payload))
                 },
                 { request: WPComGsonRequest<*> -> add(request) })
+        request?.enableCaching(CachePolicy.REVALIDATE)
         add(request)
     }
 
@@ -17,6 +17,7 @@ import org.wordpress.android.fluxc.model.WCOrderShipmentProviderModel
 import org.wordpress.android.fluxc.model.WCOrderShipmentTrackingModel
 import org.wordpress.android.fluxc.model.WCOrderStatusModel
 import org.wordpress.android.fluxc.model.WCOrderSummaryModel
+import org.wordpress.android.fluxc.network.RequestPriority
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
@@ -163,6 +164,7 @@ class OrderRestClient @Inject constructor(
                     dispatcher.dispatch(WCOrderActionBuilder.newFetchedOrderListAction(payload))
                 },
                 { request: WPComGsonRequest<*> -> add(request) })
+        request?.setRequestPriority(RequestPriority.BACKGROUND_SYNC)
         add(request)
     }
 
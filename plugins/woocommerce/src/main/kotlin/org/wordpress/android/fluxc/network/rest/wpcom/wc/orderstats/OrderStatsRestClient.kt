@@ -14,7 +14,7 @@ import org.wordpress.android.fluxc.model.WCOrderStatsModel
 import org.wordpress.android.fluxc.model.WCRevenueStatsModel
 import org.wordpress.android.fluxc.model.WCTopEarnerModel
 import org.wordpress.android.fluxc.model.WCVisitorStatsModel
-import org.wordpress.android.fluxc.network.BaseRequest
+import org.wordpress.android.fluxc.network.CachePolicy
 import org.wordpress.android.fluxc.network.UserAgent
 import org.wordpress.android.fluxc.network.rest.wpcom.BaseWPComRestClient
 import org.wordpress.android.fluxc.network.rest.wpcom.WPComGsonRequest
@@ -157,7 +157,7 @@ class OrderStatsRestClient @Inject constructor(
                     mDispatcher.dispatch(WCStatsActionBuilder.newFetchedOrderStatsAction(payload))
                 })
 
-        request.enableCaching(BaseRequest.DEFAULT_CACHE_LIFETIME)
+        request.enableCaching(CachePolicy.SHORT_LIVED)
         if (force) request.setShouldForceUpdate()
 
         add(request)
@@ -219,7 +219,7 @@ class OrderStatsRestClient @Inject constructor(
                 },
                 { request: WPComGsonRequest<*> -> add(request) })
 
-        request?.enableCaching(BaseRequest.DEFAULT_CACHE_LIFETIME)
+        request?.enableCaching(CachePolicy.SHORT_LIVED)
         if (force) request?.setShouldForceUpdate()
 
         add(request)
@@ -300,7 +300,7 @@ class OrderStatsRestClient @Inject constructor(
                             mDispatcher.dispatch(WCStatsActionBuilder.newFetchedVisitorStatsAction(payload))
                         })
 
-        request.enableCaching(BaseRequest.DEFAULT_CACHE_LIFETIME)
+        request.enableCaching(CachePolicy.SHORT_LIVED)
         if (force) request.setShouldForceUpdate()
 
         add(request)
@@ -347,7 +347,7 @@ class OrderStatsRestClient @Inject constructor(
                             mDispatcher.dispatch(WCStatsActionBuilder.newFetchedNewVisitorStatsAction(payload))
                         })
 
-        request.enableCaching(BaseRequest.DEFAULT_CACHE_LIFETIME)
+        request.enableCaching(CachePolicy.SHORT_LIVED)
         if (force) request.setShouldForceUpdate()
 
         add(request)
@@ -389,7 +389,7 @@ class OrderStatsRestClient @Inject constructor(
                     mDispatcher.dispatch(WCStatsActionBuilder.newFetchedTopEarnersStatsAction(payload))
                 })
 
-        request.enableCaching(BaseRequest.DEFAULT_CACHE_LIFETIME)
+        request.enableCaching(CachePolicy.SHORT_LIVED)
         if (force) request.setShouldForceUpdate()
 
         add(request)
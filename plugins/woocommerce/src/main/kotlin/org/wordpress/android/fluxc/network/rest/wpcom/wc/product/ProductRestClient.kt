@@ -669,6 +669,7 @@ class ProductRestClient @Inject constructor(
                     )
                     dispatcher.dispatch(WCProductActionBuilder.newUpdatedProductAction(payload))
                 })
+        request?.enableBodyCompression()
         add(request)
     }
 
@@ -8,6 +8,7 @@ import com.wellsql.generated.WCProductReviewModelTable
 import com.wellsql.generated.WCProductShippingClassModelTable
 import com.wellsql.generated.WCProductTagModelTable
 import com.wellsql.generated.WCProductVariationModelTable
+import com.yarolegovich.wellsql.ConditionClauseBuilder
 import com.yarolegovich.wellsql.SelectQuery
 import com.yarolegovich.wellsql.WellSql
 import org.wordpress.android.fluxc.model.SiteModel
@@ -19,11 +20,14 @@ import org.wordpress.android.fluxc.model.WCProductShippingClassModel
 import org.wordpress.android.fluxc.model.WCProductTagModel
 import org.wordpress.android.fluxc.model.WCProductVariationModel
 import org.wordpress.android.fluxc.store.WCProductStore.Companion.DEFAULT_CATEGORY_SORTING
+import org.wordpress.android.fluxc.store.WCProductStore.Companion.DEFAULT_PRODUCT_PAGE_SIZE
 import org.wordpress.android.fluxc.store.WCProductStore.Companion.DEFAULT_PRODUCT_SORTING
 import org.wordpress.android.fluxc.store.WCProductStore.ProductCategorySorting
 import org.wordpress.android.fluxc.store.WCProductStore.ProductCategorySorting.NAME_ASC
 import org.wordpress.android.fluxc.store.WCProductStore.ProductCategorySorting.NAME_DESC
 import org.wordpress.android.fluxc.store.WCProductStore.ProductFilterOption
+import org.wordpress.android.fluxc.store.WCProductStore.ProductPage
+import org.wordpress.android.fluxc.store.WCProductStore.ProductPageKey
 import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting
 import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.DATE_ASC
 import org.wordpress.android.fluxc.store.WCProductStore.ProductSorting.DATE_DESC
@@ -127,7 +131,75 @@ object ProductSqlUtils {
         val queryBuilder = WellSql.select(WCProductModel::class.java)
                 .where().beginGroup()
                 .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
+        applyProductFilters(queryBuilder, filterOptions, excludedProductIds)
 
+        val sortOrder = getProductSortOrder(sortType)
+        return queryBuilder
+                .endGroup().endWhere()
+                .orderBy(getProductSortField(sortType), sortOrder)
+                .orderBy(WCProductModelTable.ID, sortOrder)
+                .asModel
+    }
+
+    /**
+     * Returns a single page of products for the given [site], matching the [filterOptions] and sorted by [sortType].
+     *
+     * Uses keyset pagination on the sort field and the local id of the product: [afterKey] is the key of the last
+     * product of the previous page, or null for the first page. Since filtering, sorting and limiting all happen in
+     * SQL, only [pageSize] products are ever loaded into memory.
+     */
+    fun getProductsPage(
+        site: SiteModel,
+        filterOptions: Map<ProductFilterOption, String> = emptyMap(),
+        sortType: ProductSorting = DEFAULT_PRODUCT_SORTING,
+        excludedProductIds: List<Long>? = null,
+        pageSize: Int = DEFAULT_PRODUCT_PAGE_SIZE,
+        afterKey: ProductPageKey? = null
+    ): ProductPage {
+        val queryBuilder = WellSql.select(WCProductModel::class.java)
+                .where().beginGroup()
+                .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
+        applyProductFilters(queryBuilder, filterOptions, excludedProductIds)
+
+        val sortField = getProductSortField(sortType)
+        val sortOrder = getProductSortOrder(sortType)
+        afterKey?.let { key ->
+            // (sortField, _id) > (key.sortKey, key.id) for ascending and < for descending order
+            queryBuilder.beginGroup()
+            if (sortOrder == SelectQuery.ORDER_ASCENDING) {
+                queryBuilder.greaterThen(sortField, key.sortKey)
+            } else {
+                queryBuilder.lessThen(sortField, key.sortKey)
+            }
+            queryBuilder.or().beginGroup().equals(sortField, key.sortKey)
+            if (sortOrder == SelectQuery.ORDER_ASCENDING) {
+                queryBuilder.greaterThen(WCProductModelTable.ID, key.id)
+            } else {
+                queryBuilder.lessThen(WCProductModelTable.ID, key.id)
+            }
+            queryBuilder.endGroup().endGroup()
+        }
+
+        // Fetch one extra row to find out whether there is a next page without running a separate count query
+        val products = queryBuilder
+                .endGroup().endWhere()
+                .orderBy(sortField, sortOrder)
+                .orderBy(WCProductModelTable.ID, sortOrder)
+                .limit(pageSize + 1)
+                .asModel
+
+        val pageProducts = products.take(pageSize)
+        val nextPageKey = if (products.size > pageSize) {
+            pageProducts.last().let { ProductPageKey(getProductSortKey(it, sortType), it.id) }
+        } else null
+        return ProductPage(pageProducts, nextPageKey)
+    }
+
+    private fun applyProductFilters(
+        queryBuilder: ConditionClauseBuilder<SelectQuery<WCProductModel>>,
+        filterOptions: Map<ProductFilterOption, String>,
+        excludedProductIds: List<Long>?
+    ) {
         if (filterOptions.containsKey(ProductFilterOption.STATUS)) {
             queryBuilder.equals(WCProductModelTable.STATUS, filterOptions[ProductFilterOption.STATUS])
         }
@@ -149,37 +221,25 @@ object ProductSqlUtils {
                 queryBuilder.isNotIn(WCProductModelTable.REMOTE_PRODUCT_ID, it)
             }
         }
+    }
 
-        val sortOrder = when (sortType) {
-            TITLE_ASC, DATE_ASC -> SelectQuery.ORDER_ASCENDING
-            TITLE_DESC, DATE_DESC -> SelectQuery.ORDER_DESCENDING
-        }
-        val sortField = when (sortType) {
-            TITLE_ASC, TITLE_DESC -> WCProductModelTable.NAME
-            DATE_ASC, DATE_DESC -> WCProductModelTable.DATE_CREATED
-        }
-
-        val products = queryBuilder
-                .endGroup().endWhere()
-                .orderBy(sortField, sortOrder)
-                .asModel
-
-        return if (sortType == TITLE_ASC || sortType == TITLE_DESC) {
-            sortProductsByName(products, descending = sortType == TITLE_DESC)
-        } else {
-            products
-        }
+    private fun getProductSortOrder(sortType: ProductSorting) = when (sortType) {
+        TITLE_ASC, DATE_ASC -> SelectQuery.ORDER_ASCENDING
+        TITLE_DESC, DATE_DESC -> SelectQuery.ORDER_DESCENDING
     }
 
     /**
-     * WellSQL doesn't support "COLLATE NOCASE" so we have to manually provide case-insensitive sorting
+     * WellSQL doesn't support "COLLATE NOCASE" so title sorting uses the lowercase name that's persisted in
+     * [WCProductModel.nameSortKey].
      */
-    private fun sortProductsByName(products: List<WCProductModel>, descending: Boolean): List<WCProductModel> {
-        return if (descending) {
-            products.sortedByDescending { it.name.toLowerCase(Locale.getDefault()) }
-        } else {
-            products.sortedBy { it.name.toLowerCase(Locale.getDefault()) }
-        }
+    private fun getProductSortField(sortType: ProductSorting) = when (sortType) {
+        TITLE_ASC, TITLE_DESC -> WCProductModelTable.NAME_SORT_KEY
+        DATE_ASC, DATE_DESC -> WCProductModelTable.DATE_CREATED
+    }
+
+    private fun getProductSortKey(product: WCProductModel, sortType: ProductSorting) = when (sortType) {
+        TITLE_ASC, TITLE_DESC -> product.nameSortKey
+        DATE_ASC, DATE_DESC -> product.dateCreated
     }
 
     fun geProductExistsByRemoteId(site: SiteModel, remoteProductId: Long): Boolean {
@@ -204,26 +264,14 @@ object ProductSqlUtils {
         site: SiteModel,
         sortType: ProductSorting = DEFAULT_PRODUCT_SORTING
     ): List<WCProductModel> {
-        val sortOrder = when (sortType) {
-            TITLE_ASC, DATE_ASC -> SelectQuery.ORDER_ASCENDING
-            TITLE_DESC, DATE_DESC -> SelectQuery.ORDER_DESCENDING
-        }
-        val sortField = when (sortType) {
-            TITLE_ASC, TITLE_DESC -> WCProductModelTable.NAME
-            DATE_ASC, DATE_DESC -> WCProductModelTable.DATE_CREATED
-        }
-        val products = WellSql.select(WCProductModel::class.java)
+        val sortOrder = getProductSortOrder(sortType)
+        return WellSql.select(WCProductModel::class.java)
                 .where()
                 .equals(WCProductModelTable.LOCAL_SITE_ID, site.id)
                 .endWhere()
-                .orderBy(sortField, sortOrder)
+                .orderBy(getProductSortField(sortType), sortOrder)
+                .orderBy(WCProductModelTable.ID, sortOrder)
                 .asModel
-
-        return if (sortType == TITLE_ASC || sortType == TITLE_DESC) {
-            sortProductsByName(products, descending = sortType == TITLE_DESC)
-        } else {
-            products
-        }
     }
 
     fun deleteProductsForSite(site: SiteModel): Int {
@@ -28,6 +28,7 @@ import org.wordpress.android.fluxc.network.rest.wpcom.wc.WooResult
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.addons.mappers.MappingRemoteException
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.addons.mappers.RemoteAddonMapper
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.product.ProductRestClient
+import org.wordpress.android.fluxc.outbox.MutationOutbox
 import org.wordpress.android.fluxc.persistence.ProductSqlUtils
 import org.wordpress.android.fluxc.persistence.ProductSqlUtils.deleteVariationsForProduct
 import org.wordpress.android.fluxc.persistence.ProductSqlUtils.insertOrUpdateProductVariation
@@ -50,9 +51,11 @@ class WCProductStore @Inject constructor(
     private val wcProductRestClient: ProductRestClient,
     private val coroutineEngine: CoroutineEngine? = null,
     private val addonsDao: AddonsDao,
-    private val logger: AppLogWrapper
+    private val logger: AppLogWrapper,
+    private val mutationOutbox: MutationOutbox? = null
 ) : Store(dispatcher) {
     companion object {
+        const val ENTITY_TYPE_PRODUCT = "WC_PRODUCT"
         const val NUM_REVIEWS_PER_FETCH = 25
         const val DEFAULT_PRODUCT_PAGE_SIZE = 25
         const val DEFAULT_PRODUCT_CATEGORY_PAGE_SIZE = 100
@@ -63,6 +66,20 @@ class WCProductStore @Inject constructor(
         val DEFAULT_CATEGORY_SORTING = NAME_ASC
     }
 
+    /**
+     * Replayer of the product updates recorded in the [MutationOutbox].
+     */
+    val outboxReplayer: MutationOutbox.Replayer = object : MutationOutbox.Replayer {
+        override fun replay(site: SiteModel, entityId: Long, payload: String?) {
+            val product = Gson().fromJson(payload, WCProductModel::class.java)
+            if (product == null) {
+                mutationOutbox?.onMutationSucceeded(ENTITY_TYPE_PRODUCT, site, entityId)
+            } else {
+                sendProductUpdate(site, product)
+            }
+        }
+    }
+
     /**
      * Defines the filter options currently supported in the app
      */
@@ -238,6 +255,22 @@ class WCProductStore @Inject constructor(
         DATE_DESC
     }
 
+    /**
+     * The position of the last product of a [ProductPage], used to request the page that follows it.
+     *
+     * @property sortKey Value of the sort field of the product, the lowercase name for title sorting or the creation
+     * date for date sorting
+     * @property id Local id of the product, used as a tie breaker for products with the same [sortKey]
+     */
+    data class ProductPageKey(val sortKey: String, val id: Int)
+
+    /**
+     * A page of products read from the database.
+     *
+     * @property nextPageKey Key to request the next page with, or null if this is the last page
+     */
+    class ProductPage(val products: List<WCProductModel>, val nextPageKey: ProductPageKey?)
+
     enum class ProductCategorySorting {
         NAME_ASC,
         NAME_DESC
@@ -597,7 +630,9 @@ class WCProductStore @Inject constructor(
 
     class OnProductUpdated(
         var rowsAffected: Int,
-        var remoteProductId: Long
+        var remoteProductId: Long,
+        // True when the update was queued behind a pending update of the same product, rather than sent
+        var isQueued: Boolean = false
     ) : OnChanged<ProductError>() {
         var causeOfChange: WCProductAction? = null
     }
@@ -697,6 +732,20 @@ class WCProductStore @Inject constructor(
     ): List<WCProductModel> =
             ProductSqlUtils.getProductsByFilterOptions(site, filterOptions, sortType, excludedProductIds)
 
+    /**
+     * returns a single page of [WCProductModel] for the given [SiteModel] and [filterOptions] from the database,
+     * starting after [afterKey]. Pass [ProductPage.nextPageKey] of the previous page to get the following one.
+     */
+    fun getProductsPage(
+        site: SiteModel,
+        filterOptions: Map<ProductFilterOption, String> = emptyMap(),
+        sortType: ProductSorting = DEFAULT_PRODUCT_SORTING,
+        excludedProductIds: List<Long>? = null,
+        pageSize: Int = DEFAULT_PRODUCT_PAGE_SIZE,
+        afterKey: ProductPageKey? = null
+    ): ProductPage =
+            ProductSqlUtils.getProductsPage(site, filterOptions, sortType, excludedProductIds, pageSize, afterKey)
+
     fun getProductsForSite(site: SiteModel, sortType: ProductSorting = DEFAULT_PRODUCT_SORTING) =
             ProductSqlUtils.getProductsForSite(site, sortType)
 
@@ -1017,11 +1066,26 @@ class WCProductStore @Inject constructor(
 
     private fun updateProduct(payload: UpdateProductPayload) {
         with(payload) {
-            val storedProduct = getProductByRemoteId(site, product.remoteProductId)
-            wcProductRestClient.updateProduct(site, storedProduct, product)
+            // Products are only saved locally once updated, so the outbox keeps the latest version to send
+            val isCoalesced = mutationOutbox?.recordMutation(
+                    ENTITY_TYPE_PRODUCT, site, product.remoteProductId, Gson().toJson(product)
+            ) ?: false
+            if (isCoalesced) {
+                // An update of this product is already pending, its latest version will be sent once it completes
+                emitChange(OnProductUpdated(0, product.remoteProductId, isQueued = true).also {
+                    it.causeOfChange = WCProductAction.UPDATED_PRODUCT
+                })
+            } else {
+                sendProductUpdate(site, product)
+            }
         }
     }
 
+    private fun sendProductUpdate(site: SiteModel, product: WCProductModel) {
+        val storedProduct = getProductByRemoteId(site, product.remoteProductId)
+        wcProductRestClient.updateProduct(site, storedProduct, product)
+    }
+
     private fun updateVariation(payload: UpdateVariationPayload) {
         with(payload) {
             val storedVariation = getVariationByRemoteId(site, variation.remoteProductId, variation.remoteVariationId)
@@ -1302,9 +1366,17 @@ class WCProductStore @Inject constructor(
         val onProductUpdated: OnProductUpdated
 
         if (payload.isError) {
+            mutationOutbox?.onMutationFailed(ENTITY_TYPE_PRODUCT, payload.site, payload.product.remoteProductId)
             onProductUpdated = OnProductUpdated(0, payload.product.remoteProductId)
                     .also { it.error = payload.error }
+        } else if (mutationOutbox?.hasNewerMutation(
+                        ENTITY_TYPE_PRODUCT, payload.site, payload.product.remoteProductId
+                ) == true) {
+            // The product was updated again while being sent: the response is stale, the newer update is sent next
+            mutationOutbox?.onMutationSucceeded(ENTITY_TYPE_PRODUCT, payload.site, payload.product.remoteProductId)
+            onProductUpdated = OnProductUpdated(0, payload.product.remoteProductId, isQueued = true)
         } else {
+            mutationOutbox?.onMutationSucceeded(ENTITY_TYPE_PRODUCT, payload.site, payload.product.remoteProductId)
             val rowsAffected = ProductSqlUtils.insertOrUpdateProduct(payload.product)
             onProductUpdated = OnProductUpdated(rowsAffected, payload.product.remoteProductId)
         }
@@ -1,6 +1,7 @@
 package org.wordpress.android.fluxc.store
 
 import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.toList
 import org.wordpress.android.fluxc.model.SiteModel
 import org.wordpress.android.fluxc.model.shippinglabels.WCAddressVerificationResult
 import org.wordpress.android.fluxc.model.shippinglabels.WCAddressVerificationResult.InvalidAddress
@@ -37,7 +38,9 @@ import org.wordpress.android.fluxc.network.rest.wpcom.wc.shippinglabels.Shipping
 import org.wordpress.android.fluxc.network.rest.wpcom.wc.shippinglabels.UpdateSettingsApiRequest
 import org.wordpress.android.fluxc.persistence.WCShippingLabelSqlUtils
 import org.wordpress.android.fluxc.tools.CoroutineEngine
-import org.wordpress.android.fluxc.utils.Poller
+import org.wordpress.android.fluxc.tools.JobStatusTracker
+import org.wordpress.android.fluxc.tools.PollingPolicy
+import org.wordpress.android.fluxc.tools.TrackedJob
 import org.wordpress.android.util.AppLog
 import javax.inject.Inject
 import javax.inject.Singleton
@@ -46,7 +49,8 @@ import javax.inject.Singleton
 class WCShippingLabelStore @Inject constructor(
     private val restClient: ShippingLabelRestClient,
     private val coroutineEngine: CoroutineEngine,
-    private val mapper: WCShippingLabelMapper
+    private val mapper: WCShippingLabelMapper,
+    private val jobStatusTracker: JobStatusTracker
 ) {
     /**
      * returns a list of shipping labels for an order from the database
@@ -459,32 +463,35 @@ class WCShippingLabelStore @Inject constructor(
         orderId: Long,
         labelIds: List<Long>
     ): WooPayload<ShippingLabelStatusApiResponse> {
-        val poller = Poller(delayInMs = 1000, maxRetries = 3)
         val remainingLabels: MutableList<Long> = labelIds.toMutableList()
         val doneLabels: MutableList<LabelItem> = mutableListOf()
 
-        val response = poller.poll(
-                request = {
-                    restClient.fetchShippingLabelsStatus(
-                            site,
-                            orderId,
-                            remainingLabels.toList()
-                    )
-                },
-                predicate = { response ->
-                    // Stop the polling if the response has an error after the retries
-                    if (response.isError || response.result!!.labels == null) return@poll true
-                    // Stop the polling if the purchase of one of the labels failed
-                    if (response.result.labels!!.any { it.status == LabelItem.STATUS_ERROR }) return@poll true
-
-                    val purchasedLabels = response.result.labels.filter { it.status == LabelItem.STATUS_PURCHASED }
+        val purchase = object : TrackedJob<WooPayload<ShippingLabelStatusApiResponse>> {
+            override suspend fun fetchStatus(): WooPayload<ShippingLabelStatusApiResponse> {
+                val response = restClient.fetchShippingLabelsStatus(site, orderId, remainingLabels.toList())
+                response.result?.labels?.filter { it.status == LabelItem.STATUS_PURCHASED }?.let { purchasedLabels ->
                     doneLabels.addAll(purchasedLabels)
                     remainingLabels.removeAll { labelId ->
                         purchasedLabels.any { it.labelId == labelId }
                     }
-                    remainingLabels.isEmpty()
                 }
-        )
+                return response
+            }
+
+            override fun isError(status: WooPayload<ShippingLabelStatusApiResponse>) = status.isError
+
+            override fun isTerminal(status: WooPayload<ShippingLabelStatusApiResponse>): Boolean {
+                val labels = status.result?.labels ?: return true
+                // Stop the polling if the purchase of one of the labels failed
+                return labels.any { it.status == LabelItem.STATUS_ERROR } || remainingLabels.isEmpty()
+            }
+        }
+        // The ids of the labels are unique to this purchase, no other watcher shares the accumulated labels
+        val response = jobStatusTracker.track(
+                key = "shipping-labels-purchase-${site.id}-$orderId-${labelIds.joinToString(",")}",
+                job = purchase,
+                policy = PollingPolicy(initialDelayMs = 1000, maxDelayMs = 4000, maxConsecutiveErrors = 3)
+        ).toList().last()
 
         return when {
             response.isError -> {